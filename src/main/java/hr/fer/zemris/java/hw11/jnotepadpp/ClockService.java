@@ -0,0 +1,141 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Razred koji predstavlja jedinstveni izvor otkucaja sata za cijeli program.
+ * Razred koristi oblikovni obrazac
+ * <a href = "https://en.wikipedia.org/wiki/Singleton_pattern">jedinstveni
+ * objekt</a> te se njegovom jedinom primjerku pristupa metodom
+ * {@link #getInstance()}. Jedan primjerak razreda {@link Timer} svake sekunde
+ * (poravnato s početkom sekunde) jednom formatira trenutno vrijeme u obliku
+ * <b>yyyy/MM/dd HH:mm:ss</b> i o tome obavještava registrirane promatrače.
+ * Brojač radi samo dok postoji barem jedan promatrač, pa se odjavom
+ * posljednjeg promatrača zaustavlja.
+ *
+ * <p>
+ * Napomena: razred se smije koristiti isključivo iz dretve za obradu
+ * događaja
+ * </p>
+ *
+ * @see Clock
+ *
+ * @author Davor Češljaš
+ */
+public class ClockService {
+
+	/** Konstanta koja predstavlja 1 sekudnu izraženu u milisekundama */
+	private static final int SECOND = 1000;
+
+	/**
+	 * Konstanta koja predstavlja primjerak razreda {@link DateTimeFormatter}
+	 * koji se koristi za formatiranje datuma i vremena
+	 */
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final ClockService INSTANCE = new ClockService();
+
+	/**
+	 * Članska varijabla koja predstavlja brojač koji svake sekunde okida
+	 * metodu {@link #tick()}
+	 */
+	private final Timer timer = new Timer(SECOND, e -> tick());
+
+	/** Članska varijabla koja predstavlja posljednje formatirano vrijeme */
+	private String time = format();
+
+	/**
+	 * Članska varijabla koja predstavlja {@link List}u promatrača na promjenu
+	 * vremena
+	 */
+	private final List<ChangeListener> listeners = new ArrayList<>();
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 * izvan njega samog
+	 */
+	private ClockService() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static ClockService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Metoda koja dohvaća trenutno vrijeme formatirano u obliku
+	 * <b>yyyy/MM/dd HH:mm:ss</b>
+	 *
+	 * @return trenutno formatirano vrijeme
+	 */
+	public String getTime() {
+		if (!timer.isRunning()) {
+			time = format();
+		}
+		return time;
+	}
+
+	/**
+	 * Metoda koja registrira promatrača na promjenu vremena. Registracijom
+	 * prvog promatrača pokreće se brojač
+	 *
+	 * @param listener
+	 *            promatrač koji se registrira
+	 */
+	public void addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+		if (!timer.isRunning()) {
+			time = format();
+			// otkucaji se poravnavaju s početkom sljedeće sekunde
+			timer.setInitialDelay(SECOND - (int) (System.currentTimeMillis() % SECOND));
+			timer.start();
+		}
+	}
+
+	/**
+	 * Metoda koja odjavljuje promatrača na promjenu vremena. Odjavom
+	 * posljednjeg promatrača brojač se zaustavlja
+	 *
+	 * @param listener
+	 *            promatrač koji se odjavljuje
+	 */
+	public void removeChangeListener(ChangeListener listener) {
+		listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva svake sekunde. Metoda jednom formatira
+	 * vrijeme i obavještava sve promatrače
+	 */
+	private void tick() {
+		time = format();
+		ChangeEvent event = new ChangeEvent(this);
+		for (ChangeListener listener : new ArrayList<>(listeners)) {
+			listener.stateChanged(event);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja formatira trenutno vrijeme
+	 *
+	 * @return trenutno formatirano vrijeme
+	 */
+	private static String format() {
+		return LocalDateTime.now().format(FORMATTER);
+	}
+}
@@ -0,0 +1,382 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.regex.PatternSyntaxException;
+
+import javax.swing.Action;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.UIManager;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.local.AbstractLocalizedAction;
+import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizedLabel;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.DocumentSearch;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchQuery;
+
+/**
+ * Razred nasljeđuje razred {@link JPanel}, a predstavlja traku za
+ * pretraživanje i zamjenu teksta trenutnog prozora programa
+ * {@link JNotepadpp}. Traka sadrži polje za upit, polje za tekst zamjene,
+ * odabir razlikovanja velikih i malih slova te regularnog izraza i gumbe za
+ * traženje sljedećeg pogotka, zamjenu i zamjenu svih pogodaka.
+ *
+ * <p>
+ * Upit se traži već tijekom tipkanja. Samo pretraživanje obavlja primjerak
+ * razreda {@link DocumentSearch}, koji se stvara za komponentu trenutnog
+ * prozora dok je traka vidljiva.
+ * </p>
+ *
+ * @see DocumentSearch
+ *
+ * @author Davor Češljaš
+ */
+public class FindBar extends JPanel {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/** Konstanta koja predstavlja boju polja s neispravnim upitom */
+	private static final Color INVALID_COLOR = new Color(255, 200, 200);
+
+	/** Konstanta koja predstavlja broj stupaca polja za unos */
+	private static final int FIELD_COLUMNS = 20;
+
+	/**
+	 * Člasnka varijabla koja je primjerak razreda
+	 * {@link FormLocalizationProvider}, a koja se koristi za lokalizaciju
+	 */
+	private final FormLocalizationProvider flp;
+
+	/** Članska varijabla koja predstavlja polje za upit */
+	private final JTextField findField = new JTextField(FIELD_COLUMNS);
+
+	/** Članska varijabla koja predstavlja polje za tekst zamjene */
+	private final JTextField replaceField = new JTextField(FIELD_COLUMNS);
+
+	/**
+	 * Članska varijabla koja predstavlja odabir razlikovanja velikih i malih
+	 * slova
+	 */
+	private final JCheckBox matchCase = new JCheckBox();
+
+	/** Članska varijabla koja predstavlja odabir regularnog izraza */
+	private final JCheckBox regex = new JCheckBox();
+
+	/** Članska varijabla koja predstavlja labelu s ishodom pretraživanja */
+	private final JLabel statusLabel = new JLabel();
+
+	/**
+	 * Članska varijabla koja predstavlja komponentu koja se pretražuje ili
+	 * <code>null</code>
+	 */
+	private JTextArea textArea;
+
+	/**
+	 * Članska varijabla koja predstavlja trenutno pretraživanje ili
+	 * <code>null</code> ukoliko traka nije vidljiva
+	 */
+	private DocumentSearch search;
+
+	/** Članska varijabla koja predstavlja akciju traženja sljedećeg pogotka */
+	private Action findNextAction;
+
+	/**
+	 * Članska varijabla koja predstavlja akciju zamjene označenog pogotka i
+	 * traženja sljedećeg
+	 */
+	private Action replaceAction;
+
+	/** Članska varijabla koja predstavlja akciju zamjene svih pogodaka */
+	private Action replaceAllAction;
+
+	/** Članska varijabla koja predstavlja akciju skrivanja trake */
+	private Action closeAction;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Traka je na
+	 * početku skrivena
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za lokalizaciju
+	 */
+	public FindBar(FormLocalizationProvider flp) {
+		this.flp = flp;
+
+		setLayout(new FlowLayout(FlowLayout.LEFT));
+		createActions();
+		initGUI();
+		setVisible(false);
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara akcije trake. Akcije se stvaraju tek nakon
+	 * što je postavljena članska varijabla {@link #flp}
+	 */
+	private void createActions() {
+		findNextAction = new AbstractLocalizedAction("findNext", flp) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (search != null && updateQuery()) {
+					showFound(search.findNext());
+				}
+			}
+		};
+
+		replaceAction = new AbstractLocalizedAction("replace", flp) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (!canReplace() || !updateQuery()) {
+					return;
+				}
+				try {
+					showFound(search.replace(replaceField.getText()));
+				} catch (BadLocationException ignorable) {
+				}
+			}
+		};
+
+		replaceAllAction = new AbstractLocalizedAction("replaceAll", flp) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (!canReplace() || !updateQuery()) {
+					return;
+				}
+				try {
+					int count = search.replaceAll(replaceField.getText());
+					statusLabel.setText(String.format(flp.getString("findBar.replaced"), count));
+				} catch (BadLocationException ignorable) {
+				}
+			}
+		};
+
+		closeAction = new AbstractLocalizedAction("closeFind", flp) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				close();
+			}
+		};
+	}
+
+	/**
+	 * Pomoćna metoda koja inicijalizira grafičko korisničko sučelje trake i
+	 * namješta promatrače na njezine komponente
+	 */
+	private void initGUI() {
+		add(createLabel("findBar.find"));
+		add(findField);
+		add(createLabel("findBar.replaceWith"));
+		add(replaceField);
+		add(matchCase);
+		add(regex);
+		add(new JButton(findNextAction));
+		add(new JButton(replaceAction));
+		add(new JButton(replaceAllAction));
+		add(new JButton(closeAction));
+		add(statusLabel);
+
+		flp.addLocalizationListener(() -> {
+			matchCase.setText(flp.getString("findBar.matchCase"));
+			regex.setText(flp.getString("findBar.regex"));
+		});
+		matchCase.setText(flp.getString("findBar.matchCase"));
+		regex.setText(flp.getString("findBar.regex"));
+
+		findField.getDocument().addDocumentListener(new DocumentListener() {
+
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				queryChanged();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				queryChanged();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+			}
+		});
+		matchCase.addActionListener(e -> queryChanged());
+		regex.addActionListener(e -> queryChanged());
+
+		findField.addActionListener(findNextAction);
+		replaceField.addActionListener(replaceAction);
+		getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
+				.put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "closeFind");
+		getActionMap().put("closeFind", closeAction);
+	}
+
+	/**
+	 * Metoda koja prikazuje traku i premješta fokus u polje za upit. Ukoliko
+	 * je u komponenti označen tekst unutar jednog retka, on postaje upit
+	 */
+	public void open() {
+		if (textArea == null) {
+			return;
+		}
+
+		String selected = textArea.getSelectedText();
+		if (selected != null && !selected.isEmpty() && selected.indexOf('\n') < 0) {
+			findField.setText(selected);
+		}
+		setVisible(true);
+		startSearch();
+		findField.selectAll();
+		findField.requestFocusInWindow();
+	}
+
+	/**
+	 * Metoda koja skriva traku, uklanja oznake pogodaka i vraća fokus
+	 * komponenti koja se pretraživala
+	 */
+	public void close() {
+		stopSearch();
+		setVisible(false);
+		if (textArea != null) {
+			textArea.requestFocusInWindow();
+		}
+	}
+
+	/**
+	 * Metoda koja postavlja komponentu koja se pretražuje (komponentu
+	 * trenutnog prozora)
+	 *
+	 * @param textArea
+	 *            komponenta koja se pretražuje ili <code>null</code>
+	 */
+	public void setTextArea(JTextArea textArea) {
+		if (this.textArea == textArea) {
+			return;
+		}
+		stopSearch();
+		this.textArea = textArea;
+		if (isVisible()) {
+			startSearch();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja započinje pretraživanje komponente
+	 * {@link #textArea}
+	 */
+	private void startSearch() {
+		stopSearch();
+		if (textArea == null) {
+			return;
+		}
+		search = new DocumentSearch(textArea);
+		updateQuery();
+	}
+
+	/**
+	 * Pomoćna metoda koja završava trenutno pretraživanje
+	 */
+	private void stopSearch() {
+		if (search != null) {
+			search.dispose();
+			search = null;
+		}
+		statusLabel.setText("");
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva promjenom upita. Upit se odmah traži
+	 */
+	private void queryChanged() {
+		if (search != null && updateQuery()) {
+			showFound(search.findIncremental());
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja trenutnom pretraživanju postavlja upit iz polja
+	 * trake
+	 *
+	 * @return <code>true</code> ukoliko je upit ispravan i nije prazan,
+	 *         <code>false</code> inače
+	 */
+	private boolean updateQuery() {
+		SearchQuery query = new SearchQuery(findField.getText(), matchCase.isSelected(), regex.isSelected());
+		try {
+			search.setQuery(query);
+		} catch (PatternSyntaxException e) {
+			findField.setBackground(INVALID_COLOR);
+			statusLabel.setText(flp.getString("findBar.invalid"));
+			return false;
+		}
+		findField.setBackground(UIManager.getColor("TextField.background"));
+		statusLabel.setText("");
+		return !query.isEmpty();
+	}
+
+	/**
+	 * Pomoćna metoda koja ispisuje je li upit pronađen
+	 *
+	 * @param found
+	 *            zastavica koja ukazuje na to je li upit pronađen
+	 */
+	private void showFound(boolean found) {
+		statusLabel.setText(found ? "" : flp.getString("findBar.notFound"));
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava smije li se tekst komponente
+	 * {@link #textArea} mijenjati
+	 *
+	 * @return <code>true</code> ukoliko se tekst smije mijenjati,
+	 *         <code>false</code> inače
+	 */
+	private boolean canReplace() {
+		return search != null && textArea.isEditable();
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara labelu čiji se tekst lokalizira ključem
+	 * <b>key</b>
+	 *
+	 * @param key
+	 *            ključ teksta labele
+	 * @return novu labelu
+	 */
+	private JLabel createLabel(String key) {
+		LocalizedLabel label = new LocalizedLabel() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void localizationChanged() {
+				setText(flp.getString(key));
+			}
+		};
+		flp.addLocalizationListener(label);
+		label.localizationChanged();
+		return label;
+	}
+}
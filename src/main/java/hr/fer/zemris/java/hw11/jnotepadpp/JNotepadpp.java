@@ -6,47 +6,90 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.nio.charset.CharacterCodingException;
+import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.PatternSyntaxException;
 
 import javax.swing.Action;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
+import javax.swing.JTextField;
 import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
+import javax.swing.ProgressMonitor;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.SwingWorker.StateValue;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
 import javax.swing.event.CaretEvent;
 import javax.swing.event.CaretListener;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.text.AbstractDocument;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Caret;
 import javax.swing.text.DefaultEditorKit;
 import javax.swing.text.Document;
-
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.EditHistory;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ILineIndex;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileChangeWatcher;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileSaver;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.JournalReplayer;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.JournalReplayer.RecoveredDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.JournalWriter;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.Session;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.AbstractLocalizedAction;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.FileSearchWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.MultiSearchWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchHit;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchQuery;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.CaseConvertWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.CaseConverter;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.ExternalMergeSort;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.ExternalSortWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.LineDeduplicator.Mode;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.LineSortWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.LineUniqueWorker;
+import hr.fer.zemris.java.hw11.jnotepadpp.viewer.FileViewer;
 
 /**
  * Razred koji predstavlja program {@value #APP_TITLE}. Ovaj program predstavlja
@@ -101,6 +144,44 @@ public class JNotepadpp extends JFrame {
 	 */
 	public static final short UNIQUE_OPTION = (short) 2;
 
+	/**
+	 * Konstanta koja predstavlja opciju micanja duplikata bez obzira na
+	 * veličinu slova u metodi {@link #changeLines(short)}
+	 */
+	public static final short UNIQUE_IGNORE_CASE_OPTION = (short) 3;
+
+	/**
+	 * Konstanta koja predstavlja opciju micanja duplikata prema pravilima
+	 * trenutnog jezika u metodi {@link #changeLines(short)}
+	 */
+	public static final short UNIQUE_COLLATION_OPTION = (short) 4;
+
+	/**
+	 * Konstanta koja predstavlja veličinu datoteke (u oktetima) od koje se
+	 * korisniku nudi prikaz datoteke samo za čitanje
+	 */
+	private static final long VIEWER_THRESHOLD = 1L << 30;
+
+	/**
+	 * Konstanta koja predstavlja razmak (u milisekundama) između dva
+	 * pozadinska čitanja datoteka prozora prethodne sjednice
+	 */
+	private static final int PREFETCH_DELAY = 300;
+
+	/**
+	 * Konstanta koja predstavlja veličinu datoteke (u oktetima) od koje se
+	 * datoteka uvijek otvara samo za čitanje, jer može imati više znakova nego
+	 * što ih dokument može adresirati
+	 */
+	private static final long MAX_EDITABLE_SIZE = Integer.MAX_VALUE - 1;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj prozora čiji se prikaz dokumenta
+	 * ({@link TabView}) zadržava. Prikaz prozora koji najdulje nije odabran se
+	 * oslobađa
+	 */
+	private static final int MAX_LIVE_VIEWS = 8;
+
 	/**
 	 * Članska varijabla koja predstavlja komponentu unutar koje su smješteni
 	 * svi prozori ovog programa
@@ -113,6 +194,20 @@ public class JNotepadpp extends JFrame {
 	 */
 	private List<TabPanel> tabPanels;
 
+	/**
+	 * Članska varijabla koja predstavlja prozore čiju je datoteku promijenio
+	 * drugi program, a kojima se ponovno učitavanje nudi tek kada budu
+	 * odabrani
+	 */
+	private final Set<TabPanel> pendingReloads = new HashSet<>();
+
+	/**
+	 * Članska varijabla koja predstavlja prozore čiji je prikaz dokumenta
+	 * stvoren, poredane od onog koji je najdulje bio neodabran do trenutnog
+	 * prozora
+	 */
+	private final Set<TabPanel> liveViews = new LinkedHashSet<>();
+
 	/**
 	 * Člasnka varijabla koja je primjerak razreda
 	 * {@link FormLocalizationProvider}, a koja se koristi za lokalizaciju
@@ -120,11 +215,69 @@ public class JNotepadpp extends JFrame {
 	 */
 	private FormLocalizationProvider flp = new FormLocalizationProvider(LocalizationProvider.getInstance(), this);
 
+	/**
+	 * Članska varijabla koja predstavlja traku za pretraživanje i zamjenu
+	 * teksta trenutnog prozora
+	 *
+	 * @see FindBar
+	 */
+	private FindBar findBar;
+
+	/**
+	 * Članska varijabla koja predstavlja izvršitelja koji jedno za drugim
+	 * izvodi spremanja dokumenata. Dretva izvršitelja je pozadinska, a program
+	 * se ne gasi dok sva spremanja ne završe
+	 */
+	private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "jnotepadpp-save");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Članska varijabla koja predstavlja izvršitelja koji jednu za drugom
+	 * čita datoteke prozora prethodne sjednice koji još nisu odabrani. Dretva
+	 * izvršitelja je pozadinska i najnižeg prioriteta, kako ne bi usporavala
+	 * rad s odabranim prozorom
+	 */
+	private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "jnotepadpp-prefetch");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	/**
+	 * Članska varijabla koja predstavlja brojač koji povremeno pokreće
+	 * čitanje datoteke sljedećeg prozora prethodne sjednice
+	 */
+	private final Timer prefetchTimer = new Timer(PREFETCH_DELAY, e -> prefetchNext());
+
+	/**
+	 * Članska varijabla koja ukazuje na to da se prozori prethodne sjednice
+	 * ili više odjednom otvorenih datoteka upravo dodaju, pa se odabrani
+	 * prozor ne aktivira
+	 */
+	private boolean addingTabs;
+
+	/** Članska varijabla koja predstavlja broj spremanja koja nisu završila */
+	private int pendingSaves;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da je korisnik zatražio izlaz iz
+	 * programa dok su spremanja još trajala
+	 */
+	private boolean exitRequested;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar ovog
 	 * konstruktora stvara se grafičko korisničko sučelje ovog programa. Također
 	 * namještaju se svi promatrači na sve promjene potrebne za normalan rad ovog
-	 * programa, pozivom privatne pomoćne metode {@link #initGUI()}.
+	 * programa, pozivom privatne pomoćne metode {@link #initGUI()}. Otvaraju
+	 * se prozori prethodne sjednice programa (ili prazni dokument ukoliko
+	 * sjednica ne postoji), a dokumenti čije izmjene nisu spremljene prije
+	 * rušenja programa obnavljaju se u pozadini, metodom
+	 * {@link #recoverDocuments()}.
 	 */
 	public JNotepadpp() {
 		tabPanels = new ArrayList<>();
@@ -140,11 +293,222 @@ public class JNotepadpp extends JFrame {
 			public void windowClosing(WindowEvent e) {
 				exit();
 			}
+
+			@Override
+			public void windowClosed(WindowEvent e) {
+				prefetchTimer.stop();
+				// korisnik je o nespremljenim izmjenama već odlučio
+				tabPanels.forEach(TabPanel::close);
+				JournalWriter.getInstance().shutdown();
+			}
 		});
 
 		initGUI();
 
-		createBlankDocument();
+		if (!restoreSession(Session.load())) {
+			createBlankDocument();
+		}
+		recoverDocuments();
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara prozore sjednice <b>session</b>. Odmah se
+	 * čita samo datoteka odabranog prozora, a ostali prozori dodaju se bez
+	 * čitanja datoteke (vidi
+	 * {@link TabPanel#createSessionTabPanel(JNotepadpp, Session.Entry, int)}),
+	 * pa vrijeme otvaranja ne ovisi o broju prozora. Njihove se datoteke čitaju
+	 * kada budu odabrani ili, jedna po jedna, u pozadini. Datoteke koje više
+	 * ne postoje se preskaču
+	 *
+	 * @param session
+	 *            sjednica koja se otvara
+	 * @return <code>true</code> ukoliko je otvoren barem jedan prozor, inače
+	 *         <code>false</code>
+	 */
+	private boolean restoreSession(Session session) {
+		List<TabPanel> restored = new ArrayList<>();
+		int selected = 0;
+		List<Session.Entry> entries = session.getEntries();
+		for (int i = 0, len = entries.size(); i < len; i++) {
+			Session.Entry entry = entries.get(i);
+			if (!Files.isRegularFile(entry.getFilePath())) {
+				continue;
+			}
+			if (i == session.getSelectedIndex()) {
+				selected = restored.size();
+			}
+			restored.add(TabPanel.createSessionTabPanel(this, entry, tabPanels.size() + restored.size()));
+		}
+		if (restored.isEmpty()) {
+			return false;
+		}
+
+		// promatrači odabira prozora moraju vidjeti komponente odabranog prozora
+		TabPanel selectedPanel = restored.get(selected);
+		activate(selectedPanel);
+
+		addingTabs = true;
+		for (TabPanel tabPanel : restored) {
+			int index = tabbedPane.getTabCount();
+			tabPanels.add(tabPanel);
+			tabbedPane.insertTab(null, null, tabPanel, null, index);
+			tabbedPane.setTabComponentAt(index, tabPanel.getTabTitle());
+		}
+		addingTabs = false;
+
+		tabbedPane.setSelectedIndex(tabPanels.indexOf(selectedPanel));
+		prefetchTimer.start();
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja pokreće pozadinsko čitanje datoteke sljedećeg
+	 * prozora prethodne sjednice. Nova datoteka čita se tek kada su sva
+	 * ostala učitavanja završila, a brojač {@link #prefetchTimer} se
+	 * zaustavlja kada više nema nepročitanih prozora. Indeksiranje datoteke
+	 * prikazane razredom {@link FileViewer} ne odgađa čitanje jer se datoteka
+	 * pritom ne učitava u memoriju
+	 */
+	private void prefetchNext() {
+		TabPanel next = null;
+		for (TabPanel tabPanel : tabPanels) {
+			if (tabPanel.isPending()) {
+				if (next == null) {
+					next = tabPanel;
+				}
+			} else if (tabPanel.getTabInfo().isLoading() && tabPanel.getViewer() == null) {
+				return;
+			}
+		}
+
+		if (next == null) {
+			prefetchTimer.stop();
+			return;
+		}
+		next.load(flp, prefetchExecutor);
+	}
+
+	/**
+	 * Pomoćna metoda koja sprema sjednicu programa: prozore čiji su dokumenti
+	 * spremljeni u datoteku, zajedno s pozicijom pokazivača i prvim vidljivim
+	 * znakom. Sjednica se sprema dok je prozor programa još vidljiv, jer se
+	 * prvi vidljivi znak određuje iz prikaza dokumenta
+	 */
+	private void storeSession() {
+		List<Session.Entry> entries = new ArrayList<>();
+		int selected = -1;
+		for (int i = 0, len = tabPanels.size(); i < len; i++) {
+			Session.Entry entry = tabPanels.get(i).getSessionEntry();
+			if (entry == null) {
+				continue;
+			}
+			if (i == tabbedPane.getSelectedIndex()) {
+				selected = entries.size();
+			}
+			entries.add(entry);
+		}
+
+		try {
+			new Session(entries, selected).store();
+		} catch (IOException ignorable) {
+			// sjednica nije nužna za rad programa
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja u pozadini (razredom {@link JournalReplayer})
+	 * obnavlja dokumente iz dnevnika nespremljenih izmjena koje je ostavio
+	 * srušeni program. Svaki obnovljeni dokument otvara se u novom prozoru, a
+	 * korisnik se obavještava o dokumentima koje nije bilo moguće obnoviti
+	 */
+	private void recoverDocuments() {
+		JournalReplayer replayer = new JournalReplayer();
+		replayer.addPropertyChangeListener(e -> {
+			if (!"state".equals(e.getPropertyName()) || e.getNewValue() != StateValue.DONE) {
+				return;
+			}
+
+			try {
+				replayer.get().forEach(this::addRecoveredTab);
+			} catch (InterruptedException | ExecutionException ignorable) {
+			}
+			// dnevnici su preuzeti, pa se dnevnici srušenog programa mogu obrisati
+			replayer.release();
+
+			List<Path> unrecoverable = replayer.getUnrecoverable();
+			if (!unrecoverable.isEmpty()) {
+				StringBuilder sb = new StringBuilder();
+				unrecoverable.forEach(path -> sb.append(path.toAbsolutePath()).append('\n'));
+				JOptionPane.showMessageDialog(
+						JNotepadpp.this,
+						String.format(flp.getString("recoveryError.message"), sb.toString()),
+						flp.getString("recoveryError.title"), 
+						JOptionPane.WARNING_MESSAGE);
+			}
+		});
+		replayer.execute();
+	}
+
+	/**
+	 * Pomoćna metoda koja obnovljeni dokument <b>recovered</b> otvara u novom
+	 * prozoru i prikazuje ga. Ukoliko je datoteka dokumenta već otvorena,
+	 * obnovljeni dokument zamjenjuje njezin prozor na istoj poziciji. Prozor
+	 * čiji je dokument u međuvremenu mijenjan zamjenjuje se tek ako to
+	 * korisnik potvrdi, a inače ostaju otvorena oba prozora
+	 *
+	 * @param recovered
+	 *            dokument obnovljen iz dnevnika nespremljenih izmjena
+	 */
+	private void addRecoveredTab(RecoveredDocument recovered) {
+		int index = tabbedPane.getTabCount();
+		boolean replace = false;
+		if (recovered.isInMemory()) {
+			Path filePath = recovered.getFilePath().toAbsolutePath().normalize();
+			for (int i = 0, len = tabPanels.size(); i < len; i++) {
+				TabInfo tabInfo = getTabInfo(i);
+				if (tabInfo.isInMemory() && tabInfo.getTabFilePath().toAbsolutePath().normalize().equals(filePath)) {
+					// obnovljeni dokument noviji je od datoteke koju prozor prikazuje
+					replace = !tabInfo.isChanged() || userWantsToReplace(tabInfo);
+					if (replace) {
+						index = i;
+					}
+					break;
+				}
+			}
+		}
+
+		TabPanel tabPanel = TabPanel.createRecoveredTabPanel(this, flp, recovered, index);
+
+		tabPanels.add(index, tabPanel);
+
+		tabbedPane.insertTab(null, null, tabPanel, null, index);
+		tabbedPane.setTabComponentAt(index, tabPanel.getTabTitle());
+		if (replace) {
+			// zamijenjeni prozor pomaknut je za jedno mjesto udesno
+			removeTabAt(index + 1);
+		}
+		tabbedPane.setSelectedIndex(index);
+	}
+
+	/**
+	 * Pomoćna metoda koja od korisnika, preko dialoga, dohvaća informaciju želi
+	 * li prozor s modelom <b>tabInfo</b>, čiji dokument je mijenjan, zamijeniti
+	 * dokumentom obnovljenim iz dnevnika nespremljenih izmjena. Izmjene
+	 * zamijenjenog prozora pritom se odbacuju
+	 *
+	 * @param tabInfo
+	 *            model prozora koji se zamjenjuje
+	 * @return <code>true</code> ukoliko korisnik želi zamijeniti prozor,
+	 *         <code>false</code> inače
+	 */
+	private boolean userWantsToReplace(TabInfo tabInfo) {
+		int status = JOptionPane.showConfirmDialog(
+				this,
+				String.format(flp.getString("userWantsToReplace.message"), tabInfo.getTabFilePath().getFileName()),
+				flp.getString("userWantsToReplace.title"), 
+				JOptionPane.YES_NO_OPTION);
+
+		return status == JOptionPane.YES_OPTION;
 	}
 
 	/**
@@ -171,12 +535,80 @@ public class JNotepadpp extends JFrame {
 
 		configureTabbedPane(cp);
 
+		configureHistoryActions();
+
+		configureFollowAction();
+
 		configureMenuBar();
 
 		JToolBar toolBar = new JToolBar();
 		cp.add(toolBar, BorderLayout.NORTH);
 
 		configureToolBar(toolBar);
+
+		configureFindBar(cp);
+
+		configureTabActivation();
+	}
+
+	/**
+	 * Pomoćna metoda koja namješta aktivaciju prozora kada on bude odabran
+	 * (vidi {@link #activate(TabPanel)}). Promatrač se dodaje posljednji jer
+	 * {@link JTabbedPane} promatrače obavještava obrnutim redoslijedom, pa
+	 * ostali promatrači odabira već vide komponente odabranog prozora
+	 */
+	private void configureTabActivation() {
+		tabbedPane.addChangeListener(e -> {
+			if (addingTabs) {
+				return;
+			}
+			TabPanel tabPanel = getCurrentTabPanel();
+			if (tabPanel != null) {
+				activate(tabPanel);
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja priprema prozor <b>tabPanel</b> za prikaz: prozor
+	 * prethodne sjednice čita svoju datoteku, a prozoru se stvara prikaz
+	 * dokumenta. Prozori čiji je prikaz stvoren pamte se u {@link #liveViews},
+	 * a prozorima koji najdulje nisu odabrani prikaz se oslobađa kada ih je
+	 * više od {@value #MAX_LIVE_VIEWS}
+	 *
+	 * @param tabPanel
+	 *            prozor koji je odabran
+	 */
+	private void activate(TabPanel tabPanel) {
+		tabPanel.load(flp, null);
+		tabPanel.showView(flp);
+		if (!tabPanel.hasView()) {
+			return;
+		}
+
+		liveViews.remove(tabPanel);
+		liveViews.add(tabPanel);
+		Iterator<TabPanel> oldest = liveViews.iterator();
+		while (liveViews.size() > MAX_LIVE_VIEWS) {
+			TabPanel released = oldest.next();
+			oldest.remove();
+			released.hideView();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara i namješta člansku varijablu
+	 * {@link #findBar}. Traka uvijek pretražuje komponentu trenutnog prozora
+	 *
+	 * @param cp
+	 *            primjerak razreda {@link Container} dobiven pozivom
+	 *            {@link JFrame#getContentPane()}
+	 */
+	private void configureFindBar(Container cp) {
+		findBar = new FindBar(flp);
+		cp.add(findBar, BorderLayout.SOUTH);
+
+		tabbedPane.addChangeListener(e -> findBar.setTextArea(getCurrentTextArea()));
 	}
 
 	/**
@@ -201,10 +633,111 @@ public class JNotepadpp extends JFrame {
 				}
 
 				setNewTitle(tabInfo);
+				TabPanel tabPanel = getCurrentTabPanel();
+				if (pendingReloads.remove(tabPanel)) {
+					// pitanje se postavlja tek nakon što se prozor prikaže
+					SwingUtilities.invokeLater(() -> offerReload(tabPanel));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja namješta akcije {@link #undoAction} i
+	 * {@link #redoAction}. Akcije su omogućene samo ukoliko povijest izmjena
+	 * trenutnog prozora sadrži izmjenu koju je moguće poništiti, odnosno
+	 * ponovno izvesti
+	 */
+	private void configureHistoryActions() {
+		undoAction.setEnabled(false);
+		redoAction.setEnabled(false);
+
+		tabbedPane.addChangeListener(new ChangeListener() {
+
+			/**
+			 * Članska varijabla koja predstavlja povijest izmjena trenutno
+			 * odabranog prozora
+			 */
+			private EditHistory selectedHistory;
+
+			/**
+			 * Članska varijabla koja predstavlja promatrača na povijest
+			 * izmjena. Promatrač se premješta na povijest odabranog prozora
+			 */
+			private final ChangeListener historyListener = e -> updateHistoryActions();
+
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (selectedHistory != null) {
+					selectedHistory.removeChangeListener(historyListener);
+				}
+
+				selectedHistory = getCurrentHistory();
+				if (selectedHistory != null) {
+					selectedHistory.addChangeListener(historyListener);
+				}
+				updateHistoryActions();
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja omogućava ili onemogućava akcije {@link #undoAction}
+	 * i {@link #redoAction} ovisno o povijesti izmjena trenutnog prozora
+	 */
+	private void updateHistoryActions() {
+		EditHistory history = getCurrentHistory();
+		undoAction.setEnabled(history != null && history.canUndo());
+		redoAction.setEnabled(history != null && history.canRedo());
+	}
+
+	/**
+	 * Pomoćna metoda koja namješta akciju {@link #followAction} tako da prati
+	 * model trenutno odabranog prozora
+	 */
+	private void configureFollowAction() {
+		followAction.setEnabled(false);
+
+		tabbedPane.addChangeListener(new ChangeListener() {
+
+			/**
+			 * Članska varijabla koja predstavlja model trenutno odabranog
+			 * prozora
+			 */
+			private TabInfo selectedInfo;
+
+			/**
+			 * Članska varijabla koja predstavlja promatrača na model prozora.
+			 * Promatrač se premješta na model odabranog prozora
+			 */
+			private final ChangeListener infoListener = e -> updateFollowAction();
+
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (selectedInfo != null) {
+					selectedInfo.removeChangeListener(infoListener);
+				}
+
+				selectedInfo = getTabInfo(tabbedPane.getSelectedIndex());
+				if (selectedInfo != null) {
+					selectedInfo.addChangeListener(infoListener);
+				}
+				updateFollowAction();
 			}
 		});
 	}
 
+	/**
+	 * Pomoćna metoda koja omogućava ili onemogućava akciju
+	 * {@link #followAction} i postavlja njezin odabir ovisno o trenutnom
+	 * prozoru
+	 */
+	private void updateFollowAction() {
+		TabPanel tabPanel = getCurrentTabPanel();
+		followAction.setEnabled(tabPanel != null && tabPanel.canFollow());
+		followAction.putValue(Action.SELECTED_KEY, tabPanel != null && tabPanel.getTabInfo().isFollowing());
+	}
+
 	/**
 	 * Pomoćna metoda koja namješta izborničku traku. Izbornička traka
 	 * konfigurira se pozivima {@link #configureFilesMenu(JMenuBar)},
@@ -237,15 +770,23 @@ public class JNotepadpp extends JFrame {
 	
 		fileMenu.add(new JMenuItem(createNewDocument));
 		fileMenu.add(new JMenuItem(openDocument));
+		fileMenu.add(new JMenuItem(findInFilesAction));
 		fileMenu.addSeparator();
 		fileMenu.add(new JMenuItem(saveDocument));
 		fileMenu.add(new JMenuItem(saveAsDocument));
 		fileMenu.addSeparator();
+		fileMenu.add(new JMenuItem(undoAction));
+		fileMenu.add(new JMenuItem(redoAction));
+		fileMenu.addSeparator();
 		fileMenu.add(new JMenuItem(copyAction));
 		fileMenu.add(new JMenuItem(cutAction));
 		fileMenu.add(new JMenuItem(pasteAction));
 		fileMenu.addSeparator();
 		fileMenu.add(new JMenuItem(statisticsInfo));
+		fileMenu.add(new JMenuItem(goToLine));
+		fileMenu.add(new JMenuItem(findAction));
+		fileMenu.add(new JMenuItem(findInTabsAction));
+		fileMenu.add(new JCheckBoxMenuItem(followAction));
 		fileMenu.addSeparator();
 		fileMenu.add(new JMenuItem(closeCurrentTab));
 		fileMenu.add(new JMenuItem(exitApplication));
@@ -298,41 +839,63 @@ public class JNotepadpp extends JFrame {
 		sortMenu.add(ascending);
 		JMenuItem descending = new JMenuItem(descendingSortAction);
 		sortMenu.add(descending);
+		sortMenu.addSeparator();
+		sortMenu.add(new JMenuItem(sortFileAction));
 	
+		JMenu uniqueMenu = new JMenu(flp.getString("uniqueMenu"));
+		toolsMenu.add(uniqueMenu);
+
 		JMenuItem unique = new JMenuItem(uniqueAction);
-		toolsMenu.add(unique);
+		uniqueMenu.add(unique);
+		JMenuItem uniqueIgnoreCase = new JMenuItem(uniqueIgnoreCaseAction);
+		uniqueMenu.add(uniqueIgnoreCase);
+		JMenuItem uniqueCollation = new JMenuItem(uniqueCollationAction);
+		uniqueMenu.add(uniqueCollation);
 	
 		flp.addLocalizationListener(() -> {
 			toolsMenu.setText(flp.getString("tools"));
 			changeCaseMenu.setText(flp.getString("changeCase"));
 			sortMenu.setText(flp.getString("sort"));
+			uniqueMenu.setText(flp.getString("uniqueMenu"));
 		});
 	
 		tabbedPane.addChangeListener(new ChangeListener() {
-	
+
+			/**
+			 * Članska varijabla koja predstavlja komponentu za uređivanje
+			 * teksta trenutno odabranog prozora
+			 */
+			private JTextArea selectedTextArea;
+
+			/**
+			 * Članska varijabla koja predstavlja promatrača na pokazivač
+			 * teksta. Promatrač se premješta na odabrani prozor, a ne
+			 * dodaje se nanovo pri svakom odabiru prozora
+			 */
+			private final CaretListener caretListener = new CaretListener() {
+
+				@Override
+				public void caretUpdate(CaretEvent e) {
+					Caret caret = ((JTextArea) e.getSource()).getCaret();
+					setToolsEnabled(caret.getDot() != caret.getMark());
+				}
+			};
+
 			@Override
 			public void stateChanged(ChangeEvent e) {
 				setToolsEnabled(false);
-	
-				JTextArea textArea = getCurrentTextArea();
-				if (textArea == null) {
+				if (selectedTextArea != null) {
+					selectedTextArea.removeCaretListener(caretListener);
+				}
+
+				selectedTextArea = getCurrentTextArea();
+				if (selectedTextArea == null) {
 					return;
 				}
-	
-				textArea.addCaretListener(new CaretListener() {
-	
-					@Override
-					public void caretUpdate(CaretEvent e) {
-						Caret caret = textArea.getCaret();
-	
-						if (caret.getDot() != caret.getMark()) {
-							setToolsEnabled(true);
-							return;
-						}
-	
-						setToolsEnabled(false);
-					}
-				});
+
+				selectedTextArea.addCaretListener(caretListener);
+				Caret caret = selectedTextArea.getCaret();
+				setToolsEnabled(caret.getDot() != caret.getMark());
 			}
 	
 			private void setToolsEnabled(boolean b) {
@@ -342,6 +905,8 @@ public class JNotepadpp extends JFrame {
 				ascending.setEnabled(b);
 				descending.setEnabled(b);
 				unique.setEnabled(b);
+				uniqueIgnoreCase.setEnabled(b);
+				uniqueCollation.setEnabled(b);
 			}
 		});
 	}
@@ -360,6 +925,9 @@ public class JNotepadpp extends JFrame {
 		toolBar.add(new JButton(saveDocument));
 		toolBar.add(new JButton(saveAsDocument));
 		toolBar.addSeparator();
+		toolBar.add(new JButton(undoAction));
+		toolBar.add(new JButton(redoAction));
+		toolBar.addSeparator();
 		toolBar.add(new JButton(copyAction));
 		toolBar.add(new JButton(cutAction));
 		toolBar.add(new JButton(pasteAction));
@@ -383,6 +951,46 @@ public class JNotepadpp extends JFrame {
 		JNotepadpp.this.setTitle(tabInfo.getTabFilePath().toAbsolutePath().toString() + " - " + APP_TITLE);
 	}
 
+	/**
+	 * Pomoćna metoda (koja se koristi unutar paketa) koja se poziva kada drugi
+	 * program promijeni datoteku dokumenta prozora <b>tabPanel</b>. Ukoliko je
+	 * prozor odabran, korisniku se odmah nudi ponovno učitavanje, a inače tek
+	 * kada odabere taj prozor
+	 *
+	 * @param tabPanel
+	 *            prozor čija je datoteka promijenjena
+	 */
+	void externalChangeDetected(TabPanel tabPanel) {
+		if (tabPanel == getCurrentTabPanel()) {
+			offerReload(tabPanel);
+		} else {
+			pendingReloads.add(tabPanel);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja korisnika pita želi li ponovno učitati dokument
+	 * prozora <b>tabPanel</b> čiju je datoteku promijenio drugi program.
+	 * Ukoliko korisnik odbije, prozor ostaje označen promijenjenim, pa se
+	 * prije spremanja traži potvrda
+	 *
+	 * @param tabPanel
+	 *            prozor čija je datoteka promijenjena
+	 */
+	private void offerReload(TabPanel tabPanel) {
+		TabInfo tabInfo = tabPanel.getTabInfo();
+		int answer = JOptionPane.showConfirmDialog(
+				this,
+				String.format(flp.getString("externalChange.message"),
+				tabInfo.getTabFilePath().toAbsolutePath().toString()),
+				flp.getString("externalChange.title"),
+				JOptionPane.YES_NO_OPTION,
+				JOptionPane.WARNING_MESSAGE);
+		if (answer == JOptionPane.YES_OPTION && tabPanels.contains(tabPanel)) {
+			tabPanel.reload(flp);
+		}
+	}
+
 	/**
 	 * Pomoćna metoda koja iz članske varijable {@link #tabPanels} dohvaća model
 	 * koji je primjerak razreda {@link TabInfo}, a koji se nalazi spremljen
@@ -419,6 +1027,37 @@ public class JNotepadpp extends JFrame {
 		return tabPanels.get(index).getTextArea();
 	}
 
+	/**
+	 * Pomoćna metoda koja dohvaća trenutni prozor (onaj na poziciji
+	 * {@link JTabbedPane#getSelectedIndex()})
+	 *
+	 * @return trenutni prozor ili <code>null</code> ukoliko nema otvorenih
+	 *         prozora
+	 */
+	private TabPanel getCurrentTabPanel() {
+		int index = tabbedPane.getSelectedIndex();
+		if (index < 0 || index > tabPanels.size() - 1) {
+			return null;
+		}
+		return tabPanels.get(index);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća prikaz datoteke samo za čitanje spremljen
+	 * unutar trenutnog prozora
+	 *
+	 * @return prikaz datoteke samo za čitanje unutar trenutnog prozora ili
+	 *         <code>null</code> ukoliko trenutni prozor sadrži komponentu za
+	 *         uređivanje teksta
+	 */
+	private FileViewer getCurrentViewer() {
+		int index = tabbedPane.getSelectedIndex();
+		if (index < 0 || index > tabPanels.size() - 1) {
+			return null;
+		}
+		return tabPanels.get(index).getViewer();
+	}
+
 	/**
 	 * Privatni primjerak razreda koji nasljeđuje
 	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za novog prozora
@@ -460,29 +1099,53 @@ public class JNotepadpp extends JFrame {
 		public void actionPerformed(ActionEvent e) {
 			JFileChooser fc = new JFileChooser();
 			fc.setDialogTitle(flp.getString("openFileDialogTitle"));
+			fc.setMultiSelectionEnabled(true);
 			if (fc.showOpenDialog(JNotepadpp.this) != JFileChooser.APPROVE_OPTION) {
 				return;
 			}
 
-			Path filePath = fc.getSelectedFile().toPath();
-
-			addNewTab(filePath, true, false);
+			File[] files = fc.getSelectedFiles();
+			if (files.length == 0) {
+				files = new File[] { fc.getSelectedFile() };
+			}
+			addPendingTabs(Arrays.asList(files).subList(0, files.length - 1));
+			addNewTab(files[files.length - 1].toPath(), true, false);
 		}
 	};
 
 	/**
 	 * Privatni primjerak razreda koji nasljeđuje
-	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za spremanje
-	 * dokumenta na njegovu trenutnu lokaciju na disku ili na specifičnu
-	 * lokaciju ukoliko dokument nije na disku
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za pretraživanje
+	 * datoteka unutar odabranog direktorija i njegovih poddirektorija
 	 */
-	private Action saveDocument = new AbstractLocalizedAction("saveDocument", flp) {
+	private Action findInFilesAction = new AbstractLocalizedAction("findInFiles", flp) {
 
 		private static final long serialVersionUID = 1L;
 
 		{
-			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control S"));
-			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_S);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control alt F"));
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_L);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			findInFiles();
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za spremanje
+	 * dokumenta na njegovu trenutnu lokaciju na disku ili na specifičnu
+	 * lokaciju ukoliko dokument nije na disku
+	 */
+	private Action saveDocument = new AbstractLocalizedAction("saveDocument", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control S"));
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_S);
 		}
 
 		@Override
@@ -511,6 +1174,119 @@ public class JNotepadpp extends JFrame {
 		}
 	};
 
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za poništavanje
+	 * posljednje izmjene trenutnog dokumenta
+	 */
+	private Action undoAction = new AbstractLocalizedAction("undo", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_D);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Z"));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			changeHistory(true);
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za ponovno
+	 * izvođenje posljednje poništene izmjene trenutnog dokumenta
+	 */
+	private Action redoAction = new AbstractLocalizedAction("redo", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_R);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control Y"));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			changeHistory(false);
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za prikaz trake
+	 * za pretraživanje i zamjenu teksta trenutnog dokumenta
+	 */
+	private Action findAction = new AbstractLocalizedAction("find", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_F);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control F"));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			findBar.setTextArea(getCurrentTextArea());
+			findBar.open();
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za pretraživanje
+	 * svih otvorenih dokumenata
+	 */
+	private Action findInTabsAction = new AbstractLocalizedAction("findInTabs", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_I);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control shift F"));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			findInTabs();
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za uključivanje i
+	 * isključivanje praćenja rasta datoteke trenutnog dokumenta (primjerice
+	 * datoteke dnevnika)
+	 */
+	private Action followAction = new AbstractLocalizedAction("follow", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_L);
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control shift T"));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			TabPanel tabPanel = getCurrentTabPanel();
+			if (tabPanel == null) {
+				return;
+			}
+
+			if (tabPanel.getTabInfo().isFollowing()) {
+				tabPanel.stopFollowing();
+			} else {
+				tabPanel.startFollowing(flp);
+			}
+			// odabir stavke izbornika prati stvarno stanje prozora
+			updateFollowAction();
+		}
+	};
+
 	/**
 	 * Privatni primjerak razreda koji nasljeđuje
 	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za kopiranje
@@ -597,7 +1373,8 @@ public class JNotepadpp extends JFrame {
 	 * Privatni primjerak razreda koji nasljeđuje
 	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za ispisivanje
 	 * statističkih informacija u novom dialogu. Informacije sadrže broj
-	 * znakova, broj nepraznih znakova te broj linija trenutnog dokumenta
+	 * znakova, broj nepraznih znakova, broj linija te broj riječi trenutnog
+	 * dokumenta
 	 */
 	private Action statisticsInfo = new AbstractLocalizedAction("statisticsInfo", flp) {
 
@@ -610,28 +1387,103 @@ public class JNotepadpp extends JFrame {
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
+			int index = tabbedPane.getSelectedIndex();
+			if (index < 0 || index > tabPanels.size() - 1) {
+				return;
+			}
+
+			if (tabPanels.get(index).getViewer() != null) {
+				return;
+			}
+			// statistika se ažurira izmjenama dokumenta pa je ovdje samo čitamo
+			DocumentStatistics statistics = tabPanels.get(index).getStatistics();
+
+			JOptionPane.showMessageDialog(
+					JNotepadpp.this,
+					String.format(flp.getString("statisticsInfo.message"), statistics.getCharacters(),
+							statistics.getNonWhitespace(), statistics.getLines(), statistics.getWords()),
+					flp.getString("statisticsInfo.title"), 
+					JOptionPane.INFORMATION_MESSAGE);
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za pomicanje
+	 * pokazivača teksta na početak retka čiji broj korisnik upiše. Početak
+	 * retka dohvaća se iz indeksa redaka dokumenta (sučelje
+	 * {@link ILineIndex}), bez pretraživanja teksta
+	 */
+	private Action goToLine = new AbstractLocalizedAction("goToLine", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.ACCELERATOR_KEY, KeyStroke.getKeyStroke("control G"));
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_G);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			FileViewer viewer = getCurrentViewer();
+			if (viewer != null) {
+				// dok indeksiranje traje, skok na još nepoznati redak se odgađa
+				long line = askLineNumber(viewer.getKnownLines());
+				if (line > 0) {
+					viewer.goToLine((viewer.isIndexed() ? Math.min(line, viewer.getKnownLines()) : line) - 1);
+				}
+				return;
+			}
+
 			JTextArea textArea = getCurrentTextArea();
 			if (textArea == null) {
 				return;
 			}
 
-			String text = textArea.getText();
-
-			int length = text.length();
+			ILineIndex lineIndex = ILineIndex.of(textArea.getDocument());
+			int lineCount = lineIndex.getLineCount();
+			long line = askLineNumber(lineCount);
+			if (line <= 0) {
+				return;
+			}
 
-			String nonEmptyString = new String(text);
-			nonEmptyString = nonEmptyString.replaceAll("\\s", "");
-			int numberOfNonEmpty = nonEmptyString.length();
+			// reci se korisniku prikazuju od 1, kao i u statusnoj traci
+			line = Math.min(line, lineCount);
+			textArea.setCaretPosition(lineIndex.getLineStartOffset((int) line - 1));
+			textArea.requestFocusInWindow();
+		}
+	};
 
-			int numberOfLines = textArea.getLineCount();
+	/**
+	 * Pomoćna metoda koja od korisnika, preko dijaloga, dohvaća broj retka na
+	 * koji se skače. Ukoliko unos nije broj, korisniku se prikazuje poruka o
+	 * pogrešci
+	 *
+	 * @param lineCount
+	 *            broj redaka koji se prikazuje korisniku
+	 * @return upisani redak (od 1) ili -1 ukoliko korisnik nije upisao redak
+	 */
+	private long askLineNumber(long lineCount) {
+		String input = JOptionPane.showInputDialog(
+				JNotepadpp.this,
+				String.format(flp.getString("goToLine.message"), lineCount),
+				flp.getString("goToLine.title"), 
+				JOptionPane.QUESTION_MESSAGE);
+		if (input == null) {
+			return -1;
+		}
 
+		try {
+			return Math.max(1, Long.parseLong(input.trim()));
+		} catch (NumberFormatException ex) {
 			JOptionPane.showMessageDialog(
 					JNotepadpp.this,
-					String.format(flp.getString("statisticsInfo.message"), length, numberOfNonEmpty, numberOfLines),
-					flp.getString("statisticsInfo.title"), 
-					JOptionPane.INFORMATION_MESSAGE);
+					String.format(flp.getString("goToLine.error"), input),
+					flp.getString("goToLine.title"), 
+					JOptionPane.ERROR_MESSAGE);
+			return -1;
 		}
-	};
+	}
 
 	/**
 	 * Privatni primjerak razreda koji nasljeđuje
@@ -724,7 +1576,7 @@ public class JNotepadpp extends JFrame {
 			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_U);
 		}
 
-		private UnaryOperator<String> textChanger = String::toUpperCase;
+		private IntUnaryOperator textChanger = Character::toUpperCase;
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
@@ -745,7 +1597,7 @@ public class JNotepadpp extends JFrame {
 			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_L);
 		}
 
-		private UnaryOperator<String> textChanger = String::toLowerCase;
+		private IntUnaryOperator textChanger = Character::toLowerCase;
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
@@ -766,17 +1618,7 @@ public class JNotepadpp extends JFrame {
 			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_I);
 		}
 
-		private UnaryOperator<String> textChanger = str -> {
-			StringBuilder sb = new StringBuilder(str.length());
-			for (char c : str.toCharArray()) {
-				if (Character.isUpperCase(c)) {
-					sb.append(Character.toLowerCase(c));
-				} else {
-					sb.append(Character.toUpperCase(c));
-				}
-			}
-			return sb.toString();
-		};
+		private IntUnaryOperator textChanger = CaseConverter.INVERT;
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
@@ -844,6 +1686,87 @@ public class JNotepadpp extends JFrame {
 		}
 	};
 
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za micanje
+	 * dupliciranih redaka unutar označenih redaka, pri čemu se veličina slova
+	 * ne razlikuje
+	 */
+	private Action uniqueIgnoreCaseAction = new AbstractLocalizedAction("uniqueIgnoreCase", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_I);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			changeLines(UNIQUE_IGNORE_CASE_OPTION);
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za micanje
+	 * dupliciranih redaka unutar označenih redaka, pri čemu su reci jednaki
+	 * prema pravilima trenutnog jezika
+	 */
+	private Action uniqueCollationAction = new AbstractLocalizedAction("uniqueCollation", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_L);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			changeLines(UNIQUE_COLLATION_OPTION);
+		}
+	};
+
+	/**
+	 * Privatni primjerak razreda koji nasljeđuje
+	 * {@link AbstractLocalizedAction}. Ova akcija koristi se za sortiranje
+	 * redaka datoteke na disku u novu datoteku, bez učitavanja u memoriju
+	 * (vidi {@link ExternalSortWorker}). Sortirana datoteka otvara se u novom
+	 * prozoru
+	 */
+	private Action sortFileAction = new AbstractLocalizedAction("sortFile", flp) {
+
+		private static final long serialVersionUID = 1L;
+
+		{
+			putValue(Action.MNEMONIC_KEY, KeyEvent.VK_F);
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			JFileChooser fc = new JFileChooser();
+			fc.setDialogTitle(flp.getString("openFileDialogTitle"));
+			if (fc.showOpenDialog(JNotepadpp.this) != JFileChooser.APPROVE_OPTION) {
+				return;
+			}
+			Path input = fc.getSelectedFile().toPath();
+
+			String[] options = { flp.getString("ascSort.name"), flp.getString("descSort.name") };
+			int order = JOptionPane.showOptionDialog(JNotepadpp.this, flp.getString("sortFile.order"),
+					flp.getString("sortFile.name"), JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null,
+					options, options[0]);
+			if (order == JOptionPane.CLOSED_OPTION) {
+				return;
+			}
+
+			Path output = chooseSortOutput();
+			if (output == null) {
+				return;
+			}
+			sortExternally(new ExternalSortWorker(input, output, LocalizationProvider.getInstance().getCollator(),
+					order == 0));
+		}
+	};
+
 	/**
 	 * Pomoćna metoda koja stvara novi prazni dokument koji nije nigdje
 	 * spremljen u memoriji
@@ -855,7 +1778,8 @@ public class JNotepadpp extends JFrame {
 
 	/**
 	 * Pomoćna metoda koja stvara novi prozor preko argumenata koji su mu
-	 * predani.
+	 * predani. Ukoliko je dokument spremljen u memoriji, njegov se sadržaj
+	 * učitava u pozadini pa je prozor odmah vidljiv.
 	 *
 	 * @param filePath
 	 *            putanja do datoteke u memoriji iz koje treba učitati dokument
@@ -868,9 +1792,9 @@ public class JNotepadpp extends JFrame {
 	private void addNewTab(Path filePath, boolean inMemory, boolean changed) {
 		int index = tabbedPane.getTabCount();
 	
-		TabPanel tabPanel = TabPanel.createNewTabPanel(this, flp, filePath, inMemory, changed, index);
+		TabPanel tabPanel = inMemory ? createViewerTab(filePath, index) : null;
 		if (tabPanel == null) {
-			return;
+			tabPanel = TabPanel.createNewTabPanel(this, flp, filePath, inMemory, changed, index);
 		}
 	
 		tabPanels.add(tabPanel);
@@ -882,12 +1806,80 @@ public class JNotepadpp extends JFrame {
 		tabbedPane.setSelectedIndex(index);
 	}
 
+	/**
+	 * Pomoćna metoda koja za svaku od datoteka <b>files</b> dodaje prozor koji
+	 * datoteku čita tek kada bude odabran (vidi
+	 * {@link TabPanel#createSessionTabPanel(JNotepadpp, Session.Entry, int)}),
+	 * pa se i tisuće datoteka otvaraju odmah. Kodna stranica datoteke
+	 * određuje se iz njezinog sadržaja, a datoteke veće od
+	 * {@value #MAX_EDITABLE_SIZE} okteta prikazuju se samo za čitanje
+	 *
+	 * @param files
+	 *            datoteke koje se otvaraju
+	 */
+	private void addPendingTabs(List<File> files) {
+		addingTabs = true;
+		for (File file : files) {
+			int index = tabbedPane.getTabCount();
+			Session.Entry entry = new Session.Entry(file.toPath(), null, 0, 0, file.length() >= MAX_EDITABLE_SIZE);
+			TabPanel tabPanel = TabPanel.createSessionTabPanel(this, entry, index);
+
+			tabPanels.add(tabPanel);
+			tabbedPane.insertTab(null, null, tabPanel, null, index);
+			tabbedPane.setTabComponentAt(index, tabPanel.getTabTitle());
+		}
+		addingTabs = false;
+	}
+
+	/**
+	 * Pomoćna metoda koja za datoteku veću od {@value #VIEWER_THRESHOLD}
+	 * okteta stvara prozor koji ju prikazuje samo za čitanje (razred
+	 * {@link FileViewer}). Za datoteke koje se mogu i uređivati korisnik se
+	 * pita želi li prikaz samo za čitanje, a datoteke veće od
+	 * {@value #MAX_EDITABLE_SIZE} okteta uvijek se otvaraju samo za čitanje
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @param index
+	 *            pozicija novog prozora
+	 * @return prozor koji datoteku prikazuje samo za čitanje ili
+	 *         <code>null</code> ukoliko se datoteka otvara za uređivanje
+	 */
+	private TabPanel createViewerTab(Path filePath, int index) {
+		long size;
+		try {
+			size = Files.size(filePath);
+		} catch (IOException e) {
+			return null;
+		}
+		if (size < VIEWER_THRESHOLD) {
+			return null;
+		}
+
+		if (size < MAX_EDITABLE_SIZE && JOptionPane.showConfirmDialog(
+				JNotepadpp.this,
+				String.format(flp.getString("viewer.message"), filePath.getFileName(), size >> 20),
+				flp.getString("viewer.title"),
+				JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+			return null;
+		}
+
+		try {
+			return TabPanel.createViewerTabPanel(this, flp, filePath, index);
+		} catch (IOException e) {
+			// učitavanje za uređivanje javlja pogrešku ukoliko ne uspije
+			return null;
+		}
+	}
+
 	/**
 	 * Pomoćna metoda koja se koristi za spremanje dokumenta čija je pozicija
 	 * primjerka razreda {@link TabPanel} u {@link List}i {@link #tabPanels}
 	 * <b>index</b>. Ukoliko ovaj dokument postoji u memoriji piše se na njegovu
 	 * lokaciju direktnim pozivom metode {@link #writeToFile(Path)}, a inače se
-	 * poziva {@link #saveAs()} metoda
+	 * poziva {@link #saveAs()} metoda. Dokument koji se još učitava se ne
+	 * sprema, a prije prepisivanja datoteke koju je promijenio drugi program
+	 * traži se potvrda korisnika
 	 *
 	 * @param index
 	 *            pozicija unutar {@link List} {@link #tabPanels} s koje se
@@ -895,9 +1887,23 @@ public class JNotepadpp extends JFrame {
 	 */
 	private void save(int index) {
 		TabInfo tabInfo = getTabInfo(index);
+		if (tabInfo.isLoading() || tabPanels.get(index).getViewer() != null) {
+			// djelomično učitan dokument bi prepisao datoteku, a prikaz se ne mijenja
+			return;
+		}
 		// jer metode writeToFile i saveAs rade s tim indexom
 		tabbedPane.setSelectedIndex(index);
 		if (tabInfo.isInMemory()) {
+			if (tabInfo.isExternallyModified() && JOptionPane.showConfirmDialog(
+					this,
+					String.format(flp.getString("overwriteExternal.message"),
+					tabInfo.getTabFilePath().toAbsolutePath().toString()),
+					flp.getString("overwriteExternal.title"),
+					JOptionPane.YES_NO_OPTION,
+					JOptionPane.WARNING_MESSAGE) != JOptionPane.YES_OPTION) {
+				// korisnik ne želi prepisati noviji sadržaj datoteke
+				return;
+			}
 			writeToFile(tabInfo.getTabFilePath());
 		} else {
 			saveAs();
@@ -906,29 +1912,95 @@ public class JNotepadpp extends JFrame {
 
 	/**
 	 * Pomoćna metoda koja se koristi za stvaranje datoteke ukoliko ona ne
-	 * postoji te pisanje sadržaja dokumenta trenutnog prozora u tu datoteku
+	 * postoji te pisanje sadržaja dokumenta trenutnog prozora u tu datoteku.
+	 * Na dretvi za obradu događaja stvara se samo slika dokumenta, dok se
+	 * kodiranje i pisanje obavljaju u pozadini (razred {@link FileSaver}).
+	 * Spremanja se izvode jedno za drugim, redoslijedom kojim su zatražena.
+	 * Dokument se zapisuje u kodnoj stranici i s nizom za odvajanje redaka
+	 * koji su prepoznati prilikom učitavanja (vidi {@link TabInfo#getTextFormat()}).
+	 * Praćenje rasta datoteke se tijekom spremanja zaustavlja
 	 *
 	 * @param filePath
 	 *            putanja na kojoj se treba opcionalno stvoriti datoteka i u nju
 	 *            spremiti sadržaj dokumenta trenutnog prozora
 	 */
 	private void writeToFile(Path filePath) {
+		TabPanel tabPanel = getCurrentTabPanel();
+		TabInfo info = tabPanel.getTabInfo();
+		long modificationCount = info.getModificationCount();
+		TextFormat format = info.getTextFormat();
+		// spremanje zamjenjuje datoteku, pa se praćenje nastavlja nad spremljenom
+		boolean following = info.isFollowing();
+		tabPanel.stopFollowing();
+		// vlastito spremanje nije promjena koju je napravio drugi program
+		FileChangeWatcher.getInstance().beginWrite(filePath);
+
+		FileSaver saver = new FileSaver(FileSaver.snapshotOf(getCurrentTextArea().getDocument()), format,
+				filePath);
+		saver.addPropertyChangeListener(e -> {
+			if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				savingFinished(saver, tabPanel, format, modificationCount, following);
+			}
+		});
+		pendingSaves++;
+		saveExecutor.execute(saver);
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva u dretvi za obradu događaja nakon što je
+	 * pozadinsko spremanje završilo. Model <b>info</b> se označava spremljenim
+	 * samo ukoliko dokument nije mijenjan od trenutka stvaranja slike, a
+	 * zaustavljeno praćenje rasta datoteke se nastavlja. Ukoliko je korisnik
+	 * zatražio izlaz iz programa, program se gasi nakon posljednjeg spremanja
+	 *
+	 * @param saver
+	 *            spremanje koje je završilo
+	 * @param tabPanel
+	 *            prozor čiji je dokument spremljen
+	 * @param format
+	 *            format u kojem je dokument spremljen
+	 * @param modificationCount
+	 *            broj izmjena dokumenta u trenutku stvaranja slike
+	 * @param following
+	 *            zastavica koja ukazuje na to je li se prije spremanja
+	 *            pratio rast datoteke dokumenta
+	 */
+	private void savingFinished(FileSaver saver, TabPanel tabPanel, TextFormat format, long modificationCount,
+			boolean following) {
+		pendingSaves--;
+		TabInfo info = tabPanel.getTabInfo();
+		Path filePath = saver.getFilePath();
+		FileChangeWatcher.getInstance().endWrite(filePath);
 		try {
-			String toWrite = getCurrentTextArea().getText();
-			Files.write(filePath, toWrite.getBytes(StandardCharsets.UTF_8));
-		} catch (IOException e) {
+			saver.get();
+		} catch (InterruptedException | ExecutionException e) {
+			exitRequested = false;
+			String message = e.getCause() instanceof CharacterCodingException
+					? String.format(flp.getString("encodingError.message"), format.getCharset())
+					: String.format(flp.getString("saveAsError.message"), filePath);
 			JOptionPane.showMessageDialog(
 					JNotepadpp.this,
-					String.format(flp.getString("saveAsError.message"),filePath.toAbsolutePath()),
+					message,
 					flp.getString("saveAsError.title"), 
 					JOptionPane.ERROR_MESSAGE);
+			// datoteka nije zamijenjena, pa praćenje nastavlja gdje je stalo
+			if (following && tabPanels.contains(tabPanel)) {
+				tabPanel.startFollowing(flp);
+			}
 			return;
 		}
 		// promjena moguća tek kada je sve izvedene korektno
-		TabInfo info = getTabInfo(tabbedPane.getSelectedIndex());
 		info.setTabFilePath(filePath);
-		info.setChanged(false);
+		info.setChanged(info.getModificationCount() != modificationCount);
 		info.setInMemory(true);
+		tabPanel.fileSaved();
+		if (following && tabPanels.contains(tabPanel)) {
+			tabPanel.startFollowing(flp);
+		}
+
+		if (exitRequested && pendingSaves == 0) {
+			dispose();
+		}
 	}
 
 	/**
@@ -938,6 +2010,9 @@ public class JNotepadpp extends JFrame {
 	 * sadržaj dokumenta
 	 */
 	private void saveAs() {
+		if (getCurrentTextArea() == null) {
+			return;
+		}
 		JFileChooser fc = new JFileChooser();
 		fc.setDialogTitle(flp.getString("saveAsDialogTitle"));
 	
@@ -962,6 +2037,258 @@ public class JNotepadpp extends JFrame {
 		writeToFile(filePath);
 	}
 
+	/**
+	 * Pomoćna metoda koja dohvaća povijest izmjena trenutnog prozora
+	 *
+	 * @return povijest izmjena trenutnog prozora ili <code>null</code> ukoliko
+	 *         nema otvorenih prozora
+	 */
+	private EditHistory getCurrentHistory() {
+		int index = tabbedPane.getSelectedIndex();
+		if (index < 0 || index > tabPanels.size() - 1) {
+			return null;
+		}
+		return tabPanels.get(index).getHistory();
+	}
+
+	/**
+	 * Pomoćna metoda koja poništava ili ponovno izvodi posljednju izmjenu
+	 * trenutnog dokumenta. Dokument koji se ne može uređivati (jer se učitava
+	 * ili nad njim radi pozadinski posao) se ne mijenja
+	 *
+	 * @param undo
+	 *            zastavica koja ukazuje na to poništava li se izmjena
+	 *            (<code>true</code>) ili se ponovno izvodi
+	 *            (<code>false</code>)
+	 */
+	private void changeHistory(boolean undo) {
+		JTextArea textArea = getCurrentTextArea();
+		if (textArea == null || !textArea.isEditable()) {
+			return;
+		}
+
+		EditHistory history = getCurrentHistory();
+		if (undo) {
+			history.undo();
+		} else {
+			history.redo();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja pretražuje sve otvorene dokumente. Svaki dokument
+	 * pretražuje se zasebnim zadatkom nad slikom dokumenta stvorenom u
+	 * trenutku pokretanja (vidi {@link MultiSearchWorker}), a pogotci se
+	 * prikazuju u prozoru {@link SearchResultsDialog} čim su pronađeni.
+	 * Dokumenti koji se još učitavaju se ne pretražuju
+	 */
+	private void findInTabs() {
+		if (tabPanels.isEmpty()) {
+			return;
+		}
+
+		JTextArea current = getCurrentTextArea();
+		SearchQueryPanel queryPanel = new SearchQueryPanel(flp, current == null ? "" : current.getSelectedText());
+		if (JOptionPane.showConfirmDialog(JNotepadpp.this, queryPanel, flp.getString("findInTabs.title"),
+				JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+			return;
+		}
+
+		SearchQuery query = queryPanel.getQuery();
+		if (query.isEmpty()) {
+			return;
+		}
+		try {
+			query.compile();
+		} catch (PatternSyntaxException e) {
+			JOptionPane.showMessageDialog(JNotepadpp.this, flp.getString("findBar.invalid"),
+					flp.getString("findInTabs.title"), JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		Map<TabPanel, ITextSource> sources = new LinkedHashMap<>();
+		for (TabPanel tabPanel : tabPanels) {
+			if (!tabPanel.getTabInfo().isLoading() && tabPanel.getDocument() != null) {
+				sources.put(tabPanel, FileSaver.snapshotOf(tabPanel.getDocument()));
+			}
+		}
+
+		SearchResultsDialog<TabPanel> dialog = new SearchResultsDialog<>(JNotepadpp.this, flp,
+				flp.getString("findInTabs.title"), this::openHit);
+		dialog.start(new MultiSearchWorker<>(query, sources,
+				tabPanel -> tabPanel.getTabInfo().getTabFilePath().getFileName().toString(), dialog::addHits));
+	}
+
+	/**
+	 * Pomoćna metoda koja prikazuje pogodak pretraživanja otvorenih
+	 * dokumenata: odabire prozor pogotka i označava pogođeni tekst. Ukoliko
+	 * je prozor u međuvremenu zatvoren ništa se ne događa, a ukoliko je
+	 * dokument u međuvremenu skraćen oznaka se ograničava na njegov kraj
+	 *
+	 * @param hit
+	 *            pogodak koji se prikazuje
+	 */
+	private void openHit(SearchHit<TabPanel> hit) {
+		int index = tabPanels.indexOf(hit.getTarget());
+		if (index < 0) {
+			return;
+		}
+
+		tabbedPane.setSelectedIndex(index);
+		JTextArea textArea = hit.getTarget().getTextArea();
+		int length = textArea.getDocument().getLength();
+		textArea.select(Math.min(hit.getOffset(), length), Math.min(hit.getOffset() + hit.getLength(), length));
+		textArea.requestFocusInWindow();
+	}
+
+	/**
+	 * Pomoćna metoda koja pretražuje datoteke unutar direktorija koji odabere
+	 * korisnik. Datoteke se pretražuju u pozadini (vidi
+	 * {@link FileSearchWorker}), a pogotci se prikazuju u prozoru
+	 * {@link SearchResultsDialog} čim su pronađeni
+	 */
+	private void findInFiles() {
+		TabInfo tabInfo = getTabInfo(tabbedPane.getSelectedIndex());
+		Path directory = tabInfo != null && tabInfo.isInMemory()
+				? tabInfo.getTabFilePath().toAbsolutePath().getParent()
+				: Paths.get("").toAbsolutePath();
+
+		JTextArea current = getCurrentTextArea();
+		SearchQueryPanel queryPanel = new SearchQueryPanel(flp, current == null ? "" : current.getSelectedText());
+		JTextField directoryField = new JTextField(directory == null ? "" : directory.toString());
+		JButton browse = new JButton(flp.getString("findInFiles.browse"));
+		browse.addActionListener(e -> {
+			JFileChooser fc = new JFileChooser(directoryField.getText());
+			fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+			if (fc.showOpenDialog(queryPanel) == JFileChooser.APPROVE_OPTION) {
+				directoryField.setText(fc.getSelectedFile().getAbsolutePath());
+			}
+		});
+		JPanel directoryPanel = new JPanel(new BorderLayout());
+		directoryPanel.add(directoryField, BorderLayout.CENTER);
+		directoryPanel.add(browse, BorderLayout.EAST);
+		JTextField filterField = new JTextField("*");
+		queryPanel.addRow("findInFiles.directory", directoryPanel);
+		queryPanel.addRow("findInFiles.filter", filterField);
+
+		String title = flp.getString("findInFiles.title");
+		if (JOptionPane.showConfirmDialog(JNotepadpp.this, queryPanel, title,
+				JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+			return;
+		}
+
+		SearchQuery query = queryPanel.getQuery();
+		if (query.isEmpty()) {
+			return;
+		}
+		try {
+			query.compile();
+		} catch (PatternSyntaxException e) {
+			JOptionPane.showMessageDialog(JNotepadpp.this, flp.getString("findBar.invalid"), title,
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		Path root;
+		try {
+			root = Paths.get(directoryField.getText().trim()).toAbsolutePath();
+		} catch (InvalidPathException e) {
+			root = null;
+		}
+		if (root == null || !Files.isDirectory(root)) {
+			JOptionPane.showMessageDialog(JNotepadpp.this,
+					String.format(flp.getString("findInFiles.noDirectory"), directoryField.getText()), title,
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		PathMatcher filter;
+		try {
+			filter = FileSystems.getDefault().getPathMatcher("glob:" + filterField.getText().trim());
+		} catch (IllegalArgumentException e) {
+			JOptionPane.showMessageDialog(JNotepadpp.this,
+					String.format(flp.getString("findInFiles.invalidFilter"), filterField.getText()), title,
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		SearchResultsDialog<Path> dialog = new SearchResultsDialog<>(JNotepadpp.this, flp, title,
+				this::openFileHit);
+		dialog.start(new FileSearchWorker(query, root, filter, dialog::addHits));
+	}
+
+	/**
+	 * Pomoćna metoda koja prikazuje pogodak pretraživanja datoteka. Ukoliko je
+	 * datoteka već otvorena odabire se njezin prozor, a inače se otvara u
+	 * novom prozoru. Pogođeni tekst označava se tek kada je dokument učitan
+	 *
+	 * @param hit
+	 *            pogodak koji se prikazuje
+	 */
+	private void openFileHit(SearchHit<Path> hit) {
+		Path filePath = hit.getTarget().toAbsolutePath().normalize();
+		TabPanel tabPanel = null;
+		for (TabPanel candidate : tabPanels) {
+			TabInfo tabInfo = candidate.getTabInfo();
+			if (tabInfo.isInMemory() && tabInfo.getTabFilePath().toAbsolutePath().normalize().equals(filePath)) {
+				tabPanel = candidate;
+				break;
+			}
+		}
+		if (tabPanel == null) {
+			addNewTab(filePath, true, false);
+			tabPanel = tabPanels.get(tabPanels.size() - 1);
+		} else {
+			tabbedPane.setSelectedIndex(tabPanels.indexOf(tabPanel));
+		}
+
+		TabPanel target = tabPanel;
+		TabInfo tabInfo = target.getTabInfo();
+		// prikaz samo za čitanje sam čeka da indeks dosegne redak
+		if (!tabInfo.isLoading() || target.getViewer() != null) {
+			selectLineHit(target, hit);
+			return;
+		}
+		tabInfo.addChangeListener(new ChangeListener() {
+
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (tabInfo.isLoading()) {
+					return;
+				}
+				tabInfo.removeChangeListener(this);
+				if (tabPanels.contains(target)) {
+					tabbedPane.setSelectedIndex(tabPanels.indexOf(target));
+					selectLineHit(target, hit);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja u prozoru <b>tabPanel</b> označava pogodak zadan
+	 * retkom i pozicijom unutar retka. Redak i pozicija ograničavaju se na
+	 * granice dokumenta
+	 *
+	 * @param tabPanel
+	 *            prozor u kojem se označava pogodak
+	 * @param hit
+	 *            pogodak koji se označava
+	 */
+	private void selectLineHit(TabPanel tabPanel, SearchHit<?> hit) {
+		if (tabPanel.getViewer() != null) {
+			tabPanel.getViewer().goToLine(hit.getLine());
+			return;
+		}
+		JTextArea textArea = tabPanel.getTextArea();
+		ILineIndex lineIndex = ILineIndex.of(textArea.getDocument());
+		int line = Math.min(hit.getLine(), lineIndex.getLineCount() - 1);
+		int length = textArea.getDocument().getLength();
+		int start = Math.min(lineIndex.getLineStartOffset(line) + hit.getOffset(), length);
+		textArea.select(start, Math.min(start + hit.getLength(), length));
+		textArea.requestFocusInWindow();
+	}
+
 	/**
 	 * Pomoćna metoda koja iz mape akcije koja se dobije pozivom
 	 * {@link JTextArea#getActionMap()} poziva akciju pod ključem
@@ -985,10 +2312,10 @@ public class JNotepadpp extends JFrame {
 
 	/**
 	 * Pomoćna metoda koja zatvara dokument na poziciji <b>index</b> unutar
-	 * članske varijable {@link #tabbedPane}. Metoda također uklanja primjerak
-	 * razreda {@link TabPanel} koji je predstavljao prozor na toj poziciji iz
-	 * {@link List}e {@link #tabPanels}. Potom se poziva metoda
-	 * {@link #changeTabInfoIndexes()}
+	 * članske varijable {@link #tabbedPane}. Ukoliko je dokument mijenjan,
+	 * korisnik se pita želi li ga spremiti, a prozor se potom uklanja metodom
+	 * {@link #removeTabAt(int)}. Ukoliko ne ostane niti jedan prozor, stvara
+	 * se novi prazni dokument
 	 *
 	 * @param index
 	 *            pozicija s koje se unutar {@link #tabbedPane}, odnosno
@@ -999,20 +2326,40 @@ public class JNotepadpp extends JFrame {
 		if (tabInfo.isChanged() && !userWantsToClose(tabInfo)) {
 			return;
 		}
+		removeTabAt(index);
+
+		if (tabbedPane.getTabCount() == 0) {
+			createBlankDocument();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja, bez ispitivanja korisnika, uklanja prozor na
+	 * poziciji <b>index</b> unutar članske varijable {@link #tabbedPane}.
+	 * Metoda također uklanja primjerak razreda {@link TabPanel} koji je
+	 * predstavljao prozor na toj poziciji iz {@link List}e {@link #tabPanels}
+	 * i poziva njegovu metodu {@link TabPanel#close()}, čime se prekida
+	 * eventualno učitavanje. Potom se poziva metoda
+	 * {@link #changeTabInfoIndexes()}
+	 *
+	 * @param index
+	 *            pozicija s koje se unutar {@link #tabbedPane}, odnosno
+	 *            {@link #tabPanels} uklanjaju elementi
+	 */
+	private void removeTabAt(int index) {
 		tabbedPane.remove(index);
 	
-		tabPanels.remove(index);
+		TabPanel closed = tabPanels.remove(index);
+		pendingReloads.remove(closed);
+		liveViews.remove(closed);
+		closed.close();
 		// nakon skidanja mijenjaj indekse
 		changeTabInfoIndexes();
-	
-		if (tabbedPane.getTabCount() == 0) {
-			createBlankDocument();
-		}
 	}
 
 	/**
 	 * Metoda koja ponovo izračunava pozicije prozora po uklanjanju prozora u
-	 * metodi {@link #closeDocumentAt(int)}.Pozicije se ažuriraju u svakom od
+	 * metodi {@link #removeTabAt(int)}.Pozicije se ažuriraju u svakom od
 	 * primjeraka razreda {@link TabInfo} koje sadrže prozori modelirani
 	 * razredima {@link TabPanel} spremljeni unutar {@link #tabPanels}
 	 */
@@ -1055,6 +2402,8 @@ public class JNotepadpp extends JFrame {
 	/**
 	 * Pomoćna metoda koja zatvara aplikaciju, ispitujući pritom korisnika želi
 	 * li ugasiti svaki od pojedinih ažuriranih i nespremljenih dokumenata.
+	 * Ukoliko se neki dokumenti još spremaju, aplikacija se zatvara tek kada
+	 * sva spremanja uspješno završe.
 	 */
 	private void exit() {
 		for (int i = 0, len = tabbedPane.getTabCount(); i < len; i++) {
@@ -1075,6 +2424,12 @@ public class JNotepadpp extends JFrame {
 				}
 			}
 		}
+		storeSession();
+		if (pendingSaves > 0) {
+			// program se gasi kada sva spremanja završe
+			exitRequested = true;
+			return;
+		}
 		// JFrame će se ovime ugasiti time će se maknuti JTabbedPane, a time i
 		// sve ostalo
 		dispose();
@@ -1082,47 +2437,56 @@ public class JNotepadpp extends JFrame {
 
 	/**
 	 * Pomoćna metoda koja mijenja označeni tekst koristeći predanu strategiju
-	 * koja je primjerak razreda koji implementira sučelje {@link UnaryOperator}
-	 * <b>textChanger</b>
+	 * koja je primjerak razreda koji implementira sučelje
+	 * {@link IntUnaryOperator} <b>textChanger</b>, a kojom se preslikava svaki
+	 * znak. Označeni tekst se ne dohvaća iz dokumenta, već se u pozadinskoj
+	 * dretvi paralelno preslikava iz slike dokumenta (razred
+	 * {@link CaseConvertWorker}), a rezultat zamjenjuje označeni tekst jednom
+	 * zamjenom teksta (vidi {@link #replaceLines})
 	 *
 	 * @param textChanger
 	 *            strategija koja je primjerak razreda koji implementira sučelje
-	 *            {@link UnaryOperator} <b>textChanger</b>, a kojom se mijenja
-	 *            označeni tekst
+	 *            {@link IntUnaryOperator} <b>textChanger</b>, a kojom se
+	 *            preslikavaju znakovi označenog teksta
 	 * 
 	 */
-	private void changeText(UnaryOperator<String> textChanger) {
+	private void changeText(IntUnaryOperator textChanger) {
 		JTextArea textArea = getCurrentTextArea();
-		if (textArea == null) {
+		if (textArea == null || !textArea.isEditable()) {
 			return;
 		}
-	
+
+		TabInfo tabInfo = getTabInfo(tabbedPane.getSelectedIndex());
+		if (tabInfo.isLoading()) {
+			return;
+		}
+
 		Caret caret = textArea.getCaret();
 		int dotPosition = caret.getDot();
 		int markPosition = caret.getMark();
-	
-		int offset = Math.min(dotPosition, markPosition);
-		int length = Math.abs(dotPosition - markPosition);
-	
-		Document document = textArea.getDocument();
-	
-		try {
-			String toChange = document.getText(offset, length);
-			document.remove(offset, length);
-			document.insertString(offset, textChanger.apply(toChange), null);
-		} catch (BadLocationException ignorable) {
+		if (dotPosition == markPosition) {
+			return;
 		}
+
+		int from = Math.min(dotPosition, markPosition);
+		int to = Math.max(dotPosition, markPosition);
+		replaceLines(getCurrentTabPanel(), from, to,
+				new CaseConvertWorker(FileSaver.snapshotOf(textArea.getDocument()), from, to, textChanger),
+				"caseProgress.message");
 	}
 
 	/**
 	 * Pomoćna metoda koja se koristi za promijenu linija ovisno o parametru
 	 * <b>changeOption</b>, koji može biti {@value #ASCENDING_SORT_OPTION},
-	 * {@value #DESCENDING_SORT_OPTION} ili {@value #UNIQUE_OPTION}
+	 * {@value #DESCENDING_SORT_OPTION}, {@value #UNIQUE_OPTION},
+	 * {@value #UNIQUE_IGNORE_CASE_OPTION} ili {@value #UNIQUE_COLLATION_OPTION}
 	 *
 	 * @param changeOption
 	 *            parametar o kojem ovisi kako će se označene linije
 	 *            promijeniti. Može biti {@value #ASCENDING_SORT_OPTION},
-	 *            {@value #DESCENDING_SORT_OPTION} ili {@value #UNIQUE_OPTION}
+	 *            {@value #DESCENDING_SORT_OPTION}, {@value #UNIQUE_OPTION},
+	 *            {@value #UNIQUE_IGNORE_CASE_OPTION} ili
+	 *            {@value #UNIQUE_COLLATION_OPTION}
 	 */
 	private void changeLines(short changeOption) {
 		JTextArea textArea = getCurrentTextArea();
@@ -1130,71 +2494,210 @@ public class JNotepadpp extends JFrame {
 			return;
 		}
 
+		TabInfo tabInfo = getTabInfo(tabbedPane.getSelectedIndex());
+		// dokument koji se učitava ili nad kojim radi drugi posao se ne dira
+		if (tabInfo.isLoading() || !textArea.isEditable()) {
+			return;
+		}
+
 		Caret caret = textArea.getCaret();
 		int dotPosition = caret.getDot();
 		int markPosition = caret.getMark();
 
-		try {
-			int dotLine = textArea.getLineOfOffset(dotPosition);
-			int markLine = textArea.getLineOfOffset(markPosition);
-			int from = textArea.getLineStartOffset(Math.min(dotLine, markLine));
-			int to = textArea.getLineEndOffset(Math.max(dotLine, markLine));
-			Document document = textArea.getDocument();
-			int len = to - from;
-			String text = document.getText(from, len);
-
-			String changed;
-			if (changeOption == UNIQUE_OPTION) {
-				changed = uniqueLines(text);
-			} else {
-				changed = sortLines(changeOption == ASCENDING_SORT_OPTION, text);
+		Document document = textArea.getDocument();
+		ILineIndex lineIndex = ILineIndex.of(document);
+		int dotLine = lineIndex.getLineOfOffset(dotPosition);
+		int markLine = lineIndex.getLineOfOffset(markPosition);
+		int from = lineIndex.getLineStartOffset(Math.min(dotLine, markLine));
+		// posljednji redak završava implicitnim znakom novog retka
+		int to = Math.min(lineIndex.getLineEndOffset(Math.max(dotLine, markLine)), document.getLength());
+
+		boolean sort = changeOption == ASCENDING_SORT_OPTION || changeOption == DESCENDING_SORT_OPTION;
+		if (sort && to - from > ExternalMergeSort.configuredSelectionThreshold()) {
+			// označeni reci ne bi stali u memoriju, pa se sortiraju u novu datoteku
+			Path output = chooseSortOutput();
+			if (output != null) {
+				sortExternally(new ExternalSortWorker(FileSaver.snapshotOf(document), from, to,
+						tabInfo.getTextFormat(), output, LocalizationProvider.getInstance().getCollator(),
+						changeOption == ASCENDING_SORT_OPTION));
 			}
-
-			document.remove(from, len);
-			document.insertString(from, changed, null);
-		} catch (BadLocationException e) {
 			return;
 		}
+		ITextSource snapshot = FileSaver.snapshotOf(document);
+		Collator collator = LocalizationProvider.getInstance().getCollator();
+		if (sort) {
+			replaceLines(getCurrentTabPanel(), from, to,
+					new LineSortWorker(snapshot, from, to, collator, changeOption == ASCENDING_SORT_OPTION),
+					"sortProgress.message");
+			return;
+		}
+
+		Mode mode = changeOption == UNIQUE_IGNORE_CASE_OPTION ? Mode.IGNORE_CASE
+				: changeOption == UNIQUE_COLLATION_OPTION ? Mode.COLLATION : Mode.EXACT;
+		replaceLines(getCurrentTabPanel(), from, to, new LineUniqueWorker(snapshot, from, to, mode, collator),
+				"uniqueProgress.message");
 	}
 
 	/**
-	 * Pomoćna metoda koja iz označenih linija predstavljenih primjerkom razreda
-	 * {@link String} <b>text</b> miče duplikate
+	 * Pomoćna metoda koja označene linije (raspon [<b>from</b>, <b>to</b>)
+	 * dokumenta) mijenja rezultatom posla <b>worker</b> koji se izvodi u
+	 * pozadinskoj dretvi (npr. razred {@link LineSortWorker},
+	 * {@link LineUniqueWorker} ili {@link CaseConvertWorker}). Dok posao traje dokument se ne može
+	 * uređivati, napredak se prikazuje primjerkom razreda
+	 * {@link ProgressMonitor} kroz koji se posao može i prekinuti, a rezultat
+	 * zamjenjuje označene linije jednom zamjenom teksta. Ukoliko je dokument u
+	 * međuvremenu ipak mijenjan, rezultat se odbacuje, a ukoliko posao ne
+	 * uspije, korisnika se o tome obavještava
 	 * 
-	 * @param text
-	 *            označene linije iz kojih se miču duplikati
-	 * @return primjerak razreda {@link String} koji predstavlja označene linije
-	 *         iz kojih su maknuti duplikati
+	 * @param tabPanel
+	 *            prozor čiji se reci mijenjaju
+	 * @param from
+	 *            početak označenih linija (uključivo)
+	 * @param to
+	 *            kraj označenih linija (isključivo)
+	 * @param worker
+	 *            posao čiji rezultat zamjenjuje označene linije
+	 * @param messageKey
+	 *            ključ poruke koja se prikazuje dok posao traje
 	 */
-	private String uniqueLines(String text) {
-		// ovo će maknuti duplikate
-		Set<String> toSort = new LinkedHashSet<>(Arrays.asList(text.split("\n")));
+	private void replaceLines(TabPanel tabPanel, int from, int to,
+			SwingWorker<? extends CharSequence, Void> worker, String messageKey) {
+		Document document = tabPanel.getDocument();
+		TabInfo tabInfo = tabPanel.getTabInfo();
+		long modificationCount = tabInfo.getModificationCount();
+
+		ProgressMonitor monitor = new ProgressMonitor(this, flp.getString(messageKey), null, 0, 100);
+		tabPanel.setProcessing(true);
+		worker.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				monitor.setProgress((Integer) e.getNewValue());
+				if (monitor.isCanceled()) {
+					worker.cancel(true);
+				}
+				return;
+			}
+			if (!"state".equals(e.getPropertyName()) || e.getNewValue() != StateValue.DONE) {
+				return;
+			}
 
-		return toSort.stream().collect(Collectors.joining("\n", "", "\n"));
+			monitor.close();
+			tabPanel.setProcessing(false);
+			if (worker.isCancelled()) {
+				return;
+			}
+			CharSequence result;
+			try {
+				result = worker.get();
+			} catch (InterruptedException | ExecutionException ex) {
+				JOptionPane.showMessageDialog(JNotepadpp.this,
+						String.format(flp.getString("replaceLines.error"), ex.getCause()),
+						flp.getString("saveAsError.title"), JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			if (tabInfo.getModificationCount() != modificationCount) {
+				return;
+			}
+			try {
+				replaceText(document, from, to - from, result);
+			} catch (BadLocationException ignorable) {
+			}
+		});
+		worker.execute();
 	}
 
 	/**
-	 * Pomoćna metoda koja označene linije predstavljenih primjerkom razreda
-	 * {@link String} <b>text</b> sortira u redoslijedu ovisno o
-	 * <b>ascending</b> parametru
-	 * 
-	 * @param ascending
-	 *            ukoliko je parametar <code>true</code> metoda sortira uzlazno,
-	 *            inače metoda sortira slizano
-	 * @param text
-	 *            označene linije iz koje se sortiraju
-	 * @return primjerak razreda {@link String} koji predstavlja označene linije
-	 *         sortirane ovisno o parametru <b>ascending</b>
+	 * Pomoćna metoda koja korisnika pita za datoteku u koju se zapisuju
+	 * sortirani reci. Ukoliko datoteka već postoji, korisnik mora potvrditi da
+	 * se ona prepiše
+	 *
+	 * @return putanju odabrane datoteke ili <code>null</code> ukoliko korisnik
+	 *         nije odabrao datoteku
 	 */
-	private String sortLines(boolean ascending, String text) {
-		List<String> toSort = new ArrayList<>(Arrays.asList(text.split("\n")));
+	private Path chooseSortOutput() {
+		JFileChooser fc = new JFileChooser();
+		fc.setDialogTitle(flp.getString("sortFile.saveTitle"));
+		if (fc.showSaveDialog(JNotepadpp.this) != JFileChooser.APPROVE_OPTION) {
+			return null;
+		}
 
-		Collator collator = Collator.getInstance(LocalizationProvider.getInstance().getLocale());
-		Comparator<String> comparator = (word1, word2) -> collator.compare(word1, word2);
+		Path filePath = fc.getSelectedFile().toPath();
+		if (Files.isRegularFile(filePath) && JOptionPane.showConfirmDialog(JNotepadpp.this,
+				flp.getString("overwrite.message"), flp.getString("overwrite.title"),
+				JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+			return null;
+		}
+		return filePath;
+	}
 
-		toSort.sort(ascending ? comparator : comparator.reversed());
+	/**
+	 * Pomoćna metoda koja pokreće vanjsko sortiranje. Napredak se prikazuje
+	 * primjerkom razreda {@link ProgressMonitor} kroz koji se sortiranje može
+	 * i prekinuti, a po završetku se odredišna datoteka otvara u novom prozoru
+	 *
+	 * @param worker
+	 *            vanjsko sortiranje koje se pokreće
+	 */
+	private void sortExternally(ExternalSortWorker worker) {
+		ProgressMonitor monitor = new ProgressMonitor(this, flp.getString("sortProgress.message"), null, 0, 100);
+		worker.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				monitor.setProgress((Integer) e.getNewValue());
+				if (monitor.isCanceled()) {
+					worker.cancel(true);
+				}
+				return;
+			}
+			if (!"state".equals(e.getPropertyName()) || e.getNewValue() != StateValue.DONE) {
+				return;
+			}
 
-		return toSort.stream().collect(Collectors.joining("\n", "", "\n"));
+			monitor.close();
+			if (worker.isCancelled()) {
+				return;
+			}
+			try {
+				worker.get();
+			} catch (InterruptedException | ExecutionException ex) {
+				JOptionPane.showMessageDialog(JNotepadpp.this,
+						String.format(flp.getString("sortFile.error"), worker.getOutput()),
+						flp.getString("saveAsError.title"), JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			addNewTab(worker.getOutput(), true, false);
+		});
+		worker.execute();
+	}
+
+	/**
+	 * Pomoćna metoda koja <b>length</b> znakova dokumenta od pozicije
+	 * <b>offset</b> zamjenjuje tekstom <b>text</b>. Dokumenti razreda
+	 * {@link AbstractDocument} zamjenu obavljaju pod jednim zaključavanjem, a
+	 * dokumenti razreda {@link PieceTableDocument} tekst zadan segmentom
+	 * ({@link Segment}) umeću bez stvaranja primjerka razreda {@link String}
+	 *
+	 * @param document
+	 *            dokument čiji se tekst zamjenjuje
+	 * @param offset
+	 *            početak teksta koji se zamjenjuje
+	 * @param length
+	 *            duljina teksta koji se zamjenjuje
+	 * @param text
+	 *            novi tekst
+	 * @throws BadLocationException
+	 *             ukoliko raspon nije unutar dokumenta
+	 */
+	private static void replaceText(Document document, int offset, int length, CharSequence text)
+			throws BadLocationException {
+		if (text instanceof Segment && document instanceof PieceTableDocument) {
+			((PieceTableDocument) document).replace(offset, length, (Segment) text);
+			return;
+		}
+		if (document instanceof AbstractDocument) {
+			((AbstractDocument) document).replace(offset, length, text.toString(), null);
+			return;
+		}
+		document.remove(offset, length);
+		document.insertString(offset, text.toString(), null);
 	}
 
 	/**
@@ -0,0 +1,108 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchQuery;
+
+/**
+ * Razred nasljeđuje razred {@link JPanel}, a predstavlja obrazac za unos upita
+ * pretraživanja ({@link SearchQuery}) koji se prikazuje u dijalogu prije
+ * pretraživanja više dokumenata ili datoteka. Obrazac sadrži polje za upit i
+ * odabir razlikovanja velikih i malih slova te regularnog izraza, a metodom
+ * {@link #addRow(String, JComponent)} mogu se dodati i drugi reci.
+ *
+ * @author Davor Češljaš
+ */
+public class SearchQueryPanel extends JPanel {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/** Konstanta koja predstavlja broj stupaca polja za unos */
+	private static final int FIELD_COLUMNS = 30;
+
+	/**
+	 * Člasnka varijabla koja je primjerak razreda
+	 * {@link FormLocalizationProvider}, a koja se koristi za lokalizaciju
+	 */
+	private final FormLocalizationProvider flp;
+
+	/** Članska varijabla koja predstavlja polje za upit */
+	private final JTextField queryField = new JTextField(FIELD_COLUMNS);
+
+	/**
+	 * Članska varijabla koja predstavlja odabir razlikovanja velikih i malih
+	 * slova
+	 */
+	private final JCheckBox matchCase = new JCheckBox();
+
+	/** Članska varijabla koja predstavlja odabir regularnog izraza */
+	private final JCheckBox regex = new JCheckBox();
+
+	/** Članska varijabla koja predstavlja broj redaka obrasca */
+	private int rows;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za lokalizaciju
+	 * @param initialText
+	 *            početni tekst upita
+	 */
+	public SearchQueryPanel(FormLocalizationProvider flp, String initialText) {
+		this.flp = flp;
+		setLayout(new GridBagLayout());
+
+		queryField.setText(initialText);
+		matchCase.setText(flp.getString("findBar.matchCase"));
+		regex.setText(flp.getString("findBar.regex"));
+
+		addRow("findBar.find", queryField);
+		addRow(null, matchCase);
+		addRow(null, regex);
+	}
+
+	/**
+	 * Metoda koja dodaje redak obrasca
+	 *
+	 * @param labelKey
+	 *            ključ teksta labele retka ili <code>null</code> ukoliko
+	 *            redak nema labelu
+	 * @param component
+	 *            komponenta retka
+	 */
+	public void addRow(String labelKey, JComponent component) {
+		GridBagConstraints c = new GridBagConstraints();
+		c.gridy = rows++;
+		c.insets = new Insets(2, 2, 2, 2);
+		c.anchor = GridBagConstraints.WEST;
+		if (labelKey != null) {
+			c.gridx = 0;
+			add(new JLabel(flp.getString(labelKey)), c);
+		}
+		c.gridx = 1;
+		c.fill = GridBagConstraints.HORIZONTAL;
+		c.weightx = 1;
+		add(component, c);
+	}
+
+	/**
+	 * Metoda koja dohvaća upit unesen u obrazac
+	 *
+	 * @return upit unesen u obrazac
+	 */
+	public SearchQuery getQuery() {
+		return new SearchQuery(queryField.getText(), matchCase.isSelected(), regex.isSelected());
+	}
+}
@@ -0,0 +1,269 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.AbstractAction;
+import javax.swing.AbstractListModel;
+import javax.swing.Action;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.SwingWorker.StateValue;
+import javax.swing.WindowConstants;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.local.AbstractLocalizedAction;
+import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.search.SearchHit;
+
+/**
+ * Razred nasljeđuje razred {@link JDialog}, a predstavlja prozor s
+ * rezultatima pretraživanja više dokumenata ili datoteka. Pogotci se dodaju
+ * na kraj popisa dok pozadinski posao traje, a popis iscrtava samo vidljive
+ * retke (svi reci su iste visine), pa broj pogodaka ne usporava prikaz.
+ * Tekst retka pogotka računa se tek kada se redak prvi put prikaže (vidi
+ * {@link SearchHit#getPreview()}).
+ *
+ * <p>
+ * Dvoklikom ili tipkom Enter nad pogotkom poziva se promatrač koji otvara
+ * pogodak. Zatvaranjem prozora ili gumbom za prekid pozadinski se posao
+ * prekida.
+ * </p>
+ *
+ * @param <T>
+ *            tip cilja pogotka
+ *
+ * @author Davor Češljaš
+ */
+public class SearchResultsDialog<T> extends JDialog {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/** Konstanta koja predstavlja početnu širinu prozora */
+	private static final int WIDTH = 700;
+
+	/** Konstanta koja predstavlja početnu visinu prozora */
+	private static final int HEIGHT = 400;
+
+	/**
+	 * Članska varijabla koja je primjerak razreda
+	 * {@link FormLocalizationProvider}, a koja se koristi za lokalizaciju
+	 */
+	private final FormLocalizationProvider flp;
+
+	/** Članska varijabla koja predstavlja model popisa pogodaka */
+	private final HitListModel<T> model = new HitListModel<>();
+
+	/** Članska varijabla koja predstavlja popis pogodaka */
+	private final JList<SearchHit<T>> list = new JList<>(model);
+
+	/** Članska varijabla koja predstavlja labelu sa stanjem pretraživanja */
+	private final JLabel statusLabel = new JLabel();
+
+	/** Članska varijabla koja predstavlja akciju za prekid pretraživanja */
+	private Action cancelAction;
+
+	/**
+	 * Članska varijabla koja predstavlja pozadinski posao pretraživanja ili
+	 * <code>null</code>
+	 */
+	private SwingWorker<Integer, ?> worker;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param owner
+	 *            vlasnik prozora
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za lokalizaciju
+	 * @param title
+	 *            naslov prozora
+	 * @param opener
+	 *            promatrač koji otvara odabrani pogodak
+	 */
+	public SearchResultsDialog(JFrame owner, FormLocalizationProvider flp, String title,
+			Consumer<SearchHit<T>> opener) {
+		super(owner, title, false);
+		this.flp = flp;
+
+		setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+		setSize(WIDTH, HEIGHT);
+		setLocationRelativeTo(owner);
+		initGUI(opener);
+	}
+
+	/**
+	 * Pomoćna metoda koja inicijalizira grafičko korisničko sučelje prozora
+	 *
+	 * @param opener
+	 *            promatrač koji otvara odabrani pogodak
+	 */
+	private void initGUI(Consumer<SearchHit<T>> opener) {
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		// jednaka visina redaka omogućava iscrtavanje samo vidljivih redaka
+		list.setFixedCellHeight(new JLabel("X").getPreferredSize().height + 2);
+		list.setCellRenderer(new DefaultListCellRenderer() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+					boolean isSelected, boolean cellHasFocus) {
+				return super.getListCellRendererComponent(list, value.toString(), index, isSelected,
+						cellHasFocus);
+			}
+		});
+		list.addMouseListener(new MouseAdapter() {
+
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2 && list.getSelectedValue() != null) {
+					opener.accept(list.getSelectedValue());
+				}
+			}
+		});
+		list.getInputMap().put(KeyStroke.getKeyStroke("ENTER"), "openHit");
+		list.getActionMap().put("openHit", new AbstractAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (list.getSelectedValue() != null) {
+					opener.accept(list.getSelectedValue());
+				}
+			}
+		});
+
+		cancelAction = new AbstractLocalizedAction("cancelSearch", flp) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (worker != null) {
+					worker.cancel(true);
+				}
+			}
+		};
+
+		JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		bottom.add(new JButton(cancelAction));
+		bottom.add(statusLabel);
+
+		add(new JScrollPane(list), BorderLayout.CENTER);
+		add(bottom, BorderLayout.SOUTH);
+	}
+
+	/**
+	 * Metoda koja pokreće pozadinski posao pretraživanja. Posao pogotke
+	 * predaje metodi {@link #addHits(List)}, a prekida se zatvaranjem prozora
+	 *
+	 * @param worker
+	 *            pozadinski posao pretraživanja
+	 */
+	public void start(SwingWorker<Integer, ?> worker) {
+		this.worker = worker;
+		statusLabel.setText(flp.getString("searchResults.searching"));
+		worker.addPropertyChangeListener(e -> {
+			if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				searchFinished();
+			}
+		});
+		worker.execute();
+		setVisible(true);
+	}
+
+	/**
+	 * Metoda koja dodaje pogotke na kraj popisa. Poziva se iz dretve za
+	 * obradu događaja
+	 *
+	 * @param hits
+	 *            pogotci koji se dodaju
+	 */
+	public void addHits(List<SearchHit<T>> hits) {
+		model.addAll(hits);
+		statusLabel.setText(String.format(flp.getString("searchResults.progress"), model.getSize()));
+	}
+
+	@Override
+	public void dispose() {
+		if (worker != null) {
+			worker.cancel(true);
+		}
+		super.dispose();
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva po završetku pozadinskog posla
+	 */
+	private void searchFinished() {
+		cancelAction.setEnabled(false);
+		if (worker.isCancelled()) {
+			statusLabel.setText(String.format(flp.getString("searchResults.cancelled"), model.getSize()));
+			return;
+		}
+		statusLabel.setText(String.format(flp.getString("searchResults.done"), model.getSize()));
+	}
+
+	/**
+	 * Privatni razred koji predstavlja model popisa pogodaka kojem se pogotci
+	 * dodaju samo na kraj, u skupinama
+	 *
+	 * @param <T>
+	 *            tip cilja pogotka
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class HitListModel<T> extends AbstractListModel<SearchHit<T>> {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja pogotke */
+		private final List<SearchHit<T>> hits = new ArrayList<>();
+
+		@Override
+		public int getSize() {
+			return hits.size();
+		}
+
+		@Override
+		public SearchHit<T> getElementAt(int index) {
+			return hits.get(index);
+		}
+
+		/**
+		 * Metoda koja dodaje pogotke na kraj popisa i obavještava popis
+		 * jednim događajem
+		 *
+		 * @param added
+		 *            pogotci koji se dodaju
+		 */
+		public void addAll(List<SearchHit<T>> added) {
+			if (added.isEmpty()) {
+				return;
+			}
+			int first = hits.size();
+			hits.addAll(added);
+			fireIntervalAdded(this, first, hits.size() - 1);
+		}
+	}
+}
@@ -11,13 +11,14 @@ import javax.swing.SwingConstants;
 import javax.swing.border.Border;
 import javax.swing.event.CaretEvent;
 import javax.swing.event.CaretListener;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
-import javax.swing.text.BadLocationException;
+import javax.swing.event.ChangeListener;
 import javax.swing.text.Caret;
 
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ILineIndex;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizedLabel;
+import hr.fer.zemris.java.hw11.jnotepadpp.viewer.FileViewer;
 
 /**
  * Razred koji nasljeđuje razred {@link JPanel}. Razred se koristi kao statusna
@@ -25,7 +26,9 @@ import hr.fer.zemris.java.hw11.jnotepadpp.local.LocalizedLabel;
  * primjerak ovog razreda sadrži dva primjerka razreda {@link LocalizedLabel} i
  * jedan primjerak razreda {@link Clock}. Unutar primjeraka razreda
  * {@link LocalizedLabel} ispisuje se duljina teksta te trenutni redak, stupac i
- * selekcija.
+ * selekcija. Statusna traka prozora koji datoteku prikazuje samo za čitanje
+ * ({@link FileViewer}) umjesto duljine teksta ispisuje veličinu datoteke, a
+ * redak pokazivača računa iz indeksa redaka prikaza.
  * 
  * @see JPanel
  * @see Clock
@@ -38,6 +41,9 @@ public class StatusBar extends JPanel {
 	/** Konstanta koja se koristi prilikom serijalizacije objekata */
 	private static final long serialVersionUID = 1L;
 
+	/** Konstanta koja se ispisuje umjesto retka koji još nije poznat */
+	private static final String UNKNOWN_LINE = "?";
+
 	/**
 	 * Članska varijabla koja predstavlja labelu unutar koje se ispisuje duljina
 	 * teksta
@@ -63,6 +69,18 @@ public class StatusBar extends JPanel {
 	 */
 	private JTextArea textArea;
 
+	/**
+	 * Članska varijabla koja predstavlja prikaz datoteke samo za čitanje ili
+	 * <code>null</code> ukoliko se prati {@link #textArea}
+	 */
+	private FileViewer viewer;
+
+	/**
+	 * Članska varijabla koja predstavlja statistiku dokumenta iz koje se
+	 * dohvaća duljina teksta
+	 */
+	private DocumentStatistics statistics;
+
 	/**
 	 * Člasnka varijabla koja je primjerak razreda
 	 * {@link FormLocalizationProvider}, a koja se koristi za lokalizaciju
@@ -70,6 +88,25 @@ public class StatusBar extends JPanel {
 	 */
 	private FormLocalizationProvider flp;
 
+	/**
+	 * Članska varijabla koja predstavlja osvježavanje labele
+	 * {@link #lengthLabel} koje se prijavljuje razredu {@link UpdateCoalescer}
+	 */
+	private final Runnable lengthLabelUpdate = this::setLengthLabelData;
+
+	/**
+	 * Članska varijabla koja predstavlja osvježavanje labele
+	 * {@link #infoLabel} koje se prijavljuje razredu {@link UpdateCoalescer}
+	 */
+	private final Runnable infoLabelUpdate = this::setInfoLabelData;
+
+	/**
+	 * Članska varijabla koja predstavlja promatrača statistike dokumenta koji
+	 * osvježava labelu {@link #lengthLabel}
+	 */
+	private final ChangeListener statisticsListener = e -> UpdateCoalescer.getInstance()
+			.schedule(lengthLabelUpdate);
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Konstruktor sve
 	 * parametre sprema u odgovarajuće članske varijable te ih koristi kroz svoj
@@ -82,12 +119,40 @@ public class StatusBar extends JPanel {
 	 * @param textArea
 	 *            primjerak razreda {@link JTextArea}, a ovdje se koristi za
 	 *            pračenje promjena i vađenje teksta koju ona trenutno ispisuje
+	 * @param statistics
+	 *            statistika dokumenta iz koje se dohvaća duljina teksta
 	 * @param clock
 	 *            varijabla koja predstavlja labelu unutar koje je zapisan
 	 *            trenutni datum i vrijeme
 	 */
-	public StatusBar(FormLocalizationProvider flp, JTextArea textArea, Clock clock) {
+	public StatusBar(FormLocalizationProvider flp, JTextArea textArea, DocumentStatistics statistics,
+			Clock clock) {
 		this.textArea = textArea;
+		this.statistics = statistics;
+		this.clock = clock;
+		this.flp = flp;
+
+		setLayout(new GridLayout(1, 3));
+
+		initGUI();
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira statusnu traku prozora koji datoteku
+	 * prikazuje samo za čitanje
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider}, a koja se
+	 *            koristi za lokalizaciju trenutnih naziva unutar labela
+	 *            {@link #infoLabel} i {@link #lengthLabel}
+	 * @param viewer
+	 *            prikaz datoteke čiji se pokazivač prati
+	 * @param clock
+	 *            varijabla koja predstavlja labelu unutar koje je zapisan
+	 *            trenutni datum i vrijeme
+	 */
+	public StatusBar(FormLocalizationProvider flp, FileViewer viewer, Clock clock) {
+		this.viewer = viewer;
 		this.clock = clock;
 		this.flp = flp;
 
@@ -158,34 +223,45 @@ public class StatusBar extends JPanel {
 	}
 
 	/**
-	 * Pomoćna metoda koja postavlja promatrače na sve promjene teksta i pozicije
-	 * znaka za umetanje nad članskom varijablom {@link #textArea}
+	 * Pomoćna metoda koja postavlja promatrače na promjene statistike
+	 * {@link #statistics} i pozicije znaka za umetanje nad članskom varijablom
+	 * {@link #textArea}, kao i na zamjenu dokumenta koji ona prikazuje.
+	 * Promatrači labele ne osvježavaju odmah, već osvježavanje prijavljuju
+	 * razredu {@link UpdateCoalescer}, pa se labele skupnom izmjenom osvježe
+	 * samo jednom
 	 */
 	private void setupTextAreaListeners() {
+		if (viewer != null) {
+			// pokazivač i napredak indeksiranja prate se istim promatračem
+			viewer.addChangeListener(e -> UpdateCoalescer.getInstance().schedule(infoLabelUpdate));
+			return;
+		}
+
 		textArea.addCaretListener(new CaretListener() {
 
 			@Override
 			public void caretUpdate(CaretEvent e) {
-				setInfoLabelData();
+				UpdateCoalescer.getInstance().schedule(infoLabelUpdate);
 			}
 		});
 
-		textArea.getDocument().addDocumentListener(new DocumentListener() {
-
-			@Override
-			public void removeUpdate(DocumentEvent e) {
-				setLengthLabelData();
-			}
-
-			@Override
-			public void insertUpdate(DocumentEvent e) {
-				setLengthLabelData();
-			}
+		statistics.addChangeListener(statisticsListener);
+		// po završetku učitavanja velike datoteke dokument se zamjenjuje
+		textArea.addPropertyChangeListener("document",
+				e -> UpdateCoalescer.getInstance().schedule(infoLabelUpdate));
+	}
 
-			@Override
-			public void changedUpdate(DocumentEvent e) {
-			}
-		});
+	/**
+	 * Metoda koja odjavljuje statusnu traku sa statistike dokumenta i
+	 * lokalizacije, koji nadživljavaju traku. Metoda se poziva kada se
+	 * prikaz prozora oslobađa
+	 */
+	public void dispose() {
+		flp.removeLocalizationListener(lengthLabel);
+		flp.removeLocalizationListener(infoLabel);
+		if (statistics != null) {
+			statistics.removeChangeListener(statisticsListener);
+		}
 	}
 
 	/**
@@ -193,19 +269,20 @@ public class StatusBar extends JPanel {
 	 * {@link #infoLabel}. Ova metoda odgovorna je za ispis unutar same labele
 	 */
 	private void setInfoLabelData() {
+		if (viewer != null) {
+			setViewerInfoLabelData();
+			return;
+		}
 		Caret caret = textArea.getCaret();
 
 		int dotPosition = caret.getDot();
-		int line = 0;
-		int column = 0;
-		try {
-			// linije i stupci u sublime textu počinju od 1,1 pa sa i ja tako
-			// uzeo
-			line = textArea.getLineOfOffset(dotPosition);
-			column = dotPosition - textArea.getLineStartOffset(line) + 1;
-			line++;
-		} catch (BadLocationException ignorable) {
-		}
+		// indeks redaka pretvara poziciju u redak u O(log n)
+		ILineIndex lineIndex = ILineIndex.of(textArea.getDocument());
+		// linije i stupci u sublime textu počinju od 1,1 pa sa i ja tako
+		// uzeo
+		int line = lineIndex.getLineOfOffset(dotPosition);
+		int column = dotPosition - lineIndex.getLineStartOffset(line) + 1;
+		line++;
 
 		int selection = Math.abs(dotPosition - caret.getMark());
 
@@ -218,6 +295,23 @@ public class StatusBar extends JPanel {
 	 * {@link #lengthLabel}. Ova metoda odgovorna je za ispis unutar same labele
 	 */
 	private void setLengthLabelData() {
-		lengthLabel.setText(flp.getString("statusBar.length") + textArea.getText().length());
+		if (viewer != null) {
+			lengthLabel.setText(flp.getString("statusBar.size") + viewer.getFileSize());
+			return;
+		}
+		lengthLabel.setText(flp.getString("statusBar.length") + statistics.getCharacters());
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja labelu {@link #infoLabel} prema pokazivaču
+	 * prikaza {@link #viewer}. Dok dio datoteke s pokazivačem nije indeksiran,
+	 * umjesto retka ispisuje se {@value #UNKNOWN_LINE}
+	 */
+	private void setViewerInfoLabelData() {
+		long line = viewer.getCaretLine();
+		infoLabel.setText(String.format("%s %s %s",
+				flp.getString("statusBar.line") + (line < 0 ? UNKNOWN_LINE : String.valueOf(line + 1)),
+				flp.getString("statusBar.column") + (viewer.getCaretColumn() + 1),
+				flp.getString("statusBar.selection") + 0));
 	}
 }
@@ -12,6 +12,8 @@ import javax.swing.JTabbedPane;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
+
 /**
  * Razred koji predstavlja model primjerka razreda {@link TabPanel}. Razred
  * sadrži člasnke varijable koje spremaju stanje dokumenta (datoteke) koji se
@@ -53,6 +55,20 @@ public class TabInfo {
 	 */
 	private static final int IMAGE_SIZE = 15;
 
+	/**
+	 * Konstanta koja predstavlja vrijednost napretka učitavanja dokumenta koji
+	 * se ne učitava
+	 */
+	public static final int NOT_LOADING = -1;
+
+	/**
+	 * Konstanta koja predstavlja vrijednost napretka učitavanja dokumenta
+	 * prozora prethodne sjednice čija datoteka još nije počela s čitanjem.
+	 * Takav se dokument smatra dokumentom koji se učitava, ali napredak
+	 * učitavanja nije poznat
+	 */
+	public static final int PENDING = -2;
+
 	static {
 		GREEN_DISC = loadIcon("icons/green-disc.png");
 		RED_DISC = loadIcon("icons/red-disc.png");
@@ -75,6 +91,38 @@ public class TabInfo {
 	 */
 	private boolean inMemory;
 
+	/**
+	 * Članska varijabla koja predstavlja napredak učitavanja dokumenta (u
+	 * postotcima), {@value #NOT_LOADING} ukoliko se dokument ne učitava ili
+	 * {@value #PENDING} ukoliko čitanje još nije počelo
+	 */
+	private int loadProgress = NOT_LOADING;
+
+	/**
+	 * Članska varijabla koja ukazuje na to prati li se rast datoteke
+	 * dokumenta
+	 */
+	private boolean following;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da je datoteku dokumenta
+	 * promijenio drugi program
+	 */
+	private boolean externallyModified;
+
+	/**
+	 * Članska varijabla koja predstavlja format zapisa dokumenta u datoteci
+	 * (kodnu stranicu i niz znakova za odvajanje redaka)
+	 */
+	private TextFormat textFormat = TextFormat.DEFAULT;
+
+	/**
+	 * Članska varijabla koja predstavlja broj izmjena dokumenta od njegovog
+	 * otvaranja. Koristi se kako bi se utvrdilo je li dokument mijenjan
+	 * tijekom spremanja
+	 */
+	private long modificationCount;
+
 	/**
 	 * Članska varijabla koja predstavlja {@link List} svih promatrača na događaje
 	 * promjena putanje, i statusa samog dokumenta ({@link #inMemory} i
@@ -175,6 +223,142 @@ public class TabInfo {
 		fireStateChanged();
 	}
 
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to učitava li se dokument
+	 * iz datoteke
+	 *
+	 * @return <code>true</code> ako se dokument učitava, <code>false</code>
+	 *         inače
+	 */
+	public boolean isLoading() {
+		return loadProgress != NOT_LOADING;
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to čeka li dokument
+	 * prozora prethodne sjednice da čitanje njegove datoteke počne
+	 *
+	 * @return <code>true</code> ako čitanje datoteke još nije počelo,
+	 *         <code>false</code> inače
+	 */
+	public boolean isPending() {
+		return loadProgress == PENDING;
+	}
+
+	/**
+	 * Metoda koja dohvaća napredak učitavanja dokumenta
+	 *
+	 * @return napredak učitavanja dokumenta (u postotcima),
+	 *         {@value #NOT_LOADING} ukoliko se dokument ne učitava ili
+	 *         {@value #PENDING} ukoliko čitanje još nije počelo
+	 */
+	public int getLoadProgress() {
+		return loadProgress;
+	}
+
+	/**
+	 * Metoda koja postavlja napredak učitavanja dokumenta. Metoda također
+	 * obavještava sve prijavljene promatrače da je došlo do promjene u ovom
+	 * modelu
+	 *
+	 * @param loadProgress
+	 *            napredak učitavanja dokumenta (u postotcima),
+	 *            {@value #NOT_LOADING} ukoliko je učitavanje završeno ili
+	 *            {@value #PENDING} ukoliko čitanje još nije počelo
+	 */
+	public void setLoadProgress(int loadProgress) {
+		this.loadProgress = loadProgress;
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to prati li se rast
+	 * datoteke dokumenta
+	 *
+	 * @return <code>true</code> ako se prati rast datoteke,
+	 *         <code>false</code> inače
+	 */
+	public boolean isFollowing() {
+		return following;
+	}
+
+	/**
+	 * Metoda koja postavlja zastavicu koja ukazuje na to prati li se rast
+	 * datoteke dokumenta. Metoda također obavještava sve prijavljene
+	 * promatrače da je došlo do promjene u ovom modelu
+	 *
+	 * @param following
+	 *            nova vrijednost zastavice koja ukazuje na to prati li se rast
+	 *            datoteke dokumenta
+	 */
+	public void setFollowing(boolean following) {
+		this.following = following;
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to je li datoteku
+	 * dokumenta promijenio drugi program, a dokument još nije ponovno
+	 * učitan niti spremljen
+	 *
+	 * @return <code>true</code> ako je datoteku promijenio drugi program,
+	 *         <code>false</code> inače
+	 */
+	public boolean isExternallyModified() {
+		return externallyModified;
+	}
+
+	/**
+	 * Metoda koja postavlja zastavicu koja ukazuje na to je li datoteku
+	 * dokumenta promijenio drugi program. Metoda također obavještava sve
+	 * prijavljene promatrače da je došlo do promjene u ovom modelu
+	 *
+	 * @param externallyModified
+	 *            nova vrijednost zastavice koja ukazuje na to je li datoteku
+	 *            dokumenta promijenio drugi program
+	 */
+	public void setExternallyModified(boolean externallyModified) {
+		this.externallyModified = externallyModified;
+		fireStateChanged();
+	}
+
+	/**
+	 * Metoda koja dohvaća broj izmjena dokumenta od njegovog otvaranja
+	 *
+	 * @return broj izmjena dokumenta
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Metoda koja bilježi jednu izmjenu dokumenta. Promatrači se ne
+	 * obavještavaju
+	 */
+	public void incrementModificationCount() {
+		modificationCount++;
+	}
+
+	/**
+	 * Metoda koja dohvaća format zapisa dokumenta u datoteci
+	 *
+	 * @return format zapisa dokumenta u datoteci
+	 */
+	public TextFormat getTextFormat() {
+		return textFormat;
+	}
+
+	/**
+	 * Metoda koja postavlja format zapisa dokumenta u datoteci. Ovim formatom
+	 * dokument se zapisuje prilikom spremanja
+	 *
+	 * @param textFormat
+	 *            novi format zapisa dokumenta u datoteci
+	 */
+	public void setTextFormat(TextFormat textFormat) {
+		this.textFormat = textFormat;
+	}
+
 	/**
 	 * Metoda koja dohvaća trenutnu poziciju prozora unutar programa
 	 * {@link JNotepadpp}
@@ -203,6 +387,7 @@ public class TabInfo {
 	 * <li>{@link #setChanged(boolean)}</li>
 	 * <li>{@link #setInMemory(boolean)}</li>
 	 * <li>{@link #setTabFilePath(Path)}</li>
+	 * <li>{@link #setLoadProgress(int)}</li>
 	 * </ul>
 	 *
 	 * @param l
@@ -1,22 +1,45 @@
 package hr.fer.zemris.java.hw11.jnotepadpp;
 
 import java.awt.BorderLayout;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
-import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingWorker.StateValue;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Document;
 
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.EditHistory;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableContent;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextDiff;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.EditJournal;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileChangeWatcher;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileFollower;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileLoader;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileReloader;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.FileSaver;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.JournalReplayer.RecoveredDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.Session;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
 import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.viewer.FileViewer;
 
 /**
  * Razred nasljeđuje razred {@link JPanel}. Primjerci ovog razreda predsavljaju
@@ -24,22 +47,52 @@ import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
  * {@link JNotepadpp}. Ovaj razred sadrži:
  * <ul>
  * <li>Naslov, oblikovan razredom {@link TabTitle}</li>
- * <li>Komponentu za uređivanje teksta, oblikovnu razredom
- * {@link JTextArea}</li>
- * <li>Statusnu traku, oblikovanu razredom {@link StatusBar}</li>
+ * <li>Dokument sa statistikom i poviješću izmjena</li>
+ * <li>Prikaz dokumenta, oblikovan razredom {@link TabView}</li>
  * <li>Model, oblikovan razredom {@link TabInfo}</li>
  * </ul>
  * 
+ * Prikaz dokumenta (komponenta {@link JTextArea} sa statusnom trakom) stvara
+ * se tek kada je prozor odabran, metodom
+ * {@link #showView(FormLocalizationProvider)}, a prozoru koji dugo nije gledan
+ * se oslobađa metodom {@link #hideView()}. Stanje prozora pritom ostaje
+ * sačuvano, pa otvoreni prozori bez prikaza zauzimaju samo svoj dokument.
+ * 
  * Razred sadrži privatni konstruktor koji poziva metoda statička metoda
  * tvornica
  * {@link #createNewTabPanel(JNotepadpp, FormLocalizationProvider, Path, boolean, boolean, int)}.
- * Primjerci ovog razreda ne mogu se direktno izraditi zbog mogućnosti pogreške
- * prilikom učitavanja teksta iz dokumenta, što bi moglo dovesti do
- * nekonzistentnosti prozora (podaci se nisu mogli učitati iz datoteke)
+ * Dokument se iz datoteke učitava u pozadini, primjerkom razreda
+ * {@link FileLoader}. Dok traje učitavanje prozor nije moguće uređivati, a
+ * ukoliko se učitavanje ne uspije dovršiti prozor se zatvara. Nakon
+ * učitavanja moguće je pratiti rast datoteke ({@link FileFollower}), pri čemu
+ * se tekst dodan u datoteku dodaje na kraj dokumenta.
+ * 
+ * <p>
+ * Prozor stvoren metodom
+ * {@link #createViewerTabPanel(JNotepadpp, FormLocalizationProvider, Path, int)}
+ * umjesto komponente {@link JTextArea} sadrži {@link FileViewer} koji
+ * datoteku prikazuje samo za čitanje. Takav prozor nema komponentu za
+ * uređivanje teksta ({@link #getTextArea()} vraća <code>null</code>), a
+ * napredak indeksiranja datoteke prikazuje se kao napredak učitavanja.
+ * </p>
+ * 
+ * <p>
+ * Nespremljene izmjene dokumenta bilježe se u dnevnik ({@link EditJournal}),
+ * iz kojeg se dokument nakon rušenja programa obnavlja u prozoru stvorenom
+ * metodom
+ * {@link #createRecoveredTabPanel(JNotepadpp, FormLocalizationProvider, RecoveredDocument, int)}.
+ * </p>
+ * 
+ * <p>
+ * Prozor stvoren metodom
+ * {@link #createSessionTabPanel(JNotepadpp, Session.Entry, int)} predstavlja
+ * prozor prethodne sjednice programa. Takav prozor ima samo model i naslov, a
+ * datoteku čita i komponente za njezin prikaz stvara tek pozivom metode
+ * {@link #load(FormLocalizationProvider, Executor)}.
+ * </p>
  * 
  * @see TabTitle
- * @see JTextArea
- * @see StatusBar
+ * @see TabView
  * @see TabInfo
  * @see JNotepadpp
  * 
@@ -59,10 +112,31 @@ public class TabPanel extends JPanel {
 	private JNotepadpp jNotepadpp;
 
 	/**
-	 * Članska varijabla koja predsavlja komponentu za uređivanje teksta koja se
-	 * prikazuje unutar prozora.
+	 * Članska varijabla koja predstavlja dokument koji se prikazuje unutar
+	 * prozora ili <code>null</code> ukoliko prozor datoteku prikazuje samo za
+	 * čitanje ili ju još nije počeo čitati
+	 */
+	private Document document;
+
+	/**
+	 * Članska varijabla koja predstavlja prikaz dokumenta ili
+	 * <code>null</code> ukoliko prikaz nije stvoren
+	 *
+	 * @see TabView
+	 */
+	private TabView view;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju pokazivača dok prikaz
+	 * dokumenta ne postoji
+	 */
+	private int viewCaret;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju prvog vidljivog znaka
+	 * dokumenta dok prikaz dokumenta ne postoji
 	 */
-	private JTextArea textArea;
+	private int viewScroll;
 
 	/**
 	 * Članska varijabla koja predstavlja model podataka za jedan prozor unutar
@@ -80,18 +154,157 @@ public class TabPanel extends JPanel {
 	private TabTitle tabTitle;
 
 	/**
-	 * Članska varijabla koja predstavlja statusnu traku. Za sadržaj trake
-	 * pogledati dokumentaciju razreda {@link StatusBar}
+	 * Članska varijabla koja predstavlja statistiku dokumenta koji se
+	 * prikazuje unutar prozora
 	 * 
-	 * @see StatusBar
+	 * @see DocumentStatistics
+	 */
+	private DocumentStatistics statistics;
+
+	/**
+	 * Članska varijabla koja predstavlja povijest izmjena dokumenta koji se
+	 * prikazuje unutar prozora. Izmjene se pamte tek nakon što je dokument
+	 * učitan
+	 *
+	 * @see EditHistory
+	 */
+	private final EditHistory history = new EditHistory();
+
+	/**
+	 * Članska varijabla koja predstavlja pozadinski posao učitavanja
+	 * dokumenta ili <code>null</code> ukoliko se dokument ne učitava iz
+	 * datoteke
+	 */
+	private FileLoader loader;
+
+	/**
+	 * Članska varijabla koja predstavlja prikaz datoteke samo za čitanje ili
+	 * <code>null</code> ukoliko prozor sadrži komponentu za uređivanje teksta
+	 */
+	private FileViewer viewer;
+
+	/**
+	 * Članska varijabla koja predstavlja pozadinski posao praćenja rasta
+	 * datoteke ili <code>null</code> ukoliko se datoteka ne prati
+	 *
+	 * @see FileFollower
+	 */
+	private FileFollower follower;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju u datoteci (u oktetima) od
+	 * koje se pri sljedećem praćenju čita tekst dodan u datoteku
+	 */
+	private long followOffset;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da se u dokument dodaje tekst iz
+	 * datoteke koja se prati
+	 */
+	private boolean appending;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da nad označenim recima dokumenta
+	 * radi pozadinski posao (npr. sortiranje), zbog čega se dokument ne može
+	 * uređivati
+	 */
+	private boolean processing;
+
+	/**
+	 * Članska varijabla koja predstavlja pozadinski posao ponovnog učitavanja
+	 * datoteke ili <code>null</code> ukoliko se datoteka ponovno ne učitava
+	 *
+	 * @see FileReloader
+	 */
+	private FileReloader reloader;
+
+	/**
+	 * Članska varijabla koja predstavlja putanju do datoteke čije se promjene
+	 * prate ili <code>null</code> ukoliko se promjene ne prate
+	 *
+	 * @see FileChangeWatcher
+	 */
+	private Path watchedPath;
+
+	/**
+	 * Članska varijabla koja predstavlja promatrača na promjene datoteke
+	 * koje je napravio drugi program
+	 */
+	private final Runnable externalChangeListener = this::externalChange;
+
+	/**
+	 * Članska varijabla koja predstavlja dnevnik nespremljenih izmjena
+	 * dokumenta ili <code>null</code> ukoliko dokument nema nespremljenih
+	 * izmjena
+	 *
+	 * @see EditJournal
+	 */
+	private EditJournal journal;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da je nepromijenjeni dokument
+	 * jednak sadržaju svoje datoteke, pa dnevnik dokumenta mapiranog u
+	 * memoriju može započeti oznakom datoteke umjesto slike dokumenta. Tekst
+	 * dodan praćenjem rasta datoteke tu jednakost narušava
+	 */
+	private boolean baseMatchesFile;
+
+	/**
+	 * Članska varijabla koja predstavlja prozor prethodne sjednice čija
+	 * datoteka još nije pročitana ili <code>null</code> ukoliko je prozor
+	 * pokrenuo čitanje datoteke
+	 */
+	private Session.Entry pending;
+
+	/**
+	 * Članska varijabla koja predstavlja prozor prethodne sjednice čija se
+	 * datoteka učitava, inače <code>null</code>. Dok traje učitavanje prozor
+	 * se u sjednicu zapisuje kao ovaj zapis
+	 */
+	private Session.Entry restoring;
+
+	/**
+	 * Članska varijabla koja predstavlja promatrača dokumenta koji izmjene
+	 * dokumenta bilježi u model {@link #tabInfo} i dnevnik nespremljenih
+	 * izmjena
 	 */
-	private StatusBar statusBar;
+	private final DocumentListener editListener = new DocumentListener() {
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			notifyTabInfo(e);
+		}
+
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			notifyTabInfo(e);
+		}
+
+		private void notifyTabInfo(DocumentEvent e) {
+			// tekst koji se učitava iz datoteke nije promjena dokumenta
+			if (tabInfo.isLoading()) {
+				return;
+			}
+			boolean wasChanged = tabInfo.isChanged();
+			if (!appending) {
+				tabInfo.incrementModificationCount();
+				// promatrači modela obavještavaju se samo prvom izmjenom
+				if (!wasChanged) {
+					tabInfo.setChanged(true);
+				}
+			}
+			recordEdit(e, wasChanged);
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
 
 	/**
 	 * Privatni konstruktor koji se koristi za inicijalizaciju ovog razreda.
-	 * Konstruktor je privatan zbog mogućnosti pogreške prilikom učitavanja
-	 * dokumenta, a što vodi ka nekonzistentnosti programa. Za stvaranje
-	 * primjeraka ovog razreda savjetuje se korištenje statičke metode tvornice
+	 * Za stvaranje primjeraka ovog razreda savjetuje se korištenje statičke
+	 * metode tvornice
 	 * {@link #createNewTabPanel(JNotepadpp, FormLocalizationProvider, Path, boolean, boolean, int)}
 	 *
 	 * @param jNotepadpp
@@ -109,12 +322,9 @@ public class TabPanel extends JPanel {
 	 *            zastavica koja ukazuje na to je li datoteka mijenjana
 	 * @param index
 	 *            pozicija prozora unutar {@link JNotepadpp} programa
-	 * @throws IOException
-	 *             Ukoliko nije moguće učitati daoteku, jer ona ne postoji ili
-	 *             korisnik nema dozvolu čitanja i pisanja u tu datoteku
 	 */
 	private TabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp, Path filePath, boolean inMemory,
-			boolean changed, int index) throws IOException {
+			boolean changed, int index) {
 		this.jNotepadpp = jNotepadpp;
 
 		setLayout(new BorderLayout());
@@ -123,10 +333,97 @@ public class TabPanel extends JPanel {
 	}
 
 	/**
-	 * Pomoćna metoda koja namješta grafičko korisničko sučelje ove komponente.
-	 * Metoda također na temelju predanih parametara stvara primjerke razreda
-	 * {@link JTextArea}, {@link TabInfo}, {@link TabTitle} te
-	 * {@link StatusBar}, koji se koriste unutar prozora
+	 * Privatni konstruktor koji inicijalizira prozor prethodne sjednice čija
+	 * se datoteka još ne čita. Za stvaranje primjeraka ovog razreda savjetuje
+	 * se korištenje statičke metode tvornice
+	 * {@link #createSessionTabPanel(JNotepadpp, Session.Entry, int)}
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param entry
+	 *            prozor prethodne sjednice
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 */
+	private TabPanel(JNotepadpp jNotepadpp, Session.Entry entry, int index) {
+		this.jNotepadpp = jNotepadpp;
+		this.pending = entry;
+
+		setLayout(new BorderLayout());
+
+		TabInfo info = new TabInfo(index, entry.getFilePath(), false, true);
+		if (entry.getFormat() != null) {
+			info.setTextFormat(entry.getFormat());
+		}
+		// dok se datoteka ne pročita prozor se ponaša kao da se učitava, ali
+		// bez trake napretka jer čitanje još nije počelo
+		info.setLoadProgress(TabInfo.PENDING);
+		initTab(info);
+		statistics = new DocumentStatistics();
+		viewCaret = entry.getCaret();
+		viewScroll = entry.getScroll();
+	}
+
+	/**
+	 * Privatni konstruktor koji inicijalizira prozor koji datoteku prikazuje
+	 * samo za čitanje. Za stvaranje primjeraka ovog razreda savjetuje se
+	 * korištenje statičke metode tvornice
+	 * {@link #createViewerTabPanel(JNotepadpp, FormLocalizationProvider, Path, int)}
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param filePath
+	 *            putanja do datoteke koja se prikazuje
+	 * @param viewer
+	 *            prikaz datoteke
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 */
+	private TabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp, Path filePath, FileViewer viewer,
+			int index) {
+		this.jNotepadpp = jNotepadpp;
+		this.viewer = viewer;
+
+		setLayout(new BorderLayout());
+
+		initTab(new TabInfo(index, filePath, false, true));
+		initViewerGUI(flp);
+	}
+
+	/**
+	 * Privatni konstruktor koji inicijalizira prozor s dokumentom obnovljenim
+	 * iz dnevnika nespremljenih izmjena. Za stvaranje primjeraka ovog razreda
+	 * savjetuje se korištenje statičke metode tvornice
+	 * {@link #createRecoveredTabPanel(JNotepadpp, FormLocalizationProvider, RecoveredDocument, int)}
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param recovered
+	 *            obnovljeni dokument
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 */
+	private TabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp, RecoveredDocument recovered, int index) {
+		this.jNotepadpp = jNotepadpp;
+
+		setLayout(new BorderLayout());
+
+		initRecoveredGUI(flp, recovered, index);
+	}
+
+	/**
+	 * Pomoćna metoda koja namješta stanje ove komponente. Metoda na temelju
+	 * predanih parametara stvara model {@link TabInfo}, naslov
+	 * {@link TabTitle} i dokument prozora, a prikaz dokumenta ({@link TabView})
+	 * stvara se tek kada prozor bude odabran
 	 *
 	 * @param flp
 	 *            primjerak razreda {@link FormLocalizationProvider} koji se
@@ -141,94 +438,724 @@ public class TabPanel extends JPanel {
 	 *            zastavica koja ukazuje na to je li datoteka mijenjana
 	 * @param index
 	 *            pozicija prozora unutar {@link JNotepadpp} programa
-	 * @throws IOException
-	 *             Ukoliko nije moguće učitati daoteku, jer ona ne postoji ili
-	 *             korisnik nema dozvolu čitanja i pisanja u tu datoteku
 	 */
-	private void initGUI(FormLocalizationProvider flp, Path filePath, boolean inMemory, boolean changed, int index)
-			throws IOException {
-		textArea = new JTextArea();
+	private void initGUI(FormLocalizationProvider flp, Path filePath, boolean inMemory, boolean changed,
+			int index) {
+		initTab(new TabInfo(index, filePath, changed, inMemory));
+		initDocument(new PieceTableDocument(), TextStatistics.EMPTY);
 
-		add(new JScrollPane(textArea), BorderLayout.CENTER);
+		if (inMemory) {
+			loadText(flp, filePath, null, null);
+		} else {
+			history.attach(document);
+		}
+	}
 
-		setUpStatusBar(flp);
-		add(statusBar, BorderLayout.SOUTH);
+	/**
+	 * Pomoćna metoda koja namješta grafičko korisničko sučelje prozora s
+	 * dokumentom obnovljenim iz dnevnika nespremljenih izmjena. Dokument se
+	 * ne učitava, već se odmah prikazuje kao mijenjan, a njegov dnevnik
+	 * nastavlja obnovljeni dnevnik
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param recovered
+	 *            obnovljeni dokument
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 */
+	private void initRecoveredGUI(FormLocalizationProvider flp, RecoveredDocument recovered, int index) {
+		TabInfo info = new TabInfo(index, recovered.getFilePath(), true, recovered.isInMemory());
+		info.setTextFormat(recovered.getFormat());
+		initTab(info);
+		initDocument(recovered.getDocument(), recovered.getStatistics());
 
-		if (inMemory) {
-			loadText(filePath);
+		journal = EditJournal.adopt(recovered);
+		if (recovered.isInMemory()) {
+			followOffset = sizeOf(recovered.getFilePath());
 		}
+		history.attach(document);
+		updateWatch();
+	}
 
-		tabInfo = new TabInfo(index, filePath, changed, inMemory);
+	/**
+	 * Pomoćna metoda koja postavlja model prozora <b>info</b> i stvara naslov
+	 * prozora
+	 *
+	 * @param info
+	 *            model prozora
+	 */
+	private void initTab(TabInfo info) {
+		tabInfo = info;
 		tabInfo.addChangeListener(e -> jNotepadpp.setNewTitle(tabInfo));
-		// namjesti vezu između tabInfo i pripadne textAreae
-		setupTextChangeListener();
+		tabTitle = new TabTitle(this, tabInfo.getTabFilePath(), jNotepadpp);
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja dokument prozora <b>document</b> i njegovu
+	 * statistiku te namješta promatrače modela {@link #tabInfo}
+	 *
+	 * @param document
+	 *            dokument prozora
+	 * @param initial
+	 *            statistika teksta koji dokument već sadrži
+	 */
+	private void initDocument(Document document, TextStatistics initial) {
+		statistics = new DocumentStatistics();
+		statistics.attach(document, initial);
+		setDocument(document);
+
+		tabInfo.addChangeListener(e -> updateWatch());
+		tabInfo.addChangeListener(e -> updateJournal());
+	}
 
-		tabTitle = new TabTitle(this, filePath, jNotepadpp);
+	/**
+	 * Pomoćna metoda koja postavlja novi dokument prozora, primjerice kada je
+	 * po završetku učitavanja datoteka mapirana u memoriju. Promatrač izmjena
+	 * {@link #editListener} prelazi na novi dokument, a prikaz, ukoliko
+	 * postoji, prikazuje novi dokument
+	 *
+	 * @param document
+	 *            novi dokument prozora
+	 */
+	private void setDocument(Document document) {
+		if (this.document != null) {
+			this.document.removeDocumentListener(editListener);
+		}
+		this.document = document;
+		document.addDocumentListener(editListener);
+		if (view != null) {
+			view.setDocument(document);
+		}
 	}
 
 	/**
-	 * Pomoćna metoda koja namješta člansku varijablu {@link #statusBar}
+	 * Pomoćna metoda koja namješta grafičko korisničko sučelje prozora koji
+	 * datoteku prikazuje samo za čitanje. Statusna traka prikazuje redak i
+	 * stupac pokazivača prikaza, a napredak indeksiranja prikazuje se kroz
+	 * model {@link #tabInfo} kao napredak učitavanja
 	 *
 	 * @param flp
 	 *            primjerak razreda {@link FormLocalizationProvider} koji se
 	 *            koristi unutar programa {@link JNotepadpp} za
 	 *            internacionalizaciju
 	 */
-	private void setUpStatusBar(FormLocalizationProvider flp) {
-		Clock clock = new Clock();
-		jNotepadpp.addWindowListener(new WindowAdapter() {
-			@Override
-			public void windowClosed(WindowEvent e) {
-				clock.interrupt();
+	private void initViewerGUI(FormLocalizationProvider flp) {
+		// prikaz nema dokument, pa statistika ostaje prazna
+		statistics = new DocumentStatistics();
+		add(viewer, BorderLayout.CENTER);
+
+		add(new StatusBar(flp, viewer, new Clock()), BorderLayout.SOUTH);
+
+		tabInfo.setTextFormat(viewer.getTextFormat());
+
+		viewer.addChangeListener(e -> {
+			int progress = viewer.isIndexed() ? TabInfo.NOT_LOADING : viewer.getIndexProgress();
+			if (progress != tabInfo.getLoadProgress()) {
+				tabInfo.setLoadProgress(progress);
 			}
 		});
-
-		this.statusBar = new StatusBar(flp, textArea, clock);
+		tabInfo.setLoadProgress(viewer.isIndexed() ? TabInfo.NOT_LOADING : 0);
 	}
 
 	/**
-	 * Pomoćna metoda koja učitava tekst iz dokumenta u memoriji i prikazuje ga
-	 * unutar članske varijable {@link #textArea}
+	 * Pomoćna metoda koja pokreće učitavanje teksta iz dokumenta u memoriji u
+	 * pozadinskoj dretvi. Tekst se u dijelovima dodaje u člansku varijablu
+	 * {@link #document}, a napredak se zapisuje u model {@link #tabInfo}.
+	 * Datoteke veće od {@value FileLoader#LARGE_FILE_THRESHOLD} okteta se ne
+	 * učitavaju, već se mapiraju u memoriju i prikazuju dokumentom
+	 * {@link LargeFileDocument}
 	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
 	 * @param filePath
 	 *            putanje do dokumenta koji je potrebno prikazati i moći
 	 *            uređivati u prozoru
-	 * @throws IOException
-	 *             Ukoliko nije moguće učitati daoteku, jer ona ne postoji ili
-	 *             korisnik nema dozvolu čitanja i pisanja u tu datoteku
+	 * @param preferredFormat
+	 *            format u kojem je datoteka ranije otvorena ili
+	 *            <code>null</code> ukoliko se format prepoznaje iz sadržaja
+	 * @param executor
+	 *            izvršitelj koji učitava datoteku ili <code>null</code>
+	 *            ukoliko se koristi izvršitelj razreda
+	 *            {@link javax.swing.SwingWorker}
+	 */
+	private void loadText(FormLocalizationProvider flp, Path filePath, TextFormat preferredFormat,
+			Executor executor) {
+		tabInfo.setLoadProgress(0);
+		updateEditable();
+
+		loader = new FileLoader(filePath, document, preferredFormat);
+		loader.addPropertyChangeListener((PropertyChangeEvent e) -> {
+			if ("progress".equals(e.getPropertyName())) {
+				tabInfo.setLoadProgress((Integer) e.getNewValue());
+			} else if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				loadingFinished(flp, filePath);
+			}
+		});
+		if (executor == null) {
+			loader.execute();
+		} else {
+			executor.execute(loader);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva u dretvi za obradu događaja nakon što je
+	 * pozadinsko učitavanje završilo. Ukoliko je datoteka mapirana u memoriju
+	 * ovdje se postavlja novi dokument, a ukoliko učitavanje nije uspjelo
+	 * korisnika se o tome obavještava i prozor se zatvara. Prikazu dokumenta
+	 * obnavljaju se zapamćene pozicije pokazivača i prvog vidljivog znaka
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 * @param filePath
+	 *            putanja do dokumenta koji se učitavao
 	 */
-	private void loadText(Path filePath) throws IOException {
-		textArea.setText(new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8));
+	private void loadingFinished(FormLocalizationProvider flp, Path filePath) {
+		if (loader == null || loader.isCancelled()) {
+			return;
+		}
+
+		MappedTextSource source;
+		try {
+			source = loader.get();
+		} catch (InterruptedException | ExecutionException e) {
+			tabInfo.setLoadProgress(TabInfo.NOT_LOADING);
+			JOptionPane.showMessageDialog(
+					jNotepadpp,
+					String.format(flp.getString("openFileError.message"), 
+					filePath.toAbsolutePath().toString()),
+					flp.getString("openFileError.title"), 
+					JOptionPane.ERROR_MESSAGE);
+			jNotepadpp.closeDocumentAt(tabInfo.getTabIndex());
+			return;
+		}
+
+		if (source != null) {
+			LargeFileDocument mapped = new LargeFileDocument(new PieceTableContent(source));
+			statistics.attach(mapped, loader.getStatistics());
+			setDocument(mapped);
+		}
+
+		history.attach(document);
+		tabInfo.setTextFormat(loader.getFormat());
+		followOffset = loader.getLoadedBytes();
+		baseMatchesFile = true;
+		loader = null;
+		restoring = null;
+		tabInfo.setLoadProgress(TabInfo.NOT_LOADING);
+		updateEditable();
+		if (view != null) {
+			view.restore(viewCaret, viewScroll);
+		}
 	}
 
 	/**
-	 * Pomoćna metoda koja registrira i namješta sve promatrače na promjene unutar
-	 * članske varijable {@link #textArea}
+	 * Pomoćna metoda koja prikazu dokumenta namješta može li se dokument
+	 * uređivati. Dokument koji se učitava, čiji se rast datoteke prati ili nad
+	 * kojim radi pozadinski posao nije moguće uređivati, a dok se dokument
+	 * učitava pokazivač ostaje na mjestu iako se tekst dodaje na kraj
+	 * dokumenta
 	 */
-	private void setupTextChangeListener() {
-		textArea.getDocument().addDocumentListener(new DocumentListener() {
-			private boolean currentChangedStatus;
+	private void updateEditable() {
+		if (view == null) {
+			return;
+		}
+		JTextArea textArea = view.getTextArea();
+		((DefaultCaret) textArea.getCaret()).setUpdatePolicy(
+				tabInfo.isLoading() ? DefaultCaret.NEVER_UPDATE : DefaultCaret.UPDATE_WHEN_ON_EDT);
+		textArea.setEditable(!tabInfo.isLoading() && follower == null && !processing);
+	}
 
-			@Override
-			public void removeUpdate(DocumentEvent e) {
-				notifyTabInfo();
-			}
+	/**
+	 * Metoda koja postavlja zastavicu koja ukazuje na to radi li nad
+	 * označenim recima dokumenta pozadinski posao. Dok posao traje dokument
+	 * se ne može uređivati
+	 *
+	 * @param processing
+	 *            zastavica koja ukazuje na to radi li pozadinski posao
+	 */
+	public void setProcessing(boolean processing) {
+		this.processing = processing;
+		updateEditable();
+	}
 
-			@Override
-			public void insertUpdate(DocumentEvent e) {
-				notifyTabInfo();
+	/**
+	 * Metoda koja provjerava je li ovo prozor prethodne sjednice čija datoteka
+	 * još nije pročitana
+	 *
+	 * @return <code>true</code> ukoliko datoteka prozora još nije pročitana,
+	 *         inače <code>false</code>
+	 */
+	public boolean isPending() {
+		return pending != null;
+	}
+
+	/**
+	 * Metoda koja prozoru prethodne sjednice stvara komponente za prikaz
+	 * datoteke i pokreće njezino čitanje. Datoteka koja se prikazivala samo za
+	 * čitanje ponovno se prikazuje razredom {@link FileViewer}, a ostale se
+	 * učitavaju u pozadini, kodnom stranicom iz prethodne sjednice. Ukoliko
+	 * datoteka prozora je već pročitana, metoda ne radi ništa
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param executor
+	 *            izvršitelj koji učitava datoteku ili <code>null</code>
+	 *            ukoliko se koristi izvršitelj razreda
+	 *            {@link javax.swing.SwingWorker}
+	 */
+	public void load(FormLocalizationProvider flp, Executor executor) {
+		if (pending == null) {
+			return;
+		}
+		Session.Entry entry = pending;
+		pending = null;
+
+		Path filePath = entry.getFilePath();
+		if (entry.isViewer()) {
+			try {
+				viewer = new FileViewer(filePath);
+				initViewerGUI(flp);
+				revalidate();
+				return;
+			} catch (IOException e) {
+				// učitavanje za uređivanje javlja pogrešku ukoliko ne uspije
 			}
+		}
 
-			private void notifyTabInfo() {
-				if (!currentChangedStatus) {
-					tabInfo.setChanged(true);
-				}
+		initDocument(new PieceTableDocument(), TextStatistics.EMPTY);
+		restoring = entry;
+		loadText(flp, filePath, entry.getFormat(), executor);
+	}
+
+	/**
+	 * Metoda koja stvara zapis ovog prozora za spremanje sjednice programa.
+	 * Prozor čija datoteka još nije pročitana zapisuje se onako kako je
+	 * pročitan iz prethodne sjednice
+	 *
+	 * @return zapis ovog prozora ili <code>null</code> ukoliko dokument
+	 *         prozora nije spremljen u datoteku
+	 */
+	public Session.Entry getSessionEntry() {
+		if (pending != null) {
+			return pending;
+		}
+		if (restoring != null) {
+			return restoring;
+		}
+		if (!tabInfo.isInMemory()) {
+			return null;
+		}
+
+		Path filePath = tabInfo.getTabFilePath();
+		if (viewer != null) {
+			return new Session.Entry(filePath, tabInfo.getTextFormat(), 0, 0, true);
+		}
+		if (view != null && !tabInfo.isLoading()) {
+			return new Session.Entry(filePath, tabInfo.getTextFormat(), view.getTextArea().getCaretPosition(),
+					view.getFirstVisibleOffset(), false);
+		}
+		return new Session.Entry(filePath, tabInfo.getTextFormat(), viewCaret, viewScroll, false);
+	}
+
+	/**
+	 * Metoda koja se poziva prilikom zatvaranja ovog prozora. Ukoliko se
+	 * dokument još učitava, učitavanje se prekida, kao i praćenje datoteke i
+	 * njezinih promjena, a povijest izmjena se oslobađa. Korisnik je o
+	 * nespremljenim izmjenama već odlučio, pa se dnevnik izmjena odbacuje
+	 */
+	public void close() {
+		if (loader != null) {
+			loader.cancel(true);
+			loader = null;
+		}
+		if (follower != null) {
+			follower.cancel(true);
+			follower = null;
+		}
+		if (reloader != null) {
+			reloader.cancel(true);
+			reloader = null;
+		}
+		if (watchedPath != null) {
+			FileChangeWatcher.getInstance().unwatch(watchedPath, externalChangeListener);
+			watchedPath = null;
+		}
+		if (journal != null) {
+			journal.discard();
+			journal = null;
+		}
+		statistics.detach();
+		history.detach();
+		if (view != null) {
+			view.dispose();
+			view = null;
+		}
+		if (viewer != null) {
+			viewer.close();
+		}
+	}
+
+	/**
+	 * Metoda koja provjerava može li se pratiti rast datoteke dokumenta. To je
+	 * moguće samo za učitane dokumente koji imaju datoteku
+	 *
+	 * @return <code>true</code> ukoliko se rast datoteke može pratiti,
+	 *         <code>false</code> inače
+	 */
+	public boolean canFollow() {
+		return document != null && tabInfo.isInMemory() && !tabInfo.isLoading();
+	}
+
+	/**
+	 * Metoda koja započinje praćenje rasta datoteke dokumenta (primjerku
+	 * razreda {@link FileFollower}). Tekst dodan u datoteku nakon učitavanja
+	 * dodaje se na kraj dokumenta, a dok traje praćenje dokument nije moguće
+	 * uređivati. Dodani tekst nije izmjena dokumenta, pa se ne pamti u
+	 * povijesti izmjena. Ukoliko se datoteka ne može pratiti, korisnika se o
+	 * tome obavještava
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 */
+	public void startFollowing(FormLocalizationProvider flp) {
+		if (follower != null || !canFollow()) {
+			return;
+		}
+
+		Path filePath = tabInfo.getTabFilePath();
+		// mapirani sadržaj zadržava izvorne nizove za odvajanje redaka
+		boolean normalize = !(document instanceof LargeFileDocument);
+		FileFollower started = new FileFollower(filePath, followOffset, tabInfo.getTextFormat().getCharset(),
+				normalize, this::appendFollowed);
+		started.addPropertyChangeListener((PropertyChangeEvent e) -> {
+			if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				followingFailed(flp, started);
 			}
+		});
+		follower = started;
+		updateEditable();
+		tabInfo.setFollowing(true);
+		started.execute();
+	}
 
-			@Override
-			public void changedUpdate(DocumentEvent e) {
+	/**
+	 * Metoda koja zaustavlja praćenje rasta datoteke dokumenta. Sljedeće
+	 * praćenje nastavlja od teksta koji je posljednji dodan u dokument
+	 */
+	public void stopFollowing() {
+		if (follower == null) {
+			return;
+		}
+
+		follower.cancel(true);
+		followOffset = follower.getPosition();
+		follower = null;
+		updateEditable();
+		tabInfo.setFollowing(false);
+	}
+
+	/**
+	 * Metoda koja se poziva nakon što je dokument spremljen u svoju datoteku.
+	 * Spremljena datoteka odgovara dokumentu, pa sljedeće praćenje kreće od
+	 * njezinog kraja. Ukoliko je dokument mijenjan tijekom spremanja, dnevnik
+	 * izmjena započinje ispočetka, jer se odnosio na staru datoteku
+	 */
+	public void fileSaved() {
+		try {
+			followOffset = Files.size(tabInfo.getTabFilePath());
+		} catch (IOException ignorable) {
+		}
+		tabInfo.setExternallyModified(false);
+
+		baseMatchesFile = !tabInfo.isChanged();
+		if (journal != null) {
+			journal.discard();
+			journal = null;
+		}
+		if (tabInfo.isChanged()) {
+			journal = EditJournal.start(tabInfo.getTabFilePath(), tabInfo.isInMemory(), tabInfo.getTextFormat(),
+					document);
+		}
+	}
+
+	/**
+	 * Metoda koja ponovno učitava dokument iz datoteke koju je promijenio
+	 * drugi program. Novi sadržaj datoteke se u pozadini uspoređuje s
+	 * dokumentom (primjerkom razreda {@link FileReloader}), a na dokument se
+	 * primjenjuju samo izmjene različitih dijelova, pa pokazivač, prikaz i
+	 * povijest izmjena ostaju sačuvani, a samo ponovno učitavanje se može
+	 * poništiti. Dokument mapiran u memoriju ({@link LargeFileDocument}) i
+	 * datoteke veće od {@value FileLoader#LARGE_FILE_THRESHOLD} okteta se ne
+	 * uspoređuju, već se učitavaju ispočetka
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 */
+	public void reload(FormLocalizationProvider flp) {
+		if (reloader != null || !canFollow() || tabInfo.isFollowing()) {
+			return;
+		}
+
+		Path filePath = tabInfo.getTabFilePath();
+		if (document instanceof LargeFileDocument
+				|| sizeOf(filePath) >= FileLoader.LARGE_FILE_THRESHOLD) {
+			reloadFully(flp, filePath);
+			return;
+		}
+
+		// promjene nakon ovog trenutka se ponovno dojavljuju
+		FileChangeWatcher.getInstance().acknowledge(filePath);
+		long modificationCount = tabInfo.getModificationCount();
+		FileReloader started = new FileReloader(filePath, FileSaver.snapshotOf(document));
+		started.addPropertyChangeListener((PropertyChangeEvent e) -> {
+			if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				reloadingFinished(flp, started, modificationCount);
 			}
 		});
+		reloader = started;
+		started.execute();
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva u dretvi za obradu događaja nakon što je
+	 * pozadinska usporedba datoteke i dokumenta završila. Izmjene se
+	 * primjenjuju unutar istog događaja, pa čine jedan zapis povijesti. Ukoliko
+	 * je dokument u međuvremenu mijenjan, usporedba se ponavlja
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 * @param finished
+	 *            ponovno učitavanje koje je završilo
+	 * @param modificationCount
+	 *            broj izmjena dokumenta u trenutku stvaranja slike
+	 */
+	private void reloadingFinished(FormLocalizationProvider flp, FileReloader finished, long modificationCount) {
+		if (reloader != finished) {
+			return;
+		}
+		reloader = null;
+
+		List<TextDiff.Edit> edits;
+		try {
+			edits = finished.get();
+		} catch (InterruptedException | ExecutionException e) {
+			JOptionPane.showMessageDialog(
+					jNotepadpp,
+					String.format(flp.getString("openFileError.message"),
+					tabInfo.getTabFilePath().toAbsolutePath().toString()),
+					flp.getString("openFileError.title"),
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		if (tabInfo.getModificationCount() != modificationCount) {
+			reload(flp);
+			return;
+		}
+
+		try {
+			TextDiff.apply(document, edits);
+		} catch (BadLocationException ignorable) {
+		}
+		followOffset = finished.getLoadedBytes();
+		baseMatchesFile = true;
+		tabInfo.setTextFormat(finished.getFormat());
+		tabInfo.setChanged(false);
+		tabInfo.setExternallyModified(false);
+	}
+
+	/**
+	 * Pomoćna metoda koja dokument zamjenjuje praznim i u njega ponovno
+	 * učitava datoteku. Povijest izmjena i položaj pokazivača se pritom gube
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 * @param filePath
+	 *            putanja do datoteke koja se učitava
+	 */
+	private void reloadFully(FormLocalizationProvider flp, Path filePath) {
+		history.detach();
+		PieceTableDocument fresh = new PieceTableDocument();
+		statistics.attach(fresh, TextStatistics.EMPTY);
+		// tekst koji se učitava nije izmjena dokumenta niti se boji
+		tabInfo.setLoadProgress(0);
+		setDocument(fresh);
+		viewCaret = 0;
+		viewScroll = 0;
+		tabInfo.setChanged(false);
+		tabInfo.setExternallyModified(false);
+		loadText(flp, filePath, null, null);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća veličinu datoteke
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @return veličinu datoteke u oktetima ili <code>0</code> ukoliko ju nije
+	 *         moguće dohvatiti
+	 */
+	private static long sizeOf(Path filePath) {
+		try {
+			return Files.size(filePath);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja započinje ili prestaje pratiti promjene datoteke
+	 * dokumenta (razred {@link FileChangeWatcher}) ovisno o modelu
+	 * {@link #tabInfo}. Prate se samo učitani dokumenti koji imaju datoteku, a
+	 * datoteka čiji se rast prati mijenja se stalno, pa se njezine promjene ne
+	 * dojavljuju
+	 */
+	private void updateWatch() {
+		Path path = tabInfo.isInMemory() && !tabInfo.isLoading() && !tabInfo.isFollowing()
+				? tabInfo.getTabFilePath()
+				: null;
+		if (Objects.equals(path, watchedPath)) {
+			return;
+		}
+
+		FileChangeWatcher watcher = FileChangeWatcher.getInstance();
+		if (watchedPath != null) {
+			watcher.unwatch(watchedPath, externalChangeListener);
+		}
+		watchedPath = path;
+		if (path != null) {
+			watcher.watch(path, externalChangeListener);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se u dretvi za obradu događaja poziva kada drugi
+	 * program promijeni datoteku dokumenta. Promjena se bilježi u modelu
+	 * {@link #tabInfo}, a program {@link JNotepadpp} korisniku nudi ponovno
+	 * učitavanje
+	 */
+	private void externalChange() {
+		if (watchedPath == null || reloader != null || tabInfo.isExternallyModified()) {
+			return;
+		}
+		tabInfo.setExternallyModified(true);
+		jNotepadpp.externalChangeDetected(this);
+	}
+
+	/**
+	 * Pomoćna metoda koja bilježi izmjenu dokumenta u dnevnik nespremljenih
+	 * izmjena (razred {@link EditJournal}). Dnevnik se započinje prvom
+	 * izmjenom nakon koje dokument ima nespremljenih izmjena: slikom
+	 * dokumenta nakon izmjene ili, za dokument mapiran u memoriju koji je do
+	 * tada bio jednak svojoj datoteci, oznakom datoteke nakon koje slijedi
+	 * sama izmjena. Tekst dodan praćenjem datoteke bilježi se samo ukoliko
+	 * dnevnik već postoji
+	 *
+	 * @param e
+	 *            događaj izmjene dokumenta
+	 * @param wasChanged
+	 *            zastavica koja ukazuje na to je li dokument imao
+	 *            nespremljenih izmjena prije ove izmjene
+	 */
+	private void recordEdit(DocumentEvent e, boolean wasChanged) {
+		if (journal == null) {
+			if (!tabInfo.isChanged()) {
+				return;
+			}
+			if (wasChanged || !baseMatchesFile || !(e.getDocument() instanceof LargeFileDocument)) {
+				journal = EditJournal.start(tabInfo.getTabFilePath(), tabInfo.isInMemory(), tabInfo.getTextFormat(),
+						e.getDocument());
+				return;
+			}
+			journal = EditJournal.startOnFile(tabInfo.getTabFilePath(), tabInfo.getTextFormat());
+		}
+		journal.record(e);
+	}
+
+	/**
+	 * Pomoćna metoda koja odbacuje dnevnik nespremljenih izmjena kada dokument
+	 * prema modelu {@link #tabInfo} više nema nespremljenih izmjena, primjerice
+	 * nakon spremanja ili ponovnog učitavanja
+	 */
+	private void updateJournal() {
+		if (journal != null && !tabInfo.isChanged()) {
+			journal.discard();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva u dretvi za obradu događaja nakon što je
+	 * pozadinsko praćenje datoteke završilo. Praćenje završava samo ako je
+	 * zaustavljeno ili ako se datoteka više ne može čitati, a u potonjem
+	 * slučaju korisnika se o tome obavještava
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi za ispis poruke o pogrešci
+	 * @param finished
+	 *            praćenje koje je završilo
+	 */
+	private void followingFailed(FormLocalizationProvider flp, FileFollower finished) {
+		if (follower != finished) {
+			return;
+		}
+
+		stopFollowing();
+		JOptionPane.showMessageDialog(
+				jNotepadpp,
+				String.format(flp.getString("followError.message"),
+				tabInfo.getTabFilePath().toAbsolutePath().toString()),
+				flp.getString("followError.title"),
+				JOptionPane.ERROR_MESSAGE);
+	}
+
+	/**
+	 * Pomoćna metoda koja jednom izmjenom dodaje tekst pročitan iz datoteke
+	 * koja se prati na kraj dokumenta. Ukoliko je pokazivač bio na kraju
+	 * dokumenta, on se pomiče na novi kraj, čime se prikaz pomiče do dodanog
+	 * teksta, a inače ostaje na mjestu
+	 *
+	 * @param text
+	 *            tekst koji se dodaje na kraj dokumenta
+	 */
+	private void appendFollowed(String text) {
+		JTextArea textArea = getTextArea();
+		int caret = textArea != null ? textArea.getCaretPosition() : viewCaret;
+		boolean atEnd = caret == document.getLength();
+
+		baseMatchesFile = false;
+		appending = true;
+		try {
+			history.runUnrecorded(() -> {
+				try {
+					document.insertString(document.getLength(), text, null);
+				} catch (BadLocationException ignorable) {
+				}
+			});
+		} finally {
+			appending = false;
+		}
+
+		if (!atEnd) {
+			return;
+		}
+		if (textArea != null) {
+			textArea.setCaretPosition(document.getLength());
+		} else {
+			viewCaret = document.getLength();
+		}
 	}
 
 	/**
@@ -236,10 +1163,90 @@ public class TabPanel extends JPanel {
 	 * ovog primjerka razreda {@link TabPanel}
 	 *
 	 * @return primjerak razreda {@link JTextArea} spremljen unutar ovog
-	 *         primjerka razreda {@link TabPanel}
+	 *         primjerka razreda {@link TabPanel} ili <code>null</code>
+	 *         ukoliko prozor datoteku prikazuje samo za čitanje ili prikaz
+	 *         dokumenta nije stvoren
 	 */
 	public JTextArea getTextArea() {
-		return textArea;
+		return view == null ? null : view.getTextArea();
+	}
+
+	/**
+	 * Metoda koja dohvaća dokument ovog prozora. Dokument postoji i kada
+	 * prikaz dokumenta nije stvoren
+	 *
+	 * @return dokument ovog prozora ili <code>null</code> ukoliko prozor
+	 *         datoteku prikazuje samo za čitanje ili ju još nije počeo čitati
+	 */
+	public Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * Metoda koja provjerava je li prikaz dokumenta ovog prozora stvoren
+	 *
+	 * @return <code>true</code> ukoliko je prikaz dokumenta stvoren, inače
+	 *         <code>false</code>
+	 */
+	public boolean hasView() {
+		return view != null;
+	}
+
+	/**
+	 * Metoda koja stvara prikaz dokumenta ({@link TabView}) ukoliko on još
+	 * nije stvoren. Prikazu se obnavljaju pozicija pokazivača i prvi vidljivi
+	 * znak zapamćeni pri njegovom oslobađanju
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 */
+	public void showView(FormLocalizationProvider flp) {
+		if (view != null || document == null) {
+			return;
+		}
+
+		view = new TabView(flp, document, statistics, tabInfo);
+		add(view, BorderLayout.CENTER);
+		updateEditable();
+		if (!tabInfo.isLoading()) {
+			view.restore(viewCaret, viewScroll);
+		}
+		revalidate();
+	}
+
+	/**
+	 * Metoda koja oslobađa prikaz dokumenta ovog prozora. Dokument, povijest
+	 * izmjena i model prozora ostaju sačuvani, a pamte se pozicija pokazivača
+	 * i prvi vidljivi znak kako bi ih prikaz ponovno stvoren metodom
+	 * {@link #showView(FormLocalizationProvider)} obnovio
+	 */
+	public void hideView() {
+		if (view == null) {
+			return;
+		}
+
+		// dok se dokument učitava pokazivač i pogled još nisu obnovljeni
+		if (!tabInfo.isLoading()) {
+			viewCaret = view.getTextArea().getCaretPosition();
+			viewScroll = view.getFirstVisibleOffset();
+		}
+		remove(view);
+		view.dispose();
+		view = null;
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Metoda koja dohvaća prikaz datoteke samo za čitanje
+	 *
+	 * @return prikaz datoteke samo za čitanje ili <code>null</code> ukoliko
+	 *         prozor sadrži komponentu za uređivanje teksta
+	 */
+	public FileViewer getViewer() {
+		return viewer;
 	}
 
 	/**
@@ -253,6 +1260,26 @@ public class TabPanel extends JPanel {
 		return tabInfo;
 	}
 
+	/**
+	 * Metoda koja dohvaća statistiku dokumenta koji se prikazuje unutar ovog
+	 * prozora
+	 *
+	 * @return statistiku dokumenta koji se prikazuje unutar ovog prozora
+	 */
+	public DocumentStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Metoda koja dohvaća povijest izmjena dokumenta koji se prikazuje unutar
+	 * ovog prozora
+	 *
+	 * @return povijest izmjena dokumenta koji se prikazuje unutar ovog prozora
+	 */
+	public EditHistory getHistory() {
+		return history;
+	}
+
 	/**
 	 * Metoda koja dohvaća naslov ovog prozora koji je modeliran razredom
 	 * {@link TabTitle}
@@ -268,8 +1295,8 @@ public class TabPanel extends JPanel {
 	 * stvara primjerak razreda na temelju svih predanih parametar, pozivajući
 	 * privatni konstruktor
 	 * {@link #TabPanel(JNotepadpp, FormLocalizationProvider, Path, boolean, boolean, int)}.
-	 * Ukoliko taj konstruktor ne baci {@link IOException} stvoreni primjerak
-	 * razreda se vraća kroz povratnu vrijednost. U suprotnom vraća se <code>null</code>
+	 * Ukoliko se dokument nalazi u memoriji, njegovo učitavanje se pokreće u
+	 * pozadini, a vraćeni prozor prikazuje napredak učitavanja
 	 * 
 	 * @param jNotepadpp
 	 *            referencu na sam program {@link JNotepadpp}
@@ -286,23 +1313,76 @@ public class TabPanel extends JPanel {
 	 *            zastavica koja ukazuje na to je li datoteka mijenjana
 	 * @param index
 	 *            pozicija prozora unutar {@link JNotepadpp} programa
-	 * @return novi primjerak razreda {@link TabPanel} ukoliko je moguće
-	 *         otvoriti dokument predstavljen sa putanjom <b>filePath</b> za
-	 *         čitanje i pisanje. Ukoliko to nije moguće metoda vraća
-	 *         <code>null</code>
+	 * @return novi primjerak razreda {@link TabPanel}
 	 */
 	public static TabPanel createNewTabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp, Path filePath,
 			boolean inMemory, boolean changed, int index) {
-		try {
-			return new TabPanel(jNotepadpp, flp, filePath, inMemory, changed, index);
-		} catch (IOException ioe) {
-			JOptionPane.showMessageDialog(
-					jNotepadpp,
-					String.format(flp.getString("openFileError.message"), 
-					filePath.toAbsolutePath().toString()),
-					flp.getString("openFileError.title"), 
-					JOptionPane.ERROR_MESSAGE);
-			return null;
-		}
+		return new TabPanel(jNotepadpp, flp, filePath, inMemory, changed, index);
+	}
+
+	/**
+	 * Statička metoda tvornica prozora prethodne sjednice programa. Vraćeni
+	 * prozor ima samo model i naslov, a datoteka se čita tek pozivom metode
+	 * {@link #load(FormLocalizationProvider, Executor)}, pa je stvaranje
+	 * prozora jednako brzo neovisno o veličini datoteke
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param entry
+	 *            prozor prethodne sjednice
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 * @return novi primjerak razreda {@link TabPanel}
+	 */
+	public static TabPanel createSessionTabPanel(JNotepadpp jNotepadpp, Session.Entry entry, int index) {
+		return new TabPanel(jNotepadpp, entry, index);
+	}
+
+	/**
+	 * Statička metoda tvornica prozora s dokumentom obnovljenim iz dnevnika
+	 * nespremljenih izmjena (vidi {@link JournalReplayer}). Dokument se
+	 * prikazuje kao mijenjan, a njegove se izmjene i dalje bilježe u
+	 * obnovljeni dnevnik
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param recovered
+	 *            obnovljeni dokument
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 * @return novi primjerak razreda {@link TabPanel}
+	 */
+	public static TabPanel createRecoveredTabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp,
+			RecoveredDocument recovered, int index) {
+		return new TabPanel(jNotepadpp, flp, recovered, index);
+	}
+
+	/**
+	 * Statička metoda tvornica prozora koji datoteku <b>filePath</b> prikazuje
+	 * samo za čitanje, pomoću razreda {@link FileViewer}. Datoteka se mapira u
+	 * memoriju, a njezini se retci indeksiraju u pozadini
+	 *
+	 * @param jNotepadpp
+	 *            referencu na sam program {@link JNotepadpp}
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param filePath
+	 *            putanja do datoteke koja se prikazuje
+	 * @param index
+	 *            pozicija prozora unutar {@link JNotepadpp} programa
+	 * @return novi primjerak razreda {@link TabPanel}
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće mapirati ili ukoliko njezina
+	 *             kodna stranica nije podržana
+	 */
+	public static TabPanel createViewerTabPanel(JNotepadpp jNotepadpp, FormLocalizationProvider flp, Path filePath,
+			int index) throws IOException {
+		return new TabPanel(jNotepadpp, flp, filePath, new FileViewer(filePath), index);
 	}
 }
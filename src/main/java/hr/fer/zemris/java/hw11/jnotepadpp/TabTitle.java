@@ -12,6 +12,7 @@ import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTabbedPane;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -21,7 +22,9 @@ import javax.swing.event.ChangeListener;
  * unutar programa {@link JNotepadpp}. Naslov se sastoji od imena dokumenta,
  * slike predstavljene sa primjerkom razreda {@link ImageIcon}, koja ukazuje na
  * to je li dokument mijenjan ({@link TabInfo#GREEN_DISC} ili
- * {@link TabInfo#RED_DISC}) te gumba za zatvaranje prozora.
+ * {@link TabInfo#RED_DISC}) te gumba za zatvaranje prozora. Dok se dokument
+ * učitava iz datoteke naslov prikazuje i traku napretka, a pritiskom na gumb za
+ * zatvaranje učitavanje se prekida.
  * 
  * @see JTabbedPane
  * @see JNotepadpp
@@ -40,6 +43,9 @@ public class TabTitle extends JPanel {
 	 */
 	static final int FIX_DISTANCE = 5;
 
+	/** Konstanta koja predstavlja širinu trake napretka učitavanja */
+	private static final int PROGRESS_WIDTH = 40;
+
 	/**
 	 * Članska varijabla koja je referenca na prozor predstavljen primjerkom
 	 * razreda {@link TabPanel}, čiji je ovo naslov.
@@ -110,6 +116,11 @@ public class TabTitle extends JPanel {
 			}
 		});
 
+		JProgressBar progressBar = new JProgressBar(0, 100);
+		add(progressBar);
+		progressBar.setPreferredSize(new Dimension(PROGRESS_WIDTH, title.getPreferredSize().height / 2));
+		refreshProgress(tabInfo, progressBar);
+
 		JButton closeButton = new JButton("x");
 		add(closeButton);
 		closeButton.setForeground(Color.RED);
@@ -125,7 +136,7 @@ public class TabTitle extends JPanel {
 
 		});
 
-		calculateSize(title, closeButton);
+		calculateSize(title, progressBar, closeButton);
 
 		tabInfo.addChangeListener(new ChangeListener() {
 
@@ -138,8 +149,9 @@ public class TabTitle extends JPanel {
 				if (currentChangedStatus != tabInfo.isChanged()) {
 					refreshIcon(tabInfo, title);
 				}
+				refreshProgress(tabInfo, progressBar);
 
-				calculateSize(title, closeButton);
+				calculateSize(title, progressBar, closeButton);
 			}
 		});
 	}
@@ -147,19 +159,24 @@ public class TabTitle extends JPanel {
 	/**
 	 * Pomoćna metoda koja se koristi za izračun veličine ovog naslova. Širina i
 	 * visina računaju se na temelju širine i visine predanih parametara
-	 * <b>label</b> i <b>button</b>. Metoda namješta samo preferirane dimenzije!
+	 * <b>label</b>, <b>progressBar</b> (ukoliko je vidljiva) i <b>button</b>.
+	 * Metoda namješta samo preferirane dimenzije!
 	 *
 	 * @param label
 	 *            labela koja se koristi za izračun širine i visine ove
 	 *            komponente
+	 * @param progressBar
+	 *            traka napretka koja se koristi za izračun širine ove
+	 *            komponente ukoliko je vidljiva
 	 * @param button
 	 *            gumb koja se koristi za izračun širine i visine ove komponente
 	 */
-	private void calculateSize(JLabel label, JButton button) {
+	private void calculateSize(JLabel label, JProgressBar progressBar, JButton button) {
 		Dimension labelDim = label.getPreferredSize();
 		Dimension buttonDim = button.getPreferredSize();
+		int progressWidth = progressBar.isVisible() ? progressBar.getPreferredSize().width + FIX_DISTANCE : 0;
 
-		setPreferredSize(new Dimension(labelDim.width + buttonDim.width + FIX_DISTANCE * 3,
+		setPreferredSize(new Dimension(labelDim.width + progressWidth + buttonDim.width + FIX_DISTANCE * 3,
 				Math.max(buttonDim.height, labelDim.height) + FIX_DISTANCE));
 
 	}
@@ -182,4 +199,23 @@ public class TabTitle extends JPanel {
 		currentChangedStatus = tabInfo.isChanged();
 	}
 
+	/**
+	 * Pomoćna metoda koja prikazuje ili skriva traku napretka <b>progressBar</b>
+	 * ovisno o tome učitava li se dokument te postavlja trenutni napredak
+	 * učitavanja. Prozoru prethodne sjednice čija datoteka još nije počela s
+	 * čitanjem traka se ne prikazuje
+	 *
+	 * @param tabInfo
+	 *            model iz kojeg se dobiva informacija o napretku učitavanja
+	 * @param progressBar
+	 *            traka napretka koja se osvježava
+	 */
+	private void refreshProgress(TabInfo tabInfo, JProgressBar progressBar) {
+		boolean visible = tabInfo.isLoading() && !tabInfo.isPending();
+		progressBar.setVisible(visible);
+		if (visible) {
+			progressBar.setValue(tabInfo.getLoadProgress());
+		}
+	}
+
 }
@@ -0,0 +1,255 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.awt.BorderLayout;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.nio.file.Path;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeListener;
+import javax.swing.plaf.TextUI;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.DocumentStatistics;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileTextAreaUI;
+import hr.fer.zemris.java.hw11.jnotepadpp.local.FormLocalizationProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.ILexer;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.SyntaxHighlighter;
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.SyntaxTextAreaUI;
+
+/**
+ * Razred nasljeđuje razred {@link JPanel}. Primjerci ovog razreda predstavljaju
+ * prikaz dokumenta jednog prozora {@link TabPanel}: komponentu za uređivanje
+ * teksta ({@link JTextArea}) unutar {@link JScrollPane}a, statusnu traku
+ * ({@link StatusBar}) i bojanje teksta ({@link SyntaxHighlighter}).
+ *
+ * <p>
+ * Stanje prozora (model {@link TabInfo}, dokument, statistika i povijest
+ * izmjena) nalazi se u razredu {@link TabPanel} i ne ovisi o prikazu. Prikaz se
+ * stoga stvara tek kada prozor bude odabran, a prozoru koji dugo nije gledan
+ * se oslobađa metodom {@link #dispose()}, nakon koje prikaz više ne drži
+ * dokument niti promatrače modela.
+ * </p>
+ *
+ * @see TabPanel
+ *
+ * @author Davor Češljaš
+ */
+public class TabView extends JPanel {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/** Članska varijabla koja predstavlja komponentu za uređivanje teksta */
+	private final JTextArea textArea;
+
+	/**
+	 * Članska varijabla koja predstavlja statusnu traku. Za sadržaj trake
+	 * pogledati dokumentaciju razreda {@link StatusBar}
+	 */
+	private final StatusBar statusBar;
+
+	/** Članska varijabla koja predstavlja model prozora čiji je ovo prikaz */
+	private final TabInfo tabInfo;
+
+	/**
+	 * Članska varijabla koja predstavlja objekt koji boji tekst dokumenta ili
+	 * <code>null</code> ukoliko se vrsta datoteke ne prepoznaje
+	 */
+	private SyntaxHighlighter highlighter;
+
+	/**
+	 * Članska varijabla koja predstavlja promatrača modela {@link #tabInfo}.
+	 * Vrsta datoteke određuje se iz putanje, pa se bojanje mijenja spremanjem
+	 */
+	private final ChangeListener infoListener = e -> updateHighlighter();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Prikaz odmah
+	 * prikazuje dokument <b>document</b> i prati model <b>tabInfo</b>
+	 *
+	 * @param flp
+	 *            primjerak razreda {@link FormLocalizationProvider} koji se
+	 *            koristi unutar programa {@link JNotepadpp} za
+	 *            internacionalizaciju
+	 * @param document
+	 *            dokument koji se prikazuje
+	 * @param statistics
+	 *            statistika dokumenta koja se prikazuje u statusnoj traci
+	 * @param tabInfo
+	 *            model prozora
+	 */
+	public TabView(FormLocalizationProvider flp, Document document, DocumentStatistics statistics,
+			TabInfo tabInfo) {
+		super(new BorderLayout());
+		this.tabInfo = tabInfo;
+
+		textArea = new JTextArea(document);
+		textArea.setUI(createUI(document));
+		add(new JScrollPane(textArea), BorderLayout.CENTER);
+
+		// sat se osvježava iz zajedničkog izvora otkucaja samo dok je vidljiv
+		statusBar = new StatusBar(flp, textArea, statistics, new Clock());
+		add(statusBar, BorderLayout.SOUTH);
+
+		tabInfo.addChangeListener(infoListener);
+		updateHighlighter();
+	}
+
+	/**
+	 * Metoda koja dohvaća komponentu za uređivanje teksta ovog prikaza
+	 *
+	 * @return komponentu za uređivanje teksta ovog prikaza
+	 */
+	public JTextArea getTextArea() {
+		return textArea;
+	}
+
+	/**
+	 * Metoda koja prikaz prebacuje na dokument <b>document</b>, primjerice
+	 * kada je po završetku učitavanja datoteka mapirana u memoriju
+	 *
+	 * @param document
+	 *            novi dokument prikaza
+	 */
+	public void setDocument(Document document) {
+		if (highlighter != null) {
+			highlighter.uninstall();
+			highlighter = null;
+		}
+		textArea.setUI(createUI(document));
+		textArea.setDocument(document);
+		updateHighlighter();
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja bojanje teksta prema vrsti datoteke
+	 * određenoj iz putanje u modelu {@link #tabInfo}. Bojanje se postavlja tek
+	 * kada je dokument učitan, a ponovno se postavlja samo ukoliko se
+	 * promijenio dokument ili vrsta datoteke
+	 */
+	private void updateHighlighter() {
+		if (tabInfo.isLoading()) {
+			return;
+		}
+		Path path = tabInfo.getTabFilePath();
+		ILexer lexer = path == null ? null : ILexer.forPath(path);
+		Document document = textArea.getDocument();
+		if (highlighter != null && highlighter.getDocument() == document && highlighter.getLexer() == lexer) {
+			return;
+		}
+
+		if (highlighter != null) {
+			highlighter.uninstall();
+			highlighter = null;
+		}
+		if (lexer != null) {
+			highlighter = new SyntaxHighlighter(textArea, lexer);
+		}
+	}
+
+	/**
+	 * Metoda koja postavlja pokazivač na poziciju <b>caret</b> i prikaz
+	 * pomiče tako da je znak na poziciji <b>firstVisible</b> u prvom vidljivom
+	 * retku. Pozicije se ograničavaju na duljinu dokumenta, a prikaz se pomiče
+	 * tek kada je prikazan, jer tek tada komponenta ima svoju veličinu
+	 *
+	 * @param caret
+	 *            pozicija pokazivača
+	 * @param firstVisible
+	 *            pozicija prvog vidljivog znaka
+	 */
+	public void restore(int caret, int firstVisible) {
+		int length = textArea.getDocument().getLength();
+		textArea.setCaretPosition(Math.min(caret, length));
+
+		int offset = Math.min(firstVisible, length);
+		if (isShowing()) {
+			SwingUtilities.invokeLater(() -> scrollTo(offset));
+			return;
+		}
+		addHierarchyListener(new HierarchyListener() {
+
+			@Override
+			public void hierarchyChanged(HierarchyEvent e) {
+				if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0 || !isShowing()) {
+					return;
+				}
+				removeHierarchyListener(this);
+				// pokazivač bi nakon prikaza pomaknuo pogled na sebe
+				SwingUtilities.invokeLater(() -> scrollTo(offset));
+			}
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja pomiče pogled komponente {@link #textArea} tako da
+	 * je znak na poziciji <b>offset</b> u prvom vidljivom retku
+	 *
+	 * @param offset
+	 *            pozicija znaka
+	 */
+	private void scrollTo(int offset) {
+		JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, textArea);
+		if (viewport == null || offset > textArea.getDocument().getLength()) {
+			return;
+		}
+		try {
+			Rectangle rectangle = textArea.modelToView(offset);
+			if (rectangle == null) {
+				return;
+			}
+			int maxY = Math.max(textArea.getHeight() - viewport.getExtentSize().height, 0);
+			viewport.setViewPosition(new Point(viewport.getViewPosition().x, Math.min(rectangle.y, maxY)));
+		} catch (BadLocationException ignorable) {
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju prvog vidljivog znaka dokumenta
+	 *
+	 * @return poziciju prvog vidljivog znaka dokumenta
+	 */
+	public int getFirstVisibleOffset() {
+		JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, textArea);
+		return viewport == null ? 0 : Math.max(textArea.viewToModel(viewport.getViewPosition()), 0);
+	}
+
+	/**
+	 * Metoda koja oslobađa prikaz. Uklanja se bojanje teksta i promatrači
+	 * modela, statistike i lokalizacije, a komponenta za uređivanje teksta se
+	 * odvaja od dokumenta, koji nadživljava prikaz. Nakon poziva ove metode
+	 * prikaz se više ne smije koristiti
+	 */
+	public void dispose() {
+		tabInfo.removeChangeListener(infoListener);
+		if (highlighter != null) {
+			highlighter.uninstall();
+			highlighter = null;
+		}
+		statusBar.dispose();
+		// pokazivač i pogled komponente su promatrači dokumenta
+		textArea.setDocument(new PlainDocument());
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara objekt za crtanje komponente za uređivanje
+	 * teksta prikladan za dokument <b>document</b>
+	 *
+	 * @param document
+	 *            dokument koji se prikazuje
+	 * @return objekt za crtanje komponente za uređivanje teksta
+	 */
+	private static TextUI createUI(Document document) {
+		return document instanceof LargeFileDocument ? new LargeFileTextAreaUI() : new SyntaxTextAreaUI();
+	}
+}
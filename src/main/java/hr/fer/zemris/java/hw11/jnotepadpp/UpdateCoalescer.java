@@ -0,0 +1,85 @@
+package hr.fer.zemris.java.hw11.jnotepadpp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Razred koji objedinjuje osvježavanja grafičkog korisničkog sučelja koja
+ * izazivaju događaji nad dokumentom i pokazivačem teksta. Promatrači umjesto
+ * da osvježavanje obave odmah, samo ga prijave metodom
+ * {@link #schedule(Runnable)}, čime se ono označava kao potrebno. Sva
+ * prijavljena osvježavanja izvode se jednom, u dretvi za obradu događaja,
+ * nakon što završi obrada trenutnog događaja (primjerice cijele akcije
+ * sortiranja ili promjene velikih i malih slova). Isto osvježavanje
+ * prijavljeno više puta izvodi se samo jednom, pa skupne izmjene traju
+ * proporcionalno samoj izmjeni, a ne broju događaja koje ona izazove.
+ *
+ * <p>
+ * Razred koristi oblikovni obrazac
+ * <a href = "https://en.wikipedia.org/wiki/Singleton_pattern">jedinstveni
+ * objekt</a> te se njegovom jedinom primjerku pristupa metodom
+ * {@link #getInstance()}. Razred se smije koristiti isključivo iz dretve za
+ * obradu događaja.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class UpdateCoalescer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final UpdateCoalescer INSTANCE = new UpdateCoalescer();
+
+	/**
+	 * Članska varijabla koja predstavlja prijavljena osvježavanja, u
+	 * redoslijedu prve prijave
+	 */
+	private final Set<Runnable> pending = new LinkedHashSet<>();
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 * izvan njega samog
+	 */
+	private UpdateCoalescer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static UpdateCoalescer getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Metoda koja prijavljuje osvježavanje koje se izvodi nakon obrade
+	 * trenutnog događaja. Osvježavanja se uspoređuju po referenci pa ih je
+	 * potrebno čuvati u članskim varijablama, a ne stvarati pri svakoj
+	 * prijavi
+	 *
+	 * @param update
+	 *            osvježavanje koje se prijavljuje
+	 */
+	public void schedule(Runnable update) {
+		if (pending.isEmpty()) {
+			SwingUtilities.invokeLater(this::flush);
+		}
+		pending.add(update);
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi sva prijavljena osvježavanja. Osvježavanja
+	 * prijavljena tijekom izvođenja izvode se u sljedećem prolazu
+	 */
+	private void flush() {
+		List<Runnable> updates = new ArrayList<>(pending);
+		pending.clear();
+		for (Runnable update : updates) {
+			update.run();
+		}
+	}
+}
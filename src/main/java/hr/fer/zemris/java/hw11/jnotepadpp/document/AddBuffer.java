@@ -0,0 +1,178 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Arrays;
+
+import javax.swing.text.Segment;
+
+/**
+ * Razred koji implementira sučelje {@link ITextSource}, a predstavlja
+ * međuspremnik u koji se tekst samo dodaje. Znakovi se spremaju u blokove
+ * fiksne veličine ({@value #BLOCK_SIZE} znakova) koji se nikada ne
+ * premještaju niti mijenjaju nakon što su zapisani, pa se jednom dodani
+ * znakovi mogu čitati iz bilo koje dretve bez kopiranja. Rastom
+ * međuspremnika kopira se samo tablica blokova.
+ *
+ * <p>
+ * Dodavati smije samo jedna dretva (ona koja mijenja dokument), a ostale
+ * dretve smiju čitati samo znakove koji su dodani prije nego im je sadržaj
+ * predan.
+ * </p>
+ *
+ * @see PieceTableContent
+ *
+ * @author Davor Češljaš
+ */
+public class AddBuffer implements ITextSource {
+
+	/** Konstanta koja predstavlja broj bitova pomaka za redni broj bloka */
+	private static final int BLOCK_SHIFT = 16;
+
+	/** Konstanta koja predstavlja veličinu jednog bloka u znakovima */
+	public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+	/** Konstanta koja predstavlja masku za poziciju unutar jednog bloka */
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+	/**
+	 * Članska varijabla koja predstavlja tablicu blokova. Tablica se
+	 * zamjenjuje većom kopijom, a stari blokovi ostaju isti
+	 */
+	private volatile char[][] blocks = new char[4][];
+
+	/** Članska varijabla koja predstavlja broj dodanih znakova */
+	private volatile int length;
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Metoda koja dodaje predani tekst na kraj međuspremnika
+	 *
+	 * @param str
+	 *            tekst koji se dodaje
+	 * @return poziciju prvog dodanog znaka
+	 */
+	public int append(String str) {
+		return append((CharSequence) str);
+	}
+
+	/**
+	 * Metoda koja dodaje znakove predanog segmenta na kraj međuspremnika,
+	 * kopirajući ih izravno iz polja segmenta
+	 *
+	 * @param text
+	 *            segment čiji se znakovi dodaju
+	 * @return poziciju prvog dodanog znaka
+	 */
+	public int append(Segment text) {
+		return append((CharSequence) text);
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje predani tekst, koji je primjerak razreda
+	 * {@link String} ili {@link Segment}, na kraj međuspremnika
+	 *
+	 * @param text
+	 *            tekst koji se dodaje
+	 * @return poziciju prvog dodanog znaka
+	 */
+	private int append(CharSequence text) {
+		int start = length;
+		int position = start;
+		char[][] table = blocks;
+		for (int copied = 0, len = text.length(); copied < len;) {
+			int block = position >>> BLOCK_SHIFT;
+			if (block == table.length) {
+				table = Arrays.copyOf(table, table.length * 2);
+			}
+			if (table[block] == null) {
+				table[block] = new char[BLOCK_SIZE];
+			}
+			int inBlock = position & BLOCK_MASK;
+			int n = Math.min(len - copied, BLOCK_SIZE - inBlock);
+			if (text instanceof Segment) {
+				Segment segment = (Segment) text;
+				System.arraycopy(segment.array, segment.offset + copied, table[block], inBlock, n);
+			} else {
+				((String) text).getChars(copied, copied + n, table[block], inBlock);
+			}
+			copied += n;
+			position += n;
+		}
+		blocks = table;
+		length = position;
+		return start;
+	}
+
+	@Override
+	public void getChars(int offset, int length, char[] dst, int dstPos) {
+		char[][] table = blocks;
+		while (length > 0) {
+			int inBlock = offset & BLOCK_MASK;
+			int n = Math.min(length, BLOCK_SIZE - inBlock);
+			System.arraycopy(table[offset >>> BLOCK_SHIFT], inBlock, dst, dstPos, n);
+			offset += n;
+			dstPos += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Metoda koja u predani primjerak razreda {@link Segment} postavlja
+	 * najdulji dio raspona od <b>length</b> znakova počevši od <b>offset</b>
+	 * koji se nalazi u jednom bloku, bez kopiranja. Polje segmenta se ne smije
+	 * mijenjati
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka
+	 * @param length
+	 *            duljina raspona
+	 * @param segment
+	 *            segment koji se postavlja
+	 */
+	public void share(int offset, int length, Segment segment) {
+		int inBlock = offset & BLOCK_MASK;
+		segment.array = blocks[offset >>> BLOCK_SHIFT];
+		segment.offset = inBlock;
+		segment.count = Math.min(length, BLOCK_SIZE - inBlock);
+	}
+
+	@Override
+	public int countLines(int offset, int length) {
+		char[][] table = blocks;
+		int count = 0;
+		while (length > 0) {
+			char[] block = table[offset >>> BLOCK_SHIFT];
+			int inBlock = offset & BLOCK_MASK;
+			int n = Math.min(length, BLOCK_SIZE - inBlock);
+			for (int i = inBlock, end = inBlock + n; i < end; i++) {
+				if (block[i] == '\n') {
+					count++;
+				}
+			}
+			offset += n;
+			length -= n;
+		}
+		return count;
+	}
+
+	@Override
+	public int findLine(int offset, int length, int n) {
+		char[][] table = blocks;
+		while (length > 0) {
+			char[] block = table[offset >>> BLOCK_SHIFT];
+			int inBlock = offset & BLOCK_MASK;
+			int len = Math.min(length, BLOCK_SIZE - inBlock);
+			for (int i = inBlock, end = inBlock + len; i < end; i++) {
+				if (block[i] == '\n' && --n == 0) {
+					return offset + i - inBlock;
+				}
+			}
+			offset += len;
+			length -= len;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,36 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+/**
+ * Razred koji implementira sučelje {@link ITextSource}, a čiji su znakovi
+ * spremljeni u jednom polju. Polje se ne kopira, pa ga nakon stvaranja
+ * primjerka ovog razreda nitko ne smije mijenjati.
+ *
+ * @see ITextSource
+ *
+ * @author Davor Češljaš
+ */
+public class CharArraySource implements ITextSource {
+
+	/** Članska varijabla koja predstavlja znakove ovog izvora */
+	private final char[] chars;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param chars
+	 *            znakovi ovog izvora
+	 */
+	public CharArraySource(char[] chars) {
+		this.chars = chars;
+	}
+
+	@Override
+	public int length() {
+		return chars.length;
+	}
+
+	@Override
+	public void getChars(int offset, int length, char[] dst, int dstPos) {
+		System.arraycopy(chars, offset, dst, dstPos, length);
+	}
+}
@@ -0,0 +1,269 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextStatistics.Counter;
+
+/**
+ * Razred koji prati statistiku dokumenta (vidi {@link TextStatistics}) i
+ * ažurira je iz samih izmjena dokumenta, bez ponovnog prolaska kroz cijeli
+ * tekst. Umetanjem se pregledavaju samo umetnuti znakovi, a uklanjanjem samo
+ * uklonjeni znakovi, koji se čitaju iz slike dokumenta prije izmjene (vidi
+ * {@link ISnapshotProvider}). Uz same znakove pregledavaju se i po jedan znak
+ * sa svake strane izmjene, jer izmjena može spojiti ili razdvojiti riječi.
+ * Dohvat svake vrijednosti stoga je složenosti O(1), neovisno o veličini
+ * dokumenta.
+ *
+ * <p>
+ * Razred je subjekt u oblikovnom obrascu promatrač, a promatrači se
+ * obavještavaju nakon svake izmjene statistike. Dokument se smije mijenjati
+ * samo iz dretve za obradu događaja.
+ * </p>
+ *
+ * @see TextStatistics
+ *
+ * @author Davor Češljaš
+ */
+public class DocumentStatistics implements DocumentListener {
+
+	/**
+	 * Članska varijabla koja predstavlja dokument čija se statistika prati ili
+	 * <code>null</code> ukoliko se ne prati niti jedan dokument
+	 */
+	private Document document;
+
+	/**
+	 * Članska varijabla koja predstavlja sliku dokumenta nakon posljednje
+	 * izmjene
+	 */
+	private ITextSource previous;
+
+	/** Članska varijabla koja predstavlja broj znakova */
+	private int characters;
+
+	/** Članska varijabla koja predstavlja broj znakova koji nisu bjeline */
+	private int nonWhitespace;
+
+	/** Članska varijabla koja predstavlja broj redaka */
+	private int lines = 1;
+
+	/** Članska varijabla koja predstavlja broj riječi */
+	private int words;
+
+	/**
+	 * Članska varijabla koja predstavlja {@link List}u promatrača na promjene
+	 * statistike
+	 */
+	private final List<ChangeListener> listeners = new ArrayList<>();
+
+	/**
+	 * Metoda koja započinje praćenje statistike predanog dokumenta, a prestaje
+	 * pratiti prethodni dokument. Početna statistika mora odgovarati trenutnom
+	 * sadržaju dokumenta
+	 *
+	 * @param document
+	 *            dokument čija se statistika prati
+	 * @param initial
+	 *            statistika trenutnog sadržaja dokumenta
+	 * @throws IllegalArgumentException
+	 *             ukoliko dokument ne implementira sučelje
+	 *             {@link ISnapshotProvider}
+	 */
+	public void attach(Document document, TextStatistics initial) {
+		if (!(document instanceof ISnapshotProvider)) {
+			throw new IllegalArgumentException("Document must be a snapshot provider");
+		}
+		detach();
+
+		this.document = document;
+		previous = snapshot();
+		characters = initial.getCharacters();
+		nonWhitespace = initial.getNonWhitespace();
+		lines = initial.getLines();
+		words = initial.getWords();
+		document.addDocumentListener(this);
+		fire();
+	}
+
+	/**
+	 * Metoda koja prestaje pratiti statistiku trenutnog dokumenta
+	 */
+	public void detach() {
+		if (document != null) {
+			document.removeDocumentListener(this);
+			document = null;
+			previous = null;
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća broj znakova dokumenta
+	 *
+	 * @return broj znakova dokumenta
+	 */
+	public int getCharacters() {
+		return characters;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj znakova dokumenta koji nisu bjeline
+	 *
+	 * @return broj znakova dokumenta koji nisu bjeline
+	 */
+	public int getNonWhitespace() {
+		return nonWhitespace;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj redaka dokumenta
+	 *
+	 * @return broj redaka dokumenta
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj riječi dokumenta
+	 *
+	 * @return broj riječi dokumenta
+	 */
+	public int getWords() {
+		return words;
+	}
+
+	/**
+	 * Metoda koja registrira promatrača na promjene statistike
+	 *
+	 * @param listener
+	 *            promatrač koji se registrira
+	 */
+	public void addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Metoda koja odjavljuje promatrača na promjene statistike
+	 *
+	 * @param listener
+	 *            promatrač koji se odjavljuje
+	 */
+	public void removeChangeListener(ChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		ITextSource current = snapshot();
+		int offset = e.getOffset();
+		int length = e.getLength();
+
+		boolean afterWhitespace = offset == 0 || Character.isWhitespace(charAt(current, offset - 1));
+		Counter counter = count(current, offset, length, afterWhitespace);
+		boolean wordFollows = offset + length < current.length()
+				&& !Character.isWhitespace(charAt(current, offset + length));
+
+		characters += length;
+		nonWhitespace += counter.nonWhitespace;
+		lines += counter.newLines;
+		// riječ koja slijedi izmjenu možda je prije započinjala na poziciji offset
+		words += counter.wordStarts + (wordFollows && counter.afterWhitespace ? 1 : 0)
+				- (wordFollows && afterWhitespace ? 1 : 0);
+
+		previous = current;
+		fire();
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		ITextSource old = previous;
+		int offset = e.getOffset();
+		int length = e.getLength();
+
+		boolean afterWhitespace = offset == 0 || Character.isWhitespace(charAt(old, offset - 1));
+		Counter counter = count(old, offset, length, afterWhitespace);
+		boolean wordFollows = offset + length < old.length()
+				&& !Character.isWhitespace(charAt(old, offset + length));
+
+		characters -= length;
+		nonWhitespace -= counter.nonWhitespace;
+		lines -= counter.newLines;
+		words -= counter.wordStarts + (wordFollows && counter.afterWhitespace ? 1 : 0)
+				- (wordFollows && afterWhitespace ? 1 : 0);
+
+		previous = snapshot();
+		fire();
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara sliku trenutnog sadržaja dokumenta
+	 *
+	 * @return sliku trenutnog sadržaja dokumenta
+	 */
+	private ITextSource snapshot() {
+		return ((ISnapshotProvider) document).snapshot();
+	}
+
+	/**
+	 * Pomoćna metoda koja obavještava sve promatrače o promjeni statistike
+	 */
+	private void fire() {
+		ChangeEvent event = new ChangeEvent(this);
+		for (ChangeListener listener : new ArrayList<>(listeners)) {
+			listener.stateChanged(event);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja prebrojava <b>length</b> znakova izvora počevši od
+	 * <b>offset</b>
+	 *
+	 * @param source
+	 *            izvor znakova
+	 * @param offset
+	 *            pozicija prvog znaka
+	 * @param length
+	 *            broj znakova
+	 * @param afterWhitespace
+	 *            zastavica koja ukazuje na to prethodi li prvom znaku bjelina
+	 *            ili početak teksta
+	 * @return primjerak razreda {@link Counter} nakon brojanja
+	 */
+	private static Counter count(ITextSource source, int offset, int length, boolean afterWhitespace) {
+		Counter counter = new Counter(afterWhitespace);
+		char[] buffer = new char[Math.min(length, ITextSource.SCAN_CHUNK)];
+		for (int end = offset + length; offset < end;) {
+			int n = Math.min(buffer.length, end - offset);
+			source.getChars(offset, n, buffer, 0);
+			counter.accept(buffer, 0, n);
+			offset += n;
+		}
+		return counter;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća znak izvora na poziciji <b>offset</b>
+	 *
+	 * @param source
+	 *            izvor znakova
+	 * @param offset
+	 *            pozicija znaka
+	 * @return znak na poziciji <b>offset</b>
+	 */
+	private static char charAt(ITextSource source, int offset) {
+		char[] c = new char[1];
+		source.getChars(offset, 1, c, 0);
+		return c[0];
+	}
+}
@@ -0,0 +1,526 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentEvent.ElementChange;
+import javax.swing.event.DocumentEvent.EventType;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Razred koji pamti povijest izmjena jednog dokumenta i omogućava njihovo
+ * poništavanje ({@link #undo()}) i ponovno izvođenje ({@link #redo()}).
+ * Povijest se sastoji od zapisa, a svaki zapis od jedne ili više izmjena
+ * dokumenta koje se poništavaju zajedno:
+ * <ul>
+ * <li>sve izmjene nastale obradom istog događaja (npr. zamjena označenog
+ * teksta, koja se sastoji od uklanjanja i umetanja)</li>
+ * <li>uzastopno tipkanje, odnosno uzastopno brisanje po jednog znaka, sve do
+ * znaka novog retka ili stanke dulje od {@value #MERGE_INTERVAL}
+ * milisekundi</li>
+ * </ul>
+ *
+ * <p>
+ * Za svaki zapis procjenjuje se zauzeće memorije (vidi
+ * {@link SizedEditEvent}). Kada zauzeće povijesti prijeđe granicu zadanu
+ * svojstvom sustava {@value #BUDGET_PROPERTY}, ili kada zauzeće svih
+ * povijesti prijeđe granicu razreda {@link EditHistoryBudget}, uklanjaju se
+ * najstariji zapisi. Razred je subjekt u oblikovnom obrascu promatrač, a
+ * promatrači se obavještavaju svakom promjenom povijesti. Povijest se smije
+ * koristiti samo iz dretve za obradu događaja.
+ * </p>
+ *
+ * @see EditHistoryBudget
+ * @see PieceTableContent
+ *
+ * @author Davor Češljaš
+ */
+public class EditHistory implements UndoableEditListener {
+
+	/**
+	 * Konstanta koja predstavlja pretpostavljenu granicu zauzeća memorije
+	 * povijesti jednog dokumenta u oktetima
+	 */
+	public static final long DEFAULT_BUDGET = 32L * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * granica zauzeća memorije povijesti jednog dokumenta
+	 */
+	public static final String BUDGET_PROPERTY = "jnotepadpp.undo.tabBudget";
+
+	/**
+	 * Konstanta koja predstavlja najdulju stanku (u milisekundama) između
+	 * dvaju znakova koji se spajaju u isti zapis
+	 */
+	public static final long MERGE_INTERVAL = 2000;
+
+	/** Konstanta koja predstavlja procjenu zauzeća memorije jedne izmjene */
+	private static final long EDIT_BYTES = 96;
+
+	/**
+	 * Konstanta koja predstavlja procjenu zauzeća memorije jednog elementa
+	 * dokumenta zajedno s njegovim pozicijama
+	 */
+	private static final long ELEMENT_BYTES = 112;
+
+	/**
+	 * Članska varijabla koja predstavlja dokument čije se izmjene pamte ili
+	 * <code>null</code> ukoliko se ne prati niti jedan dokument
+	 */
+	private Document document;
+
+	/** Članska varijabla koja predstavlja granicu zauzeća memorije */
+	private final long budget = Math.max(0, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET));
+
+	/**
+	 * Članska varijabla koja predstavlja zapise koji se mogu poništiti, od
+	 * najstarijeg prema najnovijem
+	 */
+	private final Deque<Entry> undoEntries = new ArrayDeque<>();
+
+	/**
+	 * Članska varijabla koja predstavlja zapise koji se mogu ponovno izvesti,
+	 * od najdaljeg prema sljedećem
+	 */
+	private final Deque<Entry> redoEntries = new ArrayDeque<>();
+
+	/** Članska varijabla koja predstavlja procjenu zauzeća memorije */
+	private long size;
+
+	/**
+	 * Članska varijabla koja predstavlja {@link List}u promatrača na promjene
+	 * povijesti
+	 */
+	private final List<ChangeListener> listeners = new ArrayList<>();
+
+	/**
+	 * Metoda koja započinje pamćenje izmjena predanog dokumenta, a prestaje
+	 * pratiti prethodni dokument. Povijest prethodnog dokumenta se briše
+	 *
+	 * @param document
+	 *            dokument čije se izmjene pamte
+	 */
+	public void attach(Document document) {
+		detach();
+
+		this.document = document;
+		document.addUndoableEditListener(this);
+		EditHistoryBudget.getInstance().register(this);
+		fire();
+	}
+
+	/**
+	 * Metoda koja prestaje pamtiti izmjene trenutnog dokumenta i briše
+	 * povijest
+	 */
+	public void detach() {
+		if (document == null) {
+			return;
+		}
+		document.removeUndoableEditListener(this);
+		clear();
+		EditHistoryBudget.getInstance().unregister(this);
+		document = null;
+	}
+
+	/**
+	 * Metoda koja briše sve zapise povijesti
+	 */
+	public void clear() {
+		long freed = 0;
+		while (!undoEntries.isEmpty() || !redoEntries.isEmpty()) {
+			freed += removeOldest();
+		}
+		EditHistoryBudget.getInstance().resized(-freed);
+		fire();
+	}
+
+	/**
+	 * Metoda koja izvodi izmjenu dokumenta koja se ne pamti u povijesti
+	 * (primjerice tekst dodan na kraj datoteke koja se prati). Izmjena ne
+	 * smije pomicati tekst na koji se odnose zapamćene izmjene, pa se
+	 * preporuča samo dodavanje na kraj dokumenta
+	 *
+	 * @param change
+	 *            izmjena dokumenta koja se izvodi
+	 */
+	public void runUnrecorded(Runnable change) {
+		if (document == null) {
+			change.run();
+			return;
+		}
+
+		Document recorded = document;
+		recorded.removeUndoableEditListener(this);
+		try {
+			change.run();
+		} finally {
+			recorded.addUndoableEditListener(this);
+		}
+	}
+
+	/**
+	 * Metoda koja provjerava postoji li izmjena koja se može poništiti
+	 *
+	 * @return <code>true</code> ukoliko postoji izmjena koja se može
+	 *         poništiti, <code>false</code> inače
+	 */
+	public boolean canUndo() {
+		return !undoEntries.isEmpty();
+	}
+
+	/**
+	 * Metoda koja provjerava postoji li izmjena koja se može ponovno izvesti
+	 *
+	 * @return <code>true</code> ukoliko postoji izmjena koja se može ponovno
+	 *         izvesti, <code>false</code> inače
+	 */
+	public boolean canRedo() {
+		return !redoEntries.isEmpty();
+	}
+
+	/**
+	 * Metoda koja poništava posljednji zapis povijesti. Ukoliko takvog zapisa
+	 * nema, metoda ne radi ništa
+	 */
+	public void undo() {
+		Entry entry = undoEntries.pollLast();
+		if (entry == null) {
+			return;
+		}
+		entry.seal();
+		if (!undoEntries.isEmpty()) {
+			// novo tipkanje ne nastavlja zapis koji je prethodio poništenom
+			undoEntries.peekLast().seal();
+		}
+		entry.undo();
+		redoEntries.addLast(entry);
+		fire();
+	}
+
+	/**
+	 * Metoda koja ponovno izvodi posljednji poništeni zapis. Ukoliko takvog
+	 * zapisa nema, metoda ne radi ništa
+	 */
+	public void redo() {
+		Entry entry = redoEntries.pollLast();
+		if (entry == null) {
+			return;
+		}
+		entry.redo();
+		undoEntries.addLast(entry);
+		fire();
+	}
+
+	/**
+	 * Metoda koja dohvaća procjenu zauzeća memorije povijesti u oktetima
+	 *
+	 * @return procjenu zauzeća memorije povijesti
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public void undoableEditHappened(UndoableEditEvent e) {
+		long delta = 0;
+		while (!redoEntries.isEmpty()) {
+			Entry entry = redoEntries.pollLast();
+			entry.die();
+			delta -= entry.size;
+		}
+
+		UndoableEdit edit = e.getEdit();
+		long cost = sizeOf(e);
+		long now = System.currentTimeMillis();
+		AWTEvent event = EventQueue.getCurrentEvent();
+		Entry entry = undoEntries.peekLast();
+		if (entry == null || !(event != null && entry.event == event || entry.canMerge(edit, now))) {
+			entry = new Entry(EditHistoryBudget.getInstance().nextSequence());
+			undoEntries.addLast(entry);
+		}
+		entry.add(edit, cost, isMergeable(edit), event, now);
+		delta += cost;
+		size += delta;
+
+		while (size > budget && (!undoEntries.isEmpty() || !redoEntries.isEmpty())) {
+			delta -= removeOldest();
+		}
+		EditHistoryBudget.getInstance().resized(delta);
+		fire();
+	}
+
+	/**
+	 * Metoda koja dodaje promatrača na promjene povijesti
+	 *
+	 * @param l
+	 *            promatrač koji se dodaje
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Metoda koja uklanja promatrača na promjene povijesti
+	 *
+	 * @param l
+	 *            promatrač koji se uklanja
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Metoda koja dohvaća redni broj najstarijeg zapisa povijesti
+	 *
+	 * @return redni broj najstarijeg zapisa ili {@link Long#MAX_VALUE}
+	 *         ukoliko je povijest prazna
+	 */
+	long getOldestSequence() {
+		Entry entry = undoEntries.isEmpty() ? redoEntries.peekFirst() : undoEntries.peekFirst();
+		return entry == null ? Long.MAX_VALUE : entry.sequence;
+	}
+
+	/**
+	 * Metoda koja uklanja najstariji zapis povijesti, a poziva je razred
+	 * {@link EditHistoryBudget} kada je prijeđena granica zauzeća svih
+	 * povijesti
+	 *
+	 * @return procjenu zauzeća memorije uklonjenog zapisa
+	 */
+	long evictOldest() {
+		long freed = removeOldest();
+		fire();
+		return freed;
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja najstariji zapis koji se može poništiti, a
+	 * ukoliko takvog nema, zapis koji je najdalje od ponovnog izvođenja
+	 *
+	 * @return procjenu zauzeća memorije uklonjenog zapisa
+	 */
+	private long removeOldest() {
+		Entry entry = undoEntries.isEmpty() ? redoEntries.pollFirst() : undoEntries.pollFirst();
+		if (entry == null) {
+			return 0;
+		}
+		entry.die();
+		size -= entry.size;
+		return entry.size;
+	}
+
+	/**
+	 * Pomoćna metoda koja procjenjuje zauzeće memorije izmjene. Izmjene
+	 * dokumenata koji ne dojavljuju procjenu smatraju se kopijom teksta
+	 *
+	 * @param e
+	 *            događaj izmjene
+	 * @return procjenu zauzeća memorije izmjene u oktetima
+	 */
+	private long sizeOf(UndoableEditEvent e) {
+		long cost = EDIT_BYTES;
+		if (!(e.getEdit() instanceof DocumentEvent)) {
+			return cost;
+		}
+
+		DocumentEvent event = (DocumentEvent) e.getEdit();
+		cost += e instanceof SizedEditEvent ? ((SizedEditEvent) e).getContentSize() : 2L * event.getLength();
+		ElementChange change = event.getChange(document.getDefaultRootElement());
+		if (change != null) {
+			cost += ELEMENT_BYTES * (change.getChildrenAdded().length + change.getChildrenRemoved().length);
+		}
+		return cost;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava može li se izmjena spojiti sa sljedećim
+	 * izmjenama. To vrijedi za umetanje jednog znaka koji nije znak novog
+	 * retka i uklanjanje jednog znaka
+	 *
+	 * @param edit
+	 *            izmjena koja se provjerava
+	 * @return <code>true</code> ukoliko se izmjena može spojiti sa sljedećim
+	 *         izmjenama, <code>false</code> inače
+	 */
+	private boolean isMergeable(UndoableEdit edit) {
+		if (!(edit instanceof DocumentEvent) || ((DocumentEvent) edit).getLength() != 1) {
+			return false;
+		}
+
+		DocumentEvent event = (DocumentEvent) edit;
+		if (event.getType() != EventType.INSERT) {
+			return event.getType() == EventType.REMOVE;
+		}
+		try {
+			return !"\n".equals(document.getText(event.getOffset(), 1));
+		} catch (BadLocationException ignorable) {
+			return false;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja obavještava sve promatrače o promjeni povijesti
+	 */
+	private void fire() {
+		ChangeEvent e = new ChangeEvent(this);
+		for (ChangeListener l : new ArrayList<>(listeners)) {
+			l.stateChanged(e);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja jedan zapis povijesti, odnosno slijed
+	 * izmjena koje se poništavaju i ponovno izvode zajedno
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Entry {
+
+		/** Članska varijabla koja predstavlja izmjene zapisa */
+		private final List<UndoableEdit> edits = new ArrayList<>();
+
+		/** Članska varijabla koja predstavlja redni broj zapisa */
+		private final long sequence;
+
+		/** Članska varijabla koja predstavlja procjenu zauzeća memorije */
+		private long size;
+
+		/**
+		 * Članska varijabla koja predstavlja događaj tijekom čije je obrade
+		 * nastala posljednja izmjena ili <code>null</code>
+		 */
+		private AWTEvent event;
+
+		/**
+		 * Članska varijabla koja predstavlja vrstu izmjene koja se može
+		 * spojiti s ovim zapisom ili <code>null</code> ukoliko se izmjene više
+		 * ne spajaju
+		 */
+		private EventType mergeType;
+
+		/**
+		 * Članska varijabla koja predstavlja poziciju sljedeće izmjene koja se
+		 * može spojiti s ovim zapisom
+		 */
+		private int mergeOffset;
+
+		/** Članska varijabla koja predstavlja vrijeme posljednje izmjene */
+		private long time;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param sequence
+		 *            redni broj zapisa
+		 */
+		public Entry(long sequence) {
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Metoda koja provjerava može li se izmjena spojiti s ovim zapisom
+		 *
+		 * @param edit
+		 *            izmjena koja se provjerava
+		 * @param now
+		 *            trenutno vrijeme u milisekundama
+		 * @return <code>true</code> ukoliko se izmjena može spojiti s ovim
+		 *         zapisom, <code>false</code> inače
+		 */
+		public boolean canMerge(UndoableEdit edit, long now) {
+			if (mergeType == null || now - time > MERGE_INTERVAL || !(edit instanceof DocumentEvent)) {
+				return false;
+			}
+
+			DocumentEvent event = (DocumentEvent) edit;
+			if (event.getLength() != 1 || event.getType() != mergeType) {
+				return false;
+			}
+			int offset = event.getOffset();
+			// brisanje unatrag uklanja znak ispred, a brisanje unaprijed znak iza
+			return offset == mergeOffset || mergeType == EventType.REMOVE && offset == mergeOffset - 1;
+		}
+
+		/**
+		 * Metoda koja dodaje izmjenu ovom zapisu
+		 *
+		 * @param edit
+		 *            izmjena koja se dodaje
+		 * @param cost
+		 *            procjena zauzeća memorije izmjene
+		 * @param mergeable
+		 *            zastavica koja ukazuje na to mogu li se sljedeće izmjene
+		 *            spojiti s ovim zapisom
+		 * @param event
+		 *            događaj tijekom čije je obrade izmjena nastala
+		 * @param now
+		 *            trenutno vrijeme u milisekundama
+		 */
+		public void add(UndoableEdit edit, long cost, boolean mergeable, AWTEvent event, long now) {
+			edits.add(edit);
+			size += cost;
+			this.event = event;
+			time = now;
+			if (!mergeable) {
+				mergeType = null;
+				return;
+			}
+
+			DocumentEvent change = (DocumentEvent) edit;
+			mergeType = change.getType();
+			mergeOffset = mergeType == EventType.INSERT ? change.getOffset() + 1 : change.getOffset();
+		}
+
+		/**
+		 * Metoda koja zaključuje zapis, nakon čega mu se više ne dodaju
+		 * izmjene
+		 */
+		public void seal() {
+			event = null;
+			mergeType = null;
+		}
+
+		/**
+		 * Metoda koja poništava sve izmjene zapisa, od posljednje prema prvoj
+		 */
+		public void undo() {
+			for (int i = edits.size() - 1; i >= 0; i--) {
+				edits.get(i).undo();
+			}
+		}
+
+		/**
+		 * Metoda koja ponovno izvodi sve izmjene zapisa, od prve prema
+		 * posljednjoj
+		 */
+		public void redo() {
+			for (UndoableEdit edit : edits) {
+				edit.redo();
+			}
+		}
+
+		/**
+		 * Metoda koja oslobađa sve izmjene zapisa
+		 */
+		public void die() {
+			seal();
+			for (UndoableEdit edit : edits) {
+				edit.die();
+			}
+			edits.clear();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Razred koji ograničava ukupno zauzeće memorije povijesti izmjena (razred
+ * {@link EditHistory}) svih otvorenih dokumenata. Kada ukupna procjena
+ * zauzeća prijeđe zadanu granicu, uklanjaju se najstariji zapisi, neovisno o
+ * tome kojem dokumentu pripadaju. Granica se u oktetima zadaje svojstvom
+ * sustava {@value #BUDGET_PROPERTY}.
+ *
+ * <p>
+ * Razred je oblikovan kao jedinstveni primjerak (vidi
+ * {@link #getInstance()}), a smije se koristiti samo iz dretve za obradu
+ * događaja.
+ * </p>
+ *
+ * @see EditHistory
+ *
+ * @author Davor Češljaš
+ */
+public class EditHistoryBudget {
+
+	/**
+	 * Konstanta koja predstavlja pretpostavljenu granicu zauzeća memorije svih
+	 * povijesti izmjena u oktetima
+	 */
+	public static final long DEFAULT_BUDGET = 128L * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * granica zauzeća memorije svih povijesti izmjena
+	 */
+	public static final String BUDGET_PROPERTY = "jnotepadpp.undo.globalBudget";
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final EditHistoryBudget INSTANCE = new EditHistoryBudget();
+
+	/** Članska varijabla koja predstavlja sve povijesti izmjena */
+	private final List<EditHistory> histories = new ArrayList<>();
+
+	/** Članska varijabla koja predstavlja granicu zauzeća memorije */
+	private final long budget = Math.max(0, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET));
+
+	/**
+	 * Članska varijabla koja predstavlja procjenu zauzeća memorije svih
+	 * povijesti izmjena
+	 */
+	private long size;
+
+	/**
+	 * Članska varijabla koja predstavlja redni broj sljedećeg zapisa
+	 * povijesti izmjena
+	 */
+	private long sequence;
+
+	/** Privatni konstruktor koji onemogućava stvaranje novih primjeraka */
+	private EditHistoryBudget() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static EditHistoryBudget getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Metoda koja dohvaća procjenu zauzeća memorije svih povijesti izmjena u
+	 * oktetima
+	 *
+	 * @return procjenu zauzeća memorije svih povijesti izmjena
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Metoda koja dohvaća granicu zauzeća memorije svih povijesti izmjena u
+	 * oktetima
+	 *
+	 * @return granicu zauzeća memorije svih povijesti izmjena
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Metoda koja registrira povijest izmjena
+	 *
+	 * @param history
+	 *            povijest izmjena koja se registrira
+	 */
+	void register(EditHistory history) {
+		histories.add(history);
+	}
+
+	/**
+	 * Metoda koja odjavljuje povijest izmjena. Povijest mora prethodno
+	 * osloboditi sve zapise i dojaviti smanjenje zauzeća
+	 *
+	 * @param history
+	 *            povijest izmjena koja se odjavljuje
+	 */
+	void unregister(EditHistory history) {
+		histories.remove(history);
+	}
+
+	/**
+	 * Metoda koja dohvaća redni broj novog zapisa. Manji redni broj ima
+	 * stariji zapis
+	 *
+	 * @return redni broj novog zapisa
+	 */
+	long nextSequence() {
+		return sequence++;
+	}
+
+	/**
+	 * Metoda koja bilježi promjenu zauzeća memorije neke povijesti izmjena.
+	 * Ukoliko je zauzeće poraslo iznad granice, uklanjaju se najstariji zapisi
+	 * svih povijesti
+	 *
+	 * @param delta
+	 *            promjena zauzeća memorije u oktetima
+	 */
+	void resized(long delta) {
+		size += delta;
+		while (size > budget) {
+			EditHistory oldest = null;
+			long oldestSequence = Long.MAX_VALUE;
+			for (EditHistory history : histories) {
+				if (history.getOldestSequence() < oldestSequence) {
+					oldest = history;
+					oldestSequence = history.getOldestSequence();
+				}
+			}
+			if (oldest == null) {
+				return;
+			}
+			size -= oldest.evictOldest();
+		}
+	}
+}
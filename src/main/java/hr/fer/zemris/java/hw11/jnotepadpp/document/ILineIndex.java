@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * Sučelje koje predstavlja indeks redaka dokumenta, odnosno pretvorbu
+ * pozicije u redak i retka u poziciju. Reci se broje od 0, a svaki redak
+ * završava znakom novog retka (posljednji redak završava implicitnim znakom
+ * novog retka na kraju sadržaja). Dokumenti čiji sadržaj pamti broj znakova
+ * novog retka svojih dijelova (vidi {@link PieceTableContent}) implementiraju
+ * ovo sučelje izravno, a indeks ostalih dokumenata gradi se nad njihovim
+ * elementima (vidi {@link #of(Document)}).
+ *
+ * @see PieceTableContent
+ *
+ * @author Davor Češljaš
+ */
+public interface ILineIndex {
+
+	/**
+	 * Metoda koja dohvaća broj redaka
+	 *
+	 * @return broj redaka
+	 */
+	int getLineCount();
+
+	/**
+	 * Metoda koja dohvaća redak u kojem se nalazi pozicija <b>offset</b>
+	 *
+	 * @param offset
+	 *            pozicija unutar dokumenta
+	 * @return redak u kojem se nalazi pozicija
+	 */
+	int getLineOfOffset(int offset);
+
+	/**
+	 * Metoda koja dohvaća poziciju prvog znaka retka <b>line</b>
+	 *
+	 * @param line
+	 *            redak čija se početna pozicija traži
+	 * @return poziciju prvog znaka retka ili duljinu sadržaja (uključujući
+	 *         implicitni znak novog retka) ukoliko redak ne postoji
+	 */
+	int getLineStartOffset(int line);
+
+	/**
+	 * Metoda koja dohvaća poziciju iza posljednjeg znaka retka <b>line</b>
+	 * (uključujući znak novog retka). Pretpostavljena implementacija vraća
+	 * početak sljedećeg retka
+	 *
+	 * @param line
+	 *            redak čija se završna pozicija traži
+	 * @return poziciju iza posljednjeg znaka retka
+	 */
+	default int getLineEndOffset(int line) {
+		return getLineStartOffset(line + 1);
+	}
+
+	/**
+	 * Statička metoda koja dohvaća indeks redaka predanog dokumenta. Ukoliko
+	 * dokument sam implementira ovo sučelje vraća se on, a inače se vraća
+	 * indeks nad korijenskim elementom dokumenta
+	 *
+	 * @param document
+	 *            dokument čiji se indeks redaka dohvaća
+	 * @return indeks redaka dokumenta
+	 */
+	static ILineIndex of(Document document) {
+		if (document instanceof ILineIndex) {
+			return (ILineIndex) document;
+		}
+
+		Element root = document.getDefaultRootElement();
+		return new ILineIndex() {
+
+			@Override
+			public int getLineCount() {
+				return root.getElementCount();
+			}
+
+			@Override
+			public int getLineOfOffset(int offset) {
+				return root.getElementIndex(offset);
+			}
+
+			@Override
+			public int getLineStartOffset(int line) {
+				if (line >= root.getElementCount()) {
+					return document.getLength() + 1;
+				}
+				return root.getElement(Math.max(line, 0)).getStartOffset();
+			}
+		};
+	}
+}
@@ -0,0 +1,26 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.text.Document;
+
+/**
+ * Sučelje koje implementiraju dokumenti i sadržaji dokumenata koji mogu brzo,
+ * bez kopiranja cijelog teksta, stvoriti nepromijenjivu sliku (engl.
+ * <i>snapshot</i>) svog trenutnog sadržaja. Slika se može čitati iz bilo koje dretve, a kasnije
+ * izmjene dokumenta na nju ne utječu.
+ *
+ * @see ITextSource
+ *
+ * @author Davor Češljaš
+ */
+public interface ISnapshotProvider {
+
+	/**
+	 * Metoda koja stvara nepromijenjivu sliku trenutnog sadržaja dokumenta.
+	 * Slika ne sadrži implicitni znak novog retka na kraju sadržaja. Metoda se
+	 * poziva iz dretve koja smije čitati dokument (vidi
+	 * {@link Document#render(Runnable)})
+	 *
+	 * @return sliku trenutnog sadržaja dokumenta
+	 */
+	ITextSource snapshot();
+}
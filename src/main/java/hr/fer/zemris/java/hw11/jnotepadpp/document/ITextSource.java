@@ -0,0 +1,99 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+/**
+ * Sučelje koje predstavlja nepromijenjiv izvor znakova iz kojeg se znakovi
+ * kopiraju u polje. Primjerci razreda koji implementiraju ovo sučelje moraju
+ * biti sigurni za čitanje iz više dretvi, jer se koriste i izvan dretve za
+ * obradu događaja (primjerice prilikom spremanja dokumenta u pozadini).
+ *
+ * @see MappedTextSource
+ * @see ISnapshotProvider
+ *
+ * @author Davor Češljaš
+ */
+public interface ITextSource {
+
+	/**
+	 * Konstanta koja predstavlja broj znakova koji se odjednom kopiraju
+	 * prilikom pretraživanja izvora
+	 */
+	int SCAN_CHUNK = 8 * 1024;
+
+	/**
+	 * Metoda koja dohvaća broj znakova ovog izvora
+	 *
+	 * @return broj znakova ovog izvora
+	 */
+	int length();
+
+	/**
+	 * Metoda koja kopira <b>length</b> znakova počevši od pozicije
+	 * <b>offset</b> u polje <b>dst</b> počevši od pozicije <b>dstPos</b>
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka koji se kopira
+	 * @param length
+	 *            broj znakova koji se kopiraju
+	 * @param dst
+	 *            polje u koje se znakovi kopiraju
+	 * @param dstPos
+	 *            pozicija u polju <b>dst</b> od koje se znakovi zapisuju
+	 */
+	void getChars(int offset, int length, char[] dst, int dstPos);
+
+	/**
+	 * Metoda koja broji znakove novog retka unutar raspona od <b>length</b>
+	 * znakova počevši od pozicije <b>offset</b>. Pretpostavljena
+	 * implementacija kopira raspon u dijelovima i prebrojava znakove
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka raspona
+	 * @param length
+	 *            duljina raspona
+	 * @return broj znakova novog retka unutar raspona
+	 */
+	default int countLines(int offset, int length) {
+		char[] buffer = new char[Math.min(length, SCAN_CHUNK)];
+		int count = 0;
+		for (int end = offset + length; offset < end;) {
+			int n = Math.min(buffer.length, end - offset);
+			getChars(offset, n, buffer, 0);
+			for (int i = 0; i < n; i++) {
+				if (buffer[i] == '\n') {
+					count++;
+				}
+			}
+			offset += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Metoda koja pronalazi poziciju <b>n</b>-tog (počevši od 1) znaka novog
+	 * retka unutar raspona od <b>length</b> znakova počevši od <b>offset</b>.
+	 * Pretpostavljena implementacija kopira raspon u dijelovima i traži znak
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka raspona
+	 * @param length
+	 *            duljina raspona
+	 * @param n
+	 *            redni broj traženog znaka novog retka
+	 * @return poziciju traženog znaka novog retka ili -1 ukoliko ga raspon ne
+	 *         sadrži
+	 */
+	default int findLine(int offset, int length, int n) {
+		char[] buffer = new char[Math.min(length, SCAN_CHUNK)];
+		for (int end = offset + length; offset < end;) {
+			int len = Math.min(buffer.length, end - offset);
+			getChars(offset, len, buffer, 0);
+			for (int i = 0; i < len; i++) {
+				if (buffer[i] == '\n' && --n == 0) {
+					return offset + i;
+				}
+			}
+			offset += len;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,234 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.SimpleAttributeSet;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractDocument}, a koji predstavlja
+ * dokument nad datotekom mapiranom u memoriju (sadržaj razreda
+ * {@link PieceTableContent}). Za razliku od razreda {@link PlainDocument},
+ * koji za svaki redak čuva po jedan element i dvije pozicije, ovaj razred
+ * elemente redaka stvara tek na zahtjev, računajući njihove granice iz samog
+ * sadržaja. Time zauzeće memorije ne ovisi o broju redaka dokumenta.
+ *
+ * @see PieceTableContent
+ * @see LargeFileView
+ *
+ * @author Davor Češljaš
+ */
+public class LargeFileDocument extends AbstractDocument implements ISnapshotProvider, ILineIndex {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/** Članska varijabla koja predstavlja sadržaj ovog dokumenta */
+	private final PieceTableContent content;
+
+	/**
+	 * Članska varijabla koja predstavlja korijenski element čija su djeca
+	 * reci dokumenta
+	 */
+	private final Element root = new LineRootElement();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda nad predanim
+	 * sadržajem
+	 *
+	 * @param content
+	 *            sadržaj dokumenta
+	 */
+	public LargeFileDocument(PieceTableContent content) {
+		super(content);
+		this.content = content;
+	}
+
+	@Override
+	protected void fireUndoableEditUpdate(UndoableEditEvent e) {
+		// izmjene sadržaja ne kopiraju tekst, pa se njihova veličina procjenjuje
+		SizedEditEvent.fire(this, e.getEdit(), content.getLastEditSize());
+	}
+
+	@Override
+	public ITextSource snapshot() {
+		return content.snapshot();
+	}
+
+	@Override
+	public int getLineCount() {
+		return content.getLineCount();
+	}
+
+	@Override
+	public int getLineOfOffset(int offset) {
+		return content.getLineOfOffset(offset);
+	}
+
+	@Override
+	public int getLineStartOffset(int line) {
+		return content.getLineStartOffset(line);
+	}
+
+	@Override
+	public Element getDefaultRootElement() {
+		return root;
+	}
+
+	@Override
+	public Element getParagraphElement(int pos) {
+		return root.getElement(root.getElementIndex(pos));
+	}
+
+	/**
+	 * Privatni razred koji predstavlja korijenski element dokumenta. Djeca
+	 * ovog elementa su reci, a stvaraju se tek kada ih netko zatraži
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class LineRootElement implements Element {
+
+		@Override
+		public Document getDocument() {
+			return LargeFileDocument.this;
+		}
+
+		@Override
+		public Element getParentElement() {
+			return null;
+		}
+
+		@Override
+		public String getName() {
+			return SectionElementName;
+		}
+
+		@Override
+		public AttributeSet getAttributes() {
+			return SimpleAttributeSet.EMPTY;
+		}
+
+		@Override
+		public int getStartOffset() {
+			return 0;
+		}
+
+		@Override
+		public int getEndOffset() {
+			return content.length();
+		}
+
+		@Override
+		public int getElementIndex(int offset) {
+			return Math.min(content.getLineOfOffset(offset), content.getLineCount() - 1);
+		}
+
+		@Override
+		public int getElementCount() {
+			return content.getLineCount();
+		}
+
+		@Override
+		public Element getElement(int index) {
+			if (index < 0 || index >= content.getLineCount()) {
+				return null;
+			}
+			int start = content.getLineStartOffset(index);
+			int end = index == content.getLineCount() - 1 ? content.length()
+					: content.getLineStartOffset(index + 1);
+			return new LineElement(this, start, end);
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return false;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja jedan redak dokumenta. Primjerci ovog
+	 * razreda su kratkog vijeka i ne prate izmjene dokumenta
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class LineElement implements Element {
+
+		/** Članska varijabla koja predstavlja roditeljski element */
+		private final Element parent;
+
+		/** Članska varijabla koja predstavlja početak retka */
+		private final int start;
+
+		/** Članska varijabla koja predstavlja kraj retka (isključivo) */
+		private final int end;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param parent
+		 *            roditeljski element
+		 * @param start
+		 *            početak retka
+		 * @param end
+		 *            kraj retka (isključivo)
+		 */
+		public LineElement(Element parent, int start, int end) {
+			this.parent = parent;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public Document getDocument() {
+			return LargeFileDocument.this;
+		}
+
+		@Override
+		public Element getParentElement() {
+			return parent;
+		}
+
+		@Override
+		public String getName() {
+			return ParagraphElementName;
+		}
+
+		@Override
+		public AttributeSet getAttributes() {
+			return SimpleAttributeSet.EMPTY;
+		}
+
+		@Override
+		public int getStartOffset() {
+			return start;
+		}
+
+		@Override
+		public int getEndOffset() {
+			return end;
+		}
+
+		@Override
+		public int getElementIndex(int offset) {
+			return -1;
+		}
+
+		@Override
+		public int getElementCount() {
+			return 0;
+		}
+
+		@Override
+		public Element getElement(int index) {
+			return null;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return true;
+		}
+	}
+}
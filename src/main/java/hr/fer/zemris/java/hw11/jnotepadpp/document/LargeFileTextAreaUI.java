@@ -0,0 +1,25 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.JTextArea;
+import javax.swing.plaf.basic.BasicTextAreaUI;
+import javax.swing.text.Element;
+import javax.swing.text.View;
+
+/**
+ * Razred koji nasljeđuje razred {@link BasicTextAreaUI}. Primjerak ovog
+ * razreda postavlja se komponenti {@link JTextArea} koja prikazuje dokument
+ * oblikovan razredom {@link LargeFileDocument}, kako bi se za prikaz koristio
+ * pogled {@link LargeFileView} koji čita samo vidljive retke.
+ *
+ * @see LargeFileView
+ * @see LargeFileDocument
+ *
+ * @author Davor Češljaš
+ */
+public class LargeFileTextAreaUI extends BasicTextAreaUI {
+
+	@Override
+	public View create(Element elem) {
+		return new LargeFileView(elem);
+	}
+}
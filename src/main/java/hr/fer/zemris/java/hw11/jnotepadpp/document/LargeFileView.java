@@ -0,0 +1,316 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.PlainView;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.text.TabExpander;
+import javax.swing.text.Utilities;
+import javax.swing.text.View;
+import javax.swing.text.ViewFactory;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.syntax.SyntaxHighlighter;
+
+/**
+ * Razred koji nasljeđuje razred {@link View}, a koji se koristi za prikaz
+ * dokumenata oblikovanih razredom {@link LargeFileDocument}. Za razliku od
+ * razreda {@link PlainView}, koji prilikom prvog iscrtavanja prolazi kroz sve
+ * retke dokumenta kako bi izračunao najdulji redak, ovaj razred čita i
+ * iscrtava isključivo retke koji su trenutno vidljivi. Širina pogleda raste
+ * kako se iscrtavaju sve dulji reci, a iscrtava se najviše
+ * {@value #MAX_PAINTED_CHARS} znakova pojedinog retka.
+ *
+ * @see LargeFileDocument
+ * @see LargeFileTextAreaUI
+ *
+ * @author Davor Češljaš
+ */
+public class LargeFileView extends View implements TabExpander {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj znakova jednog retka koji se
+	 * čitaju i iscrtavaju
+	 */
+	private static final int MAX_PAINTED_CHARS = 8192;
+
+	/**
+	 * Konstanta koja predstavlja početnu širinu pogleda izraženu u broju
+	 * znakova
+	 */
+	private static final int DEFAULT_COLUMNS = 80;
+
+	/** Članska varijabla koja predstavlja font kojim se iscrtava tekst */
+	private Font font;
+
+	/** Članska varijabla koja predstavlja metriku fonta {@link #font} */
+	private FontMetrics metrics;
+
+	/**
+	 * Članska varijabla koja predstavlja širinu najduljeg do sada iscrtanog
+	 * retka
+	 */
+	private int widest;
+
+	/** Članska varijabla koja predstavlja početnu x koordinatu tabulatora */
+	private int tabBase;
+
+	/**
+	 * Članska varijabla koja ukazuje na to je li već zatraženo ažuriranje
+	 * širine pogleda
+	 */
+	private boolean widthUpdatePending;
+
+	/** Članska varijabla koja predstavlja međuspremnik za jedan redak */
+	private final Segment lineBuffer = new Segment();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param elem
+	 *            korijenski element dokumenta koji se prikazuje
+	 */
+	public LargeFileView(Element elem) {
+		super(elem);
+	}
+
+	@Override
+	public float getPreferredSpan(int axis) {
+		updateMetrics();
+		switch (axis) {
+		case X_AXIS:
+			return widest;
+		case Y_AXIS:
+			return (float) getElement().getElementCount() * metrics.getHeight();
+		default:
+			throw new IllegalArgumentException("Invalid axis: " + axis);
+		}
+	}
+
+	@Override
+	public void paint(Graphics g, Shape a) {
+		updateMetrics();
+		Rectangle alloc = a.getBounds();
+		tabBase = alloc.x;
+
+		JTextComponent host = (JTextComponent) getContainer();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = alloc;
+		}
+		int height = metrics.getHeight();
+		Element root = getElement();
+		int first = Math.max(0, (clip.y - alloc.y) / height);
+		int last = Math.min(root.getElementCount() - 1, (clip.y + clip.height - alloc.y) / height);
+
+		g.setFont(font);
+		Color color = host.isEnabled() ? host.getForeground() : host.getDisabledTextColor();
+		g.setColor(color);
+		SyntaxHighlighter highlighter = SyntaxHighlighter.of(getDocument());
+		int y = alloc.y + first * height + metrics.getAscent();
+		for (int line = first; line <= last; line++, y += height) {
+			Element lineElement = root.getElement(line);
+			loadLine(lineElement);
+			int start = lineElement.getStartOffset();
+			int x = highlighter == null ? Utilities.drawTabbedText(lineBuffer, alloc.x, y, g, this, start)
+					: drawHighlighted(highlighter, g, alloc.x, y, start, color);
+
+			if (x - alloc.x > widest) {
+				widest = x - alloc.x;
+				scheduleWidthUpdate();
+			}
+		}
+	}
+
+	@Override
+	public Shape modelToView(int pos, Shape a, Position.Bias b) throws BadLocationException {
+		Document doc = getDocument();
+		if (pos < 0 || pos > doc.getLength() + 1) {
+			throw new BadLocationException("Invalid position", pos);
+		}
+		updateMetrics();
+		Rectangle alloc = a.getBounds();
+		tabBase = alloc.x;
+
+		Element root = getElement();
+		int line = root.getElementIndex(pos);
+		int start = root.getElement(line).getStartOffset();
+		int length = pos - start;
+		int measured = Math.min(length, MAX_PAINTED_CHARS);
+		doc.getText(start, measured, lineBuffer);
+
+		int x = alloc.x + Utilities.getTabbedTextWidth(lineBuffer, metrics, alloc.x, this, start)
+				+ (length - measured) * metrics.charWidth('m');
+		return new Rectangle(x, alloc.y + line * metrics.getHeight(), 1, metrics.getHeight());
+	}
+
+	@Override
+	public int viewToModel(float fx, float fy, Shape a, Position.Bias[] bias) {
+		bias[0] = Position.Bias.Forward;
+		updateMetrics();
+		Rectangle alloc = a.getBounds();
+		tabBase = alloc.x;
+
+		int x = (int) fx;
+		int y = (int) fy;
+		if (y < alloc.y) {
+			return getStartOffset();
+		}
+		if (y >= alloc.y + alloc.height) {
+			return getEndOffset() - 1;
+		}
+
+		Element root = getElement();
+		int line = Math.min((y - alloc.y) / metrics.getHeight(), root.getElementCount() - 1);
+		Element lineElement = root.getElement(line);
+		int start = lineElement.getStartOffset();
+		if (x < alloc.x) {
+			return start;
+		}
+
+		loadLine(lineElement);
+		return start + Utilities.getTabbedTextOffset(lineBuffer, metrics, alloc.x, x, this, start);
+	}
+
+	@Override
+	public float nextTabStop(float x, int tabOffset) {
+		int tabSize = getTabSize() * metrics.charWidth('m');
+		if (tabSize == 0) {
+			return x;
+		}
+		int tabs = ((int) x - tabBase) / tabSize;
+		return tabBase + (tabs + 1) * tabSize;
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+		documentChanged();
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+		documentChanged();
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+		documentChanged();
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva nakon svake izmjene dokumenta. Visina
+	 * pogleda se mijenja s brojem redaka, a ponovo se iscrtavaju samo vidljivi
+	 * reci
+	 */
+	private void documentChanged() {
+		preferenceChanged(null, false, true);
+		Component host = getContainer();
+		if (host != null) {
+			host.repaint();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja učitava redak predstavljen elementom
+	 * <b>lineElement</b> u međuspremnik {@link #lineBuffer}, bez završnog
+	 * znaka novog retka (i eventualnog znaka <code>'\r'</code> prije njega)
+	 *
+	 * @param lineElement
+	 *            element retka koji se učitava
+	 */
+	private void loadLine(Element lineElement) {
+		int start = lineElement.getStartOffset();
+		int length = lineElement.getEndOffset() - 1 - start;
+		int loaded = Math.min(length, MAX_PAINTED_CHARS);
+		try {
+			getDocument().getText(start, loaded, lineBuffer);
+		} catch (BadLocationException e) {
+			lineBuffer.count = 0;
+			return;
+		}
+
+		if (loaded == length && loaded > 0 && lineBuffer.array[lineBuffer.offset + loaded - 1] == '\r') {
+			lineBuffer.count--;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iscrtava redak učitan u međuspremnik
+	 * {@link #lineBuffer} bojama koje određuje <b>highlighter</b>
+	 *
+	 * @param highlighter
+	 *            objekt koji boji tekst dokumenta
+	 * @param g
+	 *            grafički kontekst
+	 * @param x
+	 *            početna x koordinata
+	 * @param y
+	 *            y koordinata osnovne linije teksta
+	 * @param start
+	 *            početak retka
+	 * @param color
+	 *            boja običnog teksta
+	 * @return x koordinatu iza iscrtanog retka
+	 */
+	private int drawHighlighted(SyntaxHighlighter highlighter, Graphics g, int x, int y, int start, Color color) {
+		try {
+			return highlighter.drawText(g, x, y, start, start + lineBuffer.count, this, color);
+		} catch (BadLocationException e) {
+			return Utilities.drawTabbedText(lineBuffer, x, y, g, this, start);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja osvježava font i metriku fonta ukoliko se font
+	 * komponente promijenio
+	 */
+	private void updateMetrics() {
+		Component host = getContainer();
+		Font f = host.getFont();
+		if (font != f) {
+			font = f;
+			metrics = host.getFontMetrics(f);
+			widest = Math.max(widest, DEFAULT_COLUMNS * metrics.charWidth('m'));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja nakon iscrtavanja javlja roditeljskom pogledu da se
+	 * širina ovog pogleda promijenila. Obavijest se ne šalje tijekom samog
+	 * iscrtavanja
+	 */
+	private void scheduleWidthUpdate() {
+		if (widthUpdatePending) {
+			return;
+		}
+		widthUpdatePending = true;
+		SwingUtilities.invokeLater(() -> {
+			widthUpdatePending = false;
+			preferenceChanged(null, true, false);
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća broj znakova koji predstavljaju jedan
+	 * tabulator
+	 *
+	 * @return broj znakova koji predstavljaju jedan tabulator
+	 */
+	private int getTabSize() {
+		Integer size = (Integer) getDocument().getProperty(PlainDocument.tabSizeAttribute);
+		return size != null ? size : 8;
+	}
+}
@@ -0,0 +1,510 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Razred koji predstavlja izvor znakova nad datotekom koja je mapirana u
+ * memoriju pozivom {@link FileChannel#map(MapMode, long, long)}. Datoteka se
+ * ne učitava u memoriju, već se dijeli na stranice veličine
+ * {@value #PAGE_SIZE} okteta. Prilikom stvaranja primjerka ovog razreda
+ * datoteka se jednom prolazi i za svaku stranicu pamti se samo početni oktet,
+ * broj znakova i broj redaka koji joj prethode. Stranice se dekodiraju tek
+ * kada ih netko zatraži, a dekodirane stranice čuvaju se u maloj priručnoj
+ * memoriji (najviše {@value #CACHED_PAGES} stranica). Zbog toga je zauzeće
+ * memorije neovisno o veličini datoteke.
+ *
+ * <p>
+ * Razred podržava isključivo kodne stranice kod kojih se početak znaka može
+ * prepoznati iz samog okteta i kod kojih je znak novog retka oktet
+ * <code>0x0A</code> (UTF-8 i sve jednooktetne kodne stranice). Provjera se
+ * obavlja metodom {@link #isSupported(Charset)}.
+ * </p>
+ *
+ * <p>
+ * Napomena: sadržaj primjerka ovog razreda je nepromijenjiv, a sve metode koje
+ * koriste priručnu memoriju su sinkronizirane pa je razred siguran za
+ * korištenje iz više dretvi
+ * </p>
+ *
+ * @see PieceTableContent
+ * @see ITextSource
+ *
+ * @author Davor Češljaš
+ */
+public class MappedTextSource implements ITextSource {
+
+	/** Konstanta koja predstavlja veličinu jedne stranice u oktetima */
+	public static final int PAGE_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj dekodiranih stranica koje se
+	 * čuvaju u priručnoj memoriji
+	 */
+	private static final int CACHED_PAGES = 64;
+
+	/**
+	 * Konstanta koja predstavlja broj bitova pomaka kojim se iz pozicije
+	 * okteta dobiva redni broj mapirane regije (regije su veličine 1GB)
+	 */
+	private static final int REGION_SHIFT = 30;
+
+	/** Konstanta koja predstavlja masku za poziciju unutar jedne regije */
+	private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj okteta za koji se početak
+	 * stranice može pomaknuti kako bi stranica počinjala na početku znaka
+	 */
+	private static final int MAX_ALIGNMENT = 4;
+
+	/**
+	 * Članska varijabla koja predstavlja mapirane regije datoteke. Jedna
+	 * {@link MappedByteBuffer} regija može adresirati najviše 2GB pa se veće
+	 * datoteke mapiraju u više regija
+	 */
+	private final MappedByteBuffer[] regions;
+
+	/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+	private final long byteLength;
+
+	/** Članska varijabla koja predstavlja kodnu stranicu datoteke */
+	private final Charset charset;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju prvog okteta svake stranice.
+	 * Posljednji element predstavlja veličinu datoteke
+	 */
+	private long[] pageByteStarts;
+
+	/**
+	 * Članska varijabla koja predstavlja broj znakova koji prethode svakoj
+	 * stranici. Posljednji element predstavlja ukupni broj znakova
+	 */
+	private int[] pageCharStarts;
+
+	/**
+	 * Članska varijabla koja predstavlja broj znakova novog retka koji
+	 * prethode svakoj stranici. Posljednji element predstavlja ukupni broj
+	 * znakova novog retka
+	 */
+	private int[] pageLineStarts;
+
+	/** Članska varijabla koja predstavlja broj stranica */
+	private int pageCount;
+
+	/** Članska varijabla koja predstavlja dekoder kodne stranice datoteke */
+	private final CharsetDecoder decoder;
+
+	/** Članska varijabla koja predstavlja međuspremnik za oktete stranice */
+	private final byte[] pageBytes = new byte[PAGE_SIZE + MAX_ALIGNMENT];
+
+	/** Članska varijabla koja predstavlja međuspremnik za znakove stranice */
+	private final CharBuffer pageChars = CharBuffer.allocate(PAGE_SIZE + MAX_ALIGNMENT);
+
+	/**
+	 * Članska varijabla koja predstavlja priručnu memoriju dekodiranih
+	 * stranica. Najdulje nekorištena stranica izbacuje se prva
+	 */
+	private final Map<Integer, char[]> cache = new LinkedHashMap<Integer, char[]>(CACHED_PAGES, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, char[]> eldest) {
+			return size() > CACHED_PAGES;
+		}
+	};
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
+	 * konstruktora datoteka se mapira u memoriju te se jednim prolazom kroz nju
+	 * gradi indeks stranica.
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se mapira
+	 * @param charset
+	 *            kodna stranica datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće mapirati, ukoliko kodna stranica
+	 *             nije podržana ili ukoliko datoteka sadrži više znakova nego
+	 *             što ih dokument može adresirati
+	 */
+	public MappedTextSource(Path filePath, Charset charset) throws IOException {
+		this(filePath, charset, 0);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Prvih
+	 * <b>skip</b> okteta datoteke (primjerice oznaka redoslijeda okteta) nije
+	 * dio teksta. Unutar konstruktora datoteka se mapira u memoriju te se
+	 * jednim prolazom kroz nju gradi indeks stranica.
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se mapira
+	 * @param charset
+	 *            kodna stranica datoteke
+	 * @param skip
+	 *            broj okteta na početku datoteke koji se preskaču
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće mapirati, ukoliko kodna stranica
+	 *             nije podržana ili ukoliko datoteka sadrži više znakova nego
+	 *             što ih dokument može adresirati
+	 */
+	public MappedTextSource(Path filePath, Charset charset, int skip) throws IOException {
+		if (!isSupported(charset)) {
+			throw new IOException("Unsupported charset for mapped files: " + charset);
+		}
+		this.charset = charset;
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			byteLength = channel.size();
+			int regionCount = (int) ((byteLength + REGION_MASK) >>> REGION_SHIFT);
+			regions = new MappedByteBuffer[regionCount];
+			for (int i = 0; i < regionCount; i++) {
+				long start = (long) i << REGION_SHIFT;
+				regions[i] = channel.map(MapMode.READ_ONLY, start, Math.min(REGION_MASK + 1, byteLength - start));
+			}
+		}
+
+		buildPageIndex(Math.min(skip, byteLength));
+	}
+
+	/**
+	 * Statička metoda koja provjerava može li se datoteka kodirana predanom
+	 * kodnom stranicom prikazivati pomoću ovog razreda
+	 *
+	 * @param charset
+	 *            kodna stranica koja se provjerava
+	 * @return <code>true</code> ako je kodna stranica UTF-8 ili jednooktetna,
+	 *         <code>false</code> inače
+	 */
+	public static boolean isSupported(Charset charset) {
+		return charset.equals(StandardCharsets.UTF_8) || charset.newEncoder().maxBytesPerChar() == 1;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj znakova u datoteci
+	 *
+	 * @return broj znakova u datoteci
+	 */
+	@Override
+	public int length() {
+		return pageCharStarts[pageCount];
+	}
+
+	/**
+	 * Metoda koja dohvaća kodnu stranicu datoteke
+	 *
+	 * @return kodnu stranicu datoteke
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu mapiranog dijela datoteke u oktetima
+	 *
+	 * @return veličinu mapiranog dijela datoteke u oktetima
+	 */
+	public long getByteLength() {
+		return byteLength;
+	}
+
+	/**
+	 * Metoda koja kopira <b>length</b> znakova od pozicije <b>offset</b> u
+	 * polje <b>dst</b> počevši od pozicije <b>dstPos</b>. Dekodiraju se samo
+	 * stranice koje zahvaća traženi raspon
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka
+	 * @param length
+	 *            broj znakova koji se kopiraju
+	 * @param dst
+	 *            polje u koje se znakovi kopiraju
+	 * @param dstPos
+	 *            pozicija u polju <b>dst</b> od koje se kopira
+	 */
+	@Override
+	public synchronized void getChars(int offset, int length, char[] dst, int dstPos) {
+		int page = pageOfChar(offset);
+		while (length > 0) {
+			char[] chars = getPage(page);
+			int inPage = offset - pageCharStarts[page];
+			int n = Math.min(length, chars.length - inPage);
+			System.arraycopy(chars, inPage, dst, dstPos, n);
+
+			offset += n;
+			dstPos += n;
+			length -= n;
+			page++;
+		}
+	}
+
+	/**
+	 * Metoda koja broji znakove novog retka unutar raspona od <b>length</b>
+	 * znakova počevši od pozicije <b>offset</b>. Za stranice koje su u
+	 * potpunosti unutar raspona koristi se indeks, a dekodiraju se samo rubne
+	 * stranice
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka raspona
+	 * @param length
+	 *            duljina raspona
+	 * @return broj znakova novog retka unutar raspona
+	 */
+	@Override
+	public synchronized int countLines(int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		int end = offset + length;
+		int first = pageOfChar(offset);
+		int last = pageOfChar(end - 1);
+
+		if (first == last) {
+			return countInPage(first, offset, end);
+		}
+
+		int count = countInPage(first, offset, pageCharStarts[first + 1]);
+		count += pageLineStarts[last] - pageLineStarts[first + 1];
+		count += countInPage(last, pageCharStarts[last], end);
+		return count;
+	}
+
+	/**
+	 * Metoda koja pronalazi poziciju <b>n</b>-tog (počevši od 1) znaka novog
+	 * retka unutar raspona od <b>length</b> znakova počevši od <b>offset</b>.
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka raspona
+	 * @param length
+	 *            duljina raspona
+	 * @param n
+	 *            redni broj traženog znaka novog retka
+	 * @return poziciju traženog znaka novog retka ili -1 ukoliko ga raspon ne
+	 *         sadrži
+	 */
+	@Override
+	public synchronized int findLine(int offset, int length, int n) {
+		int end = offset + length;
+		int page = pageOfChar(offset);
+
+		// preskoči cijele stranice koristeći indeks
+		int before = countInPage(page, offset, Math.min(end, pageCharStarts[page + 1]));
+		if (before < n && end > pageCharStarts[page + 1]) {
+			int base = pageLineStarts[page + 1] - before;
+			int target = base + n;
+			int lastPage = pageOfChar(end - 1);
+			int lo = page + 1;
+			int hi = lastPage;
+			// posljednja stranica čiji prethodnici sadrže manje od n redaka
+			while (lo < hi) {
+				int mid = (lo + hi + 1) >>> 1;
+				if (pageLineStarts[mid] < target) {
+					lo = mid;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			n = target - pageLineStarts[lo];
+			offset = pageCharStarts[lo];
+			page = lo;
+		}
+
+		char[] chars = getPage(page);
+		int pageStart = pageCharStarts[page];
+		int to = Math.min(end, pageCharStarts[page + 1]);
+		for (int i = offset; i < to; i++) {
+			if (chars[i - pageStart] == '\n' && --n == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Pomoćna metoda koja broji znakove novog retka unutar stranice
+	 * <b>page</b> između pozicija <b>from</b> i <b>to</b>
+	 *
+	 * @param page
+	 *            redni broj stranice
+	 * @param from
+	 *            pozicija prvog znaka (uključivo)
+	 * @param to
+	 *            pozicija posljednjeg znaka (isključivo)
+	 * @return broj znakova novog retka
+	 */
+	private int countInPage(int page, int from, int to) {
+		int pageStart = pageCharStarts[page];
+		if (from == pageStart && to == pageCharStarts[page + 1]) {
+			return pageLineStarts[page + 1] - pageLineStarts[page];
+		}
+
+		char[] chars = getPage(page);
+		int count = 0;
+		for (int i = from - pageStart, end = to - pageStart; i < end; i++) {
+			if (chars[i] == '\n') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Pomoćna metoda koja binarnim pretraživanjem pronalazi stranicu koja
+	 * sadrži znak na poziciji <b>offset</b>
+	 *
+	 * @param offset
+	 *            pozicija znaka
+	 * @return redni broj stranice
+	 */
+	private int pageOfChar(int offset) {
+		int index = Arrays.binarySearch(pageCharStarts, 0, pageCount, offset);
+		return index < 0 ? -index - 2 : index;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća dekodiranu stranicu <b>page</b> iz priručne
+	 * memorije ili ju dekodira ukoliko ona tamo ne postoji
+	 *
+	 * @param page
+	 *            redni broj stranice
+	 * @return dekodirane znakove stranice
+	 */
+	private char[] getPage(int page) {
+		char[] chars = cache.get(page);
+		if (chars == null) {
+			int len = (int) (pageByteStarts[page + 1] - pageByteStarts[page]);
+			readBytes(pageByteStarts[page], pageBytes, len);
+			decode(len);
+			chars = Arrays.copyOf(pageChars.array(), pageChars.position());
+			cache.put(page, chars);
+		}
+		return chars;
+	}
+
+	/**
+	 * Pomoćna metoda koja dekodira prvih <b>len</b> okteta iz međuspremnika
+	 * {@link #pageBytes} u međuspremnik {@link #pageChars}
+	 *
+	 * @param len
+	 *            broj okteta koji se dekodiraju
+	 */
+	private void decode(int len) {
+		decoder.reset();
+		pageChars.clear();
+		decoder.decode(ByteBuffer.wrap(pageBytes, 0, len), pageChars, true);
+		decoder.flush(pageChars);
+	}
+
+	/**
+	 * Pomoćna metoda koja čita <b>len</b> okteta od pozicije <b>position</b>
+	 * u polje <b>dst</b>. Metoda ispravno čita i preko granica regija
+	 *
+	 * @param position
+	 *            pozicija prvog okteta
+	 * @param dst
+	 *            polje u koje se okteti kopiraju
+	 * @param len
+	 *            broj okteta koji se kopiraju
+	 */
+	private void readBytes(long position, byte[] dst, int len) {
+		int dstPos = 0;
+		while (len > 0) {
+			ByteBuffer region = regions[(int) (position >>> REGION_SHIFT)].duplicate();
+			region.position((int) (position & REGION_MASK));
+			int n = Math.min(len, region.remaining());
+			region.get(dst, dstPos, n);
+
+			position += n;
+			dstPos += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja jednim prolazom kroz datoteku gradi indeks stranica.
+	 * Stranice koje sadrže isključivo ASCII oktete se ne dekodiraju, jer je kod
+	 * njih broj znakova jednak broju okteta
+	 *
+	 * @param start
+	 *            pozicija prvog okteta teksta
+	 * @throws IOException
+	 *             ukoliko datoteka sadrži više znakova nego što ih dokument
+	 *             može adresirati
+	 */
+	private void buildPageIndex(long start) throws IOException {
+		int capacity = (int) (byteLength / PAGE_SIZE) + 2;
+		pageByteStarts = new long[capacity];
+		pageCharStarts = new int[capacity];
+		pageLineStarts = new int[capacity];
+
+		boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+		byte[] bytes = pageBytes;
+
+		long position = start;
+		long charCount = 0;
+		int lineCount = 0;
+		int page = 0;
+		while (position < byteLength) {
+			long end = Math.min(byteLength, position + PAGE_SIZE);
+			int len = (int) (end - position);
+			readBytes(position, bytes, Math.min(PAGE_SIZE + MAX_ALIGNMENT, (int) (byteLength - position)));
+			if (utf8) {
+				// stranica mora završiti na početku znaka
+				while (end < byteLength && len < PAGE_SIZE + MAX_ALIGNMENT && (bytes[len] & 0xC0) == 0x80) {
+					len++;
+					end++;
+				}
+			}
+
+			boolean ascii = true;
+			for (int i = 0; i < len; i++) {
+				byte b = bytes[i];
+				if (b == '\n') {
+					lineCount++;
+				} else if (b < 0) {
+					ascii = false;
+				}
+			}
+			int charsInPage = len;
+			if (!ascii) {
+				decode(len);
+				charsInPage = pageChars.position();
+			}
+
+			pageByteStarts[page] = position;
+			pageCharStarts[page] = (int) charCount;
+			page++;
+			pageLineStarts[page] = lineCount;
+
+			charCount += charsInPage;
+			// jedan znak je rezerviran za implicitni znak novog retka sadržaja
+			if (charCount >= Integer.MAX_VALUE - 1) {
+				throw new IOException("File has too many characters to be edited: " + byteLength + " bytes");
+			}
+			position = end;
+		}
+
+		pageCount = page;
+		pageByteStarts[page] = byteLength;
+		pageCharStarts[page] = (int) charCount;
+		pageLineStarts[page] = lineCount;
+	}
+}
@@ -0,0 +1,368 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.swing.text.GapContent;
+import javax.swing.text.Position;
+
+/**
+ * Razred koji čuva sve pozicije (sučelje {@link Position}) stvorene nad
+ * sadržajem razreda {@link PieceTableContent} i pomiče ih prilikom izmjena
+ * sadržaja. Pozicije se pomiču jednako kao i kod razreda {@link GapContent}:
+ * <ul>
+ * <li>umetanjem na poziciju <code>where</code> pomiču se sve pozicije veće ili
+ * jednake <code>where</code>, osim pozicije 0</li>
+ * <li>uklanjanjem raspona sve pozicije unutar raspona pomiču se na njegov
+ * početak</li>
+ * <li>poništavanjem uklanjanja pozicije koje je uklanjanje pomaknulo vraćaju
+ * se na svoja mjesta unutar vraćenog raspona (vidi {@link Collapsed})</li>
+ * </ul>
+ *
+ * <p>
+ * Kako izmjena ne bi morala proći kroz sve pozicije, pozicije se (kao i kod
+ * razreda {@link GapContent}) pamte u koordinatama u kojima na mjestu
+ * posljednje izmjene postoji zamišljena praznina (engl. <i>gap</i>). Pozicija
+ * prije praznine jednaka je svojoj koordinati, a pozicija nakon praznine
+ * svojoj koordinati umanjenoj za duljinu praznine. Izmjena na mjestu praznine
+ * mijenja samo granice praznine, a premještanje praznine mijenja samo
+ * pozicije između stare i nove lokacije. Pozicije se čuvaju poredane po
+ * koordinati, a pozicije koje više nitko ne koristi povremeno se uklanjaju.
+ * </p>
+ *
+ * @see PieceTableContent
+ *
+ * @author Davor Češljaš
+ */
+class MarkVector {
+
+	/** Konstanta koja predstavlja početnu duljinu zamišljene praznine */
+	private static final long GAP_LENGTH = 1L << 40;
+
+	/** Članska varijabla koja predstavlja pozicije poredane po koordinati */
+	private Mark[] marks = new Mark[16];
+
+	/** Članska varijabla koja predstavlja broj pozicija */
+	private int count;
+
+	/** Članska varijabla koja predstavlja početak praznine */
+	private long gapStart;
+
+	/** Članska varijabla koja predstavlja kraj praznine (isključivo) */
+	private long gapEnd = GAP_LENGTH;
+
+	/** Članska varijabla koja predstavlja broj napuštenih pozicija */
+	private int unused;
+
+	/**
+	 * Članska varijabla koja predstavlja red u koji se stavljaju pozicije koje
+	 * više nitko ne koristi
+	 */
+	private final ReferenceQueue<StickyPosition> queue = new ReferenceQueue<>();
+
+	/**
+	 * Metoda koja stvara novu poziciju <b>offset</b>. Kao i kod razreda
+	 * {@link GapContent}, ukoliko već postoji pozicija s jednakom
+	 * koordinatom, vraća se ta pozicija, pa se pozicije s jednakom
+	 * koordinatom uvijek pomiču zajedno
+	 *
+	 * @param offset
+	 *            početna vrijednost pozicije
+	 * @return poziciju <b>offset</b>
+	 */
+	public Position createPosition(int offset) {
+		removeUnused();
+
+		long index = offset < gapStart ? offset : offset + gapEnd - gapStart;
+		int at = upperBound(index);
+		for (int i = lowerBound(index); i < at; i++) {
+			StickyPosition existing = marks[i].get();
+			if (existing != null) {
+				return existing;
+			}
+		}
+
+		StickyPosition position = new StickyPosition();
+		Mark mark = new Mark(position, index);
+		position.mark = mark;
+
+		if (count == marks.length) {
+			marks = Arrays.copyOf(marks, count * 2);
+		}
+		System.arraycopy(marks, at, marks, at + 1, count - at);
+		marks[at] = mark;
+		count++;
+		return position;
+	}
+
+	/**
+	 * Metoda koja ažurira pozicije nakon umetanja <b>length</b> znakova na
+	 * poziciju <b>where</b>
+	 *
+	 * @param where
+	 *            pozicija umetanja
+	 * @param length
+	 *            broj umetnutih znakova
+	 */
+	public void insertUpdate(int where, int length) {
+		moveGap(where);
+		if (gapEnd - gapStart <= length) {
+			growGap();
+		}
+		gapStart += length;
+
+		if (where == 0) {
+			// pozicija 0 se ne pomiče, kao ni kod GapContent
+			for (int i = upperBound(gapStart - 1), end = upperBound(gapEnd); i < end; i++) {
+				marks[i].index = 0;
+			}
+		}
+	}
+
+	/**
+	 * Metoda koja ažurira pozicije nakon uklanjanja <b>length</b> znakova od
+	 * pozicije <b>where</b>. Pozicije unutar raspona [<b>where</b>,
+	 * <b>where</b> + <b>length</b>] pamte se prije pomicanja, kako bi ih
+	 * metoda {@link #restore(Collapsed, int, int)} mogla vratiti kada se
+	 * raspon vrati u sadržaj
+	 *
+	 * @param where
+	 *            pozicija uklanjanja
+	 * @param length
+	 *            broj uklonjenih znakova
+	 * @return pozicije unutar uklonjenog raspona
+	 */
+	public Collapsed removeUpdate(int where, int length) {
+		moveGap(where);
+		int from = lowerBound(gapEnd);
+		int to = upperBound(gapEnd + length);
+		Collapsed collapsed = new Collapsed(to - from);
+		for (int i = from; i < to; i++) {
+			collapsed.marks[i - from] = marks[i];
+			collapsed.offsets[i - from] = (int) (marks[i].index - gapEnd);
+		}
+
+		long oldEnd = gapEnd;
+		gapEnd += length;
+		for (int i = lowerBound(oldEnd), end = lowerBound(gapEnd); i < end; i++) {
+			marks[i].index = gapEnd;
+		}
+		return collapsed;
+	}
+
+	/**
+	 * Metoda koja pozicije koje je uklanjanje raspona pomaknulo na njegov
+	 * početak vraća na njihova mjesta nakon što je raspon ponovno umetnut,
+	 * jednako kao što to radi razred {@link GapContent}. Metoda se poziva
+	 * nakon metode {@link #insertUpdate(int, int)} za vraćeni raspon, a
+	 * vraćaju se samo pozicije koje se od uklanjanja nisu pomaknule
+	 *
+	 * @param collapsed
+	 *            pozicije koje je vratila metoda
+	 *            {@link #removeUpdate(int, int)}
+	 * @param where
+	 *            pozicija vraćenog raspona
+	 * @param length
+	 *            duljina vraćenog raspona
+	 */
+	public void restore(Collapsed collapsed, int where, int length) {
+		// umetanje je pozicije uklonjenog raspona pomaknulo na svoj kraj
+		long current = where == 0 ? 0 : gapEnd;
+		int from = lowerBound(current);
+		int to = upperBound(current);
+		for (int i = 0; i < collapsed.marks.length; i++) {
+			Mark mark = collapsed.marks[i];
+			if (mark.index != current) {
+				continue;
+			}
+			int offset = collapsed.offsets[i];
+			mark.index = offset < length ? where + offset : gapEnd;
+		}
+		Arrays.sort(marks, from, to, Comparator.comparingLong((Mark mark) -> mark.index));
+	}
+
+	/**
+	 * Pomoćna metoda koja premješta prazninu na poziciju <b>where</b>. Nakon
+	 * premještanja sve pozicije manje od <b>where</b> nalaze se prije, a sve
+	 * ostale nakon praznine
+	 *
+	 * @param where
+	 *            nova lokacija praznine
+	 */
+	private void moveGap(long where) {
+		long gapLength = gapEnd - gapStart;
+		if (where < gapStart) {
+			for (int i = lowerBound(where), end = lowerBound(gapStart); i < end; i++) {
+				marks[i].index += gapLength;
+			}
+		} else if (where > gapStart) {
+			for (int i = lowerBound(gapEnd), end = lowerBound(where + gapLength); i < end; i++) {
+				marks[i].index -= gapLength;
+			}
+		}
+		gapStart = where;
+		gapEnd = where + gapLength;
+	}
+
+	/**
+	 * Pomoćna metoda koja produljuje prazninu pomicanjem svih pozicija nakon
+	 * nje. Zbog velike početne duljine praznine metoda se poziva iznimno
+	 * rijetko
+	 */
+	private void growGap() {
+		for (int i = lowerBound(gapEnd); i < count; i++) {
+			marks[i].index += GAP_LENGTH;
+		}
+		gapEnd += GAP_LENGTH;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi prvu poziciju čija je koordinata veća ili
+	 * jednaka <b>index</b>
+	 *
+	 * @param index
+	 *            koordinata
+	 * @return indeks prve takve pozicije ili broj pozicija
+	 */
+	private int lowerBound(long index) {
+		int lo = 0;
+		int hi = count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (marks[mid].index < index) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi prvu poziciju čija je koordinata veća od
+	 * <b>index</b>
+	 *
+	 * @param index
+	 *            koordinata
+	 * @return indeks prve takve pozicije ili broj pozicija
+	 */
+	private int upperBound(long index) {
+		return lowerBound(index + 1);
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja pozicije koje više nitko ne koristi, ukoliko
+	 * ih je dovoljno da se to isplati
+	 */
+	private void removeUnused() {
+		while (queue.poll() != null) {
+			unused++;
+		}
+		if (unused < Math.max(count / 2, 16)) {
+			return;
+		}
+
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (marks[i].get() != null) {
+				marks[kept++] = marks[i];
+			}
+		}
+		Arrays.fill(marks, kept, count, null);
+		count = kept;
+		unused = 0;
+	}
+
+	/**
+	 * Razred koji predstavlja pozicije koje su se pri uklanjanju raspona
+	 * nalazile unutar njega, zajedno s njihovim udaljenostima od početka
+	 * raspona. Izmjena sadržaja čuva primjerak ovog razreda dok raspon nije u
+	 * sadržaju. Pozicije se pamte slabim referencama, pa primjerak ovog
+	 * razreda ne zadržava napuštene pozicije
+	 *
+	 * @author Davor Češljaš
+	 */
+	class Collapsed {
+
+		/** Članska varijabla koja predstavlja koordinate pozicija */
+		private final Mark[] marks;
+
+		/**
+		 * Članska varijabla koja predstavlja udaljenosti pozicija od početka
+		 * uklonjenog raspona
+		 */
+		private final int[] offsets;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param count
+		 *            broj zapamćenih pozicija
+		 */
+		private Collapsed(int count) {
+			marks = new Mark[count];
+			offsets = new int[count];
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja koordinatu jedne pozicije. Primjerak
+	 * ovog razreda slabo referencira poziciju koju je vratila metoda
+	 * {@link MarkVector#createPosition(int)}, kako bi se napuštene pozicije
+	 * mogle ukloniti
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class Mark extends WeakReference<StickyPosition> {
+
+		/** Članska varijabla koja predstavlja koordinatu pozicije */
+		private long index;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param position
+		 *            pozicija čija se koordinata pamti
+		 * @param index
+		 *            koordinata pozicije
+		 */
+		public Mark(StickyPosition position, long index) {
+			super(position, queue);
+			this.index = index;
+		}
+
+		/**
+		 * Metoda koja dohvaća trenutnu vrijednost pozicije
+		 *
+		 * @return trenutnu vrijednost pozicije
+		 */
+		public int getOffset() {
+			return (int) (index < gapStart ? index : index - (gapEnd - gapStart));
+		}
+	}
+
+	/**
+	 * Privatni razred koji implementira sučelje {@link Position}. Primjerak
+	 * ovog razreda se vraća korisniku, a dok god ga korisnik referencira
+	 * pozicija se pomiče s izmjenama sadržaja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class StickyPosition implements Position {
+
+		/** Članska varijabla koja predstavlja koordinatu ove pozicije */
+		private Mark mark;
+
+		@Override
+		public int getOffset() {
+			return mark.getOffset();
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(getOffset());
+		}
+	}
+}
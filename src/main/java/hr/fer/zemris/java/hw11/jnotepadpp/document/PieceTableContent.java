@@ -0,0 +1,792 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Random;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GapContent;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Razred koji implementira sučelje {@link AbstractDocument.Content}, a koji
+ * sadržaj dokumenta čuva kao tablicu dijelova (engl. <i>piece table</i>).
+ * Tekst se nikada ne premješta niti kopira: izvorni tekst čuva se u izvoru
+ * {@link ITextSource} (primjerice datoteci mapiranoj u memoriju), a sav
+ * umetnuti tekst dodaje se na kraj međuspremnika {@link AddBuffer}. Sadržaj je
+ * slijed dijelova od kojih svaki pokazuje na raspon jednog od tih izvora.
+ *
+ * <p>
+ * Dijelovi su spremljeni u uravnoteženo stablo (engl. <i>treap</i>) u kojem
+ * svaki čvor pamti broj znakova i broj znakova novog retka svog podstabla.
+ * Zbog toga umetanje, uklanjanje, pretvorba pozicije u redak i retka u
+ * poziciju imaju složenost O(log n) u broju dijelova, neovisno o veličini
+ * teksta. Čvorovi stabla su nepromijenjivi i izmjena kopira samo put od
+ * korijena do izmijenjenog čvora, pa je slika sadržaja
+ * ({@link #snapshot()}) samo referenca na trenutni korijen.
+ * </p>
+ *
+ * <p>
+ * Uzastopno tipkanje ne stvara nove dijelove, već produljuje dio koji je
+ * posljednji dodan u međuspremnik. Pozicije se pomiču jednako kao i kod
+ * razreda {@link GapContent} (vidi {@link MarkVector}).
+ * </p>
+ *
+ * <p>
+ * Izmjene koje vraćaju metode {@link #insertString(int, String)} i
+ * {@link #remove(int, int)} ne čuvaju kopiju teksta, već samo podstablo
+ * dijelova koji su uklonjeni iz sadržaja. Poništavanje izmjene vraća to
+ * podstablo u stablo, pa poništavanje zamjene cijelog sadržaja (npr.
+ * sortiranja) ne udvostručuje zauzeće memorije.
+ * </p>
+ *
+ * @see AddBuffer
+ * @see MarkVector
+ * @see GapContent
+ *
+ * @author Davor Češljaš
+ */
+public class PieceTableContent implements AbstractDocument.Content, ISnapshotProvider, ILineIndex {
+
+	/**
+	 * Konstanta koja predstavlja najveću duljinu međuspremnika nakon koje se
+	 * umetnuti tekst dodaje u novi međuspremnik
+	 */
+	private static final int MAX_ADD_BUFFER_LENGTH = Integer.MAX_VALUE - AddBuffer.BLOCK_SIZE;
+
+	/** Konstanta koja predstavlja procjenu zauzeća memorije jedne izmjene */
+	private static final long EDIT_BYTES = 40;
+
+	/** Konstanta koja predstavlja procjenu zauzeća memorije jednog čvora */
+	private static final long NODE_BYTES = 56;
+
+	/**
+	 * Članska varijabla koja predstavlja međuspremnik u koji se dodaje
+	 * umetnuti tekst
+	 */
+	private AddBuffer added = new AddBuffer();
+
+	/** Članska varijabla koja predstavlja korijen stabla dijelova */
+	private Node root;
+
+	/** Članska varijabla koja predstavlja sve pozicije nad ovim sadržajem */
+	private final MarkVector marks = new MarkVector();
+
+	/**
+	 * Članska varijabla koja predstavlja generator prioriteta čvorova stabla
+	 */
+	private final Random random = new Random();
+
+	/**
+	 * Članska varijabla koja predstavlja procjenu zauzeća memorije (u
+	 * oktetima) posljednje izmjene koju je vratio ovaj sadržaj
+	 */
+	private long lastEditSize;
+
+	/**
+	 * Konstruktor koji inicijalizira prazan sadržaj (sadržaj se sastoji samo
+	 * od implicitnog znaka novog retka)
+	 */
+	public PieceTableContent() {
+		this(null);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira sadržaj čiji je početni tekst cijeli izvor
+	 * <b>original</b>. Izvor se ne kopira
+	 *
+	 * @param original
+	 *            izvor početnog teksta ili <code>null</code> za prazan sadržaj
+	 */
+	public PieceTableContent(ITextSource original) {
+		if (original != null && original.length() > 0) {
+			int length = original.length();
+			root = new Node(original, 0, length, original.countLines(0, length), random.nextInt(), null, null);
+		}
+	}
+
+	@Override
+	public Position createPosition(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length()) {
+			throw new BadLocationException("Invalid position", offset);
+		}
+		return marks.createPosition(offset);
+	}
+
+	@Override
+	public int length() {
+		// implicitni znak novog retka na kraju sadržaja
+		return size(root) + 1;
+	}
+
+	@Override
+	public UndoableEdit insertString(int where, String str) throws BadLocationException {
+		return insert(where, str);
+	}
+
+	/**
+	 * Metoda koja na poziciju <b>where</b> umeće znakove predanog segmenta.
+	 * Znakovi se kopiraju izravno iz polja segmenta, bez stvaranja primjerka
+	 * razreda {@link String}
+	 *
+	 * @param where
+	 *            pozicija umetanja
+	 * @param text
+	 *            segment čiji se znakovi umeću
+	 * @return izmjenu koja se može poništiti ili <code>null</code> ukoliko je
+	 *         segment prazan
+	 * @throws BadLocationException
+	 *             ukoliko pozicija nije unutar sadržaja
+	 */
+	public UndoableEdit insertString(int where, Segment text) throws BadLocationException {
+		return insert(where, text);
+	}
+
+	/**
+	 * Pomoćna metoda koja na poziciju <b>where</b> umeće predani tekst, koji
+	 * je primjerak razreda {@link String} ili {@link Segment}
+	 *
+	 * @param where
+	 *            pozicija umetanja
+	 * @param text
+	 *            tekst koji se umeće
+	 * @return izmjenu koja se može poništiti ili <code>null</code> ukoliko je
+	 *         tekst prazan
+	 * @throws BadLocationException
+	 *             ukoliko pozicija nije unutar sadržaja
+	 */
+	private UndoableEdit insert(int where, CharSequence text) throws BadLocationException {
+		if (where < 0 || where > size(root)) {
+			throw new BadLocationException("Invalid insert", where);
+		}
+		int len = text.length();
+		if (len == 0) {
+			return null;
+		}
+
+		if (added.length() > MAX_ADD_BUFFER_LENGTH - len) {
+			added = new AddBuffer();
+		}
+		int start = text instanceof Segment ? added.append((Segment) text) : added.append((String) text);
+		int newLines = added.countLines(start, len);
+
+		Node[] parts = split(root, where);
+		Node left = parts[0];
+		Node last = rightmost(left);
+		if (last != null && last.source == added && last.start + last.length == start) {
+			// uzastopno tipkanje samo produljuje posljednji dio
+			left = extendRightmost(left, len, newLines);
+		} else {
+			left = merge(left, new Node(added, start, len, newLines, random.nextInt(), null, null));
+		}
+		root = merge(left, parts[1]);
+
+		marks.insertUpdate(where, len);
+		return new PieceEdit(where, len, false);
+	}
+
+	@Override
+	public UndoableEdit remove(int where, int nitems) throws BadLocationException {
+		if (where < 0 || nitems < 0 || where + nitems > size(root)) {
+			throw new BadLocationException("Invalid remove", where + nitems);
+		}
+		if (nitems == 0) {
+			return null;
+		}
+
+		return new PieceEdit(where, nitems, true);
+	}
+
+	@Override
+	public String getString(int where, int len) throws BadLocationException {
+		Segment segment = new Segment();
+		getChars(where, len, segment);
+		return new String(segment.array, segment.offset, segment.count);
+	}
+
+	@Override
+	public void getChars(int where, int len, Segment txt) throws BadLocationException {
+		if (where < 0 || len < 0 || where + len > length()) {
+			throw new BadLocationException("Invalid location", where + len);
+		}
+
+		int size = size(root);
+		int textLength = Math.min(len, size - where);
+		if (textLength > 0 && shareAddedChars(where, len, textLength, txt)) {
+			return;
+		}
+
+		char[] chars = new char[len];
+		if (textLength > 0) {
+			copy(root, 0, where, where + textLength, chars, -where);
+		}
+		if (textLength < len) {
+			chars[textLength] = '\n';
+		}
+		txt.array = chars;
+		txt.offset = 0;
+		txt.count = len;
+	}
+
+	@Override
+	public ITextSource snapshot() {
+		return new Snapshot(root);
+	}
+
+	@Override
+	public int getLineCount() {
+		return lines(root) + 1;
+	}
+
+	@Override
+	public int getLineOfOffset(int offset) {
+		return lineOfOffset(root, Math.max(0, Math.min(offset, size(root))));
+	}
+
+	@Override
+	public int getLineStartOffset(int line) {
+		return lineStartOffset(root, line);
+	}
+
+	/**
+	 * Metoda koja dohvaća procjenu zauzeća memorije (u oktetima) posljednje
+	 * izmjene koju su vratile metode {@link #insertString(int, String)} i
+	 * {@link #remove(int, int)}
+	 *
+	 * @return procjenu zauzeća memorije posljednje izmjene
+	 */
+	long getLastEditSize() {
+		return lastEditSize;
+	}
+
+	/**
+	 * Pomoćna metoda koja iz sadržaja uklanja <b>length</b> znakova počevši
+	 * od pozicije <b>where</b>. Pozicije se ne ažuriraju
+	 *
+	 * @param where
+	 *            pozicija prvog uklonjenog znaka
+	 * @param length
+	 *            broj uklonjenih znakova
+	 * @return podstablo uklonjenih dijelova
+	 */
+	private Node removePieces(int where, int length) {
+		Node[] parts = split(root, where);
+		Node[] rest = split(parts[1], length);
+		root = merge(parts[0], rest[1]);
+		return rest[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja podstablo dijelova <b>pieces</b> umeće u sadržaj na
+	 * poziciju <b>where</b>. Znakovi dijelova se ne kopiraju, a pozicije se ne
+	 * ažuriraju
+	 *
+	 * @param where
+	 *            pozicija umetanja
+	 * @param pieces
+	 *            podstablo umetnutih dijelova
+	 */
+	private void insertPieces(int where, Node pieces) {
+		Node[] parts = split(root, where);
+		root = merge(merge(parts[0], pieces), parts[1]);
+	}
+
+	/**
+	 * Pomoćna metoda koja pokušava segment postaviti na raspon unutar
+	 * međuspremnika bez kopiranja. To je moguće ukoliko se cijeli traženi
+	 * raspon nalazi unutar jednog dijela i jednog bloka međuspremnika, ili
+	 * ukoliko pozivatelj prihvaća djelomičan rezultat
+	 *
+	 * @param where
+	 *            pozicija prvog znaka
+	 * @param len
+	 *            broj traženih znakova
+	 * @param textLength
+	 *            broj traženih znakova bez implicitnog znaka novog retka
+	 * @param txt
+	 *            segment koji se postavlja
+	 * @return <code>true</code> ukoliko je segment postavljen,
+	 *         <code>false</code> inače
+	 */
+	private boolean shareAddedChars(int where, int len, int textLength, Segment txt) {
+		Node node = root;
+		int position = where;
+		while (true) {
+			int leftSize = size(node.left);
+			if (position < leftSize) {
+				node = node.left;
+			} else if (position - leftSize < node.length) {
+				break;
+			} else {
+				position -= leftSize + node.length;
+				node = node.right;
+			}
+		}
+		if (!(node.source instanceof AddBuffer)) {
+			return false;
+		}
+
+		int inPiece = position - size(node.left);
+		int available = Math.min(textLength, node.length - inPiece);
+		if (available < len && !txt.isPartialReturn()) {
+			return false;
+		}
+		AddBuffer buffer = (AddBuffer) node.source;
+		buffer.share(node.start + inPiece, available, txt);
+		return txt.count == len || txt.isPartialReturn();
+	}
+
+	/**
+	 * Pomoćna metoda koja kopira znakove raspona [<b>from</b>, <b>to</b>)
+	 * podstabla <b>node</b> u polje <b>dst</b>. Znak na poziciji
+	 * <code>p</code> kopira se na poziciju <code>p + delta</code>
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @param nodeStart
+	 *            pozicija prvog znaka podstabla
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param dst
+	 *            polje u koje se znakovi kopiraju
+	 * @param delta
+	 *            razlika između pozicije u polju i pozicije u sadržaju
+	 */
+	private static void copy(Node node, int nodeStart, int from, int to, char[] dst, int delta) {
+		while (node != null && from < to) {
+			int pieceStart = nodeStart + size(node.left);
+			if (from < pieceStart) {
+				copy(node.left, nodeStart, from, Math.min(to, pieceStart), dst, delta);
+			}
+
+			int pieceEnd = pieceStart + node.length;
+			int start = Math.max(from, pieceStart);
+			int end = Math.min(to, pieceEnd);
+			if (start < end) {
+				node.source.getChars(node.start + start - pieceStart, end - start, dst, start + delta);
+			}
+
+			// desno podstablo obrađuje se petljom umjesto rekurzijom
+			from = Math.max(from, pieceEnd);
+			nodeStart = pieceEnd;
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja broji znakove novog retka prije pozicije
+	 * <b>offset</b> u podstablu <b>node</b>
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @param offset
+	 *            pozicija unutar podstabla
+	 * @return broj znakova novog retka prije pozicije
+	 */
+	private static int lineOfOffset(Node node, int offset) {
+		int line = 0;
+		while (node != null) {
+			int leftSize = size(node.left);
+			if (offset < leftSize) {
+				node = node.left;
+				continue;
+			}
+			line += lines(node.left);
+			offset -= leftSize;
+			if (offset < node.length) {
+				return line + node.source.countLines(node.start, offset);
+			}
+			line += node.lines;
+			offset -= node.length;
+			node = node.right;
+		}
+		return line;
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi početak retka <b>line</b> u podstablu
+	 * <b>node</b>
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @param line
+	 *            redak čiji se početak traži
+	 * @return početak retka ili duljinu podstabla uvećanu za jedan ukoliko
+	 *         redak ne postoji
+	 */
+	private static int lineStartOffset(Node node, int line) {
+		if (line <= 0) {
+			return 0;
+		}
+		if (line > lines(node)) {
+			return size(node) + 1;
+		}
+
+		int offset = 0;
+		while (true) {
+			int leftLines = lines(node.left);
+			if (line <= leftLines) {
+				node = node.left;
+				continue;
+			}
+			line -= leftLines;
+			offset += size(node.left);
+			if (line <= node.lines) {
+				return offset + node.source.findLine(node.start, node.length, line) - node.start + 1;
+			}
+			line -= node.lines;
+			offset += node.length;
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dijeli podstablo <b>node</b> na dva podstabla, od
+	 * kojih prvo sadrži prvih <b>offset</b> znakova. Dio koji sadrži poziciju
+	 * <b>offset</b> dijeli se na dva dijela
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @param offset
+	 *            pozicija na kojoj se dijeli
+	 * @return polje od dva korijena podstabla
+	 */
+	private Node[] split(Node node, int offset) {
+		if (node == null) {
+			return new Node[2];
+		}
+
+		int leftSize = size(node.left);
+		if (offset <= leftSize) {
+			Node[] parts = split(node.left, offset);
+			parts[1] = node.withChildren(parts[1], node.right);
+			return parts;
+		}
+		if (offset >= leftSize + node.length) {
+			Node[] parts = split(node.right, offset - leftSize - node.length);
+			parts[0] = node.withChildren(node.left, parts[0]);
+			return parts;
+		}
+
+		int inPiece = offset - leftSize;
+		// pregledava se kraći od dva dijela, a broj redaka drugog se izračuna
+		int leftLines = inPiece <= node.length / 2 ? node.source.countLines(node.start, inPiece)
+				: node.lines - node.source.countLines(node.start + inPiece, node.length - inPiece);
+		Node leftPiece = new Node(node.source, node.start, inPiece, leftLines, node.priority, node.left, null);
+		Node rightPiece = new Node(node.source, node.start + inPiece, node.length - inPiece,
+				node.lines - leftLines, random.nextInt(), null, null);
+		return new Node[] { leftPiece, merge(rightPiece, node.right) };
+	}
+
+	/**
+	 * Pomoćna metoda koja spaja dva podstabla, pri čemu svi dijelovi prvog
+	 * prethode dijelovima drugog
+	 *
+	 * @param left
+	 *            prvo podstablo
+	 * @param right
+	 *            drugo podstablo
+	 * @return korijen spojenog stabla
+	 */
+	private static Node merge(Node left, Node right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+		if (left.priority > right.priority) {
+			return left.withChildren(left.left, merge(left.right, right));
+		}
+		return right.withChildren(merge(left, right.left), right.right);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća posljednji dio podstabla
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @return posljednji dio ili <code>null</code> ukoliko je podstablo prazno
+	 */
+	private static Node rightmost(Node node) {
+		if (node == null) {
+			return null;
+		}
+		while (node.right != null) {
+			node = node.right;
+		}
+		return node;
+	}
+
+	/**
+	 * Pomoćna metoda koja produljuje posljednji dio podstabla za <b>length</b>
+	 * znakova od kojih je <b>lines</b> znakova novog retka
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @param length
+	 *            broj znakova za koji se dio produljuje
+	 * @param lines
+	 *            broj znakova novog retka među dodanim znakovima
+	 * @return korijen izmijenjenog podstabla
+	 */
+	private static Node extendRightmost(Node node, int length, int lines) {
+		if (node.right == null) {
+			return new Node(node.source, node.start, node.length + length, node.lines + lines, node.priority,
+					node.left, null);
+		}
+		return node.withChildren(node.left, extendRightmost(node.right, length, lines));
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća broj znakova podstabla
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @return broj znakova podstabla
+	 */
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća broj znakova novog retka podstabla
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @return broj znakova novog retka podstabla
+	 */
+	private static int lines(Node node) {
+		return node == null ? 0 : node.totalLines;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća broj dijelova podstabla
+	 *
+	 * @param node
+	 *            korijen podstabla
+	 * @return broj dijelova podstabla
+	 */
+	private static int pieces(Node node) {
+		return node == null ? 0 : node.pieces;
+	}
+
+	/**
+	 * Privatni razred koji predstavlja nepromijenjivi čvor stabla dijelova.
+	 * Svaki čvor predstavlja jedan dio i pamti ukupni broj znakova i znakova
+	 * novog retka svog podstabla
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Node {
+
+		/** Članska varijabla koja predstavlja izvor znakova dijela */
+		private final ITextSource source;
+
+		/** Članska varijabla koja predstavlja početak dijela unutar izvora */
+		private final int start;
+
+		/** Članska varijabla koja predstavlja duljinu dijela */
+		private final int length;
+
+		/** Članska varijabla koja predstavlja broj znakova novog retka dijela */
+		private final int lines;
+
+		/** Članska varijabla koja predstavlja prioritet čvora */
+		private final int priority;
+
+		/** Članska varijabla koja predstavlja lijevo podstablo */
+		private final Node left;
+
+		/** Članska varijabla koja predstavlja desno podstablo */
+		private final Node right;
+
+		/** Članska varijabla koja predstavlja broj znakova podstabla */
+		private final int size;
+
+		/**
+		 * Članska varijabla koja predstavlja broj znakova novog retka
+		 * podstabla
+		 */
+		private final int totalLines;
+
+		/** Članska varijabla koja predstavlja broj dijelova podstabla */
+		private final int pieces;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param source
+		 *            izvor znakova dijela
+		 * @param start
+		 *            početak dijela unutar izvora
+		 * @param length
+		 *            duljina dijela
+		 * @param lines
+		 *            broj znakova novog retka dijela
+		 * @param priority
+		 *            prioritet čvora
+		 * @param left
+		 *            lijevo podstablo
+		 * @param right
+		 *            desno podstablo
+		 */
+		public Node(ITextSource source, int start, int length, int lines, int priority, Node left, Node right) {
+			this.source = source;
+			this.start = start;
+			this.length = length;
+			this.lines = lines;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			this.size = size(left) + length + size(right);
+			this.totalLines = lines(left) + lines + lines(right);
+			this.pieces = pieces(left) + 1 + pieces(right);
+		}
+
+		/**
+		 * Metoda koja stvara kopiju ovog čvora s predanim podstablima
+		 *
+		 * @param left
+		 *            novo lijevo podstablo
+		 * @param right
+		 *            novo desno podstablo
+		 * @return kopiju ovog čvora
+		 */
+		public Node withChildren(Node left, Node right) {
+			if (left == this.left && right == this.right) {
+				return this;
+			}
+			return new Node(source, start, length, lines, priority, left, right);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja izmjenu sadržaja (umetanje ili
+	 * uklanjanje raspona). Izmjena pamti samo poziciju, duljinu i, dok tekst
+	 * raspona nije u sadržaju, podstablo njegovih dijelova i pozicije koje su
+	 * bile unutar raspona. Poništavanje i ponovno izvođenje naizmjence
+	 * uklanjaju raspon iz sadržaja i vraćaju ga u njega, zajedno s njegovim
+	 * pozicijama
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class PieceEdit extends AbstractUndoableEdit {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja početak raspona */
+		private final int where;
+
+		/** Članska varijabla koja predstavlja duljinu raspona */
+		private final int length;
+
+		/**
+		 * Članska varijabla koja predstavlja dijelove raspona koji nije u
+		 * sadržaju ili <code>null</code> ukoliko je raspon u sadržaju
+		 */
+		private Node pieces;
+
+		/**
+		 * Članska varijabla koja predstavlja pozicije koje su bile unutar
+		 * raspona koji nije u sadržaju ili <code>null</code> ukoliko je
+		 * raspon u sadržaju
+		 */
+		private MarkVector.Collapsed collapsed;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda. Ukoliko
+		 * izmjena predstavlja uklanjanje, raspon se ovdje uklanja iz sadržaja
+		 *
+		 * @param where
+		 *            početak raspona
+		 * @param length
+		 *            duljina raspona
+		 * @param remove
+		 *            zastavica koja ukazuje na to uklanja li izmjena raspon
+		 *            (<code>true</code>) ili je raspon već umetnut
+		 *            (<code>false</code>)
+		 */
+		public PieceEdit(int where, int length, boolean remove) {
+			this.where = where;
+			this.length = length;
+			if (remove) {
+				toggle();
+			}
+			lastEditSize = EDIT_BYTES + NODE_BYTES * pieces(pieces);
+		}
+
+		@Override
+		public void undo() {
+			super.undo();
+			toggle();
+		}
+
+		@Override
+		public void redo() {
+			super.redo();
+			toggle();
+		}
+
+		@Override
+		public void die() {
+			super.die();
+			pieces = null;
+			collapsed = null;
+		}
+
+		/**
+		 * Pomoćna metoda koja raspon uklanja iz sadržaja ukoliko je u njemu, a
+		 * inače ga vraća u sadržaj
+		 */
+		private void toggle() {
+			if (pieces == null) {
+				pieces = removePieces(where, length);
+				collapsed = marks.removeUpdate(where, length);
+			} else {
+				insertPieces(where, pieces);
+				marks.insertUpdate(where, length);
+				marks.restore(collapsed, where, length);
+				pieces = null;
+				collapsed = null;
+			}
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja nepromijenjivu sliku sadržaja. Slika
+	 * je samo referenca na korijen stabla u trenutku njenog stvaranja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Snapshot implements ITextSource {
+
+		/** Članska varijabla koja predstavlja korijen stabla dijelova */
+		private final Node root;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param root
+		 *            korijen stabla dijelova
+		 */
+		public Snapshot(Node root) {
+			this.root = root;
+		}
+
+		@Override
+		public int length() {
+			return size(root);
+		}
+
+		@Override
+		public void getChars(int offset, int length, char[] dst, int dstPos) {
+			copy(root, 0, offset, offset + length, dst, dstPos - offset);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.text.Bidi;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GapContent;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Razred koji nasljeđuje razred {@link PlainDocument}, a koji umjesto sadržaja
+ * razreda {@link GapContent} koristi sadržaj razreda
+ * {@link PieceTableContent}. Umetanje i uklanjanje teksta stoga ne premješta
+ * postojeći tekst, a slika dokumenta stvara se bez kopiranja. Pretvorba
+ * pozicije u redak i retka u poziciju (sučelje {@link ILineIndex}) odvija se
+ * nad stablom dijelova sadržaja, bez pretraživanja elemenata dokumenta.
+ *
+ * @see PieceTableContent
+ * @see LargeFileDocument
+ *
+ * @author Davor Češljaš
+ */
+public class PieceTableDocument extends PlainDocument implements ISnapshotProvider, ILineIndex {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva kojim razred
+	 * {@link AbstractDocument} označava da tekst zahtijeva složeni raspored
+	 * znakova (npr. tekst pisan zdesna nalijevo)
+	 */
+	private static final String I18N_PROPERTY = "i18n";
+
+	/** Članska varijabla koja predstavlja sadržaj ovog dokumenta */
+	private final PieceTableContent content;
+
+	/**
+	 * Konstruktor koji inicijalizira prazan dokument
+	 */
+	public PieceTableDocument() {
+		this(new PieceTableContent());
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira dokument nad predanim sadržajem
+	 *
+	 * @param content
+	 *            sadržaj dokumenta
+	 */
+	public PieceTableDocument(PieceTableContent content) {
+		super(content);
+		this.content = content;
+	}
+
+	@Override
+	protected void fireUndoableEditUpdate(UndoableEditEvent e) {
+		// izmjene sadržaja ne kopiraju tekst, pa se njihova veličina procjenjuje
+		SizedEditEvent.fire(this, e.getEdit(), content.getLastEditSize());
+	}
+
+	/**
+	 * Metoda koja <b>length</b> znakova od pozicije <b>offset</b> zamjenjuje
+	 * znakovima predanog segmenta, pod jednim zaključavanjem. Za razliku od
+	 * metode {@link #replace(int, int, String, javax.swing.text.AttributeSet)}
+	 * novi tekst ne mora biti primjerak razreda {@link String}, pa se znakovi
+	 * segmenta kopiraju izravno u sadržaj. Događaji i izmjene koje se mogu
+	 * poništiti jednaki su onima koje stvara zamjena teksta
+	 *
+	 * @param offset
+	 *            početak teksta koji se zamjenjuje
+	 * @param length
+	 *            duljina teksta koji se zamjenjuje
+	 * @param text
+	 *            segment s novim tekstom
+	 * @throws BadLocationException
+	 *             ukoliko raspon nije unutar dokumenta
+	 */
+	public void replace(int offset, int length, Segment text) throws BadLocationException {
+		writeLock();
+		try {
+			if (length > 0) {
+				remove(offset, length);
+			}
+			if (text.count == 0) {
+				return;
+			}
+
+			UndoableEdit edit = content.insertString(offset, text);
+			DefaultDocumentEvent e = new DefaultDocumentEvent(offset, text.count, DocumentEvent.EventType.INSERT);
+			if (edit != null) {
+				e.addEdit(edit);
+			}
+			if (Boolean.FALSE.equals(getProperty(I18N_PROPERTY))
+					&& Bidi.requiresBidi(text.array, text.offset, text.offset + text.count)) {
+				putProperty(I18N_PROPERTY, Boolean.TRUE);
+			}
+			insertUpdate(e, null);
+			e.end();
+			fireInsertUpdate(e);
+			if (edit != null) {
+				fireUndoableEditUpdate(new UndoableEditEvent(this, e));
+			}
+		} finally {
+			writeUnlock();
+		}
+	}
+
+	@Override
+	public ITextSource snapshot() {
+		return content.snapshot();
+	}
+
+	@Override
+	public int getLineCount() {
+		return content.getLineCount();
+	}
+
+	@Override
+	public int getLineOfOffset(int offset) {
+		return content.getLineOfOffset(offset);
+	}
+
+	@Override
+	public int getLineStartOffset(int line) {
+		return content.getLineStartOffset(line);
+	}
+}
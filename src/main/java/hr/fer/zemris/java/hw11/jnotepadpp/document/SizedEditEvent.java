@@ -0,0 +1,73 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * Razred koji nasljeđuje razred {@link UndoableEditEvent}, a koji uz izmjenu
+ * dokumenta nosi i procjenu zauzeća memorije (u oktetima) koje izmjena
+ * sadržaja dokumenta zadržava dok god je izmjena u povijesti. Događaje ovog
+ * razreda dojavljuju dokumenti nad sadržajem {@link PieceTableContent}, čije
+ * izmjene ne čuvaju kopiju teksta.
+ *
+ * @see EditHistory
+ *
+ * @author Davor Češljaš
+ */
+public class SizedEditEvent extends UndoableEditEvent {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Članska varijabla koja predstavlja procjenu zauzeća memorije izmjene
+	 * sadržaja
+	 */
+	private final long contentSize;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param source
+	 *            izvor događaja
+	 * @param edit
+	 *            izmjena dokumenta
+	 * @param contentSize
+	 *            procjena zauzeća memorije izmjene sadržaja
+	 */
+	public SizedEditEvent(Object source, UndoableEdit edit, long contentSize) {
+		super(source, edit);
+		this.contentSize = contentSize;
+	}
+
+	/**
+	 * Statička metoda koja svim promatračima na izmjene dokumenta dojavljuje
+	 * primjerak ovog razreda
+	 *
+	 * @param document
+	 *            dokument koji je izmijenjen
+	 * @param edit
+	 *            izmjena dokumenta
+	 * @param contentSize
+	 *            procjena zauzeća memorije izmjene sadržaja
+	 */
+	public static void fire(AbstractDocument document, UndoableEdit edit, long contentSize) {
+		SizedEditEvent e = new SizedEditEvent(document, edit, contentSize);
+		for (UndoableEditListener l : document.getUndoableEditListeners()) {
+			l.undoableEditHappened(e);
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća procjenu zauzeća memorije (u oktetima) izmjene
+	 * sadržaja
+	 *
+	 * @return procjenu zauzeća memorije izmjene sadržaja
+	 */
+	public long getContentSize() {
+		return contentSize;
+	}
+}
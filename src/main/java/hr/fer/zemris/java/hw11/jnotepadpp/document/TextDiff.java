@@ -0,0 +1,361 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * Razred koji računa razlike između dvaju tekstova kao popis izmjena koje
+ * stari tekst pretvaraju u novi. Najprije se odbacuju zajednički početak i
+ * kraj tekstova (poravnati na početke redaka), a preostali srednji dio se
+ * uspoređuje po recima Myersovim algoritmom. Ukoliko se tekstovi razlikuju
+ * u više od {@value #MAX_EDIT_DISTANCE} redaka ili bi usporedba trajala
+ * predugo, cijeli se srednji dio zamjenjuje jednom izmjenom.
+ *
+ * <p>
+ * Primjenom izmjena na dokument ({@link #apply(Document, List)}) mijenjaju
+ * se samo različiti dijelovi, pa pokazivač, prikaz i povijest izmjena
+ * dokumenta ostaju sačuvani.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public final class TextDiff {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj dodanih i uklonjenih redaka za
+	 * koji se traže pojedinačne izmjene
+	 */
+	public static final int MAX_EDIT_DISTANCE = 1000;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj koraka usporedbe redaka nakon
+	 * kojeg se usporedba prekida
+	 */
+	private static final long MAX_WORK = 50_000_000L;
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 */
+	private TextDiff() {
+	}
+
+	/**
+	 * Statička metoda koja računa izmjene koje tekst <b>oldText</b>
+	 * pretvaraju u tekst <b>newText</b>. Izmjene su poredane po poziciji i
+	 * ne preklapaju se, a pozicije se odnose na stari tekst
+	 *
+	 * @param oldText
+	 *            stari tekst
+	 * @param newText
+	 *            novi tekst
+	 * @return {@link List}u izmjena, praznu ukoliko su tekstovi jednaki
+	 */
+	public static List<Edit> diff(char[] oldText, char[] newText) {
+		int limit = Math.min(oldText.length, newText.length);
+		int prefix = 0;
+		while (prefix < limit && oldText[prefix] == newText[prefix]) {
+			prefix++;
+		}
+		if (prefix == oldText.length && prefix == newText.length) {
+			return Collections.emptyList();
+		}
+		while (prefix > 0 && oldText[prefix - 1] != '\n') {
+			prefix--;
+		}
+
+		int suffix = 0;
+		limit -= prefix;
+		while (suffix < limit && oldText[oldText.length - 1 - suffix] == newText[newText.length - 1 - suffix]) {
+			suffix++;
+		}
+		while (suffix > 0 && oldText.length - suffix > prefix && oldText[oldText.length - suffix - 1] != '\n') {
+			suffix--;
+		}
+
+		int[] oldStarts = lineStarts(oldText, prefix, oldText.length - suffix);
+		int[] newStarts = lineStarts(newText, prefix, newText.length - suffix);
+		Map<String, Integer> ids = new HashMap<>();
+		int[] a = lineIds(oldText, oldStarts, ids);
+		int[] b = lineIds(newText, newStarts, ids);
+
+		int[] matches = match(a, b);
+		if (matches == null) {
+			return Collections.singletonList(edit(newText, oldStarts, newStarts, 0, a.length, 0, b.length));
+		}
+
+		List<Edit> edits = new ArrayList<>();
+		int x = 0;
+		int y = 0;
+		for (int i = 0; i <= matches.length; i += 2) {
+			int mx = i < matches.length ? matches[i] : a.length;
+			int my = i < matches.length ? matches[i + 1] : b.length;
+			if (mx > x || my > y) {
+				edits.add(edit(newText, oldStarts, newStarts, x, mx, y, my));
+			}
+			x = mx + 1;
+			y = my + 1;
+		}
+		return edits;
+	}
+
+	/**
+	 * Statička metoda koja primjenjuje izmjene izračunate metodom
+	 * {@link #diff(char[], char[])} na dokument čiji je sadržaj jednak starom
+	 * tekstu. Izmjene se primjenjuju od kraja prema početku, kako se pozicije
+	 * preostalih izmjena ne bi pomicale
+	 *
+	 * @param document
+	 *            dokument na koji se izmjene primjenjuju
+	 * @param edits
+	 *            izmjene poredane po poziciji
+	 * @throws BadLocationException
+	 *             ukoliko izmjene ne odgovaraju sadržaju dokumenta
+	 */
+	public static void apply(Document document, List<Edit> edits) throws BadLocationException {
+		for (int i = edits.size() - 1; i >= 0; i--) {
+			Edit edit = edits.get(i);
+			if (edit.length > 0) {
+				document.remove(edit.offset, edit.length);
+			}
+			if (!edit.text.isEmpty()) {
+				document.insertString(edit.offset, edit.text, null);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi najdulji zajednički podniz redaka
+	 * Myersovim algoritmom. Pamte se stanja svakog koraka, pa je zauzeće
+	 * memorije kvadratno u broju razlika
+	 *
+	 * @param a
+	 *            oznake redaka starog teksta
+	 * @param b
+	 *            oznake redaka novog teksta
+	 * @return parove indeksa jednakih redaka (stari, novi) poredane po
+	 *         poziciji ili <code>null</code> ukoliko je razlika prevelika
+	 */
+	private static int[] match(int[] a, int[] b) {
+		int n = a.length;
+		int m = b.length;
+		int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+		int offset = max + 1;
+		int[] v = new int[2 * max + 3];
+		List<int[]> trace = new ArrayList<>();
+		long work = 0;
+
+		for (int d = 0; d <= max; d++) {
+			trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+			for (int k = -d; k <= d; k += 2) {
+				int x = k == -d || k != d && v[offset + k - 1] < v[offset + k + 1]
+						? v[offset + k + 1]
+						: v[offset + k - 1] + 1;
+				int y = x - k;
+				int start = x;
+				while (x < n && y < m && a[x] == b[y]) {
+					x++;
+					y++;
+				}
+				work += x - start + 1;
+				v[offset + k] = x;
+				if (x >= n && y >= m) {
+					return backtrack(trace, n, m);
+				}
+			}
+			if (work > MAX_WORK) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja iz zapamćenih stanja Myersovog algoritma
+	 * rekonstruira parove jednakih redaka
+	 *
+	 * @param trace
+	 *            stanja algoritma prije svakog koraka
+	 * @param n
+	 *            broj redaka starog teksta
+	 * @param m
+	 *            broj redaka novog teksta
+	 * @return parove indeksa jednakih redaka poredane po poziciji
+	 */
+	private static int[] backtrack(List<int[]> trace, int n, int m) {
+		int[] matches = new int[2 * Math.min(n, m)];
+		int count = matches.length;
+		int x = n;
+		int y = m;
+		for (int d = trace.size() - 1; d >= 0 && (x > 0 || y > 0); d--) {
+			int[] v = trace.get(d);
+			int base = d + 1;
+			int k = x - y;
+			int previousK = k == -d || k != d && v[base + k - 1] < v[base + k + 1] ? k + 1 : k - 1;
+			int previousX = v[base + previousK];
+			int previousY = previousX - previousK;
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				matches[--count] = y;
+				matches[--count] = x;
+			}
+			x = previousX;
+			y = previousY;
+		}
+		return Arrays.copyOfRange(matches, count, matches.length);
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara izmjenu koja retke
+	 * <code>[oldFrom, oldTo)</code> starog teksta zamjenjuje recima
+	 * <code>[newFrom, newTo)</code> novog teksta
+	 *
+	 * @param newText
+	 *            novi tekst
+	 * @param oldStarts
+	 *            početci redaka srednjeg dijela starog teksta
+	 * @param newStarts
+	 *            početci redaka srednjeg dijela novog teksta
+	 * @param oldFrom
+	 *            prvi zamijenjeni redak starog teksta
+	 * @param oldTo
+	 *            redak starog teksta iza posljednjeg zamijenjenog
+	 * @param newFrom
+	 *            prvi umetnuti redak novog teksta
+	 * @param newTo
+	 *            redak novog teksta iza posljednjeg umetnutog
+	 * @return stvorenu izmjenu
+	 */
+	private static Edit edit(char[] newText, int[] oldStarts, int[] newStarts, int oldFrom,
+			int oldTo, int newFrom, int newTo) {
+		int offset = oldStarts[oldFrom];
+		int from = newStarts[newFrom];
+		return new Edit(offset, oldStarts[oldTo] - offset, new String(newText, from, newStarts[newTo] - from));
+	}
+
+	/**
+	 * Pomoćna metoda koja računa početke redaka unutar raspona
+	 * <code>[from, to)</code>. Posljednji element polja je kraj raspona, pa
+	 * polje ima jedan element više od broja redaka
+	 *
+	 * @param text
+	 *            tekst
+	 * @param from
+	 *            početak raspona
+	 * @param to
+	 *            kraj raspona
+	 * @return početke redaka raspona i kraj raspona
+	 */
+	private static int[] lineStarts(char[] text, int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (text[i] == '\n' || i == to - 1) {
+				count++;
+			}
+		}
+
+		int[] starts = new int[count + 1];
+		int line = 0;
+		starts[0] = from;
+		for (int i = from; i < to; i++) {
+			if (text[i] == '\n' || i == to - 1) {
+				starts[++line] = i + 1;
+			}
+		}
+		return starts;
+	}
+
+	/**
+	 * Pomoćna metoda koja svakom retku pridjeljuje oznaku, tako da jednaki
+	 * reci (uključujući znak novog retka) imaju jednake oznake
+	 *
+	 * @param text
+	 *            tekst
+	 * @param starts
+	 *            početci redaka
+	 * @param ids
+	 *            oznake dosad viđenih redaka
+	 * @return oznake redaka
+	 */
+	private static int[] lineIds(char[] text, int[] starts, Map<String, Integer> ids) {
+		int[] lines = new int[starts.length - 1];
+		for (int i = 0; i < lines.length; i++) {
+			String line = new String(text, starts[i], starts[i + 1] - starts[i]);
+			Integer id = ids.get(line);
+			if (id == null) {
+				id = ids.size();
+				ids.put(line, id);
+			}
+			lines[i] = id;
+		}
+		return lines;
+	}
+
+	/**
+	 * Razred koji predstavlja jednu izmjenu: zamjenu <b>length</b> znakova od
+	 * pozicije <b>offset</b> starog teksta tekstom <b>text</b>
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static final class Edit {
+
+		/** Članska varijabla koja predstavlja poziciju izmjene u starom tekstu */
+		private final int offset;
+
+		/** Članska varijabla koja predstavlja broj uklonjenih znakova */
+		private final int length;
+
+		/** Članska varijabla koja predstavlja umetnuti tekst */
+		private final String text;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param offset
+		 *            pozicija izmjene u starom tekstu
+		 * @param length
+		 *            broj uklonjenih znakova
+		 * @param text
+		 *            umetnuti tekst
+		 */
+		private Edit(int offset, int length, String text) {
+			this.offset = offset;
+			this.length = length;
+			this.text = text;
+		}
+
+		/**
+		 * Metoda koja dohvaća poziciju izmjene u starom tekstu
+		 *
+		 * @return poziciju izmjene u starom tekstu
+		 */
+		public int getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Metoda koja dohvaća broj uklonjenih znakova
+		 *
+		 * @return broj uklonjenih znakova
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Metoda koja dohvaća umetnuti tekst
+		 *
+		 * @return umetnuti tekst
+		 */
+		public String getText() {
+			return text;
+		}
+	}
+}
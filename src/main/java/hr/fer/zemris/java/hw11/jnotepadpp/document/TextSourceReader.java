@@ -0,0 +1,60 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.io.Reader;
+
+/**
+ * Razred koji nasljeđuje razred {@link Reader}, a koji čita znakove raspona
+ * predanog izvora ({@link ITextSource}). Izvor se ne kopira, već se znakovi
+ * dohvaćaju iz njega tek prilikom čitanja, pa se i rasponi mnogo veći od
+ * dostupne memorije mogu čitati u dijelovima.
+ *
+ * @see ITextSource
+ *
+ * @author Davor Češljaš
+ */
+public class TextSourceReader extends Reader {
+
+	/** Članska varijabla koja predstavlja izvor iz kojeg se čita */
+	private final ITextSource source;
+
+	/** Članska varijabla koja predstavlja poziciju sljedećeg znaka */
+	private int position;
+
+	/** Članska varijabla koja predstavlja kraj raspona (isključivo) */
+	private final int end;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param source
+	 *            izvor iz kojeg se čita
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 */
+	public TextSourceReader(ITextSource source, int from, int to) {
+		this.source = source;
+		this.position = from;
+		this.end = to;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (position >= end) {
+			return -1;
+		}
+
+		int n = Math.min(len, end - position);
+		source.getChars(position, n, cbuf, off);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+/**
+ * Razred koji predstavlja nepromijenjivu statistiku teksta: broj znakova, broj
+ * znakova koji nisu bjeline (vidi {@link Character#isWhitespace(char)}), broj
+ * redaka i broj riječi. Riječ je svaki najdulji niz znakova koji nisu
+ * bjeline. Statistika cijelog izvora računa se statičkom metodom
+ * {@link #of(ITextSource)}, a statistiku dokumenta koji se mijenja prati
+ * razred {@link DocumentStatistics}.
+ *
+ * @see DocumentStatistics
+ *
+ * @author Davor Češljaš
+ */
+public class TextStatistics {
+
+	/** Konstanta koja predstavlja statistiku praznog teksta */
+	public static final TextStatistics EMPTY = new TextStatistics(0, 0, 1, 0);
+
+	/** Članska varijabla koja predstavlja broj znakova */
+	private final int characters;
+
+	/** Članska varijabla koja predstavlja broj znakova koji nisu bjeline */
+	private final int nonWhitespace;
+
+	/** Članska varijabla koja predstavlja broj redaka */
+	private final int lines;
+
+	/** Članska varijabla koja predstavlja broj riječi */
+	private final int words;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param characters
+	 *            broj znakova
+	 * @param nonWhitespace
+	 *            broj znakova koji nisu bjeline
+	 * @param lines
+	 *            broj redaka
+	 * @param words
+	 *            broj riječi
+	 */
+	public TextStatistics(int characters, int nonWhitespace, int lines, int words) {
+		this.characters = characters;
+		this.nonWhitespace = nonWhitespace;
+		this.lines = lines;
+		this.words = words;
+	}
+
+	/**
+	 * Statička metoda koja računa statistiku cijelog predanog izvora. Izvor se
+	 * čita u dijelovima, a računanje se prekida ukoliko je dretva prekinuta
+	 *
+	 * @param source
+	 *            izvor čija se statistika računa
+	 * @return statistiku izvora
+	 * @throws InterruptedException
+	 *             ukoliko je dretva prekinuta tijekom računanja
+	 */
+	public static TextStatistics of(ITextSource source) throws InterruptedException {
+		Counter counter = new Counter(true);
+		char[] buffer = new char[ITextSource.SCAN_CHUNK];
+		int length = source.length();
+		for (int offset = 0; offset < length; offset += buffer.length) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			int n = Math.min(buffer.length, length - offset);
+			source.getChars(offset, n, buffer, 0);
+			counter.accept(buffer, 0, n);
+		}
+		return new TextStatistics(length, counter.nonWhitespace, counter.newLines + 1, counter.wordStarts);
+	}
+
+	/**
+	 * Metoda koja dohvaća broj znakova
+	 *
+	 * @return broj znakova
+	 */
+	public int getCharacters() {
+		return characters;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj znakova koji nisu bjeline
+	 *
+	 * @return broj znakova koji nisu bjeline
+	 */
+	public int getNonWhitespace() {
+		return nonWhitespace;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj redaka
+	 *
+	 * @return broj redaka
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj riječi
+	 *
+	 * @return broj riječi
+	 */
+	public int getWords() {
+		return words;
+	}
+
+	/**
+	 * Razred koji broji znakove koji nisu bjeline, znakove novog retka i
+	 * početke riječi u slijedu znakova koji mu se predaje u dijelovima. Početak
+	 * riječi je znak koji nije bjelina, a kojem prethodi bjelina ili početak
+	 * teksta
+	 *
+	 * @author Davor Češljaš
+	 */
+	static class Counter {
+
+		/** Članska varijabla koja predstavlja broj znakova koji nisu bjeline */
+		int nonWhitespace;
+
+		/** Članska varijabla koja predstavlja broj znakova novog retka */
+		int newLines;
+
+		/** Članska varijabla koja predstavlja broj početaka riječi */
+		int wordStarts;
+
+		/**
+		 * Članska varijabla koja ukazuje na to je li posljednji predani znak
+		 * bjelina (ili početak teksta)
+		 */
+		boolean afterWhitespace;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param afterWhitespace
+		 *            zastavica koja ukazuje na to prethodi li prvom predanom
+		 *            znaku bjelina ili početak teksta
+		 */
+		Counter(boolean afterWhitespace) {
+			this.afterWhitespace = afterWhitespace;
+		}
+
+		/**
+		 * Metoda koja broji <b>length</b> znakova polja <b>chars</b> počevši od
+		 * <b>offset</b>
+		 *
+		 * @param chars
+		 *            polje znakova
+		 * @param offset
+		 *            pozicija prvog znaka
+		 * @param length
+		 *            broj znakova
+		 */
+		void accept(char[] chars, int offset, int length) {
+			for (int i = offset, end = offset + length; i < end; i++) {
+				char c = chars[i];
+				if (Character.isWhitespace(c)) {
+					if (c == '\n') {
+						newLines++;
+					}
+					afterWhitespace = true;
+				} else {
+					nonWhitespace++;
+					if (afterWhitespace) {
+						wordStarts++;
+					}
+					afterWhitespace = false;
+				}
+			}
+		}
+	}
+}
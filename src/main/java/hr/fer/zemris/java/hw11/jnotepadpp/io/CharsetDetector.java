@@ -0,0 +1,274 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Razred koji se koristi za prepoznavanje kodne stranice datoteke iz uzorka
+ * njezinih prvih {@value #SAMPLE_SIZE} okteta. Prepoznavanje se obavlja
+ * sljedećim redoslijedom:
+ * <ol>
+ * <li>ukoliko uzorak počinje oznakom redoslijeda okteta, kodna stranica se
+ * određuje iz nje</li>
+ * <li>ukoliko je u uzorku velik udio nul okteta na parnim ili neparnim
+ * pozicijama, datoteka je zapisana kodnom stranicom UTF-16</li>
+ * <li>ukoliko je uzorak ispravno zapisan kodnom stranicom UTF-8 (što uključuje
+ * i čisti ASCII), koristi se UTF-8</li>
+ * <li>inače se uzorak dekodira svakom od čestih jednooktetnih kodnih stranica
+ * ({@value #SINGLE_BYTE_CHARSETS}) i odabire se ona čiji dekodirani tekst
+ * sadrži najviše slova karakterističnih za tu kodnu stranicu, a najmanje
+ * kontrolnih i nedefiniranih znakova</li>
+ * </ol>
+ *
+ * @see TextFormat
+ *
+ * @author Davor Češljaš
+ */
+public class CharsetDetector {
+
+	/** Konstanta koja predstavlja veličinu uzorka u oktetima */
+	public static final int SAMPLE_SIZE = 8 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja jednooktetne kodne stranice koje se
+	 * isprobavaju, poredane po prednosti
+	 */
+	private static final String SINGLE_BYTE_CHARSETS = "windows-1250, windows-1252, ISO-8859-2, ISO-8859-1";
+
+	/** Konstanta koja predstavlja kodne stranice koje imaju oznaku BOM */
+	private static final Charset[] BOM_CHARSETS = { Charset.forName("UTF-32LE"), Charset.forName("UTF-32BE"),
+			StandardCharsets.UTF_8, StandardCharsets.UTF_16LE, StandardCharsets.UTF_16BE };
+
+	/**
+	 * Konstanta koja predstavlja slova karakteristična za srednjoeuropske
+	 * kodne stranice
+	 */
+	private static final String CENTRAL_EUROPEAN_LETTERS = "čćđšžČĆĐŠŽłŁńŃśŚźŹżŻąĄęĘřŘěĚůŮňŇťŤďĎőŐűŰ";
+
+	/**
+	 * Konstanta koja predstavlja slova karakteristična za zapadnoeuropske
+	 * kodne stranice
+	 */
+	private static final String WESTERN_LETTERS = "àâçèêëîïôùûñœßÿÀÂÇÈÊËÎÏÔÙÛÑŒŸ";
+
+	/**
+	 * Konstanta koja predstavlja najmanji udio nul okteta na parnim ili
+	 * neparnim pozicijama za koji se smatra da je datoteka zapisana kodnom
+	 * stranicom UTF-16
+	 */
+	private static final double UTF16_ZERO_RATIO = 0.3;
+
+	/** Konstruktor koji onemogućava stvaranje primjeraka ovog razreda */
+	private CharsetDetector() {
+	}
+
+	/**
+	 * Statička metoda koja iz predanog uzorka prepoznaje format datoteke.
+	 * Uzorak se čita od trenutne pozicije do granice predanog međuspremnika,
+	 * a pozicija međuspremnika se ne mijenja. Reci vraćenog formata odvajaju
+	 * se znakom <code>'\n'</code>, jer se niz znakova kojim se reci odvajaju
+	 * utvrđuje tek prilikom dekodiranja cijele datoteke
+	 *
+	 * @param sample
+	 *            uzorak s početka datoteke
+	 * @return prepoznati format datoteke
+	 */
+	public static TextFormat detect(ByteBuffer sample) {
+		byte[] bytes = new byte[sample.remaining()];
+		sample.duplicate().get(bytes);
+
+		for (Charset charset : BOM_CHARSETS) {
+			byte[] bom = TextFormat.bomOf(charset);
+			if (bytes.length >= bom.length && Arrays.equals(bom, Arrays.copyOf(bytes, bom.length))) {
+				return new TextFormat(charset, true, "\n");
+			}
+		}
+
+		Charset utf16 = detectUtf16(bytes);
+		if (utf16 != null) {
+			return new TextFormat(utf16, false, "\n");
+		}
+
+		if (isValidUtf8(bytes)) {
+			return TextFormat.DEFAULT;
+		}
+
+		return new TextFormat(detectSingleByte(bytes), false, "\n");
+	}
+
+	/**
+	 * Pomoćna metoda koja prepoznaje tekst zapisan kodnom stranicom UTF-16 bez
+	 * oznake redoslijeda okteta. Tekst koji je većinom latinični u UTF-16
+	 * zapisu ima nul oktet na svakoj drugoj poziciji
+	 *
+	 * @param bytes
+	 *            uzorak s početka datoteke
+	 * @return {@link StandardCharsets#UTF_16LE}, {@link StandardCharsets#UTF_16BE}
+	 *         ili <code>null</code> ukoliko uzorak nije zapisan kodnom
+	 *         stranicom UTF-16
+	 */
+	private static Charset detectUtf16(byte[] bytes) {
+		int pairs = bytes.length / 2;
+		if (pairs == 0) {
+			return null;
+		}
+
+		int evenZeros = 0;
+		int oddZeros = 0;
+		for (int i = 0; i < pairs * 2; i += 2) {
+			if (bytes[i] == 0) {
+				evenZeros++;
+			}
+			if (bytes[i + 1] == 0) {
+				oddZeros++;
+			}
+		}
+
+		int threshold = (int) Math.ceil(pairs * UTF16_ZERO_RATIO);
+		if (oddZeros >= threshold && evenZeros < oddZeros / 10) {
+			return StandardCharsets.UTF_16LE;
+		}
+		if (evenZeros >= threshold && oddZeros < evenZeros / 10) {
+			return StandardCharsets.UTF_16BE;
+		}
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li uzorak ispravno zapisan kodnom
+	 * stranicom UTF-8. Znak koji je prekinut krajem uzorka ne smatra se
+	 * pogreškom
+	 *
+	 * @param bytes
+	 *            uzorak s početka datoteke
+	 * @return <code>true</code> ako je uzorak ispravan UTF-8 zapis,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isValidUtf8(byte[] bytes) {
+		int i = 0;
+		while (i < bytes.length) {
+			int b = bytes[i] & 0xFF;
+			int continuation;
+			if (b < 0x80) {
+				i++;
+				continue;
+			} else if (b >= 0xC2 && b <= 0xDF) {
+				continuation = 1;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				continuation = 2;
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				continuation = 3;
+			} else {
+				return false;
+			}
+
+			for (int j = 1; j <= continuation; j++) {
+				if (i + j == bytes.length) {
+					return true;
+				}
+				if ((bytes[i + j] & 0xC0) != 0x80) {
+					return false;
+				}
+			}
+			i += continuation + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja odabire jednooktetnu kodnu stranicu čiji dekodirani
+	 * uzorak ima najveću ocjenu. Svako slovo karakteristično za obitelj kodnih
+	 * stranica nosi dva boda, ostala slova izvan ASCII skupa jedan, a svaki
+	 * kontrolni ili nedefinirani znak oduzima pet bodova
+	 *
+	 * @param bytes
+	 *            uzorak s početka datoteke
+	 * @return kodnu stranicu s najvećom ocjenom
+	 */
+	private static Charset detectSingleByte(byte[] bytes) {
+		Charset best = null;
+		int bestScore = Integer.MIN_VALUE;
+		for (Charset charset : availableSingleByteCharsets()) {
+			String letters = charset.name().endsWith("1250") || charset.name().endsWith("-2")
+					? CENTRAL_EUROPEAN_LETTERS
+					: WESTERN_LETTERS;
+			int score = score(decode(bytes, charset), letters);
+			if (score > bestScore) {
+				best = charset;
+				bestScore = score;
+			}
+		}
+		return best != null ? best : StandardCharsets.ISO_8859_1;
+	}
+
+	/**
+	 * Pomoćna metoda koja ocjenjuje dekodirani uzorak
+	 *
+	 * @param text
+	 *            dekodirani uzorak
+	 * @param letters
+	 *            slova karakteristična za kodnu stranicu kojom je uzorak
+	 *            dekodiran
+	 * @return ocjenu uzorka
+	 */
+	private static int score(CharSequence text, String letters) {
+		int score = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				continue;
+			}
+			if (c == '\uFFFD' || Character.isISOControl(c)) {
+				score -= 5;
+			} else if (letters.indexOf(c) >= 0) {
+				score += 2;
+			} else if (Character.isLetter(c)) {
+				score++;
+			}
+		}
+		return score;
+	}
+
+	/**
+	 * Pomoćna metoda koja dekodira uzorak predanom kodnom stranicom, pri čemu
+	 * se nedefinirani okteti zamjenjuju znakom <code>'\uFFFD'</code>
+	 *
+	 * @param bytes
+	 *            uzorak s početka datoteke
+	 * @param charset
+	 *            kodna stranica kojom se uzorak dekodira
+	 * @return dekodirani uzorak
+	 */
+	private static CharBuffer decode(byte[] bytes, Charset charset) {
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer out = CharBuffer.allocate(bytes.length);
+		decoder.decode(ByteBuffer.wrap(bytes), out, true);
+		decoder.flush(out);
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća jednooktetne kodne stranice koje podržava
+	 * trenutni Java virtualni stroj
+	 *
+	 * @return {@link List}u podržanih kodnih stranica
+	 */
+	private static List<Charset> availableSingleByteCharsets() {
+		List<Charset> charsets = new ArrayList<>();
+		for (String name : SINGLE_BYTE_CHARSETS.split(",\\s*")) {
+			if (Charset.isSupported(name)) {
+				charsets.add(Charset.forName(name));
+			}
+		}
+		return charsets;
+	}
+}
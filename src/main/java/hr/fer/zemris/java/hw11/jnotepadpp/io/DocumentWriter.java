@@ -0,0 +1,152 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji se koristi za zapisivanje sadržaja dokumenta u kanal prema
+ * predanom formatu ({@link TextFormat}). Sadržaj se ne kopira u jedan veliki
+ * niz znakova, već se iz slike dokumenta ({@link ITextSource}) čita u
+ * dijelovima od po {@value #CHUNK_SIZE} znakova koji se kodiraju u
+ * međuspremnik fiksne veličine. Svaki znak
+ * <code>'\n'</code> dokumenta zapisuje se kao niz znakova
+ * {@link TextFormat#getLineSeparator()}, a ukoliko format to zahtjeva na
+ * početak se zapisuje oznaka redoslijeda okteta.
+ *
+ * @see TextFormat
+ * @see FileSaver
+ *
+ * @author Davor Češljaš
+ */
+public class DocumentWriter {
+
+	/**
+	 * Konstanta koja predstavlja broj znakova dokumenta koji se odjednom čitaju
+	 * i kodiraju
+	 */
+	public static final int CHUNK_SIZE = 64 * 1024;
+
+	/** Konstruktor koji onemogućava stvaranje primjeraka ovog razreda */
+	private DocumentWriter() {
+	}
+
+	/**
+	 * Statička metoda koja zapisuje sadržaj <b>source</b> u kanal
+	 * <b>channel</b> prema formatu <b>format</b>. Kanal se ne zatvara.
+	 * Ukoliko neki znak sadržaja nije moguće zapisati kodnom stranicom
+	 * formata, zapisivanje se prekida iznimkom
+	 * {@link CharacterCodingException}
+	 *
+	 * @param source
+	 *            sadržaj koji se zapisuje
+	 * @param format
+	 *            format prema kojem se sadržaj zapisuje
+	 * @param channel
+	 *            kanal u koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja ili kodiranja
+	 */
+	public static void write(ITextSource source, TextFormat format, WritableByteChannel channel)
+			throws IOException {
+		CharsetEncoder encoder = format.getCharset().newEncoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		String separator = format.getLineSeparator();
+		boolean translate = !"\n".equals(separator);
+
+		ByteBuffer bytes = ByteBuffer.allocate((int) (CHUNK_SIZE * encoder.maxBytesPerChar()));
+		bytes.put(format.getBomBytes());
+		// jedan znak više za nedovršeni surogatni par iz prethodnog dijela
+		CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE * separator.length() + 1);
+		char[] chunk = new char[CHUNK_SIZE];
+
+		int length = source.length();
+		int offset = 0;
+		do {
+			int n = Math.min(CHUNK_SIZE, length - offset);
+			source.getChars(offset, n, chunk, 0);
+			offset += n;
+
+			if (translate) {
+				for (int i = 0; i < n; i++) {
+					char c = chunk[i];
+					if (c == '\n') {
+						chars.append(separator);
+					} else {
+						chars.put(c);
+					}
+				}
+			} else {
+				chars.put(chunk, 0, n);
+			}
+
+			chars.flip();
+			encode(encoder, chars, bytes, channel, offset == length);
+			chars.compact();
+		} while (offset < length);
+
+		flush(encoder.flush(bytes), bytes, channel);
+	}
+
+	/**
+	 * Pomoćna metoda koja kodira sve znakove iz međuspremnika <b>chars</b> i
+	 * zapisuje ih u kanal. Nedovršeni surogatni par ostaje u
+	 * međuspremniku do sljedećeg poziva, osim ako je <b>endOfInput</b>
+	 * postavljen
+	 *
+	 * @param encoder
+	 *            koder kodne stranice
+	 * @param chars
+	 *            međuspremnik znakova koji se kodiraju
+	 * @param bytes
+	 *            međuspremnik okteta
+	 * @param channel
+	 *            kanal u koji se zapisuje
+	 * @param endOfInput
+	 *            zastavica koja ukazuje na to da nakon ovih znakova više nema
+	 *            ulaza
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja ili kodiranja
+	 */
+	private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer bytes,
+			WritableByteChannel channel, boolean endOfInput) throws IOException {
+		CoderResult result;
+		do {
+			result = encoder.encode(chars, bytes, endOfInput);
+			flush(result, bytes, channel);
+		} while (result.isOverflow());
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava rezultat kodiranja te zapisuje sve
+	 * kodirane oktete u kanal
+	 *
+	 * @param result
+	 *            rezultat kodiranja
+	 * @param bytes
+	 *            međuspremnik okteta
+	 * @param channel
+	 *            kanal u koji se zapisuje
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja ili ukoliko
+	 *             kodiranje nije uspjelo
+	 */
+	private static void flush(CoderResult result, ByteBuffer bytes, WritableByteChannel channel)
+			throws IOException {
+		if (result.isError()) {
+			result.throwException();
+		}
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+	}
+}
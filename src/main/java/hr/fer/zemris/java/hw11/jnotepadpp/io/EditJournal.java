@@ -0,0 +1,229 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.nio.file.Path;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentEvent.EventType;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileDocument;
+
+/**
+ * Razred koji predstavlja dnevnik nespremljenih izmjena jednog dokumenta.
+ * Dnevnik započinje slikom dokumenta (ili, za dokument mapiran u memoriju,
+ * oznakom datoteke iz koje je dokument učitan), a nakon nje se bilježe
+ * umetanja i uklanjanja teksta. Ukoliko program prestane raditi prije
+ * spremanja dokumenta, dokument se pri sljedećem pokretanju obnavlja
+ * razredom {@link JournalReplayer}.
+ *
+ * <p>
+ * Metode ovog razreda pozivaju se u dretvi za obradu događaja i nikada ne
+ * pišu u datoteku: zapisi se samo stavljaju u red razreda
+ * {@link JournalWriter}, koji ih u pozadinskoj dretvi zapisuje i sažima.
+ * Slike dokumenata su nepromjenjive i stvaraju se bez kopiranja teksta (vidi
+ * {@link FileSaver#snapshotOf(Document)}).
+ * </p>
+ *
+ * @see JournalWriter
+ * @see JournalReplayer
+ *
+ * @author Davor Češljaš
+ */
+public final class EditJournal {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj umetnutih znakova koji se
+	 * bilježe kao izmjena. Umjesto većih umetanja bilježi se slika dokumenta
+	 */
+	public static final int MAX_RECORDED_LENGTH = 1024 * 1024;
+
+	/** Članska varijabla koja predstavlja zaglavlje dnevnika */
+	final Header header;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da pozadinska dretva traži novu
+	 * sliku dokumenta, jer je dnevnik prevelik ili ga nije bilo moguće
+	 * zapisati
+	 */
+	volatile boolean snapshotRequested;
+
+	/** Članska varijabla koja ukazuje na to da je dnevnik odbačen */
+	private boolean discarded;
+
+	/**
+	 * Privatni konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param header
+	 *            zaglavlje dnevnika
+	 */
+	private EditJournal(Header header) {
+		this.header = header;
+	}
+
+	/**
+	 * Statička metoda tvornica koja započinje dnevnik slikom trenutnog
+	 * sadržaja dokumenta <b>document</b>
+	 *
+	 * @param filePath
+	 *            putanja do datoteke dokumenta
+	 * @param inMemory
+	 *            zastavica koja ukazuje na to postoji li datoteka dokumenta
+	 * @param format
+	 *            format u kojem se dokument sprema
+	 * @param document
+	 *            dokument čije se izmjene bilježe
+	 * @return novi dnevnik
+	 */
+	public static EditJournal start(Path filePath, boolean inMemory, TextFormat format, Document document) {
+		EditJournal journal = new EditJournal(
+				new Header(filePath, inMemory, document instanceof LargeFileDocument, format));
+		JournalWriter.getInstance().enqueue(JournalWriter.Record.create(journal, FileSaver.snapshotOf(document)));
+		return journal;
+	}
+
+	/**
+	 * Statička metoda tvornica koja započinje dnevnik dokumenta mapiranog u
+	 * memoriju čiji je sadržaj jednak datoteci <b>filePath</b>. Umjesto slike
+	 * dokumenta pamte se veličina i vrijeme izmjene datoteke, pa se dokument
+	 * može obnoviti samo ako datoteka do tada nije promijenjena
+	 *
+	 * @param filePath
+	 *            putanja do datoteke dokumenta
+	 * @param format
+	 *            format datoteke
+	 * @return novi dnevnik
+	 */
+	public static EditJournal startOnFile(Path filePath, TextFormat format) {
+		EditJournal journal = new EditJournal(new Header(filePath, true, true, format));
+		JournalWriter.getInstance().enqueue(JournalWriter.Record.create(journal, null));
+		return journal;
+	}
+
+	/**
+	 * Statička metoda tvornica koja nastavlja dnevnik iz kojeg je dokument
+	 * <b>recovered</b> obnovljen. Postojeći zapisi se ne prepisuju, već se
+	 * nove izmjene dodaju na njihov kraj. Slika obnovljenog dokumenta koristi
+	 * se samo ukoliko dnevnik nije moguće preuzeti
+	 *
+	 * @param recovered
+	 *            obnovljeni dokument
+	 * @return nastavljeni dnevnik
+	 */
+	public static EditJournal adopt(JournalReplayer.RecoveredDocument recovered) {
+		EditJournal journal = new EditJournal(recovered.header);
+		JournalWriter.getInstance().enqueue(
+				JournalWriter.Record.adopt(journal, recovered.journalPath, recovered.validLength,
+						FileSaver.snapshotOf(recovered.getDocument())));
+		return journal;
+	}
+
+	/**
+	 * Metoda koja bilježi izmjenu opisanu događajem <b>e</b>. Metoda se poziva
+	 * iz promatrača dokumenta, nakon što je izmjena napravljena. Umjesto
+	 * umetanja više od {@value #MAX_RECORDED_LENGTH} znakova, kao i kada
+	 * pozadinska dretva zatraži sažimanje, bilježi se slika dokumenta
+	 *
+	 * @param e
+	 *            događaj umetanja ili uklanjanja teksta
+	 */
+	public void record(DocumentEvent e) {
+		if (discarded) {
+			return;
+		}
+
+		Document document = e.getDocument();
+		if (snapshotRequested || e.getType() == EventType.INSERT && e.getLength() > MAX_RECORDED_LENGTH) {
+			snapshot(document);
+			return;
+		}
+
+		if (e.getType() == EventType.INSERT) {
+			String text;
+			try {
+				text = document.getText(e.getOffset(), e.getLength());
+			} catch (BadLocationException ex) {
+				snapshot(document);
+				return;
+			}
+			JournalWriter.getInstance().enqueue(JournalWriter.Record.insert(this, e.getOffset(), text));
+		} else if (e.getType() == EventType.REMOVE) {
+			JournalWriter.getInstance().enqueue(JournalWriter.Record.remove(this, e.getOffset(), e.getLength()));
+		}
+	}
+
+	/**
+	 * Metoda koja dosadašnje zapise zamjenjuje slikom trenutnog sadržaja
+	 * dokumenta <b>document</b>
+	 *
+	 * @param document
+	 *            dokument čije se izmjene bilježe
+	 */
+	public void snapshot(Document document) {
+		if (discarded) {
+			return;
+		}
+		snapshotRequested = false;
+		JournalWriter.getInstance().enqueue(JournalWriter.Record.snapshot(this, FileSaver.snapshotOf(document)));
+	}
+
+	/**
+	 * Metoda koja odbacuje dnevnik, primjerice nakon što je dokument spremljen
+	 * ili zatvoren. Datoteka dnevnika se briše, a daljnji zapisi se zanemaruju
+	 */
+	public void discard() {
+		if (discarded) {
+			return;
+		}
+		discarded = true;
+		JournalWriter.getInstance().enqueue(JournalWriter.Record.discard(this));
+	}
+
+	/**
+	 * Razred koji predstavlja nepromjenjivo zaglavlje dnevnika: podatke o
+	 * dokumentu potrebne da bi se on obnovio u novom prozoru
+	 *
+	 * @author Davor Češljaš
+	 */
+	static final class Header {
+
+		/** Članska varijabla koja predstavlja putanju do datoteke dokumenta */
+		final Path filePath;
+
+		/**
+		 * Članska varijabla koja ukazuje na to postoji li datoteka
+		 * dokumenta
+		 */
+		final boolean inMemory;
+
+		/**
+		 * Članska varijabla koja ukazuje na to je li dokument mapiran u
+		 * memoriju (razred {@link LargeFileDocument})
+		 */
+		final boolean large;
+
+		/** Članska varijabla koja predstavlja format datoteke dokumenta */
+		final TextFormat format;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param filePath
+		 *            putanja do datoteke dokumenta
+		 * @param inMemory
+		 *            zastavica koja ukazuje na to postoji li datoteka
+		 *            dokumenta
+		 * @param large
+		 *            zastavica koja ukazuje na to je li dokument mapiran u
+		 *            memoriju
+		 * @param format
+		 *            format datoteke dokumenta
+		 */
+		Header(Path filePath, boolean inMemory, boolean large, TextFormat format) {
+			this.filePath = filePath;
+			this.inMemory = inMemory;
+			this.large = large;
+			this.format = format;
+		}
+	}
+}
@@ -0,0 +1,471 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Razred koji prati promjene datoteka otvorenih dokumenata koje su napravili
+ * drugi programi. Razred koristi oblikovni obrazac
+ * <a href = "https://en.wikipedia.org/wiki/Singleton_pattern">jedinstveni
+ * objekt</a> te se njegovom jedinom primjerku pristupa metodom
+ * {@link #getInstance()}.
+ *
+ * <p>
+ * Sve datoteke prati jedna pozadinska dretva s jednim {@link WatchService}om,
+ * nad kojim je svaki direktorij registriran samo jednom, bez obzira na broj
+ * praćenih datoteka u njemu. Događaji jedne datoteke se spajaju: datoteka se
+ * provjerava tek kada {@value #DEBOUNCE_INTERVAL} milisekundi nije bilo novih
+ * događaja (a najkasnije {@value #MAX_DELAY} milisekundi nakon prvog). Tada se
+ * usporedbom otiska ({@link FileStamp}) s posljednjim viđenim otiskom
+ * utvrđuje je li se sadržaj stvarno promijenio, pri čemu se sadržaj čita samo
+ * ako se promijenilo vrijeme izmjene datoteke, a veličina je ostala ista
+ * (promjena veličine je uvijek promjena sadržaja). Promatrači se
+ * o promjeni obavještavaju u dretvi za obradu događaja.
+ * </p>
+ *
+ * <p>
+ * Spremanje dokumenta iz samog programa također mijenja datoteku, pa se ono
+ * najavljuje metodom {@link #beginWrite(Path)}, a nakon završetka se metodom
+ * {@link #endWrite(Path)} zapisani sadržaj prihvaća kao poznat. Isto se
+ * metodom {@link #acknowledge(Path)} radi kada program sam preuzme novi
+ * sadržaj datoteke.
+ * </p>
+ *
+ * @see FileStamp
+ *
+ * @author Davor Češljaš
+ */
+public class FileChangeWatcher {
+
+	/**
+	 * Konstanta koja predstavlja vrijeme (u milisekundama) bez novih događaja
+	 * nakon kojeg se datoteka provjerava
+	 */
+	public static final long DEBOUNCE_INTERVAL = 300;
+
+	/**
+	 * Konstanta koja predstavlja najdulje vrijeme (u milisekundama) od prvog
+	 * događaja do provjere datoteke, kako bi se i datoteke u koje se stalno
+	 * piše povremeno provjerile
+	 */
+	public static final long MAX_DELAY = 2000;
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final FileChangeWatcher INSTANCE = new FileChangeWatcher();
+
+	/**
+	 * Članska varijabla koja predstavlja {@link WatchService} svih praćenih
+	 * direktorija ili <code>null</code> ukoliko se još niti jedna datoteka ne
+	 * prati
+	 */
+	private WatchService service;
+
+	/**
+	 * Članska varijabla koja predstavlja praćene direktorije prema njihovoj
+	 * putanji
+	 */
+	private final Map<Path, Directory> directories = new HashMap<>();
+
+	/**
+	 * Članska varijabla koja predstavlja praćene datoteke prema njihovoj
+	 * apsolutnoj putanji
+	 */
+	private final Map<Path, WatchedFile> files = new HashMap<>();
+
+	/**
+	 * Članska varijabla koja predstavlja datoteke koje čekaju na provjeru,
+	 * zajedno s trenutkom provjere
+	 */
+	private final Map<WatchedFile, Long> pending = new HashMap<>();
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 * izvan njega samog
+	 */
+	private FileChangeWatcher() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static FileChangeWatcher getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Metoda koja započinje praćenje datoteke. Trenutni sadržaj datoteke
+	 * smatra se poznatim, a promatrač <b>listener</b> se u dretvi za obradu
+	 * događaja obavještava o svakoj sljedećoj promjeni sadržaja. Ukoliko se
+	 * direktorij datoteke ne može pratiti, metoda ne radi ništa
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se prati
+	 * @param listener
+	 *            promatrač na promjene sadržaja datoteke
+	 */
+	public synchronized void watch(Path filePath, Runnable listener) {
+		Path file = filePath.toAbsolutePath().normalize();
+		WatchedFile watched = files.get(file);
+		if (watched == null) {
+			Path parent = file.getParent();
+			Directory directory = directories.get(parent);
+			if (directory == null) {
+				try {
+					directory = new Directory(parent.register(service(), ENTRY_CREATE, ENTRY_MODIFY));
+				} catch (IOException | ProviderMismatchException | UnsupportedOperationException e) {
+					return;
+				}
+				directories.put(parent, directory);
+			}
+			directory.files++;
+
+			watched = new WatchedFile(file);
+			files.put(file, watched);
+			// prvi otisak datoteke se samo pamti
+			rebaseline(watched);
+		}
+		watched.listeners.add(listener);
+	}
+
+	/**
+	 * Metoda koja odjavljuje promatrača <b>listener</b> s datoteke. Datoteka
+	 * se prestaje pratiti kada se odjavi njezin posljednji promatrač, a
+	 * direktorij kada se prestane pratiti posljednja datoteka u njemu
+	 *
+	 * @param filePath
+	 *            putanja do praćene datoteke
+	 * @param listener
+	 *            promatrač koji se odjavljuje
+	 */
+	public synchronized void unwatch(Path filePath, Runnable listener) {
+		Path file = filePath.toAbsolutePath().normalize();
+		WatchedFile watched = files.get(file);
+		if (watched == null) {
+			return;
+		}
+		watched.listeners.remove(listener);
+		if (!watched.listeners.isEmpty()) {
+			return;
+		}
+
+		files.remove(file);
+		pending.remove(watched);
+		Directory directory = directories.get(file.getParent());
+		if (--directory.files == 0) {
+			directory.key.cancel();
+			directories.remove(file.getParent());
+		}
+	}
+
+	/**
+	 * Metoda koja najavljuje da program piše u datoteku. Dok pisanje traje
+	 * promjene datoteke se samo pamte
+	 *
+	 * @param filePath
+	 *            putanja do datoteke u koju se piše
+	 */
+	public synchronized void beginWrite(Path filePath) {
+		WatchedFile watched = files.get(filePath.toAbsolutePath().normalize());
+		if (watched != null) {
+			watched.writes++;
+		}
+	}
+
+	/**
+	 * Metoda koja se poziva nakon što je program završio pisanje u datoteku
+	 * (uspješno ili ne). Trenutni sadržaj datoteke smatra se poznatim
+	 *
+	 * @param filePath
+	 *            putanja do datoteke u koju se pisalo
+	 */
+	public synchronized void endWrite(Path filePath) {
+		WatchedFile watched = files.get(filePath.toAbsolutePath().normalize());
+		if (watched == null) {
+			return;
+		}
+		if (watched.writes > 0) {
+			watched.writes--;
+		}
+		rebaseline(watched);
+	}
+
+	/**
+	 * Metoda koja trenutni sadržaj datoteke proglašava poznatim, primjerice
+	 * nakon što je dokument ponovno učitan iz datoteke
+	 *
+	 * @param filePath
+	 *            putanja do praćene datoteke
+	 */
+	public synchronized void acknowledge(Path filePath) {
+		WatchedFile watched = files.get(filePath.toAbsolutePath().normalize());
+		if (watched != null) {
+			rebaseline(watched);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja traži da se otisak datoteke odmah ponovno izračuna,
+	 * bez obavještavanja promatrača
+	 *
+	 * @param watched
+	 *            praćena datoteka
+	 */
+	private void rebaseline(WatchedFile watched) {
+		watched.rebaseline = true;
+		watched.firstEvent = System.currentTimeMillis();
+		pending.put(watched, watched.firstEvent);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća {@link WatchService}, a pri prvom pozivu
+	 * ga stvara i pokreće pozadinsku dretvu koja obrađuje njegove događaje
+	 *
+	 * @return {@link WatchService} svih praćenih direktorija
+	 * @throws IOException
+	 *             ukoliko {@link WatchService} nije moguće stvoriti
+	 */
+	private WatchService service() throws IOException {
+		if (service == null) {
+			service = FileSystems.getDefault().newWatchService();
+			Thread thread = new Thread(this::run, "jnotepadpp-file-watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return service;
+	}
+
+	/**
+	 * Pomoćna metoda koju izvodi pozadinska dretva. Dretva čeka na događaje
+	 * direktorija, ali ne dulje od trenutka sljedeće provjere, te provjerava
+	 * datoteke kojima je istekao rok
+	 */
+	private void run() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = service.poll(nextTimeout(), TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			if (key != null) {
+				eventsArrived(key);
+			}
+			for (WatchedFile watched : dueFiles()) {
+				check(watched);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje koliko dugo se može čekati na događaje.
+	 * Vrijeme nije dulje od {@value #DEBOUNCE_INTERVAL} milisekundi, kako bi
+	 * se provjere zatražene iz drugih dretvi obavile na vrijeme
+	 *
+	 * @return vrijeme čekanja u milisekundama
+	 */
+	private synchronized long nextTimeout() {
+		long now = System.currentTimeMillis();
+		long timeout = DEBOUNCE_INTERVAL;
+		for (long due : pending.values()) {
+			timeout = Math.min(timeout, due - now);
+		}
+		return Math.max(timeout, 0);
+	}
+
+	/**
+	 * Pomoćna metoda koja obrađuje događaje jednog direktorija. Provjera
+	 * svake praćene datoteke na koju se događaj odnosi odgađa se za
+	 * {@value #DEBOUNCE_INTERVAL} milisekundi. Ukoliko su događaji izgubljeni,
+	 * provjeravaju se sve praćene datoteke direktorija
+	 *
+	 * @param key
+	 *            ključ direktorija čiji su događaji spremni
+	 */
+	private synchronized void eventsArrived(WatchKey key) {
+		Path parent = (Path) key.watchable();
+		long now = System.currentTimeMillis();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW) {
+				for (WatchedFile watched : files.values()) {
+					if (watched.path.getParent().equals(parent)) {
+						postpone(watched, now);
+					}
+				}
+				continue;
+			}
+
+			WatchedFile watched = files.get(parent.resolve((Path) event.context()));
+			if (watched != null) {
+				postpone(watched, now);
+			}
+		}
+		key.reset();
+	}
+
+	/**
+	 * Pomoćna metoda koja provjeru datoteke odgađa za
+	 * {@value #DEBOUNCE_INTERVAL} milisekundi, ali ne dalje od
+	 * {@value #MAX_DELAY} milisekundi nakon prvog događaja koji još nije
+	 * provjeren
+	 *
+	 * @param watched
+	 *            datoteka na koju se događaj odnosi
+	 * @param now
+	 *            trenutno vrijeme u milisekundama
+	 */
+	private void postpone(WatchedFile watched, long now) {
+		Long due = pending.get(watched);
+		if (due == null) {
+			watched.firstEvent = now;
+		}
+		pending.put(watched, Math.min(now + DEBOUNCE_INTERVAL, watched.firstEvent + MAX_DELAY));
+	}
+
+	/**
+	 * Pomoćna metoda koja iz čekanja uklanja i vraća sve datoteke kojima je
+	 * istekao rok provjere
+	 *
+	 * @return datoteke koje je potrebno provjeriti
+	 */
+	private synchronized List<WatchedFile> dueFiles() {
+		long now = System.currentTimeMillis();
+		List<WatchedFile> due = new ArrayList<>();
+		for (Iterator<Map.Entry<WatchedFile, Long>> it = pending.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<WatchedFile, Long> entry = it.next();
+			if (entry.getValue() <= now) {
+				due.add(entry.getKey());
+				it.remove();
+			}
+		}
+		return due;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa otisak datoteke i uspoređuje ga s posljednjim
+	 * viđenim otiskom. Ukoliko se sadržaj promijenio, a program u datoteku
+	 * nije pisao niti je tražio ponovni izračun otiska, promatrači se
+	 * obavještavaju u dretvi za obradu događaja. Datoteka koja se ne može
+	 * pročitati (primjerice jer je obrisana) se preskače
+	 *
+	 * @param watched
+	 *            datoteka koja se provjerava
+	 */
+	private void check(WatchedFile watched) {
+		FileStamp previous;
+		boolean silent;
+		synchronized (this) {
+			previous = watched.stamp;
+			silent = watched.rebaseline || watched.writes > 0;
+			watched.rebaseline = false;
+		}
+
+		FileStamp current;
+		try {
+			current = FileStamp.of(watched.path, previous);
+		} catch (IOException e) {
+			return;
+		}
+
+		List<Runnable> listeners;
+		synchronized (this) {
+			if (files.get(watched.path) != watched) {
+				return;
+			}
+			watched.stamp = current;
+			if (silent || previous == null || watched.writes > 0 || current.sameContent(previous)) {
+				return;
+			}
+			listeners = new ArrayList<>(watched.listeners);
+		}
+		SwingUtilities.invokeLater(() -> listeners.forEach(Runnable::run));
+	}
+
+	/**
+	 * Privatni razred koji predstavlja jedan praćeni direktorij
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Directory {
+
+		/** Članska varijabla koja predstavlja ključ registracije direktorija */
+		private final WatchKey key;
+
+		/** Članska varijabla koja predstavlja broj praćenih datoteka direktorija */
+		private int files;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param key
+		 *            ključ registracije direktorija
+		 */
+		private Directory(WatchKey key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja jednu praćenu datoteku
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class WatchedFile {
+
+		/** Članska varijabla koja predstavlja apsolutnu putanju do datoteke */
+		private final Path path;
+
+		/** Članska varijabla koja predstavlja promatrače na promjene datoteke */
+		private final List<Runnable> listeners = new ArrayList<>();
+
+		/**
+		 * Članska varijabla koja predstavlja posljednji viđeni otisak
+		 * datoteke ili <code>null</code> ukoliko on još nije izračunat
+		 */
+		private FileStamp stamp;
+
+		/** Članska varijabla koja predstavlja broj pisanja programa u tijeku */
+		private int writes;
+
+		/**
+		 * Članska varijabla koja ukazuje na to da se pri sljedećoj provjeri
+		 * otisak samo pamti
+		 */
+		private boolean rebaseline;
+
+		/**
+		 * Članska varijabla koja predstavlja trenutak prvog događaja koji još
+		 * nije provjeren
+		 */
+		private long firstEvent;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param path
+		 *            apsolutna putanja do datoteke
+		 */
+		private WatchedFile(Path path) {
+			this.path = path;
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * praćenje datoteke koja raste (primjerice datoteke dnevnika). Datoteka se
+ * prati pomoću {@link WatchService}a nad njezinim direktorijem, a budući da
+ * neki datotečni sustavi ne dojavljuju promjene, veličina datoteke se
+ * provjerava i svakih {@value #POLL_INTERVAL} milisekundi. Iz datoteke se
+ * čitaju samo okteti dodani iza posljednje poznate pozicije pa cijena
+ * praćenja ovisi o količini novog teksta, a ne o veličini datoteke.
+ *
+ * <p>
+ * Novi okteti dekodiraju se dekoderom koji pamti nedovršene znakove između
+ * dvaju čitanja, a dekodirani tekst se u dretvi za obradu događaja predaje
+ * promatraču jednim pozivom za sve dijelove objavljene od prethodne obrade.
+ * Ukoliko se datoteka skrati, čitanje kreće od njezinog početka, a ukoliko se
+ * na njezinom mjestu stvori nova datoteka (rotacija dnevnika), ostatak stare
+ * datoteke se pročita i nastavlja se s novom.
+ * </p>
+ *
+ * @see FileLoader
+ *
+ * @author Davor Češljaš
+ */
+public class FileFollower extends SwingWorker<Void, FileFollower.Appended> {
+
+	/**
+	 * Konstanta koja predstavlja najdulje vrijeme (u milisekundama) između
+	 * dviju provjera veličine datoteke
+	 */
+	public static final long POLL_INTERVAL = 500;
+
+	/**
+	 * Konstanta koja predstavlja veličinu međuspremnika okteta koji se
+	 * odjednom čitaju iz datoteke
+	 */
+	private static final int BYTE_CHUNK_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja putanju do datoteke koja se prati */
+	private final Path filePath;
+
+	/**
+	 * Članska varijabla koja predstavlja promatrača kojem se predaje tekst
+	 * dodan u datoteku
+	 */
+	private final Consumer<String> appender;
+
+	/** Članska varijabla koja predstavlja dekoder kodne stranice datoteke */
+	private final CharsetDecoder decoder;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da se nizovi <code>"\r\n"</code> i
+	 * <code>"\r"</code> zamjenjuju znakom <code>'\n'</code>
+	 */
+	private final boolean normalize;
+
+	/** Članska varijabla koja predstavlja međuspremnik pročitanih okteta */
+	private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_CHUNK_SIZE);
+
+	/** Članska varijabla koja predstavlja međuspremnik dekodiranih znakova */
+	private final CharBuffer chars = CharBuffer.allocate(BYTE_CHUNK_SIZE);
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju u datoteci do koje su okteti
+	 * pročitani
+	 */
+	private long position;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju u datoteci do koje je tekst
+	 * predan promatraču. Varijabla se mijenja samo u dretvi za obradu
+	 * događaja
+	 */
+	private long appendedPosition;
+
+	/**
+	 * Članska varijabla koja predstavlja objekt koji reci dekodiranog teksta
+	 * odvaja znakom <code>'\n'</code>
+	 */
+	private final LineSeparatorNormalizer normalizer = new LineSeparatorNormalizer();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se prati
+	 * @param position
+	 *            pozicija u datoteci (u oktetima) od koje se čita novi tekst
+	 * @param charset
+	 *            kodna stranica datoteke
+	 * @param normalize
+	 *            zastavica koja ukazuje na to treba li nizove
+	 *            <code>"\r\n"</code> i <code>"\r"</code> zamijeniti znakom
+	 *            <code>'\n'</code>, kao prilikom učitavanja datoteke
+	 *            razredom {@link FileLoader}
+	 * @param appender
+	 *            promatrač kojem se u dretvi za obradu događaja predaje tekst
+	 *            dodan u datoteku
+	 */
+	public FileFollower(Path filePath, long position, Charset charset, boolean normalize,
+			Consumer<String> appender) {
+		this.filePath = filePath.toAbsolutePath();
+		this.position = position;
+		this.appendedPosition = position;
+		this.normalize = normalize;
+		this.appender = appender;
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju u datoteci (u oktetima) do koje je tekst
+	 * predan promatraču. Od te pozicije može nastaviti novo praćenje iste
+	 * datoteke. Metoda se smije pozivati samo iz dretve za obradu događaja
+	 *
+	 * @return poziciju u datoteci do koje je tekst predan promatraču
+	 */
+	public long getPosition() {
+		return appendedPosition;
+	}
+
+	@Override
+	protected Void doInBackground() throws Exception {
+		FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+		WatchService watcher = openWatcher();
+		try {
+			while (!isCancelled()) {
+				readAppended(channel);
+
+				if (!awaitChange(watcher)) {
+					continue;
+				}
+				// nova datoteka na istoj putanji: dovršava se stara i prelazi na novu
+				readAppended(channel);
+				channel.close();
+				channel = FileChannel.open(filePath, StandardOpenOption.READ);
+				reset();
+			}
+		} finally {
+			channel.close();
+			if (watcher != null) {
+				watcher.close();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	protected void process(List<Appended> chunks) {
+		if (isCancelled()) {
+			return;
+		}
+
+		appendedPosition = chunks.get(chunks.size() - 1).position;
+		if (chunks.size() == 1) {
+			appender.accept(chunks.get(0).text);
+			return;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (Appended chunk : chunks) {
+			sb.append(chunk.text);
+		}
+		appender.accept(sb.toString());
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara {@link WatchService} nad direktorijem
+	 * datoteke. Ukoliko datotečni sustav ne podržava praćenje promjena,
+	 * datoteka se prati samo provjerom veličine
+	 *
+	 * @return stvoreni {@link WatchService} ili <code>null</code> ukoliko
+	 *         praćenje promjena nije podržano
+	 */
+	private WatchService openWatcher() {
+		WatchService watcher = null;
+		try {
+			watcher = filePath.getFileSystem().newWatchService();
+			filePath.getParent().register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+			return watcher;
+		} catch (IOException | UnsupportedOperationException e) {
+			if (watcher != null) {
+				try {
+					watcher.close();
+				} catch (IOException ignorable) {
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čeka na promjenu unutar direktorija datoteke, ali ne
+	 * dulje od {@value #POLL_INTERVAL} milisekundi
+	 *
+	 * @param watcher
+	 *            {@link WatchService} direktorija ili <code>null</code>
+	 *            ukoliko se datoteka prati samo provjerom veličine
+	 * @return <code>true</code> ukoliko je na putanji datoteke stvorena nova
+	 *         datoteka, <code>false</code> inače
+	 * @throws InterruptedException
+	 *             ukoliko je čekanje prekinuto
+	 */
+	private boolean awaitChange(WatchService watcher) throws InterruptedException {
+		if (watcher == null) {
+			Thread.sleep(POLL_INTERVAL);
+			return false;
+		}
+
+		WatchKey key = watcher.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+		if (key == null) {
+			return false;
+		}
+		boolean created = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == ENTRY_CREATE && filePath.getFileName().equals(event.context())) {
+				created = true;
+			}
+		}
+		key.reset();
+		return created;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita, dekodira i objavljuje metodom
+	 * {@link #publish(Object...)} sve oktete dodane iza pozicije
+	 * {@link #position}. Ukoliko je datoteka kraća od te pozicije, čitanje
+	 * kreće od početka datoteke
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čitaju okteti
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private void readAppended(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < position) {
+			reset();
+		}
+
+		StringBuilder chunk = new StringBuilder();
+		while (position < size && !isCancelled()) {
+			int read = channel.read(bytes, position);
+			if (read <= 0) {
+				break;
+			}
+			position += read;
+
+			bytes.flip();
+			CoderResult result;
+			do {
+				result = decoder.decode(bytes, chars, false);
+				chars.flip();
+				append(chunk);
+				chars.clear();
+			} while (result.isOverflow());
+			// nedovršeni znak ostaje u međuspremniku do sljedećeg čitanja
+			bytes.compact();
+
+			if (chunk.length() >= BYTE_CHUNK_SIZE / 2) {
+				publish(new Appended(chunk.toString(), position - bytes.position()));
+				chunk.setLength(0);
+			}
+		}
+
+		if (chunk.length() > 0) {
+			publish(new Appended(chunk.toString(), position - bytes.position()));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dekodirane znakove iz međuspremnika {@link #chars}
+	 * dodaje u <b>chunk</b>, pri čemu se, ukoliko je potrebno, reci odvajaju
+	 * znakom <code>'\n'</code>
+	 *
+	 * @param chunk
+	 *            dio teksta u koji se dodaju znakovi
+	 */
+	private void append(StringBuilder chunk) {
+		if (normalize) {
+			normalizer.normalize(chars, chunk, false);
+		} else {
+			chunk.append(chars);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja praćenje vraća na početak datoteke, pri čemu se
+	 * odbacuju nedovršeni znakovi
+	 */
+	private void reset() {
+		position = 0;
+		bytes.clear();
+		decoder.reset();
+		normalizer.reset();
+	}
+
+	/**
+	 * Razred koji predstavlja dio teksta dodanog u datoteku zajedno
+	 * s pozicijom u datoteci (u oktetima) do koje je taj tekst dekodiran
+	 *
+	 * @author Davor Češljaš
+	 */
+	static final class Appended {
+
+		/** Članska varijabla koja predstavlja dekodirani tekst */
+		private final String text;
+
+		/**
+		 * Članska varijabla koja predstavlja poziciju u datoteci iza
+		 * posljednjeg dekodiranog okteta
+		 */
+		private final long position;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param text
+		 *            dekodirani tekst
+		 * @param position
+		 *            pozicija u datoteci iza posljednjeg dekodiranog okteta
+		 */
+		private Appended(String text, long position) {
+			this.text = text;
+			this.position = position;
+		}
+	}
+}
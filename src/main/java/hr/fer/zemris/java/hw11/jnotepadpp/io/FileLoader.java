@@ -0,0 +1,273 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextStatistics;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * učitavanje datoteke izvan dretve za obradu događaja. Kodna stranica datoteke
+ * prepoznaje se iz uzorka njezinog početka (razred {@link CharsetDetector}),
+ * a datoteka se potom dekodira u međuspremnike fiksne veličine te se u
+ * dijelovima od po najviše {@value #CHUNK_SIZE} znakova dodaje na kraj
+ * predanog dokumenta, tako da je početak datoteke vidljiv i prije nego se ona
+ * u potpunosti učita. Napredak učitavanja objavljuje se kroz svojstvo
+ * <code>progress</code>.
+ *
+ * <p>
+ * Reci unutar dokumenta uvijek se odvajaju znakom <code>'\n'</code>, a niz
+ * znakova kojim je odvojena većina redaka datoteke pamti se u formatu
+ * ({@link #getFormat()}) kako bi se datoteka spremila jednaka učitanoj.
+ * </p>
+ *
+ * <p>
+ * Datoteke veće od {@value #LARGE_FILE_THRESHOLD} okteta se ne čitaju, već se
+ * u pozadinskoj dretvi mapiraju u memoriju (ukoliko razred
+ * {@link MappedTextSource} podržava njihovu kodnu stranicu). Tada je rezultat
+ * učitavanja primjerak razreda {@link MappedTextSource} nad kojim je potrebno
+ * stvoriti {@link LargeFileDocument}, a inače je rezultat <code>null</code>.
+ * Mapirani sadržaj nije moguće pretvarati pa on zadržava izvorne nizove za
+ * odvajanje redaka, a format takve datoteke reci odvaja znakom
+ * <code>'\n'</code>.
+ * </p>
+ *
+ * @see MappedTextSource
+ * @see SwingWorker
+ *
+ * @author Davor Češljaš
+ */
+public class FileLoader extends SwingWorker<MappedTextSource, String> {
+
+	/**
+	 * Konstanta koja predstavlja veličinu datoteke (u oktetima) od koje se
+	 * datoteka ne učitava u memoriju, već se mapira
+	 */
+	public static final long LARGE_FILE_THRESHOLD = 32L * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja broj znakova koji se odjednom dodaju u
+	 * dokument
+	 */
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja veličinu međuspremnika okteta koji se
+	 * odjednom čitaju iz datoteke
+	 */
+	private static final int BYTE_CHUNK_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja putanju do datoteke koja se učitava */
+	private final Path filePath;
+
+	/** Članska varijabla koja predstavlja dokument u koji se dodaje tekst */
+	private final Document document;
+
+	/**
+	 * Članska varijabla koja predstavlja format u kojem je datoteka ranije
+	 * otvorena ili <code>null</code> ukoliko se format prepoznaje samo iz
+	 * sadržaja datoteke
+	 */
+	private final TextFormat preferredFormat;
+
+	/** Članska varijabla koja predstavlja prepoznati format datoteke */
+	private volatile TextFormat format;
+
+	/**
+	 * Članska varijabla koja predstavlja statistiku datoteke mapirane u
+	 * memoriju, izračunatu u pozadinskoj dretvi
+	 */
+	private volatile TextStatistics statistics = TextStatistics.EMPTY;
+
+	/**
+	 * Članska varijabla koja predstavlja broj okteta datoteke koji su
+	 * učitani ili mapirani
+	 */
+	private volatile long loadedBytes;
+
+	/**
+	 * Članska varijabla koja predstavlja objekt koji reci dekodiranog teksta
+	 * odvaja znakom <code>'\n'</code>
+	 */
+	private final LineSeparatorNormalizer normalizer = new LineSeparatorNormalizer();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se učitava
+	 * @param document
+	 *            dokument na čiji se kraj dodaje učitani tekst
+	 */
+	public FileLoader(Path filePath, Document document) {
+		this(filePath, document, null);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji datoteku
+	 * dekodira kodnom stranicom formata <b>preferredFormat</b>, primjerice
+	 * onom iz prethodne sjednice programa. Oznaka BOM u datoteci ima prednost
+	 * pred predanim formatom, jer jednoznačno određuje kodnu stranicu
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se učitava
+	 * @param document
+	 *            dokument na čiji se kraj dodaje učitani tekst
+	 * @param preferredFormat
+	 *            format u kojem je datoteka ranije otvorena ili
+	 *            <code>null</code>
+	 */
+	public FileLoader(Path filePath, Document document, TextFormat preferredFormat) {
+		this.filePath = filePath;
+		this.document = document;
+		this.preferredFormat = preferredFormat;
+	}
+
+	/**
+	 * Metoda koja dohvaća prepoznati format učitane datoteke. Format je
+	 * dostupan tek nakon što je učitavanje završilo
+	 *
+	 * @return prepoznati format učitane datoteke ili <code>null</code> ukoliko
+	 *         učitavanje nije završilo
+	 */
+	public TextFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Metoda koja dohvaća statistiku datoteke mapirane u memoriju. Statistika
+	 * tekstova koji se dodaju u dokument prati se iz samih izmjena dokumenta
+	 * pa se ovdje ne računa
+	 *
+	 * @return statistiku datoteke mapirane u memoriju ili
+	 *         {@link TextStatistics#EMPTY} ukoliko datoteka nije mapirana
+	 */
+	public TextStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj okteta datoteke koji su učitani ili mapirani
+	 * u memoriju. Od te pozicije se čita tekst koji je u datoteku dodan
+	 * nakon učitavanja (vidi {@link FileFollower})
+	 *
+	 * @return broj učitanih okteta datoteke ili <code>0</code> ukoliko
+	 *         učitavanje nije završilo
+	 */
+	public long getLoadedBytes() {
+		return loadedBytes;
+	}
+
+	@Override
+	protected MappedTextSource doInBackground() throws Exception {
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer bytes = ByteBuffer.allocate(BYTE_CHUNK_SIZE);
+			while (bytes.position() < CharsetDetector.SAMPLE_SIZE && channel.read(bytes) != -1) {
+			}
+			bytes.flip();
+
+			TextFormat detected = CharsetDetector.detect(bytes);
+			if (preferredFormat != null && !preferredFormat.hasBom() && !detected.hasBom()) {
+				// od ranijeg formata preuzima se samo kodna stranica, a oznaka
+				// kraja retka ponovno se prepoznaje iz sadržaja datoteke
+				detected = new TextFormat(preferredFormat.getCharset(), false, "\n");
+			}
+			int bomLength = detected.getBomBytes().length;
+			bytes.position(Math.min(bomLength, bytes.limit()));
+
+			if (size >= LARGE_FILE_THRESHOLD && MappedTextSource.isSupported(detected.getCharset())) {
+				// mapirani sadržaj zadržava izvorne znakove '\r'
+				format = detected;
+				MappedTextSource source = new MappedTextSource(filePath, detected.getCharset(), bomLength);
+				statistics = TextStatistics.of(source);
+				loadedBytes = source.getByteLength();
+				return source;
+			}
+
+			decode(channel, bytes, detected.getCharset().newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE), size);
+			format = detected.withLineSeparator(normalizer.dominantSeparator());
+			loadedBytes = channel.position();
+		}
+		return null;
+	}
+
+	@Override
+	protected void process(List<String> chunks) {
+		if (isCancelled()) {
+			return;
+		}
+
+		for (String chunk : chunks) {
+			try {
+				document.insertString(document.getLength(), chunk, null);
+			} catch (BadLocationException ignorable) {
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dekodira ostatak datoteke u dijelovima fiksne
+	 * veličine i objavljuje ih metodom {@link #publish(Object...)}. Na početku
+	 * je u međuspremniku <b>bytes</b> već pročitan uzorak datoteke
+	 *
+	 * @param channel
+	 *            kanal iz kojeg se čitaju okteti
+	 * @param bytes
+	 *            međuspremnik okteta spreman za čitanje
+	 * @param decoder
+	 *            dekoder kodne stranice datoteke
+	 * @param size
+	 *            veličina datoteke u oktetima
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private void decode(FileChannel channel, ByteBuffer bytes, CharsetDecoder decoder, long size)
+			throws IOException {
+		CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+		StringBuilder chunk = new StringBuilder(CHUNK_SIZE);
+		boolean endOfInput = false;
+		while (!isCancelled()) {
+			CoderResult result = decoder.decode(bytes, chars, endOfInput);
+			if (endOfInput && result.isUnderflow()) {
+				decoder.flush(chars);
+			}
+			chars.flip();
+			normalizer.normalize(chars, chunk, endOfInput && result.isUnderflow());
+			chars.clear();
+
+			if (chunk.length() > 0 && (chunk.length() >= CHUNK_SIZE / 2 || endOfInput)) {
+				publish(chunk.toString());
+				chunk.setLength(0);
+				if (size > 0) {
+					setProgress((int) (Math.min(channel.position(), size) * 100 / size));
+				}
+			}
+			if (endOfInput && result.isUnderflow()) {
+				return;
+			}
+
+			if (result.isUnderflow()) {
+				bytes.compact();
+				endOfInput = channel.read(bytes) == -1;
+				bytes.flip();
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextDiff;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * ponovno učitavanje datoteke koju je promijenio drugi program. Datoteka se u
+ * pozadinskoj dretvi čita i dekodira jednako kao prilikom učitavanja (razred
+ * {@link FileLoader}), a novi tekst se uspoređuje sa slikom dokumenta.
+ * Rezultat je popis izmjena (razred {@link TextDiff}) koje sliku pretvaraju u
+ * novi sadržaj datoteke, a koje se u dretvi za obradu događaja primjenjuju na
+ * dokument.
+ *
+ * @see TextDiff
+ * @see FileLoader
+ *
+ * @author Davor Češljaš
+ */
+public class FileReloader extends SwingWorker<List<TextDiff.Edit>, Void> {
+
+	/**
+	 * Konstanta koja predstavlja veličinu međuspremnika okteta koji se
+	 * odjednom čitaju iz datoteke
+	 */
+	private static final int BYTE_CHUNK_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja putanju do datoteke koja se učitava */
+	private final Path filePath;
+
+	/** Članska varijabla koja predstavlja sliku dokumenta */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja prepoznati format datoteke */
+	private volatile TextFormat format;
+
+	/** Članska varijabla koja predstavlja broj pročitanih okteta datoteke */
+	private volatile long loadedBytes;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param filePath
+	 *            putanja do datoteke koja se ponovno učitava
+	 * @param snapshot
+	 *            slika dokumenta s kojom se uspoređuje novi sadržaj datoteke
+	 */
+	public FileReloader(Path filePath, ITextSource snapshot) {
+		this.filePath = filePath;
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Metoda koja dohvaća prepoznati format datoteke. Format je dostupan tek
+	 * nakon što je učitavanje završilo
+	 *
+	 * @return prepoznati format datoteke ili <code>null</code> ukoliko
+	 *         učitavanje nije završilo
+	 */
+	public TextFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj pročitanih okteta datoteke (vidi
+	 * {@link FileLoader#getLoadedBytes()})
+	 *
+	 * @return broj pročitanih okteta datoteke
+	 */
+	public long getLoadedBytes() {
+		return loadedBytes;
+	}
+
+	@Override
+	protected List<TextDiff.Edit> doInBackground() throws Exception {
+		char[] newText = read();
+		char[] oldText = new char[snapshot.length()];
+		snapshot.getChars(0, oldText.length, oldText, 0);
+		return TextDiff.diff(oldText, newText);
+	}
+
+	/**
+	 * Pomoćna metoda koja čita i dekodira cijelu datoteku. Kodna stranica se
+	 * prepoznaje iz uzorka početka datoteke, a reci se odvajaju znakom
+	 * <code>'\n'</code>
+	 *
+	 * @return dekodirani tekst datoteke
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private char[] read() throws IOException {
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			ByteBuffer bytes = ByteBuffer.allocate(BYTE_CHUNK_SIZE);
+			while (bytes.position() < CharsetDetector.SAMPLE_SIZE && channel.read(bytes) != -1) {
+			}
+			bytes.flip();
+
+			TextFormat detected = CharsetDetector.detect(bytes);
+			bytes.position(Math.min(detected.getBomBytes().length, bytes.limit()));
+			CharsetDecoder decoder = detected.getCharset().newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			LineSeparatorNormalizer normalizer = new LineSeparatorNormalizer();
+
+			CharBuffer chars = CharBuffer.allocate(BYTE_CHUNK_SIZE);
+			StringBuilder text = new StringBuilder((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+			boolean endOfInput = false;
+			while (!isCancelled()) {
+				CoderResult result = decoder.decode(bytes, chars, endOfInput);
+				if (endOfInput && result.isUnderflow()) {
+					decoder.flush(chars);
+				}
+				chars.flip();
+				normalizer.normalize(chars, text, endOfInput && result.isUnderflow());
+				chars.clear();
+				if (endOfInput && result.isUnderflow()) {
+					break;
+				}
+
+				if (result.isUnderflow()) {
+					bytes.compact();
+					endOfInput = channel.read(bytes) == -1;
+					bytes.flip();
+				}
+			}
+
+			format = detected.withLineSeparator(normalizer.dominantSeparator());
+			loadedBytes = channel.position();
+			char[] result = new char[text.length()];
+			text.getChars(0, result.length, result, 0);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharArraySource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ISnapshotProvider;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * spremanje slike dokumenta u datoteku izvan dretve za obradu događaja.
+ * Spremanje se odvija u sljedećim koracima:
+ * <ol>
+ * <li>sadržaj se kodira u dijelovima (razred {@link DocumentWriter}) i
+ * zapisuje u privremenu datoteku u direktoriju odredišne datoteke</li>
+ * <li>privremena datoteka se sinkronizira s diskom</li>
+ * <li>privremena datoteka se atomarno preimenuje u odredišnu datoteku</li>
+ * </ol>
+ * Odredišna datoteka stoga u svakom trenutku sadrži ili stari ili novi
+ * sadržaj, čak i ukoliko proces bude prekinut usred spremanja. Ukoliko
+ * spremanje ne uspije, privremena datoteka se briše, a iznimka je dostupna
+ * kroz metodu {@link #get()}.
+ *
+ * @see DocumentWriter
+ * @see ISnapshotProvider
+ *
+ * @author Davor Češljaš
+ */
+public class FileSaver extends SwingWorker<Void, Void> {
+
+	/** Konstanta koja predstavlja nastavak imena privremenih datoteka */
+	private static final String TMP_SUFFIX = ".tmp";
+
+	/** Članska varijabla koja predstavlja sliku dokumenta koji se sprema */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja format u kojem se dokument sprema */
+	private final TextFormat format;
+
+	/** Članska varijabla koja predstavlja putanju odredišne datoteke */
+	private final Path filePath;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param snapshot
+	 *            slika dokumenta koji se sprema
+	 * @param format
+	 *            format u kojem se dokument sprema
+	 * @param filePath
+	 *            putanja odredišne datoteke
+	 */
+	public FileSaver(ITextSource snapshot, TextFormat format, Path filePath) {
+		this.snapshot = snapshot;
+		this.format = format;
+		this.filePath = filePath.toAbsolutePath();
+	}
+
+	/**
+	 * Metoda koja dohvaća putanju odredišne datoteke
+	 *
+	 * @return putanju odredišne datoteke
+	 */
+	public Path getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * Statička metoda koja stvara sliku predanog dokumenta. Dokumenti koji
+	 * implementiraju sučelje {@link ISnapshotProvider} sliku stvaraju sami,
+	 * a sadržaj ostalih dokumenata se kopira. Metodu je potrebno pozvati iz
+	 * dretve za obradu događaja
+	 *
+	 * @param document
+	 *            dokument čija se slika stvara
+	 * @return sliku dokumenta
+	 */
+	public static ITextSource snapshotOf(Document document) {
+		if (document instanceof ISnapshotProvider) {
+			return ((ISnapshotProvider) document).snapshot();
+		}
+
+		ITextSource[] snapshot = new ITextSource[1];
+		document.render(() -> {
+			char[] chars = new char[document.getLength()];
+			Segment segment = new Segment();
+			segment.setPartialReturn(true);
+			try {
+				for (int offset = 0; offset < chars.length; offset += segment.count) {
+					document.getText(offset, chars.length - offset, segment);
+					System.arraycopy(segment.array, segment.offset, chars, offset, segment.count);
+				}
+			} catch (BadLocationException ignorable) {
+			}
+			snapshot[0] = new CharArraySource(chars);
+		});
+		return snapshot[0];
+	}
+
+	@Override
+	protected Void doInBackground() throws Exception {
+		Path directory = filePath.getParent();
+		Path tmpPath = directory.resolve(
+				"." + filePath.getFileName() + "." + Long.toHexString(System.nanoTime()) + TMP_SUFFIX);
+
+		try {
+			try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.WRITE)) {
+				DocumentWriter.write(snapshot, format, channel);
+				channel.force(true);
+			}
+			copyPermissions(tmpPath);
+
+			try {
+				Files.move(tmpPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmpPath);
+			throw e;
+		}
+
+		syncDirectory(directory);
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja privremenoj datoteci postavlja dozvole odredišne
+	 * datoteke (ukoliko ona postoji i ukoliko datotečni sustav podržava POSIX
+	 * dozvole), kako se spremanjem ne bi promijenile
+	 *
+	 * @param tmpPath
+	 *            putanja do privremene datoteke
+	 * @throws IOException
+	 *             ukoliko dozvole nije moguće pročitati ili postaviti
+	 */
+	private void copyPermissions(Path tmpPath) throws IOException {
+		if (!Files.exists(filePath) || Files.getFileAttributeView(filePath, PosixFileAttributeView.class) == null) {
+			return;
+		}
+		Files.setPosixFilePermissions(tmpPath, Files.getPosixFilePermissions(filePath));
+	}
+
+	/**
+	 * Pomoćna metoda koja sinkronizira direktorij s diskom kako bi i samo
+	 * preimenovanje bilo trajno. Na operacijskim sustavima koji ne dopuštaju
+	 * otvaranje direktorija pogreška se zanemaruje
+	 *
+	 * @param directory
+	 *            direktorij koji se sinkronizira
+	 */
+	private static void syncDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ignorable) {
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Razred koji predstavlja nepromijenjiv otisak sadržaja datoteke u jednom
+ * trenutku: veličinu, vrijeme posljednje izmjene i sažetak sadržaja. Sažetak
+ * se računa čitanjem datoteke u dijelovima fiksne veličine, i to samo kada je
+ * potreban za usporedbu: pri ponovnom izračunu ({@link #of(Path, FileStamp)})
+ * datoteka se čita samo ako joj se promijenilo vrijeme izmjene, a veličina je
+ * ostala ista. Promjena veličine već znači promjenu sadržaja, pa se tada, kao
+ * i za prvi otisak datoteke, sažetak ne računa.
+ *
+ * @see FileChangeWatcher
+ *
+ * @author Davor Češljaš
+ */
+public final class FileStamp {
+
+	/**
+	 * Konstanta koja predstavlja veličinu međuspremnika okteta koji se
+	 * odjednom čitaju iz datoteke
+	 */
+	private static final int BYTE_CHUNK_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+	private final long size;
+
+	/**
+	 * Članska varijabla koja predstavlja vrijeme posljednje izmjene datoteke
+	 * u milisekundama
+	 */
+	private final long lastModified;
+
+	/** Članska varijabla koja predstavlja sažetak sadržaja datoteke */
+	private final long hash;
+
+	/** Članska varijabla koja ukazuje na to je li sažetak sadržaja izračunat */
+	private final boolean hashed;
+
+	/**
+	 * Privatni konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param size
+	 *            veličina datoteke u oktetima
+	 * @param lastModified
+	 *            vrijeme posljednje izmjene datoteke u milisekundama
+	 * @param hash
+	 *            sažetak sadržaja datoteke
+	 * @param hashed
+	 *            zastavica koja ukazuje na to je li sažetak izračunat
+	 */
+	private FileStamp(long size, long lastModified, long hash, boolean hashed) {
+		this.size = size;
+		this.lastModified = lastModified;
+		this.hash = hash;
+		this.hashed = hashed;
+	}
+
+	/**
+	 * Statička metoda tvornica koja računa otisak datoteke. Ukoliko su
+	 * veličina i vrijeme izmjene jednaki onima prethodnog otiska
+	 * <b>previous</b>, sadržaj se ne čita i vraća se prethodni otisak.
+	 * Sadržaj se čita i sažima samo ukoliko prethodni otisak ima istu
+	 * veličinu, a drugo vrijeme izmjene
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @param previous
+	 *            prethodni otisak iste datoteke ili <code>null</code>
+	 * @return otisak datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće pročitati
+	 */
+	public static FileStamp of(Path filePath, FileStamp previous) throws IOException {
+		long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (previous == null || previous.size != size) {
+				return new FileStamp(size, lastModified, 0, false);
+			}
+			if (previous.lastModified == lastModified) {
+				return previous;
+			}
+
+			CRC32 crc = new CRC32();
+			ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_CHUNK_SIZE);
+			while (channel.read(bytes) != -1) {
+				bytes.flip();
+				crc.update(bytes);
+				bytes.clear();
+			}
+			return new FileStamp(channel.position(), lastModified, crc.getValue(), true);
+		}
+	}
+
+	/**
+	 * Metoda koja provjerava ima li datoteka ovog otiska isti sadržaj kao
+	 * datoteka otiska <b>other</b>. Vrijeme izmjene se pritom ne uspoređuje.
+	 * Otisci kojima sažetak nije izračunat smatraju se jednakima samo ako su
+	 * to isti otisci
+	 *
+	 * @param other
+	 *            otisak s kojim se uspoređuje
+	 * @return <code>true</code> ukoliko su veličina i sažetak sadržaja
+	 *         jednaki, <code>false</code> inače
+	 */
+	public boolean sameContent(FileStamp other) {
+		if (this == other) {
+			return true;
+		}
+		return size == other.size && hashed && other.hashed && hash == other.hash;
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu datoteke u oktetima
+	 *
+	 * @return veličinu datoteke u oktetima
+	 */
+	public long getSize() {
+		return size;
+	}
+}
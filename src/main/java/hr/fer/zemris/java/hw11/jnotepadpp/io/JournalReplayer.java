@@ -0,0 +1,535 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharArraySource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.LargeFileDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableContent;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextStatistics;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se prilikom
+ * pokretanja programa koristi za obnovu dokumenata iz dnevnika nespremljenih
+ * izmjena (razred {@link EditJournal}). Obnavljaju se samo dnevnici u
+ * direktorijima koje ne drži zaključanima niti jedan program koji radi (vidi
+ * {@link JournalWriter}). Svaki dnevnik se čita u pozadinskoj dretvi: iz slike
+ * dokumenta (ili mapiranjem izvorne datoteke) gradi se dokument, na koji se
+ * redom primjenjuju zabilježene izmjene sve do kraja datoteke ili prvog
+ * nedovršenog zapisa.
+ *
+ * <p>
+ * Obnovljeni dokumenti prikazuju se u novim prozorima, čiji dnevnici
+ * nastavljaju obnovljene datoteke (vidi
+ * {@link EditJournal#adopt(RecoveredDocument)}). Nakon toga se metodom
+ * {@link #release()} brišu direktoriji obnovljenih dnevnika.
+ * </p>
+ *
+ * @see EditJournal
+ * @see JournalWriter
+ *
+ * @author Davor Češljaš
+ */
+public class JournalReplayer extends SwingWorker<List<JournalReplayer.RecoveredDocument>, Void> {
+
+	/** Konstanta koja predstavlja veličinu međuspremnika za čitanje */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Članska varijabla koja predstavlja zaključane direktorije dnevnika */
+	private final List<Session> sessions = new ArrayList<>();
+
+	/**
+	 * Članska varijabla koja predstavlja putanje do dokumenata čije dnevnike
+	 * nije bilo moguće obnoviti
+	 */
+	private final List<Path> unrecoverable = new ArrayList<>();
+
+	/**
+	 * Metoda koja dohvaća putanje do dokumenata čije dnevnike nije bilo
+	 * moguće obnoviti, primjerice jer je izvorna datoteka u međuvremenu
+	 * promijenjena. Popis je potpun tek nakon što je obnova završila
+	 *
+	 * @return putanje do dokumenata koje nije bilo moguće obnoviti
+	 */
+	public List<Path> getUnrecoverable() {
+		return unrecoverable;
+	}
+
+	/**
+	 * Metoda koja otpušta direktorije obnovljenih dnevnika. Metoda se poziva
+	 * u dretvi za obradu događaja, nakon što su svi obnovljeni dokumenti
+	 * dobili svoje dnevnike, a direktoriji se brišu tek nakon što su dnevnici
+	 * preuzeti
+	 */
+	public void release() {
+		JournalWriter.getInstance().release(new ArrayList<>(sessions));
+		sessions.clear();
+	}
+
+	@Override
+	protected List<RecoveredDocument> doInBackground() throws Exception {
+		List<RecoveredDocument> recovered = new ArrayList<>();
+		Path root = JournalWriter.directory();
+		if (!Files.isDirectory(root)) {
+			return recovered;
+		}
+
+		try (DirectoryStream<Path> directories = Files.newDirectoryStream(root)) {
+			for (Path directory : directories) {
+				Session session = lock(directory);
+				if (session == null) {
+					continue;
+				}
+				sessions.add(session);
+
+				try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory,
+						"*" + JournalWriter.JOURNAL_SUFFIX)) {
+					for (Path journal : journals) {
+						if (isCancelled()) {
+							return recovered;
+						}
+						replay(journal, recovered);
+					}
+				}
+			}
+		}
+		return recovered;
+	}
+
+	/**
+	 * Pomoćna metoda koja zaključava direktorij dnevnika programa koji više
+	 * ne radi. Direktorij ovog pokretanja se ne otvara, jer bi zatvaranjem
+	 * kanala na nekim sustavima bilo otpušteno i njegovo zaključavanje
+	 *
+	 * @param directory
+	 *            direktorij dnevnika
+	 * @return zaključani direktorij ili <code>null</code> ukoliko ga drži
+	 *         program koji radi
+	 */
+	private static Session lock(Path directory) {
+		Path lockPath = directory.resolve(JournalWriter.LOCK_FILE);
+		// putanja vlastitog direktorija objavljuje se prije stvaranja datoteke
+		if (!Files.isRegularFile(lockPath) || JournalWriter.getInstance().isOwnSession(directory)) {
+			return null;
+		}
+
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(lockPath, WRITE);
+		} catch (IOException e) {
+			return null;
+		}
+		try {
+			FileLock lock = channel.tryLock();
+			if (lock != null) {
+				return new Session(directory, channel);
+			}
+		} catch (IOException | OverlappingFileLockException ignorable) {
+		}
+		try {
+			channel.close();
+		} catch (IOException ignorable) {
+		}
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja obnavlja dokument iz jednog dnevnika. Obnovljeni
+	 * dokument dodaje se u <b>recovered</b>, a ukoliko dnevnik nije moguće
+	 * obnoviti putanja njegovog dokumenta dodaje se u {@link #unrecoverable}
+	 *
+	 * @param journalPath
+	 *            putanja do datoteke dnevnika
+	 * @param recovered
+	 *            obnovljeni dokumenti
+	 * @throws InterruptedException
+	 *             ukoliko je obnova prekinuta
+	 */
+	private void replay(Path journalPath, List<RecoveredDocument> recovered) throws InterruptedException {
+		EditJournal.Header header = null;
+		try (RecordReader reader = new RecordReader(journalPath)) {
+			if (!reader.next() || reader.type != JournalWriter.HEADER) {
+				// zaglavlje se zapisuje zajedno sa slikom, pa dnevnik bez njega nije započet
+				return;
+			}
+			header = readHeader(reader.payload);
+
+			Document document = readBase(reader, header);
+			if (document == null) {
+				unrecoverable.add(header.filePath);
+				return;
+			}
+
+			long validLength = reader.position;
+			while (reader.next() && apply(document, reader)) {
+				validLength = reader.position;
+			}
+
+			recovered.add(new RecoveredDocument(header, document,
+					TextStatistics.of(FileSaver.snapshotOf(document)), journalPath, validLength));
+		} catch (IOException | RuntimeException e) {
+			unrecoverable.add(header != null ? header.filePath : journalPath);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita zaglavlje dnevnika
+	 *
+	 * @param payload
+	 *            sadržaj zapisa zaglavlja
+	 * @return pročitano zaglavlje
+	 */
+	private static EditJournal.Header readHeader(ByteBuffer payload) {
+		Path filePath = Paths.get(readString(payload));
+		boolean inMemory = payload.get() != 0;
+		boolean large = payload.get() != 0;
+		Charset charset = Charset.forName(readString(payload));
+		boolean bom = payload.get() != 0;
+		String lineSeparator = readString(payload);
+		return new EditJournal.Header(filePath, inMemory, large, new TextFormat(charset, bom, lineSeparator));
+	}
+
+	/**
+	 * Pomoćna metoda koja iz zapisa koji slijede zaglavlje gradi dokument
+	 * kakav je bio na početku dnevnika: iz slike dokumenta ili mapiranjem
+	 * izvorne datoteke, ukoliko ona od tada nije promijenjena
+	 *
+	 * @param reader
+	 *            čitač zapisa dnevnika
+	 * @param header
+	 *            zaglavlje dnevnika
+	 * @return početni dokument ili <code>null</code> ukoliko ga nije moguće
+	 *         izgraditi
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private static Document readBase(RecordReader reader, EditJournal.Header header) throws IOException {
+		if (!reader.next()) {
+			return null;
+		}
+
+		if (reader.type == JournalWriter.BASE) {
+			long size = reader.payload.getLong();
+			long lastModified = reader.payload.getLong();
+			Path filePath = header.filePath;
+			Charset charset = header.format.getCharset();
+			if (!Files.isRegularFile(filePath) || Files.size(filePath) != size
+					|| Files.getLastModifiedTime(filePath).toMillis() != lastModified
+					|| !MappedTextSource.isSupported(charset)) {
+				return null;
+			}
+			return new LargeFileDocument(new PieceTableContent(
+					new MappedTextSource(filePath, charset, header.format.getBomBytes().length)));
+		}
+
+		if (reader.type != JournalWriter.SNAPSHOT) {
+			return null;
+		}
+		char[] chars = new char[reader.payload.getInt()];
+		int filled = 0;
+		while (filled < chars.length) {
+			if (!reader.next() || reader.type != JournalWriter.TEXT) {
+				return null;
+			}
+			int count = reader.payload.remaining() / 2;
+			if (count > chars.length - filled) {
+				return null;
+			}
+			reader.payload.asCharBuffer().get(chars, filled, count);
+			filled += count;
+		}
+
+		if (header.large) {
+			return new LargeFileDocument(new PieceTableContent(new CharArraySource(chars)));
+		}
+		Document document = new PieceTableDocument();
+		try {
+			document.insertString(0, new String(chars), null);
+		} catch (BadLocationException ignorable) {
+		}
+		return document;
+	}
+
+	/**
+	 * Pomoćna metoda koja na dokument primjenjuje izmjenu iz trenutnog zapisa
+	 * čitača <b>reader</b>
+	 *
+	 * @param document
+	 *            dokument koji se obnavlja
+	 * @param reader
+	 *            čitač zapisa dnevnika
+	 * @return <code>true</code> ukoliko je izmjena primijenjena,
+	 *         <code>false</code> ukoliko zapis nije izmjena ili ne odgovara
+	 *         dokumentu
+	 */
+	private static boolean apply(Document document, RecordReader reader) {
+		ByteBuffer payload = reader.payload;
+		try {
+			if (reader.type == JournalWriter.INSERT) {
+				int offset = payload.getInt();
+				document.insertString(offset, readString(payload), null);
+				return true;
+			}
+			if (reader.type == JournalWriter.REMOVE) {
+				int offset = payload.getInt();
+				document.remove(offset, payload.getInt());
+				return true;
+			}
+		} catch (BadLocationException ignorable) {
+		}
+		return false;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita niz znakova zapisan kao njegova duljina i
+	 * znakovi
+	 *
+	 * @param payload
+	 *            sadržaj zapisa
+	 * @return pročitani niz znakova
+	 */
+	private static String readString(ByteBuffer payload) {
+		char[] chars = new char[payload.getInt()];
+		payload.asCharBuffer().get(chars);
+		payload.position(payload.position() + 2 * chars.length);
+		return new String(chars);
+	}
+
+	/**
+	 * Razred koji predstavlja dokument obnovljen iz dnevnika nespremljenih
+	 * izmjena
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static final class RecoveredDocument {
+
+		/** Članska varijabla koja predstavlja zaglavlje dnevnika */
+		final EditJournal.Header header;
+
+		/** Članska varijabla koja predstavlja obnovljeni dokument */
+		private final Document document;
+
+		/** Članska varijabla koja predstavlja statistiku obnovljenog teksta */
+		private final TextStatistics statistics;
+
+		/** Članska varijabla koja predstavlja putanju do datoteke dnevnika */
+		final Path journalPath;
+
+		/** Članska varijabla koja predstavlja duljinu ispravnog dijela dnevnika */
+		final long validLength;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param header
+		 *            zaglavlje dnevnika
+		 * @param document
+		 *            obnovljeni dokument
+		 * @param statistics
+		 *            statistika obnovljenog teksta
+		 * @param journalPath
+		 *            putanja do datoteke dnevnika
+		 * @param validLength
+		 *            duljina ispravnog dijela dnevnika
+		 */
+		private RecoveredDocument(EditJournal.Header header, Document document, TextStatistics statistics,
+				Path journalPath, long validLength) {
+			this.header = header;
+			this.document = document;
+			this.statistics = statistics;
+			this.journalPath = journalPath;
+			this.validLength = validLength;
+		}
+
+		/**
+		 * Metoda koja dohvaća putanju do datoteke dokumenta
+		 *
+		 * @return putanju do datoteke dokumenta
+		 */
+		public Path getFilePath() {
+			return header.filePath;
+		}
+
+		/**
+		 * Metoda koja provjerava postoji li datoteka dokumenta
+		 *
+		 * @return <code>true</code> ukoliko datoteka dokumenta postoji,
+		 *         <code>false</code> ukoliko dokument nikada nije spremljen
+		 */
+		public boolean isInMemory() {
+			return header.inMemory;
+		}
+
+		/**
+		 * Metoda koja dohvaća format u kojem se dokument sprema
+		 *
+		 * @return format u kojem se dokument sprema
+		 */
+		public TextFormat getFormat() {
+			return header.format;
+		}
+
+		/**
+		 * Metoda koja dohvaća obnovljeni dokument
+		 *
+		 * @return obnovljeni dokument
+		 */
+		public Document getDocument() {
+			return document;
+		}
+
+		/**
+		 * Metoda koja dohvaća statistiku obnovljenog teksta
+		 *
+		 * @return statistiku obnovljenog teksta
+		 */
+		public TextStatistics getStatistics() {
+			return statistics;
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja zaključani direktorij dnevnika programa koji
+	 * više ne radi
+	 *
+	 * @author Davor Češljaš
+	 */
+	static final class Session {
+
+		/** Članska varijabla koja predstavlja direktorij dnevnika */
+		final Path directory;
+
+		/** Članska varijabla koja predstavlja kanal zaključane datoteke */
+		final FileChannel lock;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param directory
+		 *            direktorij dnevnika
+		 * @param lock
+		 *            kanal zaključane datoteke
+		 */
+		Session(Path directory, FileChannel lock) {
+			this.directory = directory;
+			this.lock = lock;
+		}
+	}
+
+	/**
+	 * Privatni razred koji redom čita zapise datoteke dnevnika i provjerava
+	 * njihove zaštitne sume. Čitanje se zaustavlja na kraju datoteke ili na
+	 * prvom nedovršenom ili oštećenom zapisu
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static final class RecordReader implements AutoCloseable {
+
+		/** Članska varijabla koja predstavlja ulazni tok datoteke */
+		private final DataInputStream in;
+
+		/** Članska varijabla koja se koristi za provjeru zaštitnih suma */
+		private final CRC32 crc = new CRC32();
+
+		/** Članska varijabla koja predstavlja vrstu trenutnog zapisa */
+		private byte type;
+
+		/** Članska varijabla koja predstavlja sadržaj trenutnog zapisa */
+		private ByteBuffer payload;
+
+		/**
+		 * Članska varijabla koja predstavlja poziciju u datoteci iza
+		 * trenutnog zapisa
+		 */
+		private long position;
+
+		/**
+		 * Konstruktor koji otvara datoteku dnevnika i provjerava oznaku na
+		 * njezinom početku.
+		 *
+		 * @param journalPath
+		 *            putanja do datoteke dnevnika
+		 * @throws IOException
+		 *             ukoliko datoteku nije moguće otvoriti ili ona nije
+		 *             dnevnik
+		 */
+		public RecordReader(Path journalPath) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath), BUFFER_SIZE));
+			try {
+				if (in.readInt() != JournalWriter.MAGIC) {
+					throw new IOException("Not a journal: " + journalPath);
+				}
+			} catch (IOException e) {
+				in.close();
+				throw e;
+			}
+			position = Integer.BYTES;
+		}
+
+		/**
+		 * Metoda koja čita sljedeći zapis
+		 *
+		 * @return <code>true</code> ukoliko je pročitan ispravan zapis,
+		 *         <code>false</code> inače
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom čitanja
+		 */
+		public boolean next() throws IOException {
+			try {
+				int read = in.read();
+				if (read < 0) {
+					return false;
+				}
+				int length = in.readInt();
+				if (length < 0 || length > JournalWriter.MAX_PAYLOAD) {
+					return false;
+				}
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				int checksum = in.readInt();
+
+				crc.reset();
+				crc.update(read);
+				crc.update(ByteBuffer.allocate(Integer.BYTES).putInt(length).array());
+				crc.update(bytes);
+				if ((int) crc.getValue() != checksum) {
+					return false;
+				}
+
+				type = (byte) read;
+				payload = ByteBuffer.wrap(bytes);
+				position += 1 + Integer.BYTES + length + Integer.BYTES;
+				return true;
+			} catch (EOFException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,1005 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji u pozadinskoj dretvi zapisuje dnevnike nespremljenih izmjena
+ * ({@link EditJournal}). Razred koristi oblikovni obrazac
+ * <a href = "https://en.wikipedia.org/wiki/Singleton_pattern">jedinstveni
+ * objekt</a> te se njegovom jedinom primjerku pristupa metodom
+ * {@link #getInstance()}.
+ *
+ * <p>
+ * Dretva za obradu događaja zapise samo stavlja u red bez zaključavanja
+ * ({@link ConcurrentLinkedQueue}) i nikada ne čeka na pisanje. Pozadinska
+ * dretva red prazni svakih {@value #GROUP_COMMIT_INTERVAL} milisekundi, a
+ * sve zapise jednog dnevnika nakupljene u tom razdoblju zapisuje jednim
+ * pisanjem i jednim {@link FileChannel#force(boolean)} (grupno potvrđivanje).
+ * Kada zapisi izmjena postanu veći od posljednje slike dokumenta (a barem
+ * {@value #MIN_COMPACTION_BYTES} okteta), od dnevnika se traži nova slika
+ * dokumenta, koja se zapisuje u privremenu datoteku i atomarno zamjenjuje
+ * dnevnik.
+ * </p>
+ *
+ * <p>
+ * Dnevnici jednog pokretanja programa nalaze se u zasebnom direktoriju
+ * unutar direktorija zadanog svojstvom sustava {@value #DIRECTORY_PROPERTY}
+ * (pretpostavljeno <code>~/.jnotepadpp/journal</code>). Dok program radi
+ * drži zaključanu datoteku {@value #LOCK_FILE} u tom direktoriju, pa se
+ * dnevnici nekog direktorija obnavljaju (razred {@link JournalReplayer}) samo
+ * ako program koji ih je pisao više ne radi. Zapisi u datoteci imaju oblik
+ * <code>[vrsta][duljina][sadržaj][CRC32]</code>, pa se nedovršeni posljednji
+ * zapis prepoznaje i zanemaruje.
+ * </p>
+ *
+ * @see EditJournal
+ * @see JournalReplayer
+ *
+ * @author Davor Češljaš
+ */
+public class JournalWriter {
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * direktorij dnevnika
+	 */
+	public static final String DIRECTORY_PROPERTY = "jnotepadpp.journal.dir";
+
+	/**
+	 * Konstanta koja predstavlja vrijeme (u milisekundama) između dvaju
+	 * grupnih potvrđivanja zapisa
+	 */
+	public static final long GROUP_COMMIT_INTERVAL = 200;
+
+	/**
+	 * Konstanta koja predstavlja najmanju veličinu zapisa izmjena (u oktetima)
+	 * nakon koje se dnevnik sažima
+	 */
+	public static final long MIN_COMPACTION_BYTES = 4L * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najdulje vrijeme (u milisekundama) koje se
+	 * prilikom gašenja programa čeka na pozadinsku dretvu
+	 */
+	private static final long SHUTDOWN_TIMEOUT = 5000;
+
+	/** Konstanta koja predstavlja oznaku na početku datoteke dnevnika */
+	static final int MAGIC = 0x4A4E4A31;
+
+	/** Konstanta koja predstavlja vrstu zapisa zaglavlja dnevnika */
+	static final byte HEADER = 1;
+
+	/** Konstanta koja predstavlja vrstu zapisa oznake izvorne datoteke */
+	static final byte BASE = 2;
+
+	/** Konstanta koja predstavlja vrstu zapisa početka slike dokumenta */
+	static final byte SNAPSHOT = 3;
+
+	/** Konstanta koja predstavlja vrstu zapisa dijela teksta slike */
+	static final byte TEXT = 4;
+
+	/** Konstanta koja predstavlja vrstu zapisa umetanja teksta */
+	static final byte INSERT = 5;
+
+	/** Konstanta koja predstavlja vrstu zapisa uklanjanja teksta */
+	static final byte REMOVE = 6;
+
+	/** Konstanta koja predstavlja najveću veličinu sadržaja jednog zapisa */
+	static final int MAX_PAYLOAD = 2 * EditJournal.MAX_RECORDED_LENGTH + 16;
+
+	/** Konstanta koja predstavlja nastavak naziva datoteka dnevnika */
+	static final String JOURNAL_SUFFIX = ".journal";
+
+	/** Konstanta koja predstavlja naziv datoteke koja zaključava direktorij */
+	static final String LOCK_FILE = "lock";
+
+	/** Konstanta koja predstavlja prefiks naziva direktorija pokretanja */
+	private static final String SESSION_PREFIX = "session-";
+
+	/** Konstanta koja predstavlja broj znakova slike u jednom zapisu */
+	private static final int TEXT_CHUNK = 256 * 1024;
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final JournalWriter INSTANCE = new JournalWriter();
+
+	/** Članska varijabla koja predstavlja red zapisa koji čekaju na pisanje */
+	private final Queue<Record> queue = new ConcurrentLinkedQueue<>();
+
+	/** Članska varijabla koja predstavlja pozadinsku dretvu */
+	private final Thread thread;
+
+	/**
+	 * Članska varijabla koja predstavlja direktorij dnevnika ovog pokretanja
+	 * ili <code>null</code> ukoliko on još nije stvoren
+	 */
+	private volatile Path session;
+
+	/** Članska varijabla koja predstavlja kanal zaključane datoteke */
+	private FileChannel lockChannel;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da direktorij dnevnika nije moguće
+	 * stvoriti, pa se zapisi zanemaruju
+	 */
+	private boolean disabled;
+
+	/** Članska varijabla koja predstavlja redni broj sljedećeg dnevnika */
+	private int nextFile;
+
+	/** Članska varijabla koja predstavlja otvorene datoteke dnevnika */
+	private final Map<EditJournal, JournalFile> files = new HashMap<>();
+
+	/** Članska varijabla koja se koristi za računanje zaštitnih suma zapisa */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Privatni konstruktor koji onemogućuje stvaranje primjeraka ovog razreda
+	 * izvan njega samog. Konstruktor pokreće pozadinsku dretvu
+	 */
+	private JournalWriter() {
+		thread = new Thread(this::run, "jnotepadpp-journal");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static JournalWriter getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Statička metoda koja dohvaća direktorij u kojem se nalaze direktoriji
+	 * dnevnika svih pokretanja programa
+	 *
+	 * @return direktorij dnevnika
+	 */
+	public static Path directory() {
+		String configured = System.getProperty(DIRECTORY_PROPERTY);
+		return configured != null ? Paths.get(configured)
+				: Paths.get(System.getProperty("user.home"), ".jnotepadpp", "journal");
+	}
+
+	/**
+	 * Metoda koja provjerava je li <b>directory</b> direktorij dnevnika ovog
+	 * pokretanja programa
+	 *
+	 * @param directory
+	 *            direktorij koji se provjerava
+	 * @return <code>true</code> ukoliko je direktorij u upotrebi,
+	 *         <code>false</code> inače
+	 */
+	boolean isOwnSession(Path directory) {
+		return directory.equals(session);
+	}
+
+	/**
+	 * Metoda koja zapis stavlja u red. Metoda se poziva iz dretve za obradu
+	 * događaja, ne zaključava i ne čeka
+	 *
+	 * @param record
+	 *            zapis koji se stavlja u red
+	 */
+	void enqueue(Record record) {
+		queue.offer(record);
+	}
+
+	/**
+	 * Metoda koja otpušta direktorije dnevnika koje je obnovio razred
+	 * {@link JournalReplayer}. Direktoriji se brišu nakon što su obnovljeni
+	 * dnevnici preuzeti, tj. nakon zapisa stavljenih u red prije poziva ove
+	 * metode
+	 *
+	 * @param sessions
+	 *            obnovljeni direktoriji dnevnika
+	 */
+	void release(List<JournalReplayer.Session> sessions) {
+		queue.offer(new Record(Operation.RELEASE, null, 0, 0, sessions));
+	}
+
+	/**
+	 * Metoda koja se poziva prilikom urednog gašenja programa. Korisnik je
+	 * tada već odlučio o svakom nespremljenom dokumentu, pa se svi dnevnici
+	 * ovog pokretanja brišu. Metoda čeka da pozadinska dretva završi, ali
+	 * najdulje {@value #SHUTDOWN_TIMEOUT} milisekundi
+	 */
+	public void shutdown() {
+		queue.offer(new Record(Operation.SHUTDOWN, null, 0, 0, null));
+		LockSupport.unpark(thread);
+		try {
+			thread.join(SHUTDOWN_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koju izvodi pozadinska dretva. Zapisi se obrađuju dok ih
+	 * ima u redu, a kada se red isprazni nakupljeni zapisi se potvrđuju i
+	 * dretva čeka {@value #GROUP_COMMIT_INTERVAL} milisekundi
+	 */
+	private void run() {
+		while (true) {
+			Record record = queue.poll();
+			if (record == null) {
+				commit();
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(GROUP_COMMIT_INTERVAL));
+				continue;
+			}
+
+			if (record.operation == Operation.SHUTDOWN) {
+				close();
+				return;
+			}
+			try {
+				process(record);
+			} catch (RuntimeException e) {
+				// pogreška jednog dnevnika ne smije zaustaviti ostale
+				if (record.journal != null) {
+					fail(record.journal);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja obrađuje jedan zapis iz reda
+	 *
+	 * @param record
+	 *            zapis koji se obrađuje
+	 */
+	@SuppressWarnings("unchecked")
+	private void process(Record record) {
+		if (record.operation == Operation.RELEASE) {
+			for (JournalReplayer.Session released : (List<JournalReplayer.Session>) record.data) {
+				closeQuietly(released.lock);
+				// bez vlastitog direktorija dnevnici nisu preuzeti, pa se obnavljaju ponovno
+				if (!disabled) {
+					deleteDirectory(released.directory);
+				}
+			}
+			return;
+		}
+		if (disabled) {
+			return;
+		}
+
+		EditJournal journal = record.journal;
+		JournalFile file = files.get(journal);
+		try {
+			switch (record.operation) {
+			case CREATE:
+				rewrite(journal, newFile(journal), (ITextSource) record.data);
+				break;
+			case ADOPT:
+				adopt(journal, record);
+				break;
+			case SNAPSHOT:
+				rewrite(journal, file != null ? file : newFile(journal), (ITextSource) record.data);
+				break;
+			case INSERT:
+				if (file != null) {
+					file.pending.begin(INSERT);
+					file.pending.putInt(record.offset);
+					file.pending.putString((String) record.data);
+					appended(journal, file, file.pending.end(crc));
+				}
+				break;
+			case REMOVE:
+				if (file != null) {
+					file.pending.begin(REMOVE);
+					file.pending.putInt(record.offset);
+					file.pending.putInt((int) record.length);
+					appended(journal, file, file.pending.end(crc));
+				}
+				break;
+			case DISCARD:
+				if (file != null) {
+					files.remove(journal);
+					closeQuietly(file.channel);
+					deleteQuietly(file.path);
+				}
+				break;
+			default:
+				break;
+			}
+		} catch (IOException e) {
+			fail(journal);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja nakon dodavanja zapisa izmjene provjerava treba li
+	 * dnevnik sažeti. Sažimanje se traži od dnevnika, koji pri sljedećoj
+	 * izmjeni šalje sliku dokumenta
+	 *
+	 * @param journal
+	 *            dnevnik kojem je dodan zapis
+	 * @param file
+	 *            datoteka dnevnika
+	 * @param bytes
+	 *            veličina dodanog zapisa u oktetima
+	 */
+	private void appended(EditJournal journal, JournalFile file, int bytes) {
+		file.tail += bytes;
+		if (file.tail > file.compactionThreshold) {
+			journal.snapshotRequested = true;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja potvrđuje nakupljene zapise svih dnevnika. Zapisi
+	 * jednog dnevnika zapisuju se jednim pisanjem, nakon kojeg se zapisani
+	 * podaci jednom prisilno spremaju na disk
+	 */
+	private void commit() {
+		for (Iterator<Map.Entry<EditJournal, JournalFile>> it = files.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<EditJournal, JournalFile> entry = it.next();
+			JournalFile file = entry.getValue();
+			if (file.pending.size() == 0) {
+				continue;
+			}
+			try {
+				file.pending.writeTo(file.channel);
+				file.channel.force(false);
+			} catch (IOException e) {
+				it.remove();
+				discardFile(entry.getKey(), file);
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara novu datoteku dnevnika u direktoriju ovog
+	 * pokretanja i pridružuje ju dnevniku <b>journal</b>
+	 *
+	 * @param journal
+	 *            dnevnik kojem se pridružuje datoteka
+	 * @return novu datoteku dnevnika
+	 * @throws IOException
+	 *             ukoliko direktorij dnevnika nije moguće stvoriti
+	 */
+	private JournalFile newFile(EditJournal journal) throws IOException {
+		JournalFile file = new JournalFile(journal.header, session().resolve(nextFile++ + JOURNAL_SUFFIX));
+		files.put(journal, file);
+		return file;
+	}
+
+	/**
+	 * Pomoćna metoda koja zapise datoteke dnevnika zamjenjuje zaglavljem i
+	 * slikom dokumenta <b>snapshot</b> (ili oznakom izvorne datoteke ukoliko
+	 * slike nema). Nova datoteka zapisuje se kao privremena i tek nakon što
+	 * je spremljena na disk zamjenjuje staru, pa dnevnik nikada nije
+	 * djelomično zapisan. Nepotvrđeni zapisi izmjena prethode slici i ona ih
+	 * sadrži, pa se odbacuju
+	 *
+	 * @param journal
+	 *            dnevnik čija se datoteka zapisuje
+	 * @param file
+	 *            datoteka dnevnika
+	 * @param snapshot
+	 *            slika dokumenta ili <code>null</code>
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 */
+	private void rewrite(EditJournal journal, JournalFile file, ITextSource snapshot) throws IOException {
+		closeQuietly(file.channel);
+		file.channel = null;
+		file.pending.clear();
+
+		Path tmpPath = file.path.resolveSibling(file.path.getFileName() + ".tmp");
+		long written = Integer.BYTES;
+		try (FileChannel channel = FileChannel.open(tmpPath, CREATE, TRUNCATE_EXISTING, WRITE)) {
+			RecordBuffer buffer = new RecordBuffer();
+			buffer.putInt(MAGIC);
+			buffer.begin(HEADER);
+			buffer.putString(file.header.filePath.toString());
+			buffer.putBoolean(file.header.inMemory);
+			buffer.putBoolean(file.header.large);
+			buffer.putString(file.header.format.getCharset().name());
+			buffer.putBoolean(file.header.format.hasBom());
+			buffer.putString(file.header.format.getLineSeparator());
+			written += buffer.end(crc);
+
+			if (snapshot == null) {
+				Path base = file.header.filePath;
+				buffer.begin(BASE);
+				buffer.putLong(Files.size(base));
+				buffer.putLong(Files.getLastModifiedTime(base).toMillis());
+				written += buffer.end(crc);
+			} else {
+				buffer.begin(SNAPSHOT);
+				buffer.putInt(snapshot.length());
+				written += buffer.end(crc);
+
+				char[] chars = new char[TEXT_CHUNK];
+				for (int offset = 0, length = snapshot.length(); offset < length; offset += TEXT_CHUNK) {
+					int count = Math.min(TEXT_CHUNK, length - offset);
+					snapshot.getChars(offset, count, chars, 0);
+					buffer.begin(TEXT);
+					buffer.putChars(chars, count);
+					written += buffer.end(crc);
+					buffer.writeTo(channel);
+				}
+			}
+			buffer.writeTo(channel);
+			channel.force(true);
+		}
+
+		try {
+			Files.move(tmpPath, file.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpPath, file.path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		open(file, written, Math.max(MIN_COMPACTION_BYTES,
+				snapshot == null ? 2 * Files.size(file.header.filePath) : written));
+	}
+
+	/**
+	 * Pomoćna metoda koja preuzima dnevnik obnovljen iz direktorija programa
+	 * koji više ne radi. Datoteka se premješta u direktorij ovog pokretanja,
+	 * a nedovršeni zapisi s njezinog kraja se odbacuju. Ukoliko datoteku nije
+	 * moguće premjestiti, dnevnik se zapisuje ispočetka iz slike obnovljenog
+	 * dokumenta
+	 *
+	 * @param journal
+	 *            dnevnik koji se preuzima
+	 * @param record
+	 *            zapis s putanjom, ispravnom duljinom i slikom dokumenta
+	 * @throws IOException
+	 *             ukoliko dnevnik nije moguće ni zapisati ispočetka
+	 */
+	private void adopt(EditJournal journal, Record record) throws IOException {
+		Object[] data = (Object[]) record.data;
+		JournalFile file = newFile(journal);
+		try {
+			Files.move((Path) data[0], file.path);
+			try (FileChannel channel = FileChannel.open(file.path, WRITE)) {
+				channel.truncate(record.length);
+				channel.force(true);
+			}
+			open(file, record.length, Math.max(MIN_COMPACTION_BYTES, record.length));
+		} catch (IOException e) {
+			rewrite(journal, file, (ITextSource) data[1]);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara datoteku dnevnika za dodavanje zapisa
+	 *
+	 * @param file
+	 *            datoteka dnevnika
+	 * @param size
+	 *            veličina datoteke u oktetima
+	 * @param compactionThreshold
+	 *            veličina zapisa izmjena nakon koje se dnevnik sažima
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće otvoriti
+	 */
+	private static void open(JournalFile file, long size, long compactionThreshold) throws IOException {
+		file.channel = FileChannel.open(file.path, WRITE);
+		file.channel.position(size);
+		file.tail = 0;
+		file.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća direktorij dnevnika ovog pokretanja, a
+	 * prilikom prvog poziva ga stvara i zaključava. Putanja se objavljuje
+	 * prije stvaranja datoteke {@value #LOCK_FILE}, kako razred
+	 * {@link JournalReplayer} ne bi pokušao obnoviti ovaj direktorij
+	 *
+	 * @return direktorij dnevnika ovog pokretanja
+	 * @throws IOException
+	 *             ukoliko direktorij nije moguće stvoriti
+	 */
+	private Path session() throws IOException {
+		while (lockChannel == null) {
+			try {
+				Path root = directory();
+				Files.createDirectories(root);
+				Path candidate = Files.createTempDirectory(root, SESSION_PREFIX);
+				session = candidate;
+				FileChannel channel = FileChannel.open(candidate.resolve(LOCK_FILE), CREATE, WRITE);
+				FileLock lock = null;
+				try {
+					lock = channel.tryLock();
+				} catch (OverlappingFileLockException ignorable) {
+					// direktorij je u međuvremenu zaključan radi obnove, pa ga ona i briše
+				}
+				if (lock == null) {
+					channel.close();
+					continue;
+				}
+				lockChannel = channel;
+			} catch (IOException e) {
+				disabled = true;
+				throw e;
+			}
+		}
+		return session;
+	}
+
+	/**
+	 * Pomoćna metoda koja zatvara i briše datoteku dnevnika u koju nije bilo
+	 * moguće pisati
+	 *
+	 * @param journal
+	 *            dnevnik čija se datoteka odbacuje
+	 */
+	private void fail(EditJournal journal) {
+		JournalFile file = files.remove(journal);
+		if (file != null) {
+			discardFile(journal, file);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zatvara i briše datoteku dnevnika. Ukoliko je
+	 * direktorij dnevnika dostupan, od dnevnika se traži nova slika dokumenta
+	 * kojom se datoteka zapisuje ispočetka
+	 *
+	 * @param journal
+	 *            dnevnik čija se datoteka odbacuje
+	 * @param file
+	 *            datoteka dnevnika
+	 */
+	private void discardFile(EditJournal journal, JournalFile file) {
+		closeQuietly(file.channel);
+		deleteQuietly(file.path);
+		if (!disabled) {
+			journal.snapshotRequested = true;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja prilikom urednog gašenja zatvara sve dnevnike i
+	 * briše direktorij ovog pokretanja
+	 */
+	private void close() {
+		for (JournalFile file : files.values()) {
+			closeQuietly(file.channel);
+		}
+		files.clear();
+		if (lockChannel != null) {
+			closeQuietly(lockChannel);
+			deleteDirectory(session);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja briše direktorij dnevnika zajedno s datotekama u
+	 * njemu. Pogreške se zanemaruju
+	 *
+	 * @param directory
+	 *            direktorij koji se briše
+	 */
+	private static void deleteDirectory(Path directory) {
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+			for (Path entry : entries) {
+				deleteQuietly(entry);
+			}
+		} catch (IOException ignorable) {
+		}
+		deleteQuietly(directory);
+	}
+
+	/**
+	 * Pomoćna metoda koja briše datoteku, zanemarujući pogreške
+	 *
+	 * @param path
+	 *            putanja do datoteke
+	 */
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException ignorable) {
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zatvara kanal, zanemarujući pogreške
+	 *
+	 * @param channel
+	 *            kanal koji se zatvara ili <code>null</code>
+	 */
+	private static void closeQuietly(FileChannel channel) {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException ignorable) {
+		}
+	}
+
+	/**
+	 * Nabrajanje koje predstavlja vrste zapisa u redu
+	 *
+	 * @author Davor Češljaš
+	 */
+	enum Operation {
+		/** Stvaranje dnevnika sa slikom dokumenta ili oznakom datoteke */
+		CREATE,
+		/** Preuzimanje obnovljenog dnevnika */
+		ADOPT,
+		/** Umetanje teksta */
+		INSERT,
+		/** Uklanjanje teksta */
+		REMOVE,
+		/** Zamjena zapisa slikom dokumenta */
+		SNAPSHOT,
+		/** Odbacivanje dnevnika */
+		DISCARD,
+		/** Brisanje obnovljenih direktorija */
+		RELEASE,
+		/** Uredno gašenje */
+		SHUTDOWN
+	}
+
+	/**
+	 * Razred koji predstavlja nepromjenjiv zapis u redu. Zapisi se stvaraju u
+	 * dretvi za obradu događaja, a obrađuju u pozadinskoj dretvi
+	 *
+	 * @author Davor Češljaš
+	 */
+	static final class Record {
+
+		/** Članska varijabla koja predstavlja vrstu zapisa */
+		final Operation operation;
+
+		/** Članska varijabla koja predstavlja dnevnik kojem zapis pripada */
+		final EditJournal journal;
+
+		/** Članska varijabla koja predstavlja poziciju izmjene */
+		final int offset;
+
+		/** Članska varijabla koja predstavlja duljinu izmjene ili datoteke */
+		final long length;
+
+		/** Članska varijabla koja predstavlja podatke ovisne o vrsti zapisa */
+		final Object data;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param operation
+		 *            vrsta zapisa
+		 * @param journal
+		 *            dnevnik kojem zapis pripada
+		 * @param offset
+		 *            pozicija izmjene
+		 * @param length
+		 *            duljina izmjene ili datoteke
+		 * @param data
+		 *            podaci ovisni o vrsti zapisa
+		 */
+		Record(Operation operation, EditJournal journal, int offset, long length, Object data) {
+			this.operation = operation;
+			this.journal = journal;
+			this.offset = offset;
+			this.length = length;
+			this.data = data;
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa stvaranja dnevnika
+		 *
+		 * @param journal
+		 *            dnevnik koji se stvara
+		 * @param snapshot
+		 *            slika dokumenta ili <code>null</code> ukoliko se pamti
+		 *            oznaka izvorne datoteke
+		 * @return novi zapis
+		 */
+		static Record create(EditJournal journal, ITextSource snapshot) {
+			return new Record(Operation.CREATE, journal, 0, 0, snapshot);
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa preuzimanja obnovljenog dnevnika
+		 *
+		 * @param journal
+		 *            dnevnik koji se preuzima
+		 * @param journalPath
+		 *            putanja do obnovljene datoteke dnevnika
+		 * @param validLength
+		 *            duljina ispravnog dijela datoteke
+		 * @param snapshot
+		 *            slika obnovljenog dokumenta
+		 * @return novi zapis
+		 */
+		static Record adopt(EditJournal journal, Path journalPath, long validLength, ITextSource snapshot) {
+			return new Record(Operation.ADOPT, journal, 0, validLength, new Object[] { journalPath, snapshot });
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa umetanja teksta
+		 *
+		 * @param journal
+		 *            dnevnik kojem zapis pripada
+		 * @param offset
+		 *            pozicija umetanja
+		 * @param text
+		 *            umetnuti tekst
+		 * @return novi zapis
+		 */
+		static Record insert(EditJournal journal, int offset, String text) {
+			return new Record(Operation.INSERT, journal, offset, text.length(), text);
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa uklanjanja teksta
+		 *
+		 * @param journal
+		 *            dnevnik kojem zapis pripada
+		 * @param offset
+		 *            pozicija uklanjanja
+		 * @param length
+		 *            broj uklonjenih znakova
+		 * @return novi zapis
+		 */
+		static Record remove(EditJournal journal, int offset, int length) {
+			return new Record(Operation.REMOVE, journal, offset, length, null);
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa zamjene dnevnika slikom dokumenta
+		 *
+		 * @param journal
+		 *            dnevnik kojem zapis pripada
+		 * @param snapshot
+		 *            slika dokumenta
+		 * @return novi zapis
+		 */
+		static Record snapshot(EditJournal journal, ITextSource snapshot) {
+			return new Record(Operation.SNAPSHOT, journal, 0, 0, snapshot);
+		}
+
+		/**
+		 * Statička metoda tvornica zapisa odbacivanja dnevnika
+		 *
+		 * @param journal
+		 *            dnevnik koji se odbacuje
+		 * @return novi zapis
+		 */
+		static Record discard(EditJournal journal) {
+			return new Record(Operation.DISCARD, journal, 0, 0, null);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja otvorenu datoteku jednog dnevnika.
+	 * Primjercima pristupa samo pozadinska dretva
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static final class JournalFile {
+
+		/** Članska varijabla koja predstavlja zaglavlje dnevnika */
+		private final EditJournal.Header header;
+
+		/** Članska varijabla koja predstavlja putanju do datoteke */
+		private final Path path;
+
+		/**
+		 * Članska varijabla koja predstavlja kanal za pisanje ili
+		 * <code>null</code> ukoliko datoteka nije otvorena
+		 */
+		private FileChannel channel;
+
+		/** Članska varijabla koja predstavlja nepotvrđene zapise */
+		private final RecordBuffer pending = new RecordBuffer();
+
+		/**
+		 * Članska varijabla koja predstavlja veličinu zapisa izmjena nakon
+		 * posljednje slike dokumenta
+		 */
+		private long tail;
+
+		/**
+		 * Članska varijabla koja predstavlja veličinu zapisa izmjena nakon
+		 * koje se dnevnik sažima
+		 */
+		private long compactionThreshold;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param header
+		 *            zaglavlje dnevnika
+		 * @param path
+		 *            putanja do datoteke
+		 */
+		public JournalFile(EditJournal.Header header, Path path) {
+			this.header = header;
+			this.path = path;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja međuspremnik u koji se kodiraju zapisi
+	 * dnevnika. Međuspremnik raste po potrebi
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static final class RecordBuffer {
+
+		/** Članska varijabla koja predstavlja međuspremnik okteta */
+		private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+		/** Članska varijabla koja predstavlja početak zapisa koji se kodira */
+		private int start;
+
+		/**
+		 * Metoda koja započinje zapis vrste <b>type</b>. Duljina sadržaja
+		 * upisuje se metodom {@link #end(CRC32)}
+		 *
+		 * @param type
+		 *            vrsta zapisa
+		 */
+		public void begin(byte type) {
+			ensure(1 + Integer.BYTES);
+			start = buffer.position();
+			buffer.put(type);
+			buffer.putInt(0);
+		}
+
+		/**
+		 * Metoda koja završava zapis upisivanjem duljine sadržaja i zaštitne
+		 * sume cijelog zapisa
+		 *
+		 * @param crc
+		 *            objekt za računanje zaštitne sume
+		 * @return veličinu zapisa u oktetima
+		 */
+		public int end(CRC32 crc) {
+			buffer.putInt(start + 1, buffer.position() - start - 1 - Integer.BYTES);
+			crc.reset();
+			crc.update(buffer.array(), start, buffer.position() - start);
+			ensure(Integer.BYTES);
+			buffer.putInt((int) crc.getValue());
+			return buffer.position() - start;
+		}
+
+		/**
+		 * Metoda koja dodaje cijeli broj
+		 *
+		 * @param value
+		 *            cijeli broj
+		 */
+		public void putInt(int value) {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+		}
+
+		/**
+		 * Metoda koja dodaje dugi cijeli broj
+		 *
+		 * @param value
+		 *            dugi cijeli broj
+		 */
+		public void putLong(long value) {
+			ensure(Long.BYTES);
+			buffer.putLong(value);
+		}
+
+		/**
+		 * Metoda koja dodaje zastavicu
+		 *
+		 * @param value
+		 *            zastavica
+		 */
+		public void putBoolean(boolean value) {
+			ensure(1);
+			buffer.put((byte) (value ? 1 : 0));
+		}
+
+		/**
+		 * Metoda koja dodaje niz znakova kao njegovu duljinu i znakove. Znakovi
+		 * se zapisuju bez kodiranja, pa se zadržavaju i nepotpuni surogatni
+		 * parovi
+		 *
+		 * @param text
+		 *            niz znakova
+		 */
+		public void putString(String text) {
+			putInt(text.length());
+			ensure(2 * text.length());
+			buffer.asCharBuffer().put(text);
+			buffer.position(buffer.position() + 2 * text.length());
+		}
+
+		/**
+		 * Metoda koja dodaje prvih <b>count</b> znakova polja <b>chars</b>
+		 *
+		 * @param chars
+		 *            polje znakova
+		 * @param count
+		 *            broj znakova
+		 */
+		public void putChars(char[] chars, int count) {
+			ensure(2 * count);
+			buffer.asCharBuffer().put(chars, 0, count);
+			buffer.position(buffer.position() + 2 * count);
+		}
+
+		/**
+		 * Metoda koja dohvaća broj okteta u međuspremniku
+		 *
+		 * @return broj okteta u međuspremniku
+		 */
+		public int size() {
+			return buffer.position();
+		}
+
+		/**
+		 * Metoda koja sadržaj međuspremnika zapisuje u kanal i prazni
+		 * međuspremnik
+		 *
+		 * @param channel
+		 *            kanal u koji se piše
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom pisanja
+		 */
+		public void writeTo(FileChannel channel) throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Metoda koja prazni međuspremnik
+		 */
+		public void clear() {
+			buffer.clear();
+		}
+
+		/**
+		 * Pomoćna metoda koja povećava međuspremnik tako da u njega stane još
+		 * <b>bytes</b> okteta
+		 *
+		 * @param bytes
+		 *            broj okteta koji se dodaju
+		 */
+		private void ensure(int bytes) {
+			if (buffer.remaining() >= bytes) {
+				return;
+			}
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+}
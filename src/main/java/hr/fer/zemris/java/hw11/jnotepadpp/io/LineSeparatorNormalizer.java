@@ -0,0 +1,98 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.nio.CharBuffer;
+
+/**
+ * Razred koji dekodirane znakove datoteke prepisuje tako da se reci uvijek
+ * odvajaju znakom <code>'\n'</code>, tj. nizovi <code>"\r\n"</code> i
+ * <code>"\r"</code> zamjenjuju se znakom <code>'\n'</code>. Znakovi se
+ * predaju u dijelovima, a znak <code>'\r'</code> na kraju dijela pamti se dok
+ * se ne vidi sljedeći znak. Usput se broji koliko je kojih nizova za
+ * odvajanje redaka viđeno, kako bi se datoteka mogla spremiti jednaka
+ * učitanoj (vidi {@link #dominantSeparator()}).
+ *
+ * @see FileLoader
+ *
+ * @author Davor Češljaš
+ */
+final class LineSeparatorNormalizer {
+
+	/**
+	 * Članska varijabla koja ukazuje na to da je posljednji predani znak bio
+	 * <code>'\r'</code>
+	 */
+	private boolean pendingCarriageReturn;
+
+	/** Članska varijabla koja predstavlja broj nizova <code>"\r\n"</code> */
+	private int crlfCount;
+
+	/** Članska varijabla koja predstavlja broj samostalnih znakova <code>'\n'</code> */
+	private int lfCount;
+
+	/** Članska varijabla koja predstavlja broj samostalnih znakova <code>'\r'</code> */
+	private int crCount;
+
+	/**
+	 * Metoda koja znakove iz međuspremnika <b>chars</b> dodaje u <b>out</b>,
+	 * pri čemu se nizovi <code>"\r\n"</code> i <code>"\r"</code> zamjenjuju
+	 * znakom <code>'\n'</code>
+	 *
+	 * @param chars
+	 *            dekodirani znakovi
+	 * @param out
+	 *            tekst u koji se dodaju znakovi
+	 * @param endOfInput
+	 *            zastavica koja ukazuje na to da nakon ovih znakova više nema
+	 *            ulaza
+	 */
+	public void normalize(CharBuffer chars, StringBuilder out, boolean endOfInput) {
+		while (chars.hasRemaining()) {
+			char c = chars.get();
+			if (pendingCarriageReturn) {
+				pendingCarriageReturn = false;
+				out.append('\n');
+				if (c == '\n') {
+					crlfCount++;
+					continue;
+				}
+				crCount++;
+			}
+
+			if (c == '\r') {
+				pendingCarriageReturn = true;
+			} else {
+				if (c == '\n') {
+					lfCount++;
+				}
+				out.append(c);
+			}
+		}
+
+		if (endOfInput && pendingCarriageReturn) {
+			pendingCarriageReturn = false;
+			out.append('\n');
+			crCount++;
+		}
+	}
+
+	/**
+	 * Metoda koja zaboravlja zapamćeni znak <code>'\r'</code>, primjerice kada
+	 * se datoteka čita ispočetka
+	 */
+	public void reset() {
+		pendingCarriageReturn = false;
+	}
+
+	/**
+	 * Metoda koja određuje niz znakova kojim se odvaja najviše viđenih redaka.
+	 * Ukoliko redaka nije bilo koristi se <code>"\n"</code>
+	 *
+	 * @return najčešći niz znakova za odvajanje redaka
+	 */
+	public String dominantSeparator() {
+		if (crlfCount >= lfCount && crlfCount >= crCount && crlfCount > 0) {
+			return "\r\n";
+		}
+		return crCount > lfCount ? "\r" : "\n";
+	}
+}
@@ -0,0 +1,359 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Razred koji predstavlja sjednicu programa: popis prozora otvorenih pri
+ * izlazu iz programa, koji se pri sljedećem pokretanju ponovno otvaraju. Za
+ * svaki prozor pamte se putanja do datoteke, pozicija pokazivača, prvi
+ * vidljivi znak i format datoteke (razred {@link Entry}), te koji je prozor
+ * bio odabran.
+ *
+ * <p>
+ * Sjednica se sprema u datoteku zadanu svojstvom sustava
+ * {@value #FILE_PROPERTY} (pretpostavljeno
+ * <code>~/.jnotepadpp/session.properties</code>) u obliku razreda
+ * {@link Properties}. Datoteka se zapisuje u privremenu datoteku koja
+ * atomarno zamjenjuje prethodnu sjednicu, pa prekinuto spremanje ne može
+ * pokvariti prethodnu sjednicu.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public final class Session {
+
+	/**
+	 * Konstanta koja predstavlja ime svojstva sustava kojim se zadaje
+	 * datoteka sjednice
+	 */
+	public static final String FILE_PROPERTY = "jnotepadpp.session.file";
+
+	/** Konstanta koja predstavlja praznu sjednicu */
+	public static final Session EMPTY = new Session(Collections.emptyList(), -1);
+
+	/** Konstanta koja predstavlja ključ broja prozora u sjednici */
+	private static final String COUNT_KEY = "tabs";
+
+	/** Konstanta koja predstavlja ključ pozicije odabranog prozora */
+	private static final String SELECTED_KEY = "selected";
+
+	/** Konstanta koja predstavlja prefiks ključeva jednog prozora */
+	private static final String TAB_PREFIX = "tab.";
+
+	/** Članska varijabla koja predstavlja prozore sjednice */
+	private final List<Entry> entries;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju odabranog prozora ili
+	 * <code>-1</code> ukoliko nijedan prozor nije odabran
+	 */
+	private final int selectedIndex;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param entries
+	 *            prozori sjednice, redom kojim su otvoreni
+	 * @param selectedIndex
+	 *            pozicija odabranog prozora ili <code>-1</code>
+	 * @throws NullPointerException
+	 *             ukoliko je <b>entries</b> <code>null</code>
+	 */
+	public Session(List<Entry> entries, int selectedIndex) {
+		this.entries = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(entries)));
+		this.selectedIndex = selectedIndex >= 0 && selectedIndex < entries.size() ? selectedIndex : -1;
+	}
+
+	/**
+	 * Metoda koja dohvaća prozore sjednice
+	 *
+	 * @return nepromjenjivu {@link List}u prozora sjednice
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju odabranog prozora
+	 *
+	 * @return poziciju odabranog prozora ili <code>-1</code> ukoliko nijedan
+	 *         prozor nije odabran
+	 */
+	public int getSelectedIndex() {
+		return selectedIndex;
+	}
+
+	/**
+	 * Statička metoda koja dohvaća putanju do datoteke sjednice
+	 *
+	 * @return putanju do datoteke sjednice
+	 */
+	public static Path file() {
+		String configured = System.getProperty(FILE_PROPERTY);
+		return configured != null ? Paths.get(configured)
+				: Paths.get(System.getProperty("user.home"), ".jnotepadpp", "session.properties");
+	}
+
+	/**
+	 * Statička metoda koja učitava sjednicu spremljenu pri posljednjem izlazu
+	 * iz programa. Prozori čiji zapis nije ispravan se preskaču
+	 *
+	 * @return spremljenu sjednicu ili {@link #EMPTY} ukoliko sjednica ne
+	 *         postoji ili ju nije moguće pročitati
+	 */
+	public static Session load() {
+		Path file = file();
+		if (!Files.isRegularFile(file)) {
+			return EMPTY;
+		}
+
+		Properties properties = new Properties();
+		try (InputStream is = Files.newInputStream(file)) {
+			properties.load(is);
+		} catch (IOException | IllegalArgumentException e) {
+			return EMPTY;
+		}
+
+		int count = parseInt(properties.getProperty(COUNT_KEY), 0);
+		int selected = parseInt(properties.getProperty(SELECTED_KEY), -1);
+		List<Entry> entries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Entry entry = readEntry(properties, TAB_PREFIX + i + ".");
+			if (entry != null) {
+				entries.add(entry);
+			} else if (i < selected) {
+				selected--;
+			} else if (i == selected) {
+				selected = -1;
+			}
+		}
+		return new Session(entries, selected);
+	}
+
+	/**
+	 * Metoda koja sprema ovu sjednicu u datoteku sjednice (vidi
+	 * {@link #file()})
+	 *
+	 * @throws IOException
+	 *             ukoliko sjednicu nije moguće zapisati
+	 */
+	public void store() throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(COUNT_KEY, Integer.toString(entries.size()));
+		properties.setProperty(SELECTED_KEY, Integer.toString(selectedIndex));
+		for (int i = 0; i < entries.size(); i++) {
+			writeEntry(properties, TAB_PREFIX + i + ".", entries.get(i));
+		}
+
+		Path file = file().toAbsolutePath();
+		Files.createDirectories(file.getParent());
+		Path tmpPath = Files.createTempFile(file.getParent(), "session", ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(tmpPath)) {
+				properties.store(os, null);
+			}
+			try {
+				Files.move(tmpPath, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpPath, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iz <b>properties</b> čita jedan prozor sjednice
+	 *
+	 * @param properties
+	 *            pročitana datoteka sjednice
+	 * @param prefix
+	 *            prefiks ključeva prozora
+	 * @return pročitani prozor ili <code>null</code> ukoliko zapis prozora nije
+	 *         ispravan
+	 */
+	private static Entry readEntry(Properties properties, String prefix) {
+		String path = properties.getProperty(prefix + "path");
+		if (path == null) {
+			return null;
+		}
+		String charset = properties.getProperty(prefix + "charset");
+		String lineSeparator = properties.getProperty(prefix + "lineSeparator");
+
+		try {
+			TextFormat format = charset == null || lineSeparator == null ? null
+					: new TextFormat(Charset.forName(charset),
+							Boolean.parseBoolean(properties.getProperty(prefix + "bom")), lineSeparator);
+			return new Entry(Paths.get(path), format, parseInt(properties.getProperty(prefix + "caret"), 0),
+					parseInt(properties.getProperty(prefix + "scroll"), 0),
+					Boolean.parseBoolean(properties.getProperty(prefix + "viewer")));
+		} catch (IllegalArgumentException e) {
+			// nepoznata kodna stranica ili neispravna putanja (InvalidPathException)
+			return null;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja prozor <b>entry</b> zapisuje u <b>properties</b>
+	 *
+	 * @param properties
+	 *            sadržaj datoteke sjednice
+	 * @param prefix
+	 *            prefiks ključeva prozora
+	 * @param entry
+	 *            prozor koji se zapisuje
+	 */
+	private static void writeEntry(Properties properties, String prefix, Entry entry) {
+		properties.setProperty(prefix + "path", entry.filePath.toAbsolutePath().toString());
+		if (entry.format != null) {
+			properties.setProperty(prefix + "charset", entry.format.getCharset().name());
+			properties.setProperty(prefix + "bom", Boolean.toString(entry.format.hasBom()));
+			properties.setProperty(prefix + "lineSeparator", entry.format.getLineSeparator());
+		}
+		properties.setProperty(prefix + "caret", Integer.toString(entry.caret));
+		properties.setProperty(prefix + "scroll", Integer.toString(entry.scroll));
+		properties.setProperty(prefix + "viewer", Boolean.toString(entry.viewer));
+	}
+
+	/**
+	 * Pomoćna metoda koja pretvara <b>value</b> u nenegativni cijeli broj
+	 *
+	 * @param value
+	 *            tekst koji se pretvara ili <code>null</code>
+	 * @param defaultValue
+	 *            vrijednost koja se vraća ukoliko tekst nije nenegativni
+	 *            cijeli broj
+	 * @return pročitani broj ili <b>defaultValue</b>
+	 */
+	private static int parseInt(String value, int defaultValue) {
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			int parsed = Integer.parseInt(value.trim());
+			return parsed >= 0 ? parsed : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja jedan prozor sjednice. Primjerci ovog razreda
+	 * su nepromjenjivi
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static final class Entry {
+
+		/** Članska varijabla koja predstavlja putanju do datoteke prozora */
+		private final Path filePath;
+
+		/**
+		 * Članska varijabla koja predstavlja format datoteke prozora ili
+		 * <code>null</code> ukoliko se format određuje iz sadržaja datoteke
+		 */
+		private final TextFormat format;
+
+		/** Članska varijabla koja predstavlja poziciju pokazivača */
+		private final int caret;
+
+		/**
+		 * Članska varijabla koja predstavlja poziciju prvog vidljivog znaka
+		 * dokumenta
+		 */
+		private final int scroll;
+
+		/**
+		 * Članska varijabla koja ukazuje na to je li se datoteka prikazivala
+		 * samo za čitanje
+		 */
+		private final boolean viewer;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param filePath
+		 *            putanja do datoteke prozora
+		 * @param format
+		 *            format datoteke prozora ili <code>null</code> ukoliko se
+		 *            format određuje iz sadržaja datoteke
+		 * @param caret
+		 *            pozicija pokazivača
+		 * @param scroll
+		 *            pozicija prvog vidljivog znaka dokumenta
+		 * @param viewer
+		 *            zastavica koja ukazuje na to je li se datoteka
+		 *            prikazivala samo za čitanje
+		 * @throws NullPointerException
+		 *             ukoliko je <b>filePath</b> <code>null</code>
+		 */
+		public Entry(Path filePath, TextFormat format, int caret, int scroll, boolean viewer) {
+			this.filePath = Objects.requireNonNull(filePath);
+			this.format = format;
+			this.caret = Math.max(caret, 0);
+			this.scroll = Math.max(scroll, 0);
+			this.viewer = viewer;
+		}
+
+		/**
+		 * Metoda koja dohvaća putanju do datoteke prozora
+		 *
+		 * @return putanju do datoteke prozora
+		 */
+		public Path getFilePath() {
+			return filePath;
+		}
+
+		/**
+		 * Metoda koja dohvaća format datoteke prozora
+		 *
+		 * @return format datoteke prozora ili <code>null</code> ukoliko se
+		 *         format određuje iz sadržaja datoteke
+		 */
+		public TextFormat getFormat() {
+			return format;
+		}
+
+		/**
+		 * Metoda koja dohvaća poziciju pokazivača
+		 *
+		 * @return poziciju pokazivača
+		 */
+		public int getCaret() {
+			return caret;
+		}
+
+		/**
+		 * Metoda koja dohvaća poziciju prvog vidljivog znaka dokumenta
+		 *
+		 * @return poziciju prvog vidljivog znaka dokumenta
+		 */
+		public int getScroll() {
+			return scroll;
+		}
+
+		/**
+		 * Metoda koja provjerava je li se datoteka prikazivala samo za
+		 * čitanje
+		 *
+		 * @return <code>true</code> ukoliko se datoteka prikazivala samo za
+		 *         čitanje, inače <code>false</code>
+		 */
+		public boolean isViewer() {
+			return viewer;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Razred koji predstavlja format zapisa teksta u datoteci: kodnu stranicu,
+ * zastavicu koja ukazuje na to počinje li datoteka oznakom redoslijeda okteta
+ * (engl. <i>byte order mark</i>) te niz znakova kojim se u datoteci odvajaju
+ * reci. Unutar dokumenta reci se uvijek odvajaju znakom <code>'\n'</code>, a
+ * primjerak ovog razreda pamti kako ih je potrebno zapisati natrag u
+ * datoteku, kako bi spremljena datoteka bila jednaka učitanoj.
+ *
+ * <p>
+ * Primjerci ovog razreda su nepromijenjivi.
+ * </p>
+ *
+ * @see CharsetDetector
+ * @see DocumentWriter
+ *
+ * @author Davor Češljaš
+ */
+public class TextFormat {
+
+	/**
+	 * Konstanta koja predstavlja format novih dokumenata: UTF-8 bez oznake
+	 * redoslijeda okteta, a reci se odvajaju znakom <code>'\n'</code>
+	 */
+	public static final TextFormat DEFAULT = new TextFormat(StandardCharsets.UTF_8, false, "\n");
+
+	/** Članska varijabla koja predstavlja kodnu stranicu datoteke */
+	private final Charset charset;
+
+	/**
+	 * Članska varijabla koja ukazuje na to počinje li datoteka oznakom
+	 * redoslijeda okteta
+	 */
+	private final boolean bom;
+
+	/**
+	 * Članska varijabla koja predstavlja niz znakova kojim se u datoteci
+	 * odvajaju reci
+	 */
+	private final String lineSeparator;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param charset
+	 *            kodna stranica datoteke
+	 * @param bom
+	 *            zastavica koja ukazuje na to počinje li datoteka oznakom
+	 *            redoslijeda okteta
+	 * @param lineSeparator
+	 *            niz znakova kojim se u datoteci odvajaju reci
+	 */
+	public TextFormat(Charset charset, boolean bom, String lineSeparator) {
+		this.charset = charset;
+		this.bom = bom;
+		this.lineSeparator = lineSeparator;
+	}
+
+	/**
+	 * Metoda koja dohvaća kodnu stranicu datoteke
+	 *
+	 * @return kodnu stranicu datoteke
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to počinje li datoteka
+	 * oznakom redoslijeda okteta
+	 *
+	 * @return <code>true</code> ako datoteka počinje oznakom redoslijeda
+	 *         okteta, <code>false</code> inače
+	 */
+	public boolean hasBom() {
+		return bom;
+	}
+
+	/**
+	 * Metoda koja dohvaća niz znakova kojim se u datoteci odvajaju reci
+	 *
+	 * @return niz znakova kojim se u datoteci odvajaju reci
+	 */
+	public String getLineSeparator() {
+		return lineSeparator;
+	}
+
+	/**
+	 * Metoda koja dohvaća oktete kojima datoteka počinje. Ukoliko datoteka ne
+	 * počinje oznakom redoslijeda okteta vraća se prazno polje
+	 *
+	 * @return oktete oznake redoslijeda okteta ili prazno polje
+	 */
+	public byte[] getBomBytes() {
+		return bom ? bomOf(charset) : new byte[0];
+	}
+
+	/**
+	 * Metoda koja stvara novi format koji se od ovog razlikuje samo po nizu
+	 * znakova kojim se odvajaju reci
+	 *
+	 * @param lineSeparator
+	 *            novi niz znakova kojim se u datoteci odvajaju reci
+	 * @return novi primjerak razreda {@link TextFormat}
+	 */
+	public TextFormat withLineSeparator(String lineSeparator) {
+		return new TextFormat(charset, bom, lineSeparator);
+	}
+
+	/**
+	 * Statička metoda koja dohvaća oznaku redoslijeda okteta predane kodne
+	 * stranice
+	 *
+	 * @param charset
+	 *            kodna stranica čija se oznaka dohvaća
+	 * @return oktete oznake redoslijeda okteta ili prazno polje ukoliko kodna
+	 *         stranica nema takvu oznaku
+	 */
+	public static byte[] bomOf(Charset charset) {
+		switch (charset.name()) {
+		case "UTF-8":
+			return new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+		case "UTF-16BE":
+			return new byte[] { (byte) 0xFE, (byte) 0xFF };
+		case "UTF-16LE":
+			return new byte[] { (byte) 0xFF, (byte) 0xFE };
+		case "UTF-32BE":
+			return new byte[] { 0, 0, (byte) 0xFE, (byte) 0xFF };
+		case "UTF-32LE":
+			return new byte[] { (byte) 0xFF, (byte) 0xFE, 0, 0 };
+		default:
+			return new byte[0];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return charset.name() + (bom ? " BOM" : "");
+	}
+}
@@ -1,7 +1,10 @@
 package hr.fer.zemris.java.hw11.jnotepadpp.local;
 
+import java.text.Collator;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Razred koji predstavlja konkretan subjekt u oblikovnom obrascu
@@ -15,7 +18,10 @@ import java.util.ResourceBundle;
  * <a href = "https://en.wikipedia.org/wiki/Singleton_pattern">jedinstveni
  * objekt</a> te u duhu njega stvara isključivo jedan primjerak ovog razreda
  * kojem se može pristupiti sa metodom {@link #getInstance()}, a kojeg se može
- * modificirati metodom {@link #setLanguage(String)}
+ * modificirati metodom {@link #setLanguage(String)}. Uz prijevode razred
+ * nudi i usporedbu teksta za trenutni jezik ({@link #getCollator()}), a
+ * jednom stvorene usporedbe pamti po lokalizaciji, pa ih promjena jezika ne
+ * stvara ponovno
  * 
  * @see AbstractLocalizationProvider
  * 
@@ -50,6 +56,12 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 	 */
 	private ResourceBundle bundle;
 
+	/**
+	 * Članska varijabla koja predstavlja već stvorene usporedbe teksta po
+	 * lokalizacijama
+	 */
+	private final Map<Locale, Collator> collators = new ConcurrentHashMap<>();
+
 	/**
 	 * Privatni konstruktor koji se poziva točno jednom, prilikom "spomena" na
 	 * ovaj razred te koja postavlja lokalizaciju na {@value #DEFAULT_LANGUAGE}
@@ -83,6 +95,17 @@ public class LocalizationProvider extends AbstractLocalizationProvider {
 		return locale;
 	}
 
+	/**
+	 * Metoda koja dohvaća usporedbu teksta za trenutnu lokalizaciju. Razred
+	 * {@link Collator} nije siguran za istovremeno korištenje iz više dretvi,
+	 * pa se svakom pozivatelju vraća zasebna kopija zapamćene usporedbe
+	 *
+	 * @return usporedbu teksta za trenutnu lokalizaciju
+	 */
+	public Collator getCollator() {
+		return (Collator) collators.computeIfAbsent(locale, Collator::getInstance).clone();
+	}
+
 	/**
 	 * Metoda koja postavlja trenutni jezika na jezik predan kao parametar
 	 * <b>language</b>. Ovime se mijenja lokalizacija i poziva metoda
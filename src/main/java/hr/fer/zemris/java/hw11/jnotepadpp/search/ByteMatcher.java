@@ -0,0 +1,146 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Razred koji doslovni upit, kodiran kodnom stranicom datoteke, traži
+ * algoritmom Boyer-Moore-Horspool izravno nad oktetima datoteke, bez
+ * dekodiranja. Okteti se čitaju apsolutnim pozicijama pa se pozicija
+ * međuspremnika ne mijenja, a isti međuspremnik smije se pretraživati iz više
+ * primjeraka.
+ *
+ * <p>
+ * Ukoliko se veličina slova zanemaruje, svode se samo slova ASCII skupa, pa
+ * je taj način ispravan isključivo za upite sastavljene od ASCII znakova i
+ * kodne stranice kojima je ASCII skup podskup (UTF-8 i jednooktetne kodne
+ * stranice).
+ * </p>
+ *
+ * @see HorspoolMatcher
+ *
+ * @author Davor Češljaš
+ */
+public class ByteMatcher {
+
+	/** Konstanta koja predstavlja veličinu tablice pomaka */
+	private static final int TABLE_SIZE = 256;
+
+	/** Članska varijabla koja predstavlja oktete upita */
+	private final byte[] pattern;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to
+	 * razlikuju li se velika i mala slova
+	 */
+	private final boolean matchCase;
+
+	/** Članska varijabla koja predstavlja tablicu pomaka */
+	private final int[] shifts = new int[TABLE_SIZE];
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param pattern
+	 *            kodirani upit, ne smije biti prazan
+	 * @param matchCase
+	 *            zastavica koja ukazuje na to razlikuju li se velika i mala
+	 *            slova
+	 */
+	public ByteMatcher(byte[] pattern, boolean matchCase) {
+		this.matchCase = matchCase;
+		this.pattern = pattern.clone();
+		if (!matchCase) {
+			for (int i = 0; i < this.pattern.length; i++) {
+				this.pattern[i] = fold(this.pattern[i]);
+			}
+		}
+
+		int last = this.pattern.length - 1;
+		Arrays.fill(shifts, this.pattern.length);
+		for (int i = 0; i < last; i++) {
+			shifts[this.pattern[i] & 0xFF] = last - i;
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća duljinu upita u oktetima
+	 *
+	 * @return duljinu upita u oktetima
+	 */
+	public int length() {
+		return pattern.length;
+	}
+
+	/**
+	 * Metoda koja traži prvi pogodak koji počinje na poziciji
+	 * <b>from</b> ili kasnije i cijeli se nalazi ispred pozicije <b>to</b>
+	 *
+	 * @param buffer
+	 *            okteti koji se pretražuju
+	 * @param from
+	 *            pozicija od koje se traži (uključivo)
+	 * @param to
+	 *            granica pretraživanja (isključivo)
+	 * @return poziciju prvog okteta pogotka ili -1 ukoliko pogodak ne postoji
+	 */
+	public int find(ByteBuffer buffer, int from, int to) {
+		int last = pattern.length - 1;
+		for (int pos = from; pos + last < to;) {
+			byte b = octet(buffer, pos + last);
+			if (b == pattern[last] && matchesAt(buffer, pos, last)) {
+				return pos;
+			}
+			pos += shifts[b & 0xFF];
+		}
+		return -1;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava podudaraju li se prvih <b>count</b>
+	 * okteta upita s oktetima od pozicije <b>pos</b>
+	 *
+	 * @param buffer
+	 *            okteti koji se pretražuju
+	 * @param pos
+	 *            pozicija poravnata s prvim oktetom upita
+	 * @param count
+	 *            broj okteta koji se uspoređuju
+	 * @return <code>true</code> ukoliko se okteti podudaraju,
+	 *         <code>false</code> inače
+	 */
+	private boolean matchesAt(ByteBuffer buffer, int pos, int count) {
+		for (int i = count - 1; i >= 0; i--) {
+			if (octet(buffer, pos + i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća oktet, sveden na jedinstveni oblik ukoliko
+	 * se veličina slova zanemaruje
+	 *
+	 * @param buffer
+	 *            okteti koji se pretražuju
+	 * @param index
+	 *            pozicija okteta
+	 * @return oktet
+	 */
+	private byte octet(ByteBuffer buffer, int index) {
+		byte b = buffer.get(index);
+		return matchCase ? b : fold(b);
+	}
+
+	/**
+	 * Statička pomoćna metoda koja veliko slovo ASCII skupa svodi na malo
+	 *
+	 * @param b
+	 *            oktet koji se svodi
+	 * @return sveden oktet
+	 */
+	private static byte fold(byte b) {
+		return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+	}
+}
@@ -0,0 +1,114 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * Razred koji implementira sučelje {@link CharSequence} nad tekstom
+ * dokumenta, bez kopiranja cijelog teksta. Znakovi se dohvaćaju kroz prozor
+ * od najviše {@value #WINDOW_SIZE} znakova metodom
+ * {@link Document#getText(int, int, Segment)}, uz djelomični povrat, pa
+ * dokument smije vratiti i izravnu referencu na svoj spremnik. Prozor se
+ * premješta tek kada traženi znak nije u njemu.
+ *
+ * <p>
+ * Dokument se za vrijeme korištenja ne smije mijenjati, pa se primjerci
+ * koriste samo iz dretve za obradu događaja i odbacuju nakon pretraživanja.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class DocumentCharSequence implements CharSequence {
+
+	/** Konstanta koja predstavlja najveću veličinu prozora */
+	private static final int WINDOW_SIZE = 16 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja broj znakova ispred traženog koji se
+	 * dohvaćaju premještanjem prozora (pretraživanje se često vraća unatrag)
+	 */
+	private static final int BACKTRACK = 256;
+
+	/** Članska varijabla koja predstavlja dokument */
+	private final Document document;
+
+	/** Članska varijabla koja predstavlja duljinu teksta dokumenta */
+	private final int length;
+
+	/** Članska varijabla koja predstavlja prozor */
+	private final Segment window = new Segment();
+
+	/** Članska varijabla koja predstavlja poziciju prvog znaka prozora */
+	private int windowStart;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param document
+	 *            dokument čiji se tekst predstavlja
+	 */
+	public DocumentCharSequence(Document document) {
+		this.document = document;
+		this.length = document.getLength();
+		window.setPartialReturn(true);
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		int inWindow = index - windowStart;
+		if (inWindow < 0 || inWindow >= window.count) {
+			moveWindow(index);
+			inWindow = index - windowStart;
+		}
+		return window.array[window.offset + inWindow];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("Invalid range: " + start + " - " + end);
+		}
+		try {
+			return document.getText(start, end - start);
+		} catch (BadLocationException e) {
+			throw new IndexOutOfBoundsException(e.getMessage());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length).toString();
+	}
+
+	/**
+	 * Pomoćna metoda koja premješta prozor tako da sadrži znak na poziciji
+	 * <b>index</b>
+	 *
+	 * @param index
+	 *            pozicija znaka
+	 */
+	private void moveWindow(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Invalid index: " + index);
+		}
+
+		try {
+			int start = Math.max(0, index - BACKTRACK);
+			document.getText(start, Math.min(WINDOW_SIZE, length - start), window);
+			if (start + window.count <= index) {
+				// djelomični povrat je završio prije traženog znaka
+				start = index;
+				document.getText(start, Math.min(WINDOW_SIZE, length - start), window);
+			}
+			windowStart = start;
+		} catch (BadLocationException e) {
+			throw new IndexOutOfBoundsException(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JTextArea;
+import javax.swing.JViewport;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.UpdateCoalescer;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ILineIndex;
+
+/**
+ * Razred koji predstavlja pretraživanje i zamjenu teksta unutar jedne
+ * komponente {@link JTextArea}. Tekst dokumenta nikada se ne kopira u cijelosti,
+ * već se pretražuje kroz {@link DocumentCharSequence}.
+ *
+ * <p>
+ * Pretraživanje dok korisnik tipka ({@link #findIncremental()}) kreće od
+ * pozicije na kojoj je pretraživanje započelo. Ukoliko novi upit produljuje
+ * prethodni (vidi {@link SearchQuery#isExtensionOf(SearchQuery)}), kreće se od
+ * prethodnog pogotka, jer raniji pogodak ne postoji. Označavaju se samo
+ * pogotci unutar vidljivog dijela dokumenta, a oznake se osvježavaju
+ * pomicanjem pogleda i izmjenom dokumenta. Zamjena svih pogodaka
+ * ({@link #replaceAll(String)}) jednim prolaskom gradi novi tekst raspona od
+ * prvog do posljednjeg pogotka i primjenjuje ga jednom izmjenom dokumenta.
+ * </p>
+ *
+ * <p>
+ * Primjerci se koriste samo iz dretve za obradu događaja, a nakon korištenja
+ * potrebno je pozvati {@link #dispose()}.
+ * </p>
+ *
+ * @see SearchQuery
+ *
+ * @author Davor Češljaš
+ */
+public class DocumentSearch {
+
+	/** Konstanta koja predstavlja boju oznake pogotka */
+	private static final Color HIGHLIGHT_COLOR = new Color(255, 230, 120);
+
+	/** Konstanta koja predstavlja najveći broj označenih pogodaka */
+	private static final int MAX_HIGHLIGHTS = 2000;
+
+	/** Članska varijabla koja predstavlja komponentu koja se pretražuje */
+	private final JTextArea textArea;
+
+	/** Članska varijabla koja predstavlja način iscrtavanja oznaka */
+	private final Highlighter.HighlightPainter painter = new DefaultHighlighter.DefaultHighlightPainter(
+			HIGHLIGHT_COLOR);
+
+	/** Članska varijabla koja predstavlja trenutne oznake pogodaka */
+	private final List<Object> highlights = new ArrayList<>();
+
+	/** Članska varijabla koja predstavlja osvježavanje oznaka */
+	private final Runnable highlightUpdate = this::updateHighlights;
+
+	/** Članska varijabla koja predstavlja promatrača na pomicanje pogleda */
+	private final ChangeListener viewportListener = e -> UpdateCoalescer.getInstance().schedule(highlightUpdate);
+
+	/** Članska varijabla koja predstavlja promatrača na izmjene dokumenta */
+	private final DocumentListener documentListener = new DocumentListener() {
+
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			documentChanged();
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			documentChanged();
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	};
+
+	/** Članska varijabla koja predstavlja promatrača na zamjenu dokumenta */
+	private final PropertyChangeListener documentSwapListener = e -> {
+		((Document) e.getOldValue()).removeDocumentListener(documentListener);
+		((Document) e.getNewValue()).addDocumentListener(documentListener);
+		documentChanged();
+	};
+
+	/** Članska varijabla koja predstavlja trenutni upit ili <code>null</code> */
+	private SearchQuery query;
+
+	/**
+	 * Članska varijabla koja predstavlja prevedeni trenutni upit ili
+	 * <code>null</code> ukoliko je upit prazan
+	 */
+	private ITextMatcher matcher;
+
+	/** Članska varijabla koja predstavlja početak pretraživanja */
+	private int origin;
+
+	/**
+	 * Članska varijabla koja predstavlja posljednji pogodak pretraživanja dok
+	 * korisnik tipka ili <code>null</code>
+	 */
+	private int[] lastMatch;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Pretraživanje
+	 * započinje na početku trenutne oznake teksta
+	 *
+	 * @param textArea
+	 *            komponenta koja se pretražuje
+	 */
+	public DocumentSearch(JTextArea textArea) {
+		this.textArea = textArea;
+		origin = textArea.getSelectionStart();
+
+		textArea.getDocument().addDocumentListener(documentListener);
+		textArea.addPropertyChangeListener("document", documentSwapListener);
+		if (textArea.getParent() instanceof JViewport) {
+			((JViewport) textArea.getParent()).addChangeListener(viewportListener);
+		}
+	}
+
+	/**
+	 * Metoda koja postavlja novi upit i osvježava oznake pogodaka
+	 *
+	 * @param query
+	 *            novi upit
+	 * @throws java.util.regex.PatternSyntaxException
+	 *             ukoliko upit nije ispravan regularni izraz (tada se
+	 *             prethodni upit zadržava)
+	 */
+	public void setQuery(SearchQuery query) {
+		ITextMatcher newMatcher = query.isEmpty() ? null : query.compile();
+		if (!query.isExtensionOf(this.query)) {
+			lastMatch = null;
+		}
+		this.query = query;
+		matcher = newMatcher;
+		UpdateCoalescer.getInstance().schedule(highlightUpdate);
+	}
+
+	/**
+	 * Metoda koja traži trenutni upit od početka pretraživanja (ili od
+	 * prethodnog pogotka, ukoliko upit produljuje prethodni) i označava
+	 * pronađeni tekst
+	 *
+	 * @return <code>true</code> ukoliko je upit pronađen, <code>false</code>
+	 *         inače
+	 */
+	public boolean findIncremental() {
+		int from = lastMatch == null ? origin : lastMatch[0];
+		lastMatch = find(from);
+		if (lastMatch == null) {
+			textArea.select(origin, origin);
+			return false;
+		}
+		select(lastMatch);
+		return true;
+	}
+
+	/**
+	 * Metoda koja traži sljedeće pojavljivanje trenutnog upita iza oznake
+	 * teksta i označava ga. Pretraživanje se nastavlja od početka dokumenta
+	 *
+	 * @return <code>true</code> ukoliko je upit pronađen, <code>false</code>
+	 *         inače
+	 */
+	public boolean findNext() {
+		int from = textArea.getSelectionEnd();
+		if (from == textArea.getSelectionStart() && lastMatch != null && lastMatch[0] == from) {
+			// prazni pogodak regularnog izraza
+			from++;
+		}
+		int[] match = find(from);
+		if (match == null) {
+			return false;
+		}
+		origin = match[0];
+		lastMatch = match;
+		select(match);
+		return true;
+	}
+
+	/**
+	 * Metoda koja označeni tekst zamjenjuje tekstom <b>replacement</b>, ukoliko
+	 * je označeni tekst pogodak trenutnog upita, te traži sljedeći pogodak
+	 *
+	 * @param replacement
+	 *            tekst zamjene
+	 * @return <code>true</code> ukoliko je pronađen sljedeći pogodak,
+	 *         <code>false</code> inače
+	 * @throws BadLocationException
+	 *             ukoliko zamjena nije uspjela
+	 */
+	public boolean replace(String replacement) throws BadLocationException {
+		if (matcher == null) {
+			return false;
+		}
+
+		int start = textArea.getSelectionStart();
+		int end = textArea.getSelectionEnd();
+		Document document = textArea.getDocument();
+		int[] match = new int[2];
+		if (matcher.find(new DocumentCharSequence(document), start, document.getLength(), match)
+				&& match[0] == start && match[1] == end) {
+			String text = matcher.replacement(replacement);
+			replaceText(document, start, end - start, text);
+			textArea.select(start, start + text.length());
+		}
+		return findNext();
+	}
+
+	/**
+	 * Metoda koja zamjenjuje sve pogotke trenutnog upita tekstom
+	 * <b>replacement</b>. Novi tekst raspona od prvog do posljednjeg pogotka
+	 * gradi se jednim prolaskom kroz dokument i primjenjuje jednom izmjenom
+	 *
+	 * @param replacement
+	 *            tekst zamjene
+	 * @return broj zamijenjenih pogodaka
+	 * @throws BadLocationException
+	 *             ukoliko zamjena nije uspjela
+	 */
+	public int replaceAll(String replacement) throws BadLocationException {
+		if (matcher == null) {
+			return 0;
+		}
+
+		Document document = textArea.getDocument();
+		DocumentCharSequence text = new DocumentCharSequence(document);
+		int length = text.length();
+		Segment segment = new Segment();
+		segment.setPartialReturn(true);
+		StringBuilder sb = new StringBuilder();
+		int[] match = new int[2];
+		int first = -1;
+		int copied = 0;
+		int count = 0;
+		for (int pos = 0; pos <= length && matcher.find(text, pos, length, match);) {
+			if (first < 0) {
+				first = copied = match[0];
+			}
+			// tekst između pogodaka kopira se izravno iz dokumenta
+			for (int offset = copied; offset < match[0]; offset += segment.count) {
+				document.getText(offset, match[0] - offset, segment);
+				sb.append(segment.array, segment.offset, segment.count);
+			}
+			sb.append(matcher.replacement(replacement));
+			copied = match[1];
+			count++;
+			pos = match[1] > match[0] ? match[1] : match[1] + 1;
+		}
+
+		if (count > 0) {
+			replaceText(document, first, copied - first, sb.toString());
+			lastMatch = null;
+		}
+		return count;
+	}
+
+	/**
+	 * Metoda koja uklanja oznake pogodaka i sve promatrače. Nakon poziva ove
+	 * metode primjerak se više ne smije koristiti
+	 */
+	public void dispose() {
+		removeHighlights();
+		textArea.getDocument().removeDocumentListener(documentListener);
+		textArea.removePropertyChangeListener("document", documentSwapListener);
+		if (textArea.getParent() instanceof JViewport) {
+			((JViewport) textArea.getParent()).removeChangeListener(viewportListener);
+		}
+		matcher = null;
+	}
+
+	/**
+	 * Pomoćna metoda koja traži prvi pogodak od pozicije <b>from</b>, a
+	 * ukoliko ga nema, od početka dokumenta
+	 *
+	 * @param from
+	 *            pozicija od koje se traži
+	 * @return pronađeni pogodak ili <code>null</code>
+	 */
+	private int[] find(int from) {
+		if (matcher == null) {
+			return null;
+		}
+
+		DocumentCharSequence text = new DocumentCharSequence(textArea.getDocument());
+		int[] match = new int[2];
+		int length = text.length();
+		if (from <= length && matcher.find(text, from, length, match)
+				|| from > 0 && matcher.find(text, 0, length, match)) {
+			return match;
+		}
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja označava pogodak i pomiče pogled do njega
+	 *
+	 * @param match
+	 *            pogodak koji se označava
+	 */
+	private void select(int[] match) {
+		textArea.select(match[0], match[1]);
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva nakon izmjene dokumenta. Prethodni
+	 * pogodak više ne vrijedi, a oznake se osvježavaju
+	 */
+	private void documentChanged() {
+		lastMatch = null;
+		UpdateCoalescer.getInstance().schedule(highlightUpdate);
+	}
+
+	/**
+	 * Pomoćna metoda koja označava sve pogotke trenutnog upita unutar
+	 * vidljivog dijela dokumenta (proširenog na cijele retke)
+	 */
+	private void updateHighlights() {
+		removeHighlights();
+		if (matcher == null) {
+			return;
+		}
+
+		Document document = textArea.getDocument();
+		ILineIndex lineIndex = ILineIndex.of(document);
+		Rectangle visible = textArea.getVisibleRect();
+		int length = document.getLength();
+		int firstLine = lineIndex.getLineOfOffset(textArea.viewToModel(visible.getLocation()));
+		int lastLine = lineIndex.getLineOfOffset(
+				textArea.viewToModel(new Point(visible.x + visible.width, visible.y + visible.height)));
+		int start = lineIndex.getLineStartOffset(firstLine);
+		int end = lastLine + 1 < lineIndex.getLineCount() ? lineIndex.getLineEndOffset(lastLine) : length;
+
+		DocumentCharSequence text = new DocumentCharSequence(document);
+		Highlighter highlighter = textArea.getHighlighter();
+		int[] match = new int[2];
+		for (int pos = start; pos <= end && highlights.size() < MAX_HIGHLIGHTS
+				&& matcher.find(text, pos, Math.min(end, length), match);) {
+			if (match[1] > match[0]) {
+				try {
+					highlights.add(highlighter.addHighlight(match[0], match[1], painter));
+				} catch (BadLocationException ignorable) {
+				}
+			}
+			pos = match[1] > match[0] ? match[1] : match[1] + 1;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja sve oznake pogodaka
+	 */
+	private void removeHighlights() {
+		Highlighter highlighter = textArea.getHighlighter();
+		for (Object highlight : highlights) {
+			highlighter.removeHighlight(highlight);
+		}
+		highlights.clear();
+	}
+
+	/**
+	 * Statička pomoćna metoda koja jednom izmjenom zamjenjuje raspon
+	 * dokumenta novim tekstom
+	 *
+	 * @param document
+	 *            dokument čiji se tekst zamjenjuje
+	 * @param offset
+	 *            početak raspona
+	 * @param length
+	 *            duljina raspona
+	 * @param text
+	 *            novi tekst
+	 * @throws BadLocationException
+	 *             ukoliko raspon nije unutar dokumenta
+	 */
+	private static void replaceText(Document document, int offset, int length, String text)
+			throws BadLocationException {
+		if (document instanceof AbstractDocument) {
+			((AbstractDocument) document).replace(offset, length, text, null);
+			return;
+		}
+		document.remove(offset, length);
+		document.insertString(offset, text, null);
+	}
+}
@@ -0,0 +1,695 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharArraySource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.CharsetDetector;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji pretražuje sve
+ * datoteke unutar stabla direktorija. Svaki direktorij obilazi se zasebnim
+ * zadatkom (metodom {@link Files#walkFileTree} do dubine 1), a poddirektoriji
+ * i datoteke koje odgovaraju filtru pretražuju se novim zadacima, pa se
+ * stablo obilazi i pretražuje paralelno. Zadaci se izvode u zasebnom bazenu
+ * od barem {@value #MIN_PARALLELISM} dretvi, jer dretve većinu vremena čekaju
+ * na disk. Skriveni direktoriji (čiji naziv počinje točkom) i simboličke
+ * veze se ne obilaze.
+ *
+ * <p>
+ * Kodna stranica svake datoteke prepoznaje se razredom
+ * {@link CharsetDetector}, a datoteke koje izgledaju kao binarne se
+ * preskaču. Doslovni upit kodira se kodnom stranicom datoteke i traži se
+ * izravno nad oktetima (razred {@link ByteMatcher}), bez dekodiranja
+ * datoteke. Datoteke veće od {@value #SMALL_FILE_SIZE} okteta mapiraju se u
+ * memoriju, a manje se čitaju u međuspremnik koji svaka dretva ponovno
+ * koristi, pa pretraživanje ne stvara smeće razmjerno veličini stabla.
+ * Dekodira se samo okolina pogotka, za prikaz retka. Regularni izrazi (i
+ * zanemarivanje veličine slova izvan ASCII skupa) ne mogu se tražiti nad
+ * oktetima, pa se takve datoteke dekodiraju po stranicama (razred
+ * {@link MappedTextSource}).
+ * </p>
+ *
+ * <p>
+ * Cilj pogotka je putanja datoteke, a pozicija pogotka
+ * ({@link SearchHit#getOffset()}) je pozicija unutar retka, jer se pozicija
+ * unutar dokumenta ne može odrediti bez dekodiranja cijele datoteke.
+ * Pretraživanje se prekida metodom {@link #cancel(boolean)} ili nakon
+ * {@value MultiSearchWorker#MAX_HITS} pogodaka.
+ * </p>
+ *
+ * @see MultiSearchWorker
+ *
+ * @author Davor Češljaš
+ */
+public class FileSearchWorker extends SwingWorker<Integer, SearchHit<Path>> {
+
+	/**
+	 * Konstanta koja predstavlja najveću veličinu datoteke koja se čita
+	 * umjesto mapiranja
+	 */
+	private static final int SMALL_FILE_SIZE = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja veličinu dijela datoteke koji se mapira
+	 * odjednom
+	 */
+	private static final int REGION_SIZE = 1 << 30;
+
+	/**
+	 * Konstanta koja predstavlja broj okteta nakon kojih se provjerava je li
+	 * pretraživanje prekinuto
+	 */
+	private static final int SLICE_SIZE = 1 << 20;
+
+	/** Konstanta koja predstavlja najmanji broj dretvi bazena */
+	private static final int MIN_PARALLELISM = 4;
+
+	/** Članska varijabla koja predstavlja upit */
+	private final SearchQuery query;
+
+	/** Članska varijabla koja predstavlja korijenski direktorij */
+	private final Path root;
+
+	/** Članska varijabla koja predstavlja filtar naziva datoteka */
+	private final PathMatcher filter;
+
+	/** Članska varijabla koja predstavlja promatrača na pronađene pogotke */
+	private final Consumer<List<SearchHit<Path>>> hitConsumer;
+
+	/** Članska varijabla koja predstavlja broj pronađenih pogodaka */
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * Članska varijabla koja predstavlja međuspremnik za čitanje malih
+	 * datoteka, zaseban za svaku dretvu
+	 */
+	private final ThreadLocal<ByteBuffer> buffers = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(SMALL_FILE_SIZE));
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param query
+	 *            upit koji se traži, ne smije biti prazan
+	 * @param root
+	 *            korijenski direktorij
+	 * @param filter
+	 *            filtar naziva datoteka koje se pretražuju
+	 * @param hitConsumer
+	 *            promatrač koji u dretvi za obradu događaja prima pronađene
+	 *            pogotke
+	 */
+	public FileSearchWorker(SearchQuery query, Path root, PathMatcher filter,
+			Consumer<List<SearchHit<Path>>> hitConsumer) {
+		this.query = query;
+		this.root = root;
+		this.filter = filter;
+		this.hitConsumer = hitConsumer;
+	}
+
+	@Override
+	protected Integer doInBackground() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(Math.max(MIN_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+		try {
+			pool.invoke(new DirectoryTask(root));
+		} finally {
+			pool.shutdownNow();
+		}
+		return Math.min(hits.get(), MultiSearchWorker.MAX_HITS);
+	}
+
+	@Override
+	protected void process(List<SearchHit<Path>> chunks) {
+		if (!isCancelled()) {
+			hitConsumer.accept(chunks);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava treba li pretraživanje zaustaviti
+	 *
+	 * @return <code>true</code> ukoliko je pretraživanje prekinuto ili je
+	 *         pronađen najveći broj pogodaka, <code>false</code> inače
+	 */
+	private boolean isStopped() {
+		return isCancelled() || hits.get() >= MultiSearchWorker.MAX_HITS;
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zadatak obilaska jednog direktorija
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class DirectoryTask extends RecursiveAction {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja direktorij */
+		private final Path directory;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param directory
+		 *            direktorij koji se obilazi
+		 */
+		public DirectoryTask(Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		protected void compute() {
+			if (isStopped()) {
+				return;
+			}
+
+			List<RecursiveAction> tasks = new ArrayList<>();
+			try {
+				Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1,
+						new SimpleFileVisitor<Path>() {
+
+							@Override
+							public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+								if (attrs.isDirectory()) {
+									if (!file.getFileName().toString().startsWith(".")) {
+										tasks.add(new DirectoryTask(file));
+									}
+								} else if (attrs.isRegularFile() && attrs.size() > 0
+										&& filter.matches(file.getFileName())) {
+									tasks.add(new FileTask(file, attrs.size()));
+								}
+								return FileVisitResult.CONTINUE;
+							}
+
+							@Override
+							public FileVisitResult visitFileFailed(Path file, IOException exc) {
+								return FileVisitResult.CONTINUE;
+							}
+						});
+			} catch (IOException ignorable) {
+				// nedostupan direktorij se preskače
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zadatak pretraživanja jedne datoteke
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class FileTask extends RecursiveAction {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja putanju datoteke */
+		private final Path file;
+
+		/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+		private final long size;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param file
+		 *            putanja datoteke
+		 * @param size
+		 *            veličina datoteke u oktetima
+		 */
+		public FileTask(Path file, long size) {
+			this.file = file;
+			this.size = size;
+		}
+
+		@Override
+		protected void compute() {
+			if (isStopped()) {
+				return;
+			}
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				new FileScan(file, size, channel).scan();
+			} catch (IOException | CancellationException ignorable) {
+				// nedostupna ili u međuvremenu promijenjena datoteka se
+				// preskače
+			}
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja pretraživanje jedne datoteke. Razred
+	 * pamti redak i poziciju unutar retka do kojih su okteti datoteke
+	 * prebrojani, pa se svaki oktet prebrojava najviše jednom
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class FileScan {
+
+		/** Članska varijabla koja predstavlja putanju datoteke */
+		private final Path file;
+
+		/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+		private final long size;
+
+		/** Članska varijabla koja predstavlja otvorenu datoteku */
+		private final FileChannel channel;
+
+		/** Članska varijabla koja predstavlja naziv mjesta pogodaka */
+		private final String location;
+
+		/** Članska varijabla koja predstavlja kodnu stranicu datoteke */
+		private Charset charset;
+
+		/** Članska varijabla koja predstavlja dekoder okoline pogotka */
+		private CharsetDecoder decoder;
+
+		/**
+		 * Članska varijabla koja predstavlja broj okteta oznake redoslijeda
+		 * okteta na početku datoteke
+		 */
+		private int bom;
+
+		/** Članska varijabla koja predstavlja kodirani znak novog retka */
+		private byte[] newline;
+
+		/**
+		 * Članska varijabla koja predstavlja broj okteta najmanje jedinice
+		 * kodne stranice (1 za UTF-8 i jednooktetne, 2 za UTF-16, 4 za
+		 * UTF-32)
+		 */
+		private int unit;
+
+		/** Članska varijabla koja predstavlja broj prebrojanih okteta */
+		private long counted;
+
+		/** Članska varijabla koja predstavlja redak prebrojanih okteta */
+		private int line;
+
+		/** Članska varijabla koja predstavlja početak tog retka u oktetima */
+		private long lineStart;
+
+		/**
+		 * Članska varijabla koja predstavlja broj znakova tog retka do
+		 * prebrojanih okteta
+		 */
+		private int column;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param file
+		 *            putanja datoteke
+		 * @param size
+		 *            veličina datoteke u oktetima
+		 * @param channel
+		 *            otvorena datoteka
+		 */
+		public FileScan(Path file, long size, FileChannel channel) {
+			this.file = file;
+			this.size = size;
+			this.channel = channel;
+			this.location = root.relativize(file).toString();
+		}
+
+		/**
+		 * Metoda koja pretražuje datoteku
+		 *
+		 * @throws IOException
+		 *             ukoliko datoteku nije moguće pročitati
+		 * @throws CancellationException
+		 *             ukoliko je pretraživanje prekinuto
+		 */
+		public void scan() throws IOException {
+			ByteBuffer sample = buffers.get();
+			sample.clear();
+			if (size > SMALL_FILE_SIZE) {
+				sample.limit(CharsetDetector.SAMPLE_SIZE);
+			}
+			while (sample.hasRemaining() && channel.read(sample, sample.position()) > 0) {
+			}
+			sample.flip();
+
+			TextFormat format = CharsetDetector.detect(sample);
+			charset = format.getCharset();
+			newline = "\n".getBytes(charset);
+			unit = newline.length;
+			if (unit == 1 && isBinary(sample)) {
+				return;
+			}
+			bom = format.hasBom() ? format.getBomBytes().length : 0;
+			decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			counted = bom;
+			lineStart = bom;
+
+			String text = query.getText();
+			if (query.isRegex() || !query.isMatchCase() && (unit > 1 || !isAscii(text))) {
+				scanChars();
+			} else if (charset.newEncoder().canEncode(text)) {
+				// znak koji se ne može kodirati ne može biti ni u datoteci
+				scanBytes(new ByteMatcher(text.getBytes(charset), query.isMatchCase()), text.length());
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja doslovni upit traži nad oktetima datoteke.
+		 * Datoteka se mapira u dijelovima od {@value #REGION_SIZE} okteta
+		 * koji se preklapaju za duljinu upita, a pogotci u preklopu pripadaju
+		 * sljedećem dijelu
+		 *
+		 * @param matcher
+		 *            kodirani upit
+		 * @param length
+		 *            duljina upita u znakovima
+		 * @throws IOException
+		 *             ukoliko datoteku nije moguće mapirati
+		 */
+		private void scanBytes(ByteMatcher matcher, int length) throws IOException {
+			int overlap = matcher.length() - 1;
+			for (long base = 0; base < size; base += REGION_SIZE) {
+				ByteBuffer buffer = region(base, overlap);
+				int limit = buffer.limit();
+				int accept = base + REGION_SIZE >= size ? limit : REGION_SIZE;
+
+				for (int pos = base == 0 ? bom : 0; pos < accept;) {
+					if (isStopped()) {
+						throw new CancellationException();
+					}
+					int end = (int) Math.min(limit, (long) pos + SLICE_SIZE + overlap);
+					int index = matcher.find(buffer, pos, end);
+					if (index < 0) {
+						if (end == limit) {
+							break;
+						}
+						pos = end - overlap;
+					} else if (index >= accept) {
+						break;
+					} else if ((base + index - bom) % unit != 0) {
+						// pogodak ne počinje na početku znaka
+						pos = index + 1;
+					} else {
+						hit(buffer, base, index, matcher.length(), length);
+						pos = index + matcher.length();
+					}
+				}
+
+				if (base + REGION_SIZE < size) {
+					advance(buffer, base, base + REGION_SIZE);
+				}
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja upit traži nad dekodiranim tekstom datoteke.
+		 * Datoteke kodirane kodnom stranicom koju podržava razred
+		 * {@link MappedTextSource} dekodiraju se po stranicama, a ostale
+		 * (UTF-16 i UTF-32) se dekodiraju odjednom, ukoliko nisu veće od
+		 * {@value #REGION_SIZE} okteta
+		 *
+		 * @throws IOException
+		 *             ukoliko datoteku nije moguće pročitati
+		 */
+		private void scanChars() throws IOException {
+			ITextSource source;
+			if (size > SMALL_FILE_SIZE && MappedTextSource.isSupported(charset)) {
+				source = new MappedTextSource(file, charset, bom);
+			} else if (size <= REGION_SIZE) {
+				ByteBuffer buffer = region(0, 0);
+				buffer.position(bom);
+				CharBuffer decoded = decoder.decode(buffer);
+				char[] chars = new char[decoded.remaining()];
+				decoded.get(chars);
+				source = new CharArraySource(chars);
+			} else {
+				return;
+			}
+
+			ITextMatcher matcher = query.compile();
+			TextSourceCharSequence text = new TextSourceCharSequence(source, FileSearchWorker.this::isStopped);
+			int length = text.length();
+			int[] match = new int[2];
+			int line = 0;
+			int lineStart = 0;
+			int counted = 0;
+			for (int pos = 0; pos <= length && matcher.find(text, pos, length, match);) {
+				int lines = source.countLines(counted, match[0] - counted);
+				if (lines > 0) {
+					lineStart = source.findLine(counted, match[0] - counted, lines) + 1;
+					line += lines;
+				}
+				counted = match[0];
+				publish(new SearchHit<>(file, location, line, match[0] - lineStart, match[1] - match[0],
+						SearchHit.linePreview(source, match[0])));
+				countHit();
+				pos = match[1] > match[0] ? match[1] : match[1] + 1;
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja dohvaća dio datoteke od pozicije <b>base</b>.
+		 * Male datoteke nalaze se u međuspremniku dretve, a dijelovi većih se
+		 * mapiraju u memoriju
+		 *
+		 * @param base
+		 *            pozicija prvog okteta dijela
+		 * @param overlap
+		 *            broj okteta koji se dohvaćaju iza kraja dijela
+		 * @return dio datoteke
+		 * @throws IOException
+		 *             ukoliko datoteku nije moguće mapirati
+		 */
+		private ByteBuffer region(long base, int overlap) throws IOException {
+			if (size <= SMALL_FILE_SIZE) {
+				return buffers.get();
+			}
+			return channel.map(MapMode.READ_ONLY, base, Math.min(size - base, (long) REGION_SIZE + overlap));
+		}
+
+		/**
+		 * Pomoćna metoda koja objavljuje pogodak pronađen nad oktetima
+		 *
+		 * @param buffer
+		 *            dio datoteke
+		 * @param base
+		 *            pozicija prvog okteta dijela
+		 * @param index
+		 *            pozicija pogotka unutar dijela
+		 * @param byteLength
+		 *            duljina pogotka u oktetima
+		 * @param length
+		 *            duljina pogotka u znakovima
+		 */
+		private void hit(ByteBuffer buffer, long base, int index, int byteLength, int length) {
+			advance(buffer, base, base + index);
+			publish(new SearchHit<>(file, location, line, column, length, preview(buffer, base, index, byteLength)));
+			countHit();
+		}
+
+		/**
+		 * Pomoćna metoda koja prebrojava retke i znakove od prebrojanih
+		 * okteta do pozicije <b>to</b>
+		 *
+		 * @param buffer
+		 *            dio datoteke
+		 * @param base
+		 *            pozicija prvog okteta dijela
+		 * @param to
+		 *            pozicija u datoteci do koje se broji (isključivo)
+		 */
+		private void advance(ByteBuffer buffer, long base, long to) {
+			int end = (int) (to - base);
+			int from = (int) (counted - base);
+			for (int p = from; p < end; p += unit) {
+				if (isNewline(buffer, p)) {
+					line++;
+					lineStart = base + p + unit;
+				}
+			}
+			if (lineStart > counted) {
+				column = 0;
+				from = (int) (lineStart - base);
+			}
+			column += charCount(buffer, from, end);
+			counted = to;
+		}
+
+		/**
+		 * Pomoćna metoda koja dekodira okolinu pogotka do granica retka,
+		 * najviše {@value SearchHit#MAX_PREVIEW_LENGTH} znakova
+		 *
+		 * @param buffer
+		 *            dio datoteke
+		 * @param base
+		 *            pozicija prvog okteta dijela
+		 * @param index
+		 *            pozicija pogotka unutar dijela
+		 * @param byteLength
+		 *            duljina pogotka u oktetima
+		 * @return tekst retka pogotka
+		 */
+		private String preview(ByteBuffer buffer, long base, int index, int byteLength) {
+			int before = SearchHit.MAX_PREVIEW_LENGTH / 2 * unit;
+			int from = (int) Math.max(0, Math.max(lineStart - base, (long) index - before));
+			if (charset.equals(StandardCharsets.UTF_8)) {
+				while (from < index && (buffer.get(from) & 0xC0) == 0x80) {
+					from++;
+				}
+			}
+			int to = (int) Math.min(buffer.limit(), (long) index + byteLength + before);
+			to -= (to - from) % unit;
+
+			ByteBuffer slice = buffer.duplicate();
+			slice.limit(to).position(from);
+			String text;
+			try {
+				text = decoder.decode(slice).toString();
+			} catch (IOException ignorable) {
+				return "";
+			}
+
+			int start = charCount(buffer, from, index);
+			int end = start;
+			while (end < text.length() && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+				end++;
+			}
+			start = Math.max(0, end - SearchHit.MAX_PREVIEW_LENGTH);
+			return text.substring(start, end).trim();
+		}
+
+		/**
+		 * Pomoćna metoda koja broji znakove (Java znakove, pa znak izvan
+		 * osnovne ravnine broji dva puta) kodirane oktetima od pozicije
+		 * <b>from</b> do pozicije <b>to</b>
+		 *
+		 * @param buffer
+		 *            dio datoteke
+		 * @param from
+		 *            pozicija prvog okteta (uključivo)
+		 * @param to
+		 *            pozicija posljednjeg okteta (isključivo)
+		 * @return broj znakova
+		 */
+		private int charCount(ByteBuffer buffer, int from, int to) {
+			if (unit == 2) {
+				return (to - from) / 2;
+			}
+			if (unit == 4) {
+				int count = 0;
+				boolean littleEndian = charset.name().endsWith("LE");
+				for (int p = from; p < to; p += 4) {
+					int high = littleEndian ? buffer.get(p + 2) : buffer.get(p + 1);
+					count += high != 0 ? 2 : 1;
+				}
+				return count;
+			}
+			if (!charset.equals(StandardCharsets.UTF_8)) {
+				return to - from;
+			}
+
+			int count = 0;
+			for (int p = from; p < to; p++) {
+				int b = buffer.get(p) & 0xFF;
+				if ((b & 0xC0) != 0x80) {
+					count += b >= 0xF0 ? 2 : 1;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Pomoćna metoda koja provjerava počinje li znak novog retka na
+		 * poziciji <b>p</b>
+		 *
+		 * @param buffer
+		 *            dio datoteke
+		 * @param p
+		 *            pozicija unutar dijela
+		 * @return <code>true</code> ukoliko na poziciji počinje znak novog
+		 *         retka, <code>false</code> inače
+		 */
+		private boolean isNewline(ByteBuffer buffer, int p) {
+			for (int i = 0; i < unit; i++) {
+				if (buffer.get(p + i) != newline[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Pomoćna metoda koja bilježi pogodak i zaustavlja pretraživanje
+		 * ukoliko je pronađen najveći broj pogodaka
+		 */
+		private void countHit() {
+			if (hits.incrementAndGet() >= MultiSearchWorker.MAX_HITS) {
+				throw new CancellationException();
+			}
+		}
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava sadrži li uzorak jednooktetnog
+	 * ili UTF-8 teksta nul oktet, što ukazuje na binarnu datoteku
+	 *
+	 * @param sample
+	 *            uzorak s početka datoteke
+	 * @return <code>true</code> ukoliko uzorak sadrži nul oktet,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isBinary(ByteBuffer sample) {
+		for (int i = sample.position(), n = Math.min(sample.limit(), CharsetDetector.SAMPLE_SIZE); i < n; i++) {
+			if (sample.get(i) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava sastoji li se tekst samo od
+	 * znakova ASCII skupa
+	 *
+	 * @param text
+	 *            tekst koji se provjerava
+	 * @return <code>true</code> ukoliko se tekst sastoji samo od znakova ASCII
+	 *         skupa, <code>false</code> inače
+	 */
+	private static boolean isAscii(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
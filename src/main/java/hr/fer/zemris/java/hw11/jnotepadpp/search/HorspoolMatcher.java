@@ -0,0 +1,129 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Arrays;
+
+/**
+ * Razred koji implementira sučelje {@link ITextMatcher}, a koji doslovni upit
+ * traži algoritmom Boyer-Moore-Horspool. Nakon neuspješne usporedbe prozor
+ * se pomiče prema znaku teksta poravnatom s posljednjim znakom upita, pa se
+ * većina znakova teksta uopće ne pregledava.
+ *
+ * <p>
+ * Tablica pomaka ima {@value #TABLE_SIZE} mjesta, a znak se u nju preslikava
+ * donjim bitovima. Znakovi koji dijele mjesto dijele i najmanji pomak, pa je
+ * pomak uvijek siguran. Ukoliko se veličina slova zanemaruje, znakovi upita i
+ * teksta uspoređuju se nakon svođenja na jedinstveni oblik.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class HorspoolMatcher implements ITextMatcher {
+
+	/** Konstanta koja predstavlja veličinu tablice pomaka */
+	private static final int TABLE_SIZE = 256;
+
+	/** Članska varijabla koja predstavlja znakove upita */
+	private final char[] pattern;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to
+	 * razlikuju li se velika i mala slova
+	 */
+	private final boolean matchCase;
+
+	/** Članska varijabla koja predstavlja tablicu pomaka */
+	private final int[] shifts = new int[TABLE_SIZE];
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param pattern
+	 *            doslovni upit, ne smije biti prazan
+	 * @param matchCase
+	 *            zastavica koja ukazuje na to razlikuju li se velika i mala
+	 *            slova
+	 */
+	public HorspoolMatcher(String pattern, boolean matchCase) {
+		this.matchCase = matchCase;
+		this.pattern = pattern.toCharArray();
+		if (!matchCase) {
+			for (int i = 0; i < this.pattern.length; i++) {
+				this.pattern[i] = fold(this.pattern[i]);
+			}
+		}
+
+		int last = this.pattern.length - 1;
+		Arrays.fill(shifts, this.pattern.length);
+		for (int i = 0; i < last; i++) {
+			int slot = this.pattern[i] & (TABLE_SIZE - 1);
+			shifts[slot] = Math.min(shifts[slot], last - i);
+		}
+	}
+
+	@Override
+	public boolean find(CharSequence text, int from, int to, int[] match) {
+		int last = pattern.length - 1;
+		for (int pos = from; pos + last < to;) {
+			char c = character(text, pos + last);
+			if (c == pattern[last] && matchesAt(text, pos, last)) {
+				match[0] = pos;
+				match[1] = pos + pattern.length;
+				return true;
+			}
+			pos += shifts[c & (TABLE_SIZE - 1)];
+		}
+		return false;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava podudaraju li se prvih <b>count</b>
+	 * znakova upita sa znakovima teksta od pozicije <b>pos</b>
+	 *
+	 * @param text
+	 *            tekst koji se pretražuje
+	 * @param pos
+	 *            pozicija teksta poravnata s prvim znakom upita
+	 * @param count
+	 *            broj znakova koji se uspoređuju
+	 * @return <code>true</code> ukoliko se znakovi podudaraju,
+	 *         <code>false</code> inače
+	 */
+	private boolean matchesAt(CharSequence text, int pos, int count) {
+		for (int i = count - 1; i >= 0; i--) {
+			if (character(text, pos + i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća znak teksta, sveden na jedinstveni oblik
+	 * ukoliko se veličina slova zanemaruje
+	 *
+	 * @param text
+	 *            tekst koji se pretražuje
+	 * @param index
+	 *            pozicija znaka
+	 * @return znak teksta
+	 */
+	private char character(CharSequence text, int index) {
+		char c = text.charAt(index);
+		return matchCase ? c : fold(c);
+	}
+
+	/**
+	 * Statička pomoćna metoda koja znak svodi na oblik jednak za veliko i
+	 * malo slovo
+	 *
+	 * @param c
+	 *            znak koji se svodi
+	 * @return sveden znak
+	 */
+	private static char fold(char c) {
+		if (c < 128) {
+			return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+		}
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+}
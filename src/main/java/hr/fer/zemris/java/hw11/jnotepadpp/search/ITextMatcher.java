@@ -0,0 +1,45 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+/**
+ * Sučelje koje predstavlja prevedeni upit pretraživanja (vidi
+ * {@link SearchQuery#compile()}). Primjerci se ne smiju koristiti iz više
+ * dretvi istovremeno.
+ *
+ * @see HorspoolMatcher
+ * @see RegexMatcher
+ *
+ * @author Davor Češljaš
+ */
+public interface ITextMatcher {
+
+	/**
+	 * Metoda koja traži prvo pojavljivanje upita unutar raspona [<b>from</b>,
+	 * <b>to</b>) teksta <b>text</b>. Početak i kraj pronađenog pojavljivanja
+	 * zapisuju se u polje <b>match</b>
+	 *
+	 * @param text
+	 *            tekst koji se pretražuje
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param match
+	 *            polje od dva elementa u koje se zapisuje pronađeni raspon
+	 * @return <code>true</code> ukoliko je pojavljivanje pronađeno,
+	 *         <code>false</code> inače
+	 */
+	boolean find(CharSequence text, int from, int to, int[] match);
+
+	/**
+	 * Metoda koja dohvaća tekst kojim se zamjenjuje posljednje pronađeno
+	 * pojavljivanje. Pretpostavljena implementacija vraća predani tekst
+	 * zamjene
+	 *
+	 * @param replacement
+	 *            tekst zamjene koji je upisao korisnik
+	 * @return tekst kojim se zamjenjuje posljednje pronađeno pojavljivanje
+	 */
+	default String replacement(String replacement) {
+		return replacement;
+	}
+}
@@ -0,0 +1,162 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji istovremeno
+ * pretražuje više dokumenata (npr. sve otvorene prozore). Svaki dokument
+ * pretražuje se zasebnim zadatkom nad zajedničkim bazenom dretvi
+ * ({@link ForkJoinPool#commonPool()}), i to nad slikom dokumenta
+ * ({@link ITextSource}), pa se dokumenti za vrijeme pretraživanja smiju
+ * mijenjati.
+ *
+ * <p>
+ * Pogotci se objavljuju čim su pronađeni, a predaju se promatraču u dretvi
+ * za obradu događaja, u skupinama. Pretraživanje se prekida metodom
+ * {@link #cancel(boolean)}: svaki zadatak to provjerava najkasnije nakon
+ * nekoliko tisuća pregledanih znakova (vidi {@link TextSourceCharSequence}).
+ * Broj pogodaka ograničen je na {@value #MAX_HITS}. Rezultat posla je broj
+ * pronađenih pogodaka.
+ * </p>
+ *
+ * @param <T>
+ *            tip cilja pogotka (npr. prozor)
+ *
+ * @see SearchHit
+ *
+ * @author Davor Češljaš
+ */
+public class MultiSearchWorker<T> extends SwingWorker<Integer, SearchHit<T>> {
+
+	/** Konstanta koja predstavlja najveći broj pogodaka */
+	public static final int MAX_HITS = 100_000;
+
+	/** Članska varijabla koja predstavlja upit */
+	private final SearchQuery query;
+
+	/** Članska varijabla koja predstavlja slike dokumenata po ciljevima */
+	private final Map<T, ITextSource> sources;
+
+	/** Članska varijabla koja predstavlja nazive mjesta ciljeva */
+	private final Function<T, String> locations;
+
+	/** Članska varijabla koja predstavlja promatrača na pronađene pogotke */
+	private final Consumer<List<SearchHit<T>>> hitConsumer;
+
+	/** Članska varijabla koja predstavlja broj pronađenih pogodaka */
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param query
+	 *            upit koji se traži, ne smije biti prazan
+	 * @param sources
+	 *            slike dokumenata po ciljevima
+	 * @param locations
+	 *            funkcija koja cilju pridružuje naziv mjesta
+	 * @param hitConsumer
+	 *            promatrač koji u dretvi za obradu događaja prima pronađene
+	 *            pogotke
+	 */
+	public MultiSearchWorker(SearchQuery query, Map<T, ITextSource> sources, Function<T, String> locations,
+			Consumer<List<SearchHit<T>>> hitConsumer) {
+		this.query = query;
+		this.sources = sources;
+		this.locations = locations;
+		this.hitConsumer = hitConsumer;
+	}
+
+	@Override
+	protected Integer doInBackground() throws Exception {
+		List<SearchTask> tasks = new ArrayList<>();
+		for (Map.Entry<T, ITextSource> entry : sources.entrySet()) {
+			tasks.add(new SearchTask(entry.getKey(), entry.getValue()));
+		}
+
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		return Math.min(hits.get(), MAX_HITS);
+	}
+
+	@Override
+	protected void process(List<SearchHit<T>> chunks) {
+		if (!isCancelled()) {
+			hitConsumer.accept(chunks);
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja zadatak pretraživanja jednog
+	 * dokumenta
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja cilj */
+		private final T target;
+
+		/** Članska varijabla koja predstavlja sliku dokumenta */
+		private final ITextSource source;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param target
+		 *            cilj
+		 * @param source
+		 *            slika dokumenta
+		 */
+		public SearchTask(T target, ITextSource source) {
+			this.target = target;
+			this.source = source;
+		}
+
+		@Override
+		protected void compute() {
+			// prevedeni upit ne smije se dijeliti između dretvi
+			ITextMatcher matcher = query.compile();
+			String location = locations.apply(target);
+			TextSourceCharSequence text = new TextSourceCharSequence(source, MultiSearchWorker.this::isCancelled);
+			int length = text.length();
+			int[] match = new int[2];
+			int line = 0;
+			int counted = 0;
+			try {
+				for (int pos = 0; pos <= length && matcher.find(text, pos, length, match);) {
+					if (hits.incrementAndGet() > MAX_HITS) {
+						return;
+					}
+					line += source.countLines(counted, match[0] - counted);
+					counted = match[0];
+					publish(new SearchHit<>(target, location, line, match[0], match[1] - match[0], source));
+					pos = match[1] > match[0] ? match[1] : match[1] + 1;
+				}
+			} catch (CancellationException ignorable) {
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Razred koji implementira sučelje {@link ITextMatcher}, a koji traži
+ * pojavljivanja prevedenog regularnog izraza ({@link Pattern}). Izraz se
+ * prevodi samo jednom, a isti {@link Matcher} koristi se za sva
+ * pretraživanja istog teksta. Granice raspona su prozirne, pa izrazi koji
+ * gledaju ispred ili iza pojavljivanja vide i tekst izvan raspona.
+ *
+ * <p>
+ * Tekst zamjene može sadržavati reference na grupe (<code>$1</code>,
+ * <code>${ime}</code>), a znak <code>\</code> doslovno zapisuje sljedeći
+ * znak, jednako kao i kod metode {@link Matcher#appendReplacement}.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class RegexMatcher implements ITextMatcher {
+
+	/** Članska varijabla koja predstavlja prevedeni izraz */
+	private final Pattern pattern;
+
+	/**
+	 * Članska varijabla koja predstavlja {@link Matcher} posljednjeg
+	 * pretraživanja ili <code>null</code>
+	 */
+	private Matcher matcher;
+
+	/**
+	 * Članska varijabla koja predstavlja tekst posljednjeg pretraživanja ili
+	 * <code>null</code>
+	 */
+	private CharSequence text;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param pattern
+	 *            prevedeni izraz
+	 */
+	public RegexMatcher(Pattern pattern) {
+		this.pattern = pattern;
+	}
+
+	@Override
+	public boolean find(CharSequence text, int from, int to, int[] match) {
+		if (matcher == null || this.text != text) {
+			this.text = text;
+			matcher = pattern.matcher(text);
+			matcher.useTransparentBounds(true);
+			matcher.useAnchoringBounds(false);
+		}
+
+		matcher.region(from, to);
+		if (!matcher.find()) {
+			return false;
+		}
+		match[0] = matcher.start();
+		match[1] = matcher.end();
+		return true;
+	}
+
+	@Override
+	public String replacement(String replacement) {
+		StringBuilder sb = new StringBuilder(replacement.length());
+		for (int i = 0, n = replacement.length(); i < n; i++) {
+			char c = replacement.charAt(i);
+			if (c == '\\' && i + 1 < n) {
+				sb.append(replacement.charAt(++i));
+			} else if (c == '$' && i + 1 < n) {
+				i = appendGroup(replacement, i + 1, sb) - 1;
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje tekst grupe na koju se referencira tekst
+	 * zamjene od pozicije <b>start</b> (iza znaka <code>$</code>). Ukoliko
+	 * referenca nije ispravna, znak <code>$</code> zapisuje se doslovno
+	 *
+	 * @param replacement
+	 *            tekst zamjene
+	 * @param start
+	 *            pozicija iza znaka <code>$</code>
+	 * @param sb
+	 *            spremnik u koji se dodaje tekst
+	 * @return poziciju iza reference
+	 */
+	private int appendGroup(String replacement, int start, StringBuilder sb) {
+		String group = null;
+		int end = start;
+		if (replacement.charAt(start) == '{') {
+			int close = replacement.indexOf('}', start);
+			if (close > start + 1) {
+				try {
+					group = matcher.group(replacement.substring(start + 1, close));
+					end = close + 1;
+				} catch (IllegalArgumentException ignorable) {
+				}
+			}
+		} else {
+			int number = -1;
+			// uzima se najdulji niz znamenki koji je još ispravan broj grupe
+			while (end < replacement.length() && Character.isDigit(replacement.charAt(end))) {
+				int next = (number < 0 ? 0 : number * 10) + (replacement.charAt(end) - '0');
+				if (next > matcher.groupCount()) {
+					break;
+				}
+				number = next;
+				end++;
+			}
+			if (number >= 0) {
+				group = matcher.group(number);
+			}
+		}
+
+		if (end == start) {
+			sb.append('$');
+		} else if (group != null) {
+			sb.append(group);
+		}
+		return end;
+	}
+}
@@ -0,0 +1,192 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji predstavlja jedan pogodak pretraživanja više dokumenata ili
+ * datoteka. Pogodak pamti cilj (npr. prozor ili putanju datoteke), naziv
+ * mjesta za ispis, redak te poziciju i duljinu pogotka. Tekst retka za
+ * prikaz računa se tek kada je potreban, iz slike dokumenta u kojoj je
+ * pogodak pronađen, pa pogotci koji se nikada ne prikažu ne zauzimaju
+ * memoriju za tekst.
+ *
+ * @param <T>
+ *            tip cilja pogotka
+ *
+ * @author Davor Češljaš
+ */
+public class SearchHit<T> {
+
+	/** Konstanta koja predstavlja najveću duljinu prikazanog teksta retka */
+	public static final int MAX_PREVIEW_LENGTH = 200;
+
+	/** Članska varijabla koja predstavlja cilj pogotka */
+	private final T target;
+
+	/** Članska varijabla koja predstavlja naziv mjesta pogotka */
+	private final String location;
+
+	/** Članska varijabla koja predstavlja redak pogotka (od nule) */
+	private final int line;
+
+	/**
+	 * Članska varijabla koja predstavlja poziciju pogotka unutar dokumenta
+	 * (ili unutar retka, ukoliko tekst cijelog dokumenta nije dostupan, kao
+	 * kod pretraživanja datoteka)
+	 */
+	private final int offset;
+
+	/** Članska varijabla koja predstavlja duljinu pogotka */
+	private final int length;
+
+	/**
+	 * Članska varijabla koja predstavlja sliku iz koje se računa tekst retka
+	 * ili <code>null</code> ukoliko je tekst zadan
+	 */
+	private ITextSource source;
+
+	/**
+	 * Članska varijabla koja predstavlja tekst retka ili <code>null</code>
+	 * ukoliko još nije izračunat
+	 */
+	private String preview;
+
+	/**
+	 * Konstruktor koji inicijalizira pogodak čiji se tekst retka računa iz
+	 * slike dokumenta
+	 *
+	 * @param target
+	 *            cilj pogotka
+	 * @param location
+	 *            naziv mjesta pogotka
+	 * @param line
+	 *            redak pogotka (od nule)
+	 * @param offset
+	 *            pozicija pogotka unutar slike
+	 * @param length
+	 *            duljina pogotka
+	 * @param source
+	 *            slika dokumenta u kojoj je pogodak pronađen
+	 */
+	public SearchHit(T target, String location, int line, int offset, int length, ITextSource source) {
+		this.target = target;
+		this.location = location;
+		this.line = line;
+		this.offset = offset;
+		this.length = length;
+		this.source = source;
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira pogodak sa zadanim tekstom retka
+	 *
+	 * @param target
+	 *            cilj pogotka
+	 * @param location
+	 *            naziv mjesta pogotka
+	 * @param line
+	 *            redak pogotka (od nule)
+	 * @param offset
+	 *            pozicija pogotka
+	 * @param length
+	 *            duljina pogotka
+	 * @param preview
+	 *            tekst retka
+	 */
+	public SearchHit(T target, String location, int line, int offset, int length, String preview) {
+		this(target, location, line, offset, length, (ITextSource) null);
+		this.preview = preview;
+	}
+
+	/**
+	 * Metoda koja dohvaća cilj pogotka
+	 *
+	 * @return cilj pogotka
+	 */
+	public T getTarget() {
+		return target;
+	}
+
+	/**
+	 * Metoda koja dohvaća naziv mjesta pogotka
+	 *
+	 * @return naziv mjesta pogotka
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	/**
+	 * Metoda koja dohvaća redak pogotka (od nule)
+	 *
+	 * @return redak pogotka
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju pogotka
+	 *
+	 * @return poziciju pogotka
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Metoda koja dohvaća duljinu pogotka
+	 *
+	 * @return duljinu pogotka
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Metoda koja dohvaća tekst retka pogotka, skraćen na najviše
+	 * {@value #MAX_PREVIEW_LENGTH} znakova oko pogotka. Tekst se računa pri
+	 * prvom pozivu
+	 *
+	 * @return tekst retka pogotka
+	 */
+	public String getPreview() {
+		if (preview == null) {
+			preview = linePreview(source, offset);
+			source = null;
+		}
+		return preview;
+	}
+
+	@Override
+	public String toString() {
+		return location + ":" + (line + 1) + ": " + getPreview();
+	}
+
+	/**
+	 * Statička pomoćna metoda koja dohvaća tekst retka koji sadrži poziciju
+	 * <b>offset</b>, skraćen na najviše {@value #MAX_PREVIEW_LENGTH} znakova
+	 *
+	 * @param source
+	 *            slika dokumenta
+	 * @param offset
+	 *            pozicija unutar retka
+	 * @return tekst retka bez znaka novog retka
+	 */
+	static String linePreview(ITextSource source, int offset) {
+		int from = Math.max(0, offset - MAX_PREVIEW_LENGTH / 2);
+		int to = Math.min(source.length(), from + MAX_PREVIEW_LENGTH);
+		char[] chars = new char[to - from];
+		source.getChars(from, chars.length, chars, 0);
+
+		int start = offset - from;
+		while (start > 0 && chars[start - 1] != '\n') {
+			start--;
+		}
+		int end = Math.min(offset - from, chars.length);
+		while (end < chars.length && chars[end] != '\n' && chars[end] != '\r') {
+			end++;
+		}
+		return new String(chars, start, end - start).trim();
+	}
+}
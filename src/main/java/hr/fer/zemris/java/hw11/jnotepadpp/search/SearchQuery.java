@@ -0,0 +1,143 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Razred koji predstavlja nepromijenjivi upit pretraživanja: traženi tekst,
+ * razlikuju li se velika i mala slova te je li tekst regularni izraz. Upit
+ * se metodom {@link #compile()} prevodi u primjerak sučelja
+ * {@link ITextMatcher}: doslovni upit traži se algoritmom Boyer-Moore-Horspool
+ * ({@link HorspoolMatcher}), a regularni izraz prevedenim izrazom
+ * ({@link RegexMatcher}).
+ *
+ * @author Davor Češljaš
+ */
+public class SearchQuery {
+
+	/** Članska varijabla koja predstavlja traženi tekst */
+	private final String text;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to
+	 * razlikuju li se velika i mala slova
+	 */
+	private final boolean matchCase;
+
+	/**
+	 * Članska varijabla koja predstavlja zastavicu koja ukazuje na to je li
+	 * traženi tekst regularni izraz
+	 */
+	private final boolean regex;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param text
+	 *            traženi tekst
+	 * @param matchCase
+	 *            zastavica koja ukazuje na to razlikuju li se velika i mala
+	 *            slova
+	 * @param regex
+	 *            zastavica koja ukazuje na to je li traženi tekst regularni
+	 *            izraz
+	 */
+	public SearchQuery(String text, boolean matchCase, boolean regex) {
+		this.text = Objects.requireNonNull(text);
+		this.matchCase = matchCase;
+		this.regex = regex;
+	}
+
+	/**
+	 * Metoda koja dohvaća traženi tekst
+	 *
+	 * @return traženi tekst
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Metoda koja provjerava razlikuju li se velika i mala slova
+	 *
+	 * @return <code>true</code> ukoliko se velika i mala slova razlikuju,
+	 *         <code>false</code> inače
+	 */
+	public boolean isMatchCase() {
+		return matchCase;
+	}
+
+	/**
+	 * Metoda koja provjerava je li traženi tekst regularni izraz
+	 *
+	 * @return <code>true</code> ukoliko je traženi tekst regularni izraz,
+	 *         <code>false</code> inače
+	 */
+	public boolean isRegex() {
+		return regex;
+	}
+
+	/**
+	 * Metoda koja provjerava je li upit prazan
+	 *
+	 * @return <code>true</code> ukoliko je upit prazan, <code>false</code>
+	 *         inače
+	 */
+	public boolean isEmpty() {
+		return text.isEmpty();
+	}
+
+	/**
+	 * Metoda koja provjerava nastaje li ovaj upit produljenjem upita
+	 * <b>other</b>. Tada svako pojavljivanje ovog upita počinje na mjestu
+	 * pojavljivanja upita <b>other</b>, pa pretraživanje može krenuti od
+	 * njegovog prethodnog pogotka. Za regularne izraze to ne vrijedi
+	 *
+	 * @param other
+	 *            prethodni upit ili <code>null</code>
+	 * @return <code>true</code> ukoliko je ovaj upit produljenje upita
+	 *         <b>other</b>, <code>false</code> inače
+	 */
+	public boolean isExtensionOf(SearchQuery other) {
+		return other != null && !regex && !other.regex && matchCase == other.matchCase && !other.isEmpty()
+				&& text.startsWith(other.text);
+	}
+
+	/**
+	 * Metoda koja prevodi upit
+	 *
+	 * @return prevedeni upit
+	 * @throws PatternSyntaxException
+	 *             ukoliko upit nije ispravan regularni izraz
+	 * @throws IllegalStateException
+	 *             ukoliko je upit prazan
+	 */
+	public ITextMatcher compile() {
+		if (isEmpty()) {
+			throw new IllegalStateException("Empty query can not be compiled");
+		}
+		if (!regex) {
+			return new HorspoolMatcher(text, matchCase);
+		}
+		int flags = Pattern.MULTILINE | (matchCase ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+		return new RegexMatcher(Pattern.compile(text, flags));
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(text, matchCase, regex);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SearchQuery)) {
+			return false;
+		}
+		SearchQuery other = (SearchQuery) obj;
+		return text.equals(other.text) && matchCase == other.matchCase && regex == other.regex;
+	}
+}
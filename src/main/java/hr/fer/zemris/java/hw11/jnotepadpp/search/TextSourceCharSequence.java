@@ -0,0 +1,121 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.search;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji implementira sučelje {@link CharSequence} nad nepromijenjivim
+ * izvorom znakova ({@link ITextSource}), primjerice slikom dokumenta. Znakovi
+ * se čitaju kroz prozor od {@value #WINDOW_SIZE} znakova, pa se izvor nikada
+ * ne kopira u cijelosti. Primjerak smije koristiti samo jedna dretva, ali
+ * više primjeraka smije istovremeno čitati isti izvor.
+ *
+ * <p>
+ * Prilikom svakog premještanja prozora provjerava se je li pretraživanje
+ * prekinuto, pa se i pretraživanje koje ne nalazi pogodke prekida nakon
+ * najviše {@value #WINDOW_SIZE} pregledanih znakova.
+ * </p>
+ *
+ * @see DocumentCharSequence
+ *
+ * @author Davor Češljaš
+ */
+public class TextSourceCharSequence implements CharSequence {
+
+	/** Konstanta koja predstavlja veličinu prozora */
+	private static final int WINDOW_SIZE = 16 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja broj znakova ispred traženog koji se
+	 * dohvaćaju premještanjem prozora (pretraživanje se često vraća unatrag)
+	 */
+	private static final int BACKTRACK = 256;
+
+	/** Članska varijabla koja predstavlja izvor znakova */
+	private final ITextSource source;
+
+	/** Članska varijabla koja predstavlja duljinu izvora */
+	private final int length;
+
+	/** Članska varijabla koja ukazuje na to je li pretraživanje prekinuto */
+	private final BooleanSupplier cancelled;
+
+	/** Članska varijabla koja predstavlja znakove prozora */
+	private final char[] window;
+
+	/** Članska varijabla koja predstavlja poziciju prvog znaka prozora */
+	private int windowStart;
+
+	/** Članska varijabla koja predstavlja broj znakova prozora */
+	private int windowLength;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param source
+	 *            nepromijenjivi izvor znakova
+	 * @param cancelled
+	 *            provjera je li pretraživanje prekinuto
+	 */
+	public TextSourceCharSequence(ITextSource source, BooleanSupplier cancelled) {
+		this.source = source;
+		this.length = source.length();
+		this.cancelled = cancelled;
+		this.window = new char[Math.min(WINDOW_SIZE, Math.max(1, length))];
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		int inWindow = index - windowStart;
+		if (inWindow < 0 || inWindow >= windowLength) {
+			moveWindow(index);
+			inWindow = index - windowStart;
+		}
+		return window[inWindow];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("Invalid range: " + start + " - " + end);
+		}
+		char[] chars = new char[end - start];
+		source.getChars(start, chars.length, chars, 0);
+		return new String(chars);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length).toString();
+	}
+
+	/**
+	 * Pomoćna metoda koja premješta prozor tako da sadrži znak na poziciji
+	 * <b>index</b>
+	 *
+	 * @param index
+	 *            pozicija znaka
+	 * @throws CancellationException
+	 *             ukoliko je pretraživanje prekinuto
+	 */
+	private void moveWindow(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Invalid index: " + index);
+		}
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
+		}
+
+		int start = Math.max(0, Math.min(index - BACKTRACK, length - window.length));
+		windowLength = Math.min(window.length, length - start);
+		source.getChars(start, windowLength, window, 0);
+		windowStart = start;
+	}
+}
@@ -0,0 +1,206 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Apstraktni razred koji implementira sučelje {@link ILexer}, a koji sadrži
+ * pomoćne metode zajedničke leksičkim analizatorima. Sve pozicije su
+ * relativne u odnosu na početak retka, a znakovi se dohvaćaju metodom
+ * {@link #charAt(char[], int, int, int)} koja izvan retka vraća nul znak,
+ * pa analizatori ne moraju provjeravati granice retka.
+ *
+ * @author Davor Češljaš
+ */
+public abstract class AbstractLexer implements ILexer {
+
+	/**
+	 * Statička pomoćna metoda koja dohvaća znak retka
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param i
+	 *            pozicija znaka unutar retka
+	 * @return znak na poziciji <b>i</b> ili <code>'\0'</code> ukoliko je
+	 *         pozicija izvan retka
+	 */
+	protected static char charAt(char[] text, int offset, int length, int i) {
+		return i >= 0 && i < length ? text[offset + i] : '\0';
+	}
+
+	/**
+	 * Statička pomoćna metoda koja pronalazi prvo pojavljivanje niza
+	 * <b>s</b> unutar retka od pozicije <b>from</b>
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param from
+	 *            pozicija od koje se traži
+	 * @param s
+	 *            niz koji se traži
+	 * @return poziciju prvog pojavljivanja ili -1 ukoliko niz nije pronađen
+	 */
+	protected static int indexOf(char[] text, int offset, int length, int from, String s) {
+		for (int i = Math.max(from, 0), last = length - s.length(); i <= last; i++) {
+			if (startsWith(text, offset, length, i, s)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava počinje li na poziciji <b>i</b>
+	 * niz <b>s</b>
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param i
+	 *            pozicija unutar retka
+	 * @param s
+	 *            niz koji se provjerava
+	 * @return <code>true</code> ukoliko na poziciji počinje niz,
+	 *         <code>false</code> inače
+	 */
+	protected static boolean startsWith(char[] text, int offset, int length, int i, String s) {
+		if (i < 0 || i + s.length() > length) {
+			return false;
+		}
+		for (int j = 0; j < s.length(); j++) {
+			if (text[offset + i + j] != s.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja pronalazi kraj niza znakova omeđenog
+	 * znakom <b>quote</b> koji počinje na poziciji <b>start</b>. Znak iza
+	 * znaka <code>'\\'</code> se preskače
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param start
+	 *            pozicija početnog navodnika
+	 * @param quote
+	 *            znak navodnika
+	 * @return poziciju iza završnog navodnika ili duljinu retka ukoliko niz
+	 *         nije završen u retku
+	 */
+	protected static int quotedEnd(char[] text, int offset, int length, int start, char quote) {
+		for (int i = start + 1; i < length; i++) {
+			char c = text[offset + i];
+			if (c == '\\') {
+				i++;
+			} else if (c == quote) {
+				return i + 1;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja pronalazi kraj riječi koja počinje na
+	 * poziciji <b>start</b>. Riječ čine slova, znamenke i znakovi
+	 * <b>extra</b>
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param start
+	 *            pozicija prvog znaka riječi
+	 * @param extra
+	 *            dodatni znakovi koji mogu biti dio riječi
+	 * @return poziciju iza riječi
+	 */
+	protected static int wordEnd(char[] text, int offset, int length, int start, String extra) {
+		int i = start;
+		while (i < length) {
+			char c = text[offset + i];
+			if (!Character.isLetterOrDigit(c) && extra.indexOf(c) < 0) {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava nalazi li se riječ između
+	 * pozicija <b>start</b> i <b>end</b> u abecedno poredanom polju
+	 * <b>words</b>. Riječ se ne kopira
+	 *
+	 * @param words
+	 *            abecedno poredane riječi
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param start
+	 *            početak riječi
+	 * @param end
+	 *            kraj riječi (isključivo)
+	 * @return <code>true</code> ukoliko se riječ nalazi u polju,
+	 *         <code>false</code> inače
+	 */
+	protected static boolean contains(String[] words, char[] text, int offset, int start, int end) {
+		int low = 0;
+		int high = words.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compare(words[mid], text, offset + start, end - start);
+			if (cmp == 0) {
+				return true;
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja leksikografski uspoređuje niz <b>s</b> s
+	 * <b>count</b> znakova polja <b>text</b> od pozicije <b>from</b>
+	 *
+	 * @param s
+	 *            niz koji se uspoređuje
+	 * @param text
+	 *            polje znakova
+	 * @param from
+	 *            pozicija prvog znaka unutar polja
+	 * @param count
+	 *            broj znakova
+	 * @return negativan broj, nulu ili pozitivan broj ukoliko je niz manji,
+	 *         jednak ili veći od znakova polja
+	 */
+	private static int compare(String s, char[] text, int from, int count) {
+		int n = Math.min(s.length(), count);
+		for (int i = 0; i < n; i++) {
+			int diff = s.charAt(i) - text[from + i];
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return s.length() - count;
+	}
+}
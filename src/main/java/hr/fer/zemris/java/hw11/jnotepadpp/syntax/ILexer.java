@@ -0,0 +1,85 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Sučelje koje predstavlja leksički analizator jedne vrste datoteka.
+ * Analizator prepoznaje dijelove teksta jednog po jednog retka. Sve što
+ * analizator mora pamtiti između redaka (npr. nalazi li se unutar
+ * višeretčanog komentara) sažeto je u jedan cijeli broj, stanje na početku
+ * retka. Zato se nakon izmjene retci mogu ponovno analizirati od izmijenjenog
+ * retka, sve dok stanje na početku nekog retka ne postane jednako ranije
+ * zapamćenom (vidi {@link SyntaxHighlighter}).
+ *
+ * <p>
+ * Primjerci analizatora ne smiju imati promijenjivo stanje, pa se isti
+ * primjerak smije koristiti za više dokumenata.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public interface ILexer {
+
+	/** Konstanta koja predstavlja stanje na početku dokumenta */
+	int INITIAL_STATE = 0;
+
+	/**
+	 * Metoda koja prepoznaje dijelove teksta jednog retka (bez znaka novog
+	 * retka) i zapisuje ih u <b>tokens</b>, pozicijama relativnim u odnosu na
+	 * početak retka
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param state
+	 *            stanje na početku retka
+	 * @param tokens
+	 *            dijelovi teksta retka
+	 * @return stanje na početku sljedećeg retka
+	 */
+	int lexLine(char[] text, int offset, int length, int state, TokenList tokens);
+
+	/**
+	 * Statička metoda koja odabire leksički analizator prema nastavku naziva
+	 * datoteke
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @return leksički analizator ili <code>null</code> ukoliko vrsta datoteke
+	 *         nije prepoznata
+	 */
+	static ILexer forPath(Path filePath) {
+		if (filePath == null || filePath.getFileName() == null) {
+			return null;
+		}
+
+		String name = filePath.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".log") || name.matches(".*\\.log\\.\\d+")) {
+			return LogLexer.getInstance();
+		}
+		switch (name.substring(name.lastIndexOf('.') + 1)) {
+		case "java":
+			return JavaLexer.getInstance();
+		case "json":
+			return JsonLexer.getInstance();
+		case "xml":
+		case "xsd":
+		case "xsl":
+		case "xhtml":
+		case "html":
+		case "htm":
+		case "svg":
+		case "fxml":
+		case "pom":
+			return XmlLexer.getInstance();
+		case "properties":
+			return PropertiesLexer.getInstance();
+		default:
+			return null;
+		}
+	}
+}
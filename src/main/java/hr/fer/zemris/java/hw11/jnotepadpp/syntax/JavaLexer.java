@@ -0,0 +1,111 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractLexer}, a predstavlja
+ * leksički analizator izvornog koda programskog jezika Java. Prepoznaju se
+ * ključne riječi, nizovi i znakovni literali (uključujući višeretčane
+ * tekstualne blokove), brojevi, anotacije te jednoretčani i višeretčani
+ * komentari.
+ *
+ * @author Davor Češljaš
+ */
+public class JavaLexer extends AbstractLexer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final JavaLexer INSTANCE = new JavaLexer();
+
+	/** Konstanta koja predstavlja stanje unutar višeretčanog komentara */
+	private static final int BLOCK_COMMENT = 1;
+
+	/** Konstanta koja predstavlja stanje unutar tekstualnog bloka */
+	private static final int TEXT_BLOCK = 2;
+
+	/** Konstanta koja predstavlja abecedno poredane ključne riječi */
+	private static final String[] KEYWORDS = { "abstract", "assert", "boolean", "break", "byte", "case", "catch",
+			"char", "class", "const", "continue", "default", "do", "double", "else", "enum", "extends", "false",
+			"final", "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+			"interface", "long", "native", "new", "null", "package", "private", "protected", "public", "return",
+			"short", "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws",
+			"transient", "true", "try", "var", "void", "volatile", "while" };
+
+	/** Privatni konstruktor koji onemogućava stvaranje više primjeraka */
+	private JavaLexer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static JavaLexer getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public int lexLine(char[] text, int offset, int length, int state, TokenList tokens) {
+		int i = 0;
+		if (state == BLOCK_COMMENT) {
+			int end = indexOf(text, offset, length, 0, "*/");
+			if (end < 0) {
+				tokens.add(0, length, TokenType.COMMENT);
+				return BLOCK_COMMENT;
+			}
+			i = end + 2;
+			tokens.add(0, i, TokenType.COMMENT);
+		} else if (state == TEXT_BLOCK) {
+			int end = indexOf(text, offset, length, 0, "\"\"\"");
+			if (end < 0) {
+				tokens.add(0, length, TokenType.STRING);
+				return TEXT_BLOCK;
+			}
+			i = end + 3;
+			tokens.add(0, i, TokenType.STRING);
+		}
+
+		while (i < length) {
+			char c = text[offset + i];
+			char next = charAt(text, offset, length, i + 1);
+			if (c == '/' && next == '/') {
+				tokens.add(i, length, TokenType.COMMENT);
+				return INITIAL_STATE;
+			} else if (c == '/' && next == '*') {
+				int end = indexOf(text, offset, length, i + 2, "*/");
+				if (end < 0) {
+					tokens.add(i, length, TokenType.COMMENT);
+					return BLOCK_COMMENT;
+				}
+				tokens.add(i, end + 2, TokenType.COMMENT);
+				i = end + 2;
+			} else if (startsWith(text, offset, length, i, "\"\"\"")) {
+				int end = indexOf(text, offset, length, i + 3, "\"\"\"");
+				if (end < 0) {
+					tokens.add(i, length, TokenType.STRING);
+					return TEXT_BLOCK;
+				}
+				tokens.add(i, end + 3, TokenType.STRING);
+				i = end + 3;
+			} else if (c == '"' || c == '\'') {
+				int end = quotedEnd(text, offset, length, i, c);
+				tokens.add(i, end, TokenType.STRING);
+				i = end;
+			} else if (c == '@' && Character.isJavaIdentifierStart(next)) {
+				int end = wordEnd(text, offset, length, i + 1, "_$.");
+				tokens.add(i, end, TokenType.ATTRIBUTE);
+				i = end;
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int end = wordEnd(text, offset, length, i, "_$");
+				if (contains(KEYWORDS, text, offset, i, end)) {
+					tokens.add(i, end, TokenType.KEYWORD);
+				}
+				i = end;
+			} else if (Character.isDigit(c) || c == '.' && Character.isDigit(next)) {
+				int end = wordEnd(text, offset, length, i, "_.");
+				tokens.add(i, end, TokenType.NUMBER);
+				i = end;
+			} else {
+				i++;
+			}
+		}
+		return INITIAL_STATE;
+	}
+}
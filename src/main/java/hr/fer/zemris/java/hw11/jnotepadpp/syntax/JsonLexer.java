@@ -0,0 +1,61 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractLexer}, a predstavlja
+ * leksički analizator JSON dokumenata. Nizovi iza kojih slijedi dvotočka
+ * prepoznaju se kao ključevi, a prepoznaju se i ostali nizovi, brojevi te
+ * vrijednosti <code>true</code>, <code>false</code> i <code>null</code>. JSON
+ * niz ne može se protezati kroz više redaka, pa analizator uvijek završava u
+ * početnom stanju.
+ *
+ * @author Davor Češljaš
+ */
+public class JsonLexer extends AbstractLexer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final JsonLexer INSTANCE = new JsonLexer();
+
+	/** Konstanta koja predstavlja abecedno poredane ključne riječi */
+	private static final String[] KEYWORDS = { "false", "null", "true" };
+
+	/** Privatni konstruktor koji onemogućava stvaranje više primjeraka */
+	private JsonLexer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static JsonLexer getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public int lexLine(char[] text, int offset, int length, int state, TokenList tokens) {
+		int i = 0;
+		while (i < length) {
+			char c = text[offset + i];
+			if (c == '"') {
+				int end = quotedEnd(text, offset, length, i, '"');
+				int after = end;
+				while (after < length && Character.isWhitespace(text[offset + after])) {
+					after++;
+				}
+				tokens.add(i, end, charAt(text, offset, length, after) == ':' ? TokenType.KEY : TokenType.STRING);
+				i = end;
+			} else if (c == '-' || Character.isDigit(c)) {
+				int end = wordEnd(text, offset, length, i + 1, ".+-");
+				tokens.add(i, end, TokenType.NUMBER);
+				i = end;
+			} else if (Character.isLetter(c)) {
+				int end = wordEnd(text, offset, length, i, "");
+				tokens.add(i, end, contains(KEYWORDS, text, offset, i, end) ? TokenType.KEYWORD : TokenType.ERROR);
+				i = end;
+			} else {
+				i++;
+			}
+		}
+		return INITIAL_STATE;
+	}
+}
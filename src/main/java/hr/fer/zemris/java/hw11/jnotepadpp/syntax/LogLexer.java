@@ -0,0 +1,122 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractLexer}, a predstavlja
+ * leksički analizator datoteka dnevnika (<code>.log</code>). Prepoznaju se
+ * razine zapisa (pogreške i upozorenja posebnom bojom), vremenske oznake i
+ * brojevi, nazivi iznimaka te nizovi. Retci stoga traga poziva (koji počinju
+ * s <code>at</code>) prikazuju se kao komentari. Retci dnevnika međusobno su
+ * neovisni, pa analizator uvijek završava u početnom stanju.
+ *
+ * @author Davor Češljaš
+ */
+public class LogLexer extends AbstractLexer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final LogLexer INSTANCE = new LogLexer();
+
+	/** Konstanta koja predstavlja abecedno poredane razine pogrešaka */
+	private static final String[] ERRORS = { "CRITICAL", "ERROR", "FATAL", "SEVERE" };
+
+	/** Konstanta koja predstavlja abecedno poredane razine upozorenja */
+	private static final String[] WARNINGS = { "WARN", "WARNING" };
+
+	/** Konstanta koja predstavlja abecedno poredane ostale razine */
+	private static final String[] LEVELS = { "CONFIG", "DEBUG", "FINE", "FINER", "FINEST", "INFO", "TRACE" };
+
+	/** Privatni konstruktor koji onemogućava stvaranje više primjeraka */
+	private LogLexer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static LogLexer getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public int lexLine(char[] text, int offset, int length, int state, TokenList tokens) {
+		int i = 0;
+		while (i < length && Character.isWhitespace(text[offset + i])) {
+			i++;
+		}
+		if (i > 0 && startsWith(text, offset, length, i, "at ")) {
+			tokens.add(i, length, TokenType.COMMENT);
+			return INITIAL_STATE;
+		}
+
+		while (i < length) {
+			char c = text[offset + i];
+			if (Character.isDigit(c)) {
+				int end = wordEnd(text, offset, length, i, ":.,-/T");
+				tokens.add(i, end, TokenType.NUMBER);
+				i = end;
+			} else if (Character.isLetter(c)) {
+				int end = wordEnd(text, offset, length, i, "_.$");
+				tokens.add(i, end, typeOf(text, offset, i, end));
+				i = end;
+			} else if (c == '"') {
+				int end = quotedEnd(text, offset, length, i, c);
+				tokens.add(i, end, TokenType.STRING);
+				i = end;
+			} else {
+				i++;
+			}
+		}
+		return INITIAL_STATE;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja određuje vrstu riječi
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param start
+	 *            početak riječi
+	 * @param end
+	 *            kraj riječi (isključivo)
+	 * @return vrstu riječi
+	 */
+	private static TokenType typeOf(char[] text, int offset, int start, int end) {
+		if (contains(ERRORS, text, offset, start, end)) {
+			return TokenType.ERROR;
+		}
+		if (contains(WARNINGS, text, offset, start, end)) {
+			return TokenType.WARNING;
+		}
+		if (contains(LEVELS, text, offset, start, end)) {
+			return TokenType.KEYWORD;
+		}
+		int length = end - start;
+		if (endsWith(text, offset, end, length, "Exception") || endsWith(text, offset, end, length, "Error")) {
+			return TokenType.ERROR;
+		}
+		return TokenType.PLAIN;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava završava li riječ nizom
+	 * <b>suffix</b>
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param end
+	 *            kraj riječi (isključivo)
+	 * @param length
+	 *            duljina riječi
+	 * @param suffix
+	 *            nastavak koji se provjerava
+	 * @return <code>true</code> ukoliko riječ završava nastavkom,
+	 *         <code>false</code> inače
+	 */
+	private static boolean endsWith(char[] text, int offset, int end, int length, String suffix) {
+		return length >= suffix.length() && startsWith(text, offset, end, end - suffix.length(), suffix);
+	}
+}
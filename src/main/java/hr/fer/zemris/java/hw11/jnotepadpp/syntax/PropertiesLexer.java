@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractLexer}, a predstavlja
+ * leksički analizator datoteka svojstava (<code>.properties</code>).
+ * Prepoznaju se komentari, ključevi i vrijednosti. Vrijednost se nastavlja u
+ * sljedećem retku ukoliko redak završava neparnim brojem znakova
+ * <code>'\\'</code>.
+ *
+ * @author Davor Češljaš
+ */
+public class PropertiesLexer extends AbstractLexer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final PropertiesLexer INSTANCE = new PropertiesLexer();
+
+	/** Konstanta koja predstavlja stanje unutar nastavka vrijednosti */
+	private static final int CONTINUATION = 1;
+
+	/** Privatni konstruktor koji onemogućava stvaranje više primjeraka */
+	private PropertiesLexer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static PropertiesLexer getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public int lexLine(char[] text, int offset, int length, int state, TokenList tokens) {
+		int i = skipWhitespace(text, offset, length, 0);
+		if (state == CONTINUATION) {
+			tokens.add(i, length, TokenType.STRING);
+			return continues(text, offset, length) ? CONTINUATION : INITIAL_STATE;
+		}
+		if (i == length) {
+			return INITIAL_STATE;
+		}
+
+		char c = text[offset + i];
+		if (c == '#' || c == '!') {
+			tokens.add(i, length, TokenType.COMMENT);
+			return INITIAL_STATE;
+		}
+
+		int keyEnd = i;
+		while (keyEnd < length) {
+			char k = text[offset + keyEnd];
+			if (k == '\\') {
+				keyEnd += 2;
+				continue;
+			}
+			if (k == '=' || k == ':' || Character.isWhitespace(k)) {
+				break;
+			}
+			keyEnd++;
+		}
+		keyEnd = Math.min(keyEnd, length);
+		tokens.add(i, keyEnd, TokenType.KEY);
+
+		int value = skipWhitespace(text, offset, length, keyEnd);
+		char separator = charAt(text, offset, length, value);
+		if (separator == '=' || separator == ':') {
+			value = skipWhitespace(text, offset, length, value + 1);
+		}
+		tokens.add(value, length, TokenType.STRING);
+		return continues(text, offset, length) ? CONTINUATION : INITIAL_STATE;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja preskače razmake
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @param i
+	 *            pozicija od koje se preskače
+	 * @return poziciju prvog znaka koji nije razmak
+	 */
+	private static int skipWhitespace(char[] text, int offset, int length, int i) {
+		while (i < length && Character.isWhitespace(text[offset + i])) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava završava li redak neparnim
+	 * brojem znakova <code>'\\'</code> (eventualni znak <code>'\r'</code> se
+	 * zanemaruje)
+	 *
+	 * @param text
+	 *            polje koje sadrži znakove retka
+	 * @param offset
+	 *            pozicija prvog znaka retka unutar polja
+	 * @param length
+	 *            broj znakova retka
+	 * @return <code>true</code> ukoliko se vrijednost nastavlja u sljedećem
+	 *         retku, <code>false</code> inače
+	 */
+	private static boolean continues(char[] text, int offset, int length) {
+		int end = length;
+		if (end > 0 && text[offset + end - 1] == '\r') {
+			end--;
+		}
+		int backslashes = 0;
+		while (end - backslashes > 0 && text[offset + end - backslashes - 1] == '\\') {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+}
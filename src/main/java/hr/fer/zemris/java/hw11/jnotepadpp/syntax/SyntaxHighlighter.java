@@ -0,0 +1,432 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.Arrays;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Segment;
+import javax.swing.text.TabExpander;
+import javax.swing.text.Utilities;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ILineIndex;
+
+/**
+ * Razred koji implementira sučelje {@link DocumentListener}, a koji boji
+ * tekst dokumenta prema dijelovima koje prepoznaje leksički analizator
+ * ({@link ILexer}). Razred pamti stanje analizatora na početku svakog do
+ * sada analiziranog retka. Retci se analiziraju tek kada ih pogled
+ * iscrtava, i to od prvog retka čije stanje nije poznato.
+ *
+ * <p>
+ * Nakon izmjene dokumenta zapamćena stanja redaka iza izmijenjenog dijela
+ * pomiču se za broj dodanih ili uklonjenih redaka, a ponovno se analizira
+ * samo od izmijenjenog retka, i to samo dok stanje na početku retka iza
+ * izmijenjenog dijela ne postane jednako zapamćenom. Tada su sva daljnja
+ * zapamćena stanja ponovno ispravna, pa je cijena izmjene razmjerna broju
+ * izmijenjenih redaka, a ne veličini dokumenta. Ukoliko se stanje proširi
+ * izvan izmijenjenih redaka (npr. otvoren je višeretčani komentar), ponovno
+ * se iscrtavaju svi vidljivi retci.
+ * </p>
+ *
+ * <p>
+ * Primjerak ovog razreda sprema se kao svojstvo dokumenta
+ * ({@link #PROPERTY}), odakle ga dohvaćaju pogledi ({@link SyntaxView} i
+ * pogled velikih datoteka). Retci dulji od {@value #MAX_LINE_LENGTH} znakova
+ * se ne analiziraju.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class SyntaxHighlighter implements DocumentListener {
+
+	/** Konstanta koja predstavlja ključ svojstva dokumenta */
+	public static final String PROPERTY = "syntaxHighlighter";
+
+	/** Konstanta koja predstavlja najveću duljinu retka koji se analizira */
+	private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja najveći broj izmijenjenih redaka koji se
+	 * ponovno analiziraju prije nego što se stanja redaka iza njih zaborave
+	 * (pa se analiziraju tek kada postanu vidljivi)
+	 */
+	private static final int MAX_DAMAGED_LINES = 1000;
+
+	/** Konstanta koja predstavlja početni kapacitet polja stanja */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/** Članska varijabla koja predstavlja komponentu koja prikazuje dokument */
+	private final JTextComponent host;
+
+	/** Članska varijabla koja predstavlja dokument */
+	private final Document document;
+
+	/** Članska varijabla koja predstavlja leksički analizator */
+	private final ILexer lexer;
+
+	/** Članska varijabla koja predstavlja stanja na početku redaka */
+	private int[] states = new int[INITIAL_CAPACITY];
+
+	/** Članska varijabla koja predstavlja broj redaka čije je stanje zapamćeno */
+	private int known = 1;
+
+	/**
+	 * Članska varijabla koja predstavlja posljednji redak do kojeg su sva
+	 * zapamćena stanja ispravna
+	 */
+	private int clean;
+
+	/**
+	 * Članska varijabla koja predstavlja posljednji izmijenjeni redak ili -1.
+	 * Retci do njega analiziraju se i ako se stanje ne promijeni
+	 */
+	private int damaged = -1;
+
+	/** Članska varijabla koja predstavlja broj redaka dokumenta */
+	private int lineCount;
+
+	/** Članska varijabla koja predstavlja međuspremnik za tekst retka */
+	private final Segment lineText = new Segment();
+
+	/** Članska varijabla koja predstavlja dio retka koji se iscrtava */
+	private final Segment part = new Segment();
+
+	/** Članska varijabla koja predstavlja dijelove retka */
+	private final TokenList tokens = new TokenList();
+
+	/**
+	 * Članska varijabla koja predstavlja dijelove redaka koji se analiziraju
+	 * samo radi stanja
+	 */
+	private final TokenList scratch = new TokenList();
+
+	/**
+	 * Članska varijabla koja predstavlja redak čiji su dijelovi u
+	 * {@link #tokens} ili -1
+	 */
+	private int tokensLine = -1;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda i postavlja ga
+	 * kao svojstvo dokumenta komponente <b>host</b>
+	 *
+	 * @param host
+	 *            komponenta koja prikazuje dokument
+	 * @param lexer
+	 *            leksički analizator
+	 */
+	public SyntaxHighlighter(JTextComponent host, ILexer lexer) {
+		this.host = host;
+		this.document = host.getDocument();
+		this.lexer = lexer;
+		states[0] = ILexer.INITIAL_STATE;
+		lineCount = ILineIndex.of(document).getLineCount();
+
+		document.addDocumentListener(this);
+		document.putProperty(PROPERTY, this);
+	}
+
+	/**
+	 * Statička metoda koja dohvaća primjerak ovog razreda postavljen kao
+	 * svojstvo dokumenta
+	 *
+	 * @param document
+	 *            dokument
+	 * @return primjerak ovog razreda ili <code>null</code> ukoliko dokument
+	 *         nema postavljeno bojanje
+	 */
+	public static SyntaxHighlighter of(Document document) {
+		Object highlighter = document.getProperty(PROPERTY);
+		return highlighter instanceof SyntaxHighlighter ? (SyntaxHighlighter) highlighter : null;
+	}
+
+	/**
+	 * Metoda koja uklanja bojanje s dokumenta
+	 */
+	public void uninstall() {
+		document.removeDocumentListener(this);
+		if (document.getProperty(PROPERTY) == this) {
+			document.putProperty(PROPERTY, null);
+		}
+		host.repaint();
+	}
+
+	/**
+	 * Metoda koja dohvaća dokument koji se boji
+	 *
+	 * @return dokument koji se boji
+	 */
+	public Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * Metoda koja dohvaća leksički analizator
+	 *
+	 * @return leksički analizator
+	 */
+	public ILexer getLexer() {
+		return lexer;
+	}
+
+	/**
+	 * Metoda koja iscrtava tekst dokumenta od pozicije <b>p0</b> do pozicije
+	 * <b>p1</b>, koji se mora nalaziti unutar jednog retka, bojama njegovih
+	 * dijelova
+	 *
+	 * @param g
+	 *            grafički kontekst
+	 * @param x
+	 *            početna x koordinata
+	 * @param y
+	 *            y koordinata osnovne linije teksta
+	 * @param p0
+	 *            početak teksta
+	 * @param p1
+	 *            kraj teksta (isključivo)
+	 * @param expander
+	 *            objekt koji računa položaj tabulatora
+	 * @param plain
+	 *            boja običnog teksta
+	 * @return x koordinatu iza iscrtanog teksta
+	 * @throws BadLocationException
+	 *             ukoliko pozicije nisu unutar dokumenta
+	 */
+	public int drawText(Graphics g, int x, int y, int p0, int p1, TabExpander expander, Color plain)
+			throws BadLocationException {
+		ILineIndex lineIndex = ILineIndex.of(document);
+		int line = lineIndex.getLineOfOffset(p0);
+		int lineStart = lineIndex.getLineStartOffset(line);
+		lexTokens(line, lineStart, lineIndex.getLineEndOffset(line) - 1 - lineStart, p1 - lineStart);
+
+		int from = p0 - lineStart;
+		int to = Math.min(p1 - lineStart, lineText.count);
+		for (int i = 0; i < tokens.size() && from < to; i++) {
+			int start = Math.max(tokens.getStart(i), from);
+			int end = Math.min(tokens.getEnd(i), to);
+			if (end <= from) {
+				continue;
+			}
+			if (start > from) {
+				x = drawPart(g, x, y, lineStart, from, Math.min(start, to), expander, plain);
+				from = Math.min(start, to);
+			}
+			if (end > from) {
+				x = drawPart(g, x, y, lineStart, from, end, expander, tokens.getType(i).getColor(plain));
+				from = end;
+			}
+		}
+		if (from < to) {
+			x = drawPart(g, x, y, lineStart, from, to, expander, plain);
+		}
+		return x;
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		documentChanged(e.getOffset());
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		documentChanged(e.getOffset());
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva nakon izmjene dokumenta. Zapamćena stanja
+	 * redaka iza izmijenjenog retka pomiču se za broj dodanih ili uklonjenih
+	 * redaka, a izmijenjeni retci označavaju se za ponovnu analizu
+	 *
+	 * @param offset
+	 *            pozicija izmjene
+	 */
+	private void documentChanged(int offset) {
+		ILineIndex lineIndex = ILineIndex.of(document);
+		int newCount = lineIndex.getLineCount();
+		int delta = newCount - lineCount;
+		int line = lineIndex.getLineOfOffset(offset);
+		lineCount = newCount;
+		tokensLine = -1;
+
+		if (known > line + 1) {
+			if (delta > 0) {
+				ensureCapacity(known + delta);
+				System.arraycopy(states, line + 1, states, line + 1 + delta, known - line - 1);
+				known += delta;
+			} else if (delta < 0) {
+				int removed = Math.min(-delta, known - line - 1);
+				System.arraycopy(states, line + 1 + removed, states, line + 1, known - line - 1 - removed);
+				known -= removed;
+			}
+		}
+		known = Math.min(known, newCount);
+
+		if (damaged > line) {
+			damaged = Math.max(line, damaged + delta);
+		}
+		damaged = Math.max(damaged, line + Math.max(delta, 0));
+		clean = Math.min(clean, line);
+
+		if (damaged - line > MAX_DAMAGED_LINES) {
+			known = line + 1;
+			damaged = -1;
+			host.repaint();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja osigurava da su stanja svih redaka do retka
+	 * <b>line</b> ispravna. Analiza počinje od prvog retka čije stanje možda
+	 * nije ispravno, a nastavlja se i iza retka <b>line</b> sve dok stanje na
+	 * početku retka iza izmijenjenih redaka ne postane jednako zapamćenom.
+	 * Ukoliko stanje nije jednako, izmjena je promijenila i boje redaka iza
+	 * nje, pa se ponovno iscrtava cijela komponenta
+	 *
+	 * @param line
+	 *            redak čije stanje mora biti ispravno
+	 */
+	private void ensureState(int line) {
+		boolean propagated = false;
+		ILineIndex lineIndex = ILineIndex.of(document);
+		while (clean < line || clean <= damaged && clean + 1 < known) {
+			int start = lineIndex.getLineStartOffset(clean);
+			scratch.clear();
+			int end = lex(clean, start, lineIndex.getLineEndOffset(clean) - 1 - start, scratch);
+			int next = clean + 1;
+			if (next < known && next > damaged && states[next] == end) {
+				// stanje je jednako zapamćenom, pa su sva daljnja stanja ispravna
+				clean = known - 1;
+				damaged = -1;
+				continue;
+			}
+
+			propagated |= next < known && next > damaged;
+			ensureCapacity(next + 1);
+			states[next] = end;
+			clean = next;
+			known = Math.max(known, next + 1);
+		}
+		if (clean + 1 >= known) {
+			damaged = -1;
+		}
+
+		if (propagated) {
+			host.repaint();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja analizira redak i pamti njegove dijelove u
+	 * {@link #tokens}, ukoliko već nisu zapamćeni. Redak dulji od
+	 * {@value #MAX_LINE_LENGTH} znakova se ne analizira, već se čita samo
+	 * njegov dio do pozicije <b>needed</b>
+	 *
+	 * @param line
+	 *            redak
+	 * @param start
+	 *            početak retka
+	 * @param length
+	 *            duljina retka bez znaka novog retka
+	 * @param needed
+	 *            broj znakova retka koji se iscrtavaju
+	 */
+	private void lexTokens(int line, int start, int length, int needed) {
+		if (tokensLine == line) {
+			return;
+		}
+		ensureState(line);
+		tokens.clear();
+		tokensLine = -1;
+		if (length <= MAX_LINE_LENGTH) {
+			lex(line, start, length, tokens);
+			tokensLine = line;
+			return;
+		}
+
+		try {
+			document.getText(start, Math.max(0, Math.min(length, needed)), lineText);
+		} catch (BadLocationException e) {
+			lineText.count = 0;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja analizira redak počevši od njegovog zapamćenog
+	 * stanja. Tekst retka ostaje u {@link #lineText}
+	 *
+	 * @param line
+	 *            redak
+	 * @param start
+	 *            početak retka
+	 * @param length
+	 *            duljina retka bez znaka novog retka
+	 * @param result
+	 *            dijelovi retka
+	 * @return stanje na početku sljedećeg retka
+	 */
+	private int lex(int line, int start, int length, TokenList result) {
+		lineText.count = 0;
+		if (length <= 0 || length > MAX_LINE_LENGTH) {
+			return states[line];
+		}
+		try {
+			document.getText(start, length, lineText);
+		} catch (BadLocationException e) {
+			lineText.count = 0;
+			return states[line];
+		}
+		return lexer.lexLine(lineText.array, lineText.offset, lineText.count, states[line], result);
+	}
+
+	/**
+	 * Pomoćna metoda koja iscrtava dio retka jednom bojom
+	 *
+	 * @param g
+	 *            grafički kontekst
+	 * @param x
+	 *            početna x koordinata
+	 * @param y
+	 *            y koordinata osnovne linije teksta
+	 * @param lineStart
+	 *            početak retka
+	 * @param from
+	 *            početak dijela unutar retka
+	 * @param to
+	 *            kraj dijela unutar retka (isključivo)
+	 * @param expander
+	 *            objekt koji računa položaj tabulatora
+	 * @param color
+	 *            boja dijela
+	 * @return x koordinatu iza iscrtanog dijela
+	 */
+	private int drawPart(Graphics g, int x, int y, int lineStart, int from, int to, TabExpander expander,
+			Color color) {
+		part.array = lineText.array;
+		part.offset = lineText.offset + from;
+		part.count = to - from;
+		g.setColor(color);
+		return Utilities.drawTabbedText(part, x, y, g, expander, lineStart + from);
+	}
+
+	/**
+	 * Pomoćna metoda koja povećava polje stanja tako da može sadržavati
+	 * barem <b>capacity</b> stanja
+	 *
+	 * @param capacity
+	 *            potreban kapacitet
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > states.length) {
+			states = Arrays.copyOf(states, Math.max(capacity, states.length * 2));
+		}
+	}
+}
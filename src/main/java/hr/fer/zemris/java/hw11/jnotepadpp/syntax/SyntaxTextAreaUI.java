@@ -0,0 +1,25 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import javax.swing.JTextArea;
+import javax.swing.plaf.basic.BasicTextAreaUI;
+import javax.swing.text.Element;
+import javax.swing.text.View;
+
+/**
+ * Razred koji nasljeđuje razred {@link BasicTextAreaUI}. Primjerak ovog
+ * razreda postavlja se komponenti {@link JTextArea} kako bi se za prikaz
+ * koristio pogled {@link SyntaxView} koji boji tekst. Ukoliko je uključeno
+ * prelamanje redaka, koristi se uobičajeni pogled.
+ *
+ * @see SyntaxView
+ *
+ * @author Davor Češljaš
+ */
+public class SyntaxTextAreaUI extends BasicTextAreaUI {
+
+	@Override
+	public View create(Element elem) {
+		JTextArea area = (JTextArea) getComponent();
+		return area.getLineWrap() ? super.create(elem) : new SyntaxView(elem);
+	}
+}
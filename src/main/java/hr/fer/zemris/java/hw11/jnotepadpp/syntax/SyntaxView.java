@@ -0,0 +1,45 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Graphics;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainView;
+
+/**
+ * Razred koji nasljeđuje razred {@link PlainView}, a koji neoznačeni tekst
+ * iscrtava bojama koje određuje {@link SyntaxHighlighter} postavljen kao
+ * svojstvo dokumenta. Kako {@link PlainView} iscrtava samo retke unutar
+ * područja iscrtavanja, analiziraju se samo vidljivi retci. Ukoliko
+ * dokument nema postavljeno bojanje, tekst se iscrtava kao i inače.
+ *
+ * @see SyntaxTextAreaUI
+ *
+ * @author Davor Češljaš
+ */
+public class SyntaxView extends PlainView {
+
+	/**
+	 * Konstruktor koji inicijalizira pogled za element <b>elem</b>
+	 *
+	 * @param elem
+	 *            korijenski element dokumenta
+	 */
+	public SyntaxView(Element elem) {
+		super(elem);
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	protected int drawUnselectedText(Graphics g, int x, int y, int p0, int p1) throws BadLocationException {
+		SyntaxHighlighter highlighter = SyntaxHighlighter.of(getDocument());
+		if (highlighter == null) {
+			return super.drawUnselectedText(g, x, y, p0, p1);
+		}
+
+		JTextComponent host = (JTextComponent) getContainer();
+		return highlighter.drawText(g, x, y, p0, p1, this,
+				host.isEnabled() ? host.getForeground() : host.getDisabledTextColor());
+	}
+}
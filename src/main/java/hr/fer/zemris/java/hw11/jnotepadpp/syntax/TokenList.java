@@ -0,0 +1,113 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.util.Arrays;
+
+/**
+ * Razred koji predstavlja dijelove teksta jednog retka koje je prepoznao
+ * leksički analizator ({@link ILexer}). Dijelovi se pamte u poljima
+ * primitivnih tipova koja se ponovno koriste za svaki redak, pa prepoznavanje
+ * retka ne stvara nove objekte. Dijelovi teksta retka koji nisu označeni su
+ * vrste {@link TokenType#PLAIN}.
+ *
+ * @author Davor Češljaš
+ */
+public class TokenList {
+
+	/** Konstanta koja predstavlja početni kapacitet */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Konstanta koja predstavlja sve vrste dijelova teksta */
+	private static final TokenType[] TYPES = TokenType.values();
+
+	/** Članska varijabla koja predstavlja početke dijelova */
+	private int[] starts = new int[INITIAL_CAPACITY];
+
+	/** Članska varijabla koja predstavlja krajeve dijelova */
+	private int[] ends = new int[INITIAL_CAPACITY];
+
+	/** Članska varijabla koja predstavlja redne brojeve vrsta dijelova */
+	private byte[] types = new byte[INITIAL_CAPACITY];
+
+	/** Članska varijabla koja predstavlja broj dijelova */
+	private int size;
+
+	/**
+	 * Metoda koja označava dio teksta. Dijelovi se moraju označavati
+	 * redoslijedom kojim se pojavljuju u retku i ne smiju se preklapati.
+	 * Pozicije su relativne u odnosu na početak retka
+	 *
+	 * @param start
+	 *            početak dijela (uključivo)
+	 * @param end
+	 *            kraj dijela (isključivo)
+	 * @param type
+	 *            vrsta dijela
+	 */
+	public void add(int start, int end, TokenType type) {
+		if (start >= end || type == TokenType.PLAIN) {
+			return;
+		}
+		if (size > 0 && ends[size - 1] == start && types[size - 1] == type.ordinal()) {
+			ends[size - 1] = end;
+			return;
+		}
+		if (size == starts.length) {
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+			types = Arrays.copyOf(types, size * 2);
+		}
+		starts[size] = start;
+		ends[size] = end;
+		types[size] = (byte) type.ordinal();
+		size++;
+	}
+
+	/**
+	 * Metoda koja uklanja sve dijelove
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj označenih dijelova
+	 *
+	 * @return broj označenih dijelova
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Metoda koja dohvaća početak dijela na poziciji <b>index</b>
+	 *
+	 * @param index
+	 *            redni broj dijela
+	 * @return početak dijela
+	 */
+	public int getStart(int index) {
+		return starts[index];
+	}
+
+	/**
+	 * Metoda koja dohvaća kraj dijela na poziciji <b>index</b>
+	 *
+	 * @param index
+	 *            redni broj dijela
+	 * @return kraj dijela (isključivo)
+	 */
+	public int getEnd(int index) {
+		return ends[index];
+	}
+
+	/**
+	 * Metoda koja dohvaća vrstu dijela na poziciji <b>index</b>
+	 *
+	 * @param index
+	 *            redni broj dijela
+	 * @return vrstu dijela
+	 */
+	public TokenType getType(int index) {
+		return TYPES[types[index]];
+	}
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+import java.awt.Color;
+
+/**
+ * Enumeracija koja predstavlja vrste dijelova teksta koje prepoznaju
+ * leksički analizatori ({@link ILexer}). Svaka vrsta ima boju kojom se
+ * iscrtava, a vrsta {@link #PLAIN} iscrtava se bojom teksta komponente.
+ *
+ * @author Davor Češljaš
+ */
+public enum TokenType {
+
+	/** Običan tekst */
+	PLAIN(null),
+	/** Ključna riječ */
+	KEYWORD(new Color(0x00, 0x00, 0xA0)),
+	/** Niz znakova */
+	STRING(new Color(0x2A, 0x00, 0xFF)),
+	/** Komentar */
+	COMMENT(new Color(0x3F, 0x7F, 0x5F)),
+	/** Broj ili vremenska oznaka */
+	NUMBER(new Color(0x80, 0x40, 0x00)),
+	/** Naziv oznake (npr. XML elementa) */
+	TAG(new Color(0x3F, 0x7F, 0x7F)),
+	/** Naziv atributa ili oznake (npr. anotacije) */
+	ATTRIBUTE(new Color(0x7F, 0x00, 0x7F)),
+	/** Ključ (npr. u datotekama svojstava) */
+	KEY(new Color(0x00, 0x60, 0x80)),
+	/** Pogreška */
+	ERROR(new Color(0xC0, 0x00, 0x00)),
+	/** Upozorenje */
+	WARNING(new Color(0xC0, 0x70, 0x00));
+
+	/**
+	 * Članska varijabla koja predstavlja boju vrste ili <code>null</code>
+	 * ukoliko se koristi boja teksta komponente
+	 */
+	private final Color color;
+
+	/**
+	 * Konstruktor koji inicijalizira vrstu dijela teksta
+	 *
+	 * @param color
+	 *            boja vrste ili <code>null</code>
+	 */
+	private TokenType(Color color) {
+		this.color = color;
+	}
+
+	/**
+	 * Metoda koja dohvaća boju kojom se iscrtava ova vrsta
+	 *
+	 * @param plain
+	 *            boja teksta komponente
+	 * @return boju kojom se iscrtava ova vrsta
+	 */
+	public Color getColor(Color plain) {
+		return color != null ? color : plain;
+	}
+}
@@ -0,0 +1,170 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.syntax;
+
+/**
+ * Razred koji nasljeđuje razred {@link AbstractLexer}, a predstavlja
+ * leksički analizator XML (i HTML) dokumenata. Prepoznaju se oznake, nazivi
+ * i vrijednosti atributa, entiteti, komentari i CDATA odjeljci. Komentari,
+ * CDATA odjeljci, oznake i vrijednosti atributa mogu se protezati kroz više
+ * redaka.
+ *
+ * @author Davor Češljaš
+ */
+public class XmlLexer extends AbstractLexer {
+
+	/** Konstanta koja predstavlja jedini primjerak ovog razreda */
+	private static final XmlLexer INSTANCE = new XmlLexer();
+
+	/** Konstanta koja predstavlja stanje unutar teksta dokumenta */
+	private static final int TEXT = INITIAL_STATE;
+
+	/** Konstanta koja predstavlja stanje unutar komentara */
+	private static final int COMMENT = 1;
+
+	/** Konstanta koja predstavlja stanje unutar CDATA odjeljka */
+	private static final int CDATA = 2;
+
+	/** Konstanta koja predstavlja stanje unutar oznake */
+	private static final int TAG = 3;
+
+	/**
+	 * Konstanta koja predstavlja stanje unutar vrijednosti atributa omeđene
+	 * dvostrukim navodnicima
+	 */
+	private static final int DOUBLE_QUOTED = 4;
+
+	/**
+	 * Konstanta koja predstavlja stanje unutar vrijednosti atributa omeđene
+	 * jednostrukim navodnicima
+	 */
+	private static final int SINGLE_QUOTED = 5;
+
+	/** Konstanta koja predstavlja znakove naziva koji nisu slova ni znamenke */
+	private static final String NAME_CHARS = "_:-.";
+
+	/** Privatni konstruktor koji onemogućava stvaranje više primjeraka */
+	private XmlLexer() {
+	}
+
+	/**
+	 * Statička metoda koja dohvaća jedini primjerak ovog razreda
+	 *
+	 * @return jedini primjerak ovog razreda
+	 */
+	public static XmlLexer getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public int lexLine(char[] text, int offset, int length, int state, TokenList tokens) {
+		int i = 0;
+		switch (state) {
+		case COMMENT:
+		case CDATA:
+			String close = state == COMMENT ? "-->" : "]]>";
+			int end = indexOf(text, offset, length, 0, close);
+			if (end < 0) {
+				if (state == COMMENT) {
+					tokens.add(0, length, TokenType.COMMENT);
+				}
+				return state;
+			}
+			tokens.add(state == COMMENT ? 0 : end, end + 3, state == COMMENT ? TokenType.COMMENT : TokenType.TAG);
+			i = end + 3;
+			state = TEXT;
+			break;
+		case DOUBLE_QUOTED:
+		case SINGLE_QUOTED:
+			char quote = state == DOUBLE_QUOTED ? '"' : '\'';
+			int closing = 0;
+			while (closing < length && text[offset + closing] != quote) {
+				closing++;
+			}
+			if (closing == length) {
+				tokens.add(0, length, TokenType.STRING);
+				return state;
+			}
+			tokens.add(0, closing + 1, TokenType.STRING);
+			i = closing + 1;
+			state = TAG;
+			break;
+		default:
+			break;
+		}
+
+		while (i < length) {
+			if (state == TAG) {
+				char c = text[offset + i];
+				if (c == '>') {
+					tokens.add(i, i + 1, TokenType.TAG);
+					state = TEXT;
+					i++;
+				} else if ((c == '/' || c == '?') && charAt(text, offset, length, i + 1) == '>') {
+					tokens.add(i, i + 2, TokenType.TAG);
+					state = TEXT;
+					i += 2;
+				} else if (c == '"' || c == '\'') {
+					int end = i + 1;
+					while (end < length && text[offset + end] != c) {
+						end++;
+					}
+					if (end == length) {
+						tokens.add(i, length, TokenType.STRING);
+						return c == '"' ? DOUBLE_QUOTED : SINGLE_QUOTED;
+					}
+					tokens.add(i, end + 1, TokenType.STRING);
+					i = end + 1;
+				} else if (Character.isLetter(c) || c == '_' || c == ':') {
+					int end = wordEnd(text, offset, length, i, NAME_CHARS);
+					tokens.add(i, end, TokenType.ATTRIBUTE);
+					i = end;
+				} else {
+					i++;
+				}
+				continue;
+			}
+
+			char c = text[offset + i];
+			if (c == '&') {
+				int end = i + 1;
+				while (end < length && text[offset + end] != ';' && !Character.isWhitespace(text[offset + end])) {
+					end++;
+				}
+				if (charAt(text, offset, length, end) == ';') {
+					tokens.add(i, end + 1, TokenType.KEYWORD);
+					i = end + 1;
+					continue;
+				}
+				i++;
+			} else if (c != '<') {
+				i++;
+			} else if (startsWith(text, offset, length, i, "<!--")) {
+				int end = indexOf(text, offset, length, i + 4, "-->");
+				if (end < 0) {
+					tokens.add(i, length, TokenType.COMMENT);
+					return COMMENT;
+				}
+				tokens.add(i, end + 3, TokenType.COMMENT);
+				i = end + 3;
+			} else if (startsWith(text, offset, length, i, "<![CDATA[")) {
+				tokens.add(i, i + 9, TokenType.TAG);
+				int end = indexOf(text, offset, length, i + 9, "]]>");
+				if (end < 0) {
+					return CDATA;
+				}
+				tokens.add(end, end + 3, TokenType.TAG);
+				i = end + 3;
+			} else {
+				int end = i + 1;
+				char kind = charAt(text, offset, length, end);
+				if (kind == '/' || kind == '?' || kind == '!') {
+					end++;
+				}
+				end = wordEnd(text, offset, length, end, NAME_CHARS);
+				tokens.add(i, end, TokenType.TAG);
+				state = TAG;
+				i = end;
+			}
+		}
+		return state;
+	}
+}
@@ -0,0 +1,64 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.util.function.IntUnaryOperator;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * promjenu veličine slova raspona slike dokumenta (razred
+ * {@link CaseConverter}) izvan dretve za obradu događaja. Napredak se
+ * dojavljuje kroz svojstvo <code>progress</code>, a posao se prekida metodom
+ * {@link #cancel(boolean)}.
+ *
+ * <p>
+ * Rezultat posla je segment ({@link Segment}) s preslikanim rasponom, pa se
+ * preslikani znakovi ne kopiraju u primjerak razreda {@link String} prije
+ * nego što se umetnu u dokument.
+ * </p>
+ *
+ * @see CaseConverter
+ *
+ * @author Davor Češljaš
+ */
+public class CaseConvertWorker extends SwingWorker<Segment, Void> {
+
+	/** Članska varijabla koja predstavlja sliku dokumenta */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja početak raspona (uključivo) */
+	private final int from;
+
+	/** Članska varijabla koja predstavlja kraj raspona (isključivo) */
+	private final int to;
+
+	/** Članska varijabla koja predstavlja funkciju koja preslikava znakove */
+	private final IntUnaryOperator mapping;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param snapshot
+	 *            slika dokumenta čiji se znakovi preslikavaju
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param mapping
+	 *            funkcija koja preslikava znakove
+	 */
+	public CaseConvertWorker(ITextSource snapshot, int from, int to, IntUnaryOperator mapping) {
+		this.snapshot = snapshot;
+		this.from = from;
+		this.to = to;
+		this.mapping = mapping;
+	}
+
+	@Override
+	protected Segment doInBackground() throws Exception {
+		return CaseConverter.convert(snapshot, from, to - from, mapping, this::isCancelled, this::setProgress);
+	}
+}
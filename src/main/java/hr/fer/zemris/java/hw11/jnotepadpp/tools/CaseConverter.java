@@ -0,0 +1,224 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji mijenja veličinu slova raspona izvora znakova
+ * ({@link ITextSource}). Svaki znak (točnije, svaki Unicode znak, pa i onaj
+ * zapisan surogatnim parom) preslikava se predanom funkcijom, npr.
+ * {@link Character#toUpperCase(int)}, {@link Character#toLowerCase(int)} ili
+ * {@link #INVERT}.
+ *
+ * <p>
+ * Raspon se ne dohvaća kao jedan primjerak razreda {@link String}, već se
+ * dijeli na dijelove od po {@value #CHUNK_SIZE} znakova čije granice nikada
+ * ne razdvajaju surogatni par. Dijelovi se paralelno (nad zajedničkim
+ * bazenom dretvi) čitaju izravno u zajedničko polje rezultata i u njemu
+ * preslikavaju, pa se svaki znak kopira samo jednom, a rezultat se vraća kao
+ * segment ({@link Segment}) nad tim poljem, bez stvaranja primjerka razreda
+ * {@link String}. Ukoliko preslikavanje nekog dijela promijeni broj znakova
+ * (npr. surogatni par u znak osnovne ravnine), samo se taj dio preslikava u
+ * zasebni spremnik, a dijelovi se na kraju spajaju u novo polje. Preslikavanja
+ * prvih {@value #TABLE_SIZE} znakova izračunaju se unaprijed, pa se za
+ * većinu teksta funkcija ne poziva za svaki znak.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class CaseConverter {
+
+	/**
+	 * Konstanta koja predstavlja preslikavanje koje velika slova pretvara u
+	 * mala, a sve ostale znakove u velika slova
+	 */
+	public static final IntUnaryOperator INVERT = codePoint -> Character.isUpperCase(codePoint)
+			? Character.toLowerCase(codePoint)
+			: Character.toUpperCase(codePoint);
+
+	/** Konstanta koja predstavlja veličinu dijela koji obrađuje jedna dretva */
+	private static final int CHUNK_SIZE = 1024 * 1024;
+
+	/** Konstanta koja predstavlja broj znakova čija se preslikavanja računaju unaprijed */
+	private static final int TABLE_SIZE = 256;
+
+	/** Konstruktor koji onemogućava stvaranje primjeraka ovog razreda */
+	private CaseConverter() {
+	}
+
+	/**
+	 * Statička metoda koja preslikava <b>length</b> znakova izvora počevši od
+	 * pozicije <b>offset</b>. Izvor se čita iz više dretvi istovremeno, pa
+	 * mora biti nepromijenjiv (slika dokumenta). Napredak se dojavljuje po
+	 * završetku svakog dijela, a prekid se provjerava prije svakog dijela
+	 *
+	 * @param source
+	 *            izvor znakova
+	 * @param offset
+	 *            pozicija prvog znaka
+	 * @param length
+	 *            broj znakova
+	 * @param mapping
+	 *            funkcija koja preslikava znakove
+	 * @param cancelled
+	 *            funkcija koja dojavljuje je li preslikavanje prekinuto
+	 * @param progress
+	 *            promatrač koji prima napredak preslikavanja u postotcima
+	 * @return segment s preslikanim rasponom. Polje segmenta pripada
+	 *         pozivatelju
+	 * @throws CancellationException
+	 *             ukoliko je preslikavanje prekinuto
+	 */
+	public static Segment convert(ITextSource source, int offset, int length, IntUnaryOperator mapping,
+			BooleanSupplier cancelled, IntConsumer progress) {
+		int[] bounds = chunkBounds(source, offset, length);
+		int chunks = bounds.length - 1;
+		char[] result = new char[length];
+		StringBuilder[] resized = new StringBuilder[chunks];
+		int[] table = new int[TABLE_SIZE];
+		for (int c = 0; c < TABLE_SIZE; c++) {
+			table[c] = mapping.applyAsInt(c);
+		}
+
+		AtomicInteger done = new AtomicInteger();
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException();
+			}
+			int start = bounds[chunk];
+			int end = bounds[chunk + 1];
+			source.getChars(offset + start, end - start, result, start);
+			if (!convertInPlace(result, start, end, table, mapping)) {
+				source.getChars(offset + start, end - start, result, start);
+				resized[chunk] = convertResized(result, start, end, mapping);
+			}
+			progress.accept(done.incrementAndGet() * 100 / chunks);
+		});
+
+		int total = 0;
+		boolean sameLength = true;
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			sameLength &= resized[chunk] == null;
+			total += resized[chunk] != null ? resized[chunk].length() : bounds[chunk + 1] - bounds[chunk];
+		}
+		if (sameLength) {
+			return new Segment(result, 0, length);
+		}
+
+		char[] joined = new char[total];
+		for (int chunk = 0, position = 0; chunk < chunks; chunk++) {
+			int start = bounds[chunk];
+			if (resized[chunk] != null) {
+				resized[chunk].getChars(0, resized[chunk].length(), joined, position);
+				position += resized[chunk].length();
+			} else {
+				System.arraycopy(result, start, joined, position, bounds[chunk + 1] - start);
+				position += bounds[chunk + 1] - start;
+			}
+		}
+		return new Segment(joined, 0, total);
+	}
+
+	/**
+	 * Statička pomoćna metoda koja računa granice dijelova raspona, relativno
+	 * prema početku raspona. Granica koja bi razdvojila surogatni par pomiče
+	 * se iza njega
+	 *
+	 * @param source
+	 *            izvor znakova
+	 * @param offset
+	 *            pozicija prvog znaka raspona
+	 * @param length
+	 *            duljina raspona
+	 * @return polje granica, od 0 do <b>length</b>
+	 */
+	private static int[] chunkBounds(ITextSource source, int offset, int length) {
+		int chunks = Math.max(1, (length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		int[] bounds = new int[chunks + 1];
+		char[] c = new char[1];
+		for (int chunk = 1; chunk < chunks; chunk++) {
+			int bound = chunk * CHUNK_SIZE;
+			source.getChars(offset + bound - 1, 1, c, 0);
+			bounds[chunk] = Character.isHighSurrogate(c[0]) ? bound + 1 : bound;
+		}
+		bounds[chunks] = length;
+		return bounds;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja preslikava znakove polja unutar raspona
+	 * [<b>start</b>, <b>end</b>) na njihovom mjestu
+	 *
+	 * @param chars
+	 *            polje znakova
+	 * @param start
+	 *            početak raspona
+	 * @param end
+	 *            kraj raspona
+	 * @param table
+	 *            unaprijed izračunata preslikavanja prvih {@value #TABLE_SIZE}
+	 *            znakova
+	 * @param mapping
+	 *            funkcija koja preslikava znakove
+	 * @return <code>true</code> ukoliko je raspon preslikan,
+	 *         <code>false</code> ukoliko bi preslikavanje promijenilo broj
+	 *         znakova (tada je raspon djelomično preslikan)
+	 */
+	private static boolean convertInPlace(char[] chars, int start, int end, int[] table,
+			IntUnaryOperator mapping) {
+		for (int i = start; i < end;) {
+			char c = chars[i];
+			if (!Character.isSurrogate(c)) {
+				// znakovi osnovne ravnine se ne pretvaraju u kodne točke
+				int mapped = c < TABLE_SIZE ? table[c] : mapping.applyAsInt(c);
+				if (Character.isSupplementaryCodePoint(mapped)) {
+					return false;
+				}
+				chars[i++] = (char) mapped;
+				continue;
+			}
+
+			int codePoint = Character.codePointAt(chars, i, end);
+			int count = Character.charCount(codePoint);
+			int mapped = mapping.applyAsInt(codePoint);
+			if (Character.charCount(mapped) != count) {
+				return false;
+			}
+			Character.toChars(mapped, chars, i);
+			i += count;
+		}
+		return true;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja preslikava znakove polja unutar raspona
+	 * [<b>start</b>, <b>end</b>) u novi spremnik
+	 *
+	 * @param chars
+	 *            polje znakova
+	 * @param start
+	 *            početak raspona
+	 * @param end
+	 *            kraj raspona
+	 * @param mapping
+	 *            funkcija koja preslikava znakove
+	 * @return spremnik s preslikanim znakovima
+	 */
+	private static StringBuilder convertResized(char[] chars, int start, int end, IntUnaryOperator mapping) {
+		StringBuilder sb = new StringBuilder(end - start + 16);
+		for (int i = start; i < end;) {
+			int codePoint = Character.codePointAt(chars, i, end);
+			sb.appendCodePoint(mapping.applyAsInt(codePoint));
+			i += Character.charCount(codePoint);
+		}
+		return sb;
+	}
+}
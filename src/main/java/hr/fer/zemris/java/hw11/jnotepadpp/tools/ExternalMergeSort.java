@@ -0,0 +1,538 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Razred koji implementira vanjsko sortiranje spajanjem (engl. <i>external
+ * merge sort</i>) redaka teksta koji ne stane u memoriju. Ulaz se čita redak po
+ * redak, a svakih {@link #getRunSize()} znakova pročitani reci sortiraju se u
+ * memoriji (vidi {@link ParallelMergeSort}) i zapisuju kao sortirani niz u
+ * privremeni direktorij. Nizovi se potom spajaju prioritetnim redom (gomilom)
+ * u najviše {@value #MAX_FAN_IN} istovremeno otvorenih nizova, u više
+ * prolaza ukoliko je nizova više, a posljednji prolaz piše izravno u izlaz.
+ * Ulaz koji stane u jedan niz sortira se samo u memoriji.
+ *
+ * <p>
+ * Reci se uspoređuju ključevima usporedbe ({@link CollationKey}) predane
+ * usporedbe, kao i kod sortiranja označenih redaka, a jednaki reci zadržavaju
+ * međusobni redoslijed ulaza. Zauzeće memorije ograničeno je veličinom niza,
+ * koja se zadaje konstruktorom ili svojstvom sustava
+ * {@value #RUN_SIZE_PROPERTY} (vidi {@link #configuredRunSize()}).
+ * </p>
+ *
+ * <p>
+ * Sortirani reci odvajaju se zadanim nizom znakova, a iza posljednjeg retka
+ * niz se zapisuje samo ukoliko je i ulaz završavao znakom novog retka.
+ * </p>
+ *
+ * @see ParallelMergeSort
+ *
+ * @author Davor Češljaš
+ */
+public class ExternalMergeSort {
+
+	/** Konstanta koja predstavlja pretpostavljenu veličinu niza u znakovima */
+	public static final int DEFAULT_RUN_SIZE = 8 * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * veličina niza u znakovima
+	 */
+	public static final String RUN_SIZE_PROPERTY = "jnotepadpp.sort.runSize";
+
+	/**
+	 * Konstanta koja predstavlja pretpostavljenu veličinu (u znakovima)
+	 * označenih redaka od koje se oni ne sortiraju u memoriji
+	 */
+	public static final int DEFAULT_SELECTION_THRESHOLD = 256 * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * veličina označenih redaka od koje se oni sortiraju vanjskim sortiranjem
+	 */
+	public static final String SELECTION_THRESHOLD_PROPERTY = "jnotepadpp.sort.selectionThreshold";
+
+	/** Konstanta koja predstavlja najveći broj nizova koji se spajaju odjednom */
+	private static final int MAX_FAN_IN = 64;
+
+	/** Konstanta koja predstavlja udio (u postotcima) stvaranja nizova u napretku */
+	private static final int RUN_PROGRESS = 50;
+
+	/**
+	 * Konstanta koja predstavlja broj redaka nakon kojeg se provjerava prekid i
+	 * dojavljuje napredak
+	 */
+	private static final int CHECK_INTERVAL = 4096;
+
+	/** Konstanta koja predstavlja kodnu stranicu privremenih nizova */
+	private static final Charset RUN_CHARSET = StandardCharsets.UTF_8;
+
+	/** Članska varijabla koja predstavlja usporedbu redaka */
+	private final Collator collator;
+
+	/** Članska varijabla koja predstavlja redoslijed ključeva usporedbe */
+	private final Comparator<CollationKey> order;
+
+	/** Članska varijabla koja predstavlja veličinu niza u znakovima */
+	private final int runSize;
+
+	/** Članska varijabla koja dojavljuje je li sortiranje prekinuto */
+	private final BooleanSupplier cancelled;
+
+	/** Članska varijabla koja prima napredak sortiranja u postotcima */
+	private final IntConsumer progress;
+
+	/** Članska varijabla koja predstavlja broj pročitanih redaka */
+	private long totalLines;
+
+	/** Članska varijabla koja predstavlja broj redaka zapisanih spajanjem */
+	private long mergedLines;
+
+	/** Članska varijabla koja predstavlja broj prolaza spajanja */
+	private int passes;
+
+	/** Članska varijabla koja predstavlja posljednji dojavljeni napredak */
+	private int reportedProgress;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param collator
+	 *            usporedba redaka
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 * @param runSize
+	 *            veličina niza u znakovima
+	 * @param cancelled
+	 *            funkcija koja dojavljuje je li sortiranje prekinuto
+	 * @param progress
+	 *            promatrač koji prima napredak sortiranja u postotcima
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina niza nije pozitivna
+	 */
+	public ExternalMergeSort(Collator collator, boolean ascending, int runSize, BooleanSupplier cancelled,
+			IntConsumer progress) {
+		if (runSize <= 0) {
+			throw new IllegalArgumentException("Run size must be positive, was: " + runSize);
+		}
+		this.collator = collator;
+		this.order = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+		this.runSize = runSize;
+		this.cancelled = cancelled;
+		this.progress = progress;
+	}
+
+	/**
+	 * Statička metoda koja dohvaća veličinu niza zadanu svojstvom sustava
+	 * {@value #RUN_SIZE_PROPERTY}, odnosno {@value #DEFAULT_RUN_SIZE} ukoliko
+	 * svojstvo nije zadano
+	 *
+	 * @return veličinu niza u znakovima
+	 */
+	public static int configuredRunSize() {
+		return Math.max(1, Integer.getInteger(RUN_SIZE_PROPERTY, DEFAULT_RUN_SIZE));
+	}
+
+	/**
+	 * Statička metoda koja dohvaća veličinu označenih redaka (u znakovima) od
+	 * koje se oni sortiraju vanjskim sortiranjem u novu datoteku umjesto u
+	 * memoriji. Veličina se zadaje svojstvom sustava
+	 * {@value #SELECTION_THRESHOLD_PROPERTY}, a pretpostavljena vrijednost je
+	 * {@value #DEFAULT_SELECTION_THRESHOLD}
+	 *
+	 * @return veličinu označenih redaka u znakovima
+	 */
+	public static int configuredSelectionThreshold() {
+		return Math.max(1, Integer.getInteger(SELECTION_THRESHOLD_PROPERTY, DEFAULT_SELECTION_THRESHOLD));
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu niza u znakovima
+	 *
+	 * @return veličinu niza u znakovima
+	 */
+	public int getRunSize() {
+		return runSize;
+	}
+
+	/**
+	 * Metoda koja sortira sve retke ulaza <b>in</b> i zapisuje ih u izlaz
+	 * <b>out</b>, pri čemu se reci odvajaju nizom <b>lineSeparator</b>. Iza
+	 * posljednjeg retka niz se zapisuje samo ukoliko je ulaz završavao znakom
+	 * novog retka. Ulaz i izlaz se ne zatvaraju
+	 *
+	 * @param in
+	 *            ulaz čiji se reci sortiraju
+	 * @param length
+	 *            procjena duljine ulaza, koristi se samo za napredak
+	 * @param out
+	 *            izlaz u koji se zapisuju sortirani reci
+	 * @param lineSeparator
+	 *            niz znakova kojim se odvajaju zapisani reci
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 * @throws CancellationException
+	 *             ukoliko je sortiranje prekinuto
+	 */
+	public void sort(Reader in, long length, Writer out, String lineSeparator) throws IOException {
+		totalLines = 0;
+		mergedLines = 0;
+		reportedProgress = 0;
+
+		Path directory = Files.createTempDirectory("jnotepadpp-sort");
+		try {
+			LastCharReader tracker = new LastCharReader(in);
+			List<String> lines = new ArrayList<>();
+			List<Path> runs = createRuns(new BufferedReader(tracker), Math.max(1, length), lines, directory);
+			boolean terminated = tracker.endsWithLineBreak();
+			if (runs.isEmpty()) {
+				// cijeli ulaz stao je u jedan niz
+				CollationKey[] keys = sortedKeys(lines);
+				for (int i = 0; i < keys.length; i++) {
+					if (i > 0) {
+						out.write(lineSeparator);
+					}
+					out.write(keys[i].getSourceString());
+				}
+				if (terminated && keys.length > 0) {
+					out.write(lineSeparator);
+				}
+				report(100);
+				return;
+			}
+
+			passes = 1;
+			for (int count = runs.size(); count > MAX_FAN_IN; count = (count + MAX_FAN_IN - 1) / MAX_FAN_IN) {
+				passes++;
+			}
+			while (runs.size() > MAX_FAN_IN) {
+				List<Path> merged = new ArrayList<>();
+				for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+					List<Path> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+					Path run = Files.createTempFile(directory, "run", ".txt");
+					try (Writer writer = Files.newBufferedWriter(run, RUN_CHARSET)) {
+						merge(group, writer, "\n", true);
+					}
+					for (Path path : group) {
+						Files.delete(path);
+					}
+					merged.add(run);
+				}
+				runs = merged;
+			}
+			merge(runs, out, lineSeparator, terminated);
+			report(100);
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita ulaz i zapisuje sortirane nizove u privremeni
+	 * direktorij. Ukoliko ulaz stane u jedan niz, niz se ne zapisuje, a
+	 * pročitani reci ostaju u listi <b>lines</b>
+	 *
+	 * @param in
+	 *            ulaz čiji se reci sortiraju
+	 * @param length
+	 *            procjena duljine ulaza
+	 * @param lines
+	 *            lista u koju se spremaju reci trenutnog niza
+	 * @param directory
+	 *            privremeni direktorij
+	 * @return putanje zapisanih nizova ili praznu listu ukoliko je ulaz stao u
+	 *         jedan niz
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 */
+	private List<Path> createRuns(BufferedReader in, long length, List<String> lines, Path directory)
+			throws IOException {
+		List<Path> runs = new ArrayList<>();
+		long read = 0;
+		long runChars = 0;
+		for (String line = in.readLine(); line != null; line = in.readLine()) {
+			lines.add(line);
+			runChars += line.length() + 1;
+			read += line.length() + 1;
+			if (++totalLines % CHECK_INTERVAL == 0) {
+				checkCancelled();
+			}
+
+			if (runChars >= runSize) {
+				runs.add(writeRun(lines, directory));
+				lines.clear();
+				runChars = 0;
+				report((int) (Math.min(read, length) * RUN_PROGRESS / length));
+			}
+		}
+
+		if (!runs.isEmpty() && !lines.isEmpty()) {
+			runs.add(writeRun(lines, directory));
+			lines.clear();
+		}
+		return runs;
+	}
+
+	/**
+	 * Pomoćna metoda koja sortira predane retke i zapisuje ih kao novi niz u
+	 * privremeni direktorij
+	 *
+	 * @param lines
+	 *            reci niza
+	 * @param directory
+	 *            privremeni direktorij
+	 * @return putanju zapisanog niza
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 */
+	private Path writeRun(List<String> lines, Path directory) throws IOException {
+		Path run = Files.createTempFile(directory, "run", ".txt");
+		try (BufferedWriter writer = Files.newBufferedWriter(run, RUN_CHARSET)) {
+			for (CollationKey key : sortedKeys(lines)) {
+				writer.write(key.getSourceString());
+				writer.write('\n');
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa i sortira ključeve usporedbe predanih redaka
+	 *
+	 * @param lines
+	 *            reci koji se sortiraju
+	 * @return sortirane ključeve usporedbe redaka
+	 */
+	private CollationKey[] sortedKeys(List<String> lines) {
+		CollationKey[] keys = LineSortWorker.collationKeys(lines.toArray(new String[lines.size()]), collator,
+				cancelled, percent -> {
+				});
+		new ParallelMergeSort<CollationKey>(order, cancelled, percent -> {
+		}).sort(keys);
+		return keys;
+	}
+
+	/**
+	 * Pomoćna metoda koja spaja predane sortirane nizove u izlaz <b>out</b>
+	 *
+	 * @param runs
+	 *            putanje sortiranih nizova
+	 * @param out
+	 *            izlaz u koji se zapisuju reci
+	 * @param lineSeparator
+	 *            niz znakova kojim se odvajaju zapisani reci
+	 * @param terminated
+	 *            zastavica koja ukazuje na to zapisuje li se niz
+	 *            <b>lineSeparator</b> i iza posljednjeg retka
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 */
+	private void merge(List<Path> runs, Writer out, String lineSeparator, boolean terminated) throws IOException {
+		List<RunCursor> cursors = new ArrayList<>(runs.size());
+		try {
+			PriorityQueue<RunCursor> heap = new PriorityQueue<>(runs.size());
+			for (int i = 0; i < runs.size(); i++) {
+				RunCursor cursor = new RunCursor(Files.newBufferedReader(runs.get(i), RUN_CHARSET), i);
+				cursors.add(cursor);
+				if (cursor.advance()) {
+					heap.add(cursor);
+				}
+			}
+
+			long totalWork = totalLines * passes;
+			boolean first = true;
+			while (!heap.isEmpty()) {
+				RunCursor cursor = heap.poll();
+				if (!first) {
+					out.write(lineSeparator);
+				}
+				out.write(cursor.key.getSourceString());
+				first = false;
+				if (cursor.advance()) {
+					heap.add(cursor);
+				}
+
+				if (++mergedLines % CHECK_INTERVAL == 0) {
+					checkCancelled();
+					report((int) (RUN_PROGRESS + mergedLines * (100 - RUN_PROGRESS) / totalWork));
+				}
+			}
+			if (terminated && !first) {
+				out.write(lineSeparator);
+			}
+		} finally {
+			for (RunCursor cursor : cursors) {
+				cursor.reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li sortiranje prekinuto
+	 *
+	 * @throws CancellationException
+	 *             ukoliko je sortiranje prekinuto
+	 */
+	private void checkCancelled() {
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dojavljuje napredak ukoliko se on povećao
+	 *
+	 * @param percent
+	 *            napredak u postotcima
+	 */
+	private void report(int percent) {
+		if (percent > reportedProgress) {
+			reportedProgress = Math.min(100, percent);
+			progress.accept(reportedProgress);
+		}
+	}
+
+	/**
+	 * Statička pomoćna metoda koja briše privremeni direktorij i sve nizove
+	 * koji su u njemu ostali. Pogreške prilikom brisanja se zanemaruju
+	 *
+	 * @param directory
+	 *            privremeni direktorij
+	 */
+	private static void deleteDirectory(Path directory) {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path path : stream) {
+				Files.deleteIfExists(path);
+			}
+			Files.deleteIfExists(directory);
+		} catch (IOException ignorable) {
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja ulaz koji pamti posljednji pročitani
+	 * znak, kako bi se nakon čitanja redaka znalo je li ulaz završavao znakom
+	 * novog retka
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class LastCharReader extends FilterReader {
+
+		/** Članska varijabla koja predstavlja posljednji pročitani znak */
+		private int last = -1;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param in
+		 *            ulaz koji se čita
+		 */
+		public LastCharReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int c = super.read();
+			if (c != -1) {
+				last = c;
+			}
+			return c;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int read = super.read(cbuf, off, len);
+			if (read > 0) {
+				last = cbuf[off + read - 1];
+			}
+			return read;
+		}
+
+		/**
+		 * Metoda koja provjerava je li pročitani ulaz završio znakom novog
+		 * retka
+		 *
+		 * @return <code>true</code> ukoliko je posljednji pročitani znak
+		 *         <code>'\n'</code> ili <code>'\r'</code>, inače
+		 *         <code>false</code>
+		 */
+		public boolean endsWithLineBreak() {
+			return last == '\n' || last == '\r';
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja trenutni redak jednog sortiranog niza
+	 * prilikom spajanja. Jednaki reci uspoređuju se rednim brojem niza, pa
+	 * spajanje zadržava redoslijed ulaza
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class RunCursor implements Comparable<RunCursor> {
+
+		/** Članska varijabla koja predstavlja ulaz niza */
+		private final BufferedReader reader;
+
+		/** Članska varijabla koja predstavlja redni broj niza */
+		private final int index;
+
+		/** Članska varijabla koja predstavlja ključ usporedbe trenutnog retka */
+		private CollationKey key;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param reader
+		 *            ulaz niza
+		 * @param index
+		 *            redni broj niza
+		 */
+		public RunCursor(BufferedReader reader, int index) {
+			this.reader = reader;
+			this.index = index;
+		}
+
+		/**
+		 * Metoda koja čita sljedeći redak niza
+		 *
+		 * @return <code>true</code> ukoliko je redak pročitan,
+		 *         <code>false</code> ukoliko je niz pročitan do kraja
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom čitanja
+		 */
+		public boolean advance() throws IOException {
+			String line = reader.readLine();
+			if (line == null) {
+				return false;
+			}
+			key = collator.getCollationKey(line);
+			return true;
+		}
+
+		@Override
+		public int compareTo(RunCursor other) {
+			int result = order.compare(key, other.key);
+			return result != 0 ? result : Integer.compare(index, other.index);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Collator;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.document.TextSourceReader;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.CharsetDetector;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * vanjsko sortiranje redaka (razred {@link ExternalMergeSort}) izvan dretve za
+ * obradu događaja. Ulaz je datoteka na disku ili raspon slike dokumenta, a
+ * sortirani reci zapisuju se u odredišnu datoteku, pa ni ulaz ni rezultat ne
+ * moraju stati u memoriju.
+ *
+ * <p>
+ * Kodna stranica ulazne datoteke prepoznaje se iz uzorka njezinog početka
+ * (razred {@link CharsetDetector}), a rezultat se zapisuje u istoj kodnoj
+ * stranici i s istim nizom za odvajanje redaka. Rezultat se najprije zapisuje
+ * u privremenu datoteku koja se po završetku preimenuje u odredišnu, pa
+ * odredišna datoteka smije biti i sama ulazna datoteka, a prekinuto
+ * sortiranje ne ostavlja djelomičan rezultat. Napredak se dojavljuje kroz
+ * svojstvo <code>progress</code>.
+ * </p>
+ *
+ * @see ExternalMergeSort
+ *
+ * @author Davor Češljaš
+ */
+public class ExternalSortWorker extends SwingWorker<Void, Void> {
+
+	/** Konstanta koja predstavlja nastavak imena privremenih datoteka */
+	private static final String TMP_SUFFIX = ".tmp";
+
+	/**
+	 * Članska varijabla koja predstavlja ulaznu datoteku ili <code>null</code>
+	 * ukoliko se sortira raspon slike dokumenta
+	 */
+	private final Path input;
+
+	/** Članska varijabla koja predstavlja sliku dokumenta koja se sortira */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja početak raspona (uključivo) */
+	private final int from;
+
+	/** Članska varijabla koja predstavlja kraj raspona (isključivo) */
+	private final int to;
+
+	/** Članska varijabla koja predstavlja format u kojem se zapisuje rezultat */
+	private TextFormat format;
+
+	/** Članska varijabla koja predstavlja odredišnu datoteku */
+	private final Path output;
+
+	/** Članska varijabla koja predstavlja usporedbu redaka */
+	private final Collator collator;
+
+	/** Članska varijabla koja ukazuje na to sortira li se uzlazno */
+	private final boolean ascending;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji sortira
+	 * retke datoteke
+	 *
+	 * @param input
+	 *            ulazna datoteka
+	 * @param output
+	 *            odredišna datoteka
+	 * @param collator
+	 *            usporedba redaka
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 */
+	public ExternalSortWorker(Path input, Path output, Collator collator, boolean ascending) {
+		this(input, null, 0, 0, null, output, collator, ascending);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji sortira
+	 * retke raspona slike dokumenta
+	 *
+	 * @param snapshot
+	 *            slika dokumenta
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param format
+	 *            format u kojem se zapisuje rezultat
+	 * @param output
+	 *            odredišna datoteka
+	 * @param collator
+	 *            usporedba redaka
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 */
+	public ExternalSortWorker(ITextSource snapshot, int from, int to, TextFormat format, Path output,
+			Collator collator, boolean ascending) {
+		this(null, snapshot, from, to, format, output, collator, ascending);
+	}
+
+	/**
+	 * Privatni konstruktor koji sve parametre sprema u odgovarajuće članske
+	 * varijable
+	 *
+	 * @param input
+	 *            ulazna datoteka ili <code>null</code>
+	 * @param snapshot
+	 *            slika dokumenta ili <code>null</code>
+	 * @param from
+	 *            početak raspona (uključivo)
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param format
+	 *            format u kojem se zapisuje rezultat ili <code>null</code>
+	 * @param output
+	 *            odredišna datoteka
+	 * @param collator
+	 *            usporedba redaka
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 */
+	private ExternalSortWorker(Path input, ITextSource snapshot, int from, int to, TextFormat format, Path output,
+			Collator collator, boolean ascending) {
+		this.input = input;
+		this.snapshot = snapshot;
+		this.from = from;
+		this.to = to;
+		this.format = format;
+		this.output = output.toAbsolutePath();
+		this.collator = collator;
+		this.ascending = ascending;
+	}
+
+	/**
+	 * Metoda koja dohvaća odredišnu datoteku
+	 *
+	 * @return odredišnu datoteku
+	 */
+	public Path getOutput() {
+		return output;
+	}
+
+	@Override
+	protected Void doInBackground() throws Exception {
+		ExternalMergeSort sorter = new ExternalMergeSort(collator, ascending, ExternalMergeSort.configuredRunSize(),
+				this::isCancelled, this::setProgress);
+		Path tmpPath = output.resolveSibling(
+				"." + output.getFileName() + "." + Long.toHexString(System.nanoTime()) + TMP_SUFFIX);
+
+		try {
+			try (BufferedReader in = openInput();
+					OutputStream stream = Files.newOutputStream(tmpPath, StandardOpenOption.CREATE_NEW);
+					Writer out = new BufferedWriter(new OutputStreamWriter(stream, format.getCharset()))) {
+				stream.write(format.getBomBytes());
+				sorter.sort(in, input != null ? Files.size(input) : to - from, out, format.getLineSeparator());
+			}
+			Files.move(tmpPath, output, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmpPath);
+			throw e;
+		}
+		return null;
+	}
+
+	/**
+	 * Pomoćna metoda koja otvara ulaz. Ukoliko se sortira datoteka, ovdje se
+	 * prepoznaje i format u kojem se zapisuje rezultat
+	 *
+	 * @return ulaz čiji se reci sortiraju
+	 * @throws IOException
+	 *             ukoliko ulaznu datoteku nije moguće otvoriti
+	 */
+	private BufferedReader openInput() throws IOException {
+		if (input == null) {
+			return new BufferedReader(new TextSourceReader(snapshot, from, to));
+		}
+
+		ByteBuffer sample = ByteBuffer.allocate(CharsetDetector.SAMPLE_SIZE);
+		try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+			while (sample.hasRemaining() && channel.read(sample) != -1) {
+			}
+		}
+		sample.flip();
+		TextFormat detected = CharsetDetector.detect(sample);
+		int bomLength = Math.min(detected.getBomBytes().length, sample.limit());
+		sample.position(bomLength);
+		format = detected.withLineSeparator(lineSeparatorOf(detected.getCharset().decode(sample)));
+
+		InputStream stream = Files.newInputStream(input);
+		for (long skipped = 0; skipped < bomLength;) {
+			skipped += stream.skip(bomLength - skipped);
+		}
+		return new BufferedReader(new InputStreamReader(stream, detected.getCharset().newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE)));
+	}
+
+	/**
+	 * Statička pomoćna metoda koja iz uzorka određuje niz znakova kojim se
+	 * odvajaju reci
+	 *
+	 * @param sample
+	 *            dekodirani uzorak s početka datoteke
+	 * @return niz znakova kojim se odvajaju reci uzorka, a <code>"\n"</code>
+	 *         ukoliko uzorak nema redaka
+	 */
+	private static String lineSeparatorOf(CharBuffer sample) {
+		for (int i = 0, length = sample.length(); i < length; i++) {
+			char c = sample.charAt(i);
+			if (c == '\n') {
+				return "\n";
+			}
+			if (c == '\r') {
+				return i + 1 < length && sample.charAt(i + 1) == '\n' ? "\r\n" : "\r";
+			}
+		}
+		return "\n";
+	}
+}
@@ -0,0 +1,800 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji iz raspona izvora znakova ({@link ITextSource}) uklanja
+ * ponovljene retke, a zadržava prvo pojavljivanje svakog retka i redoslijed
+ * redaka. Reci se ne spremaju kao primjerci razreda {@link String}, već se za
+ * svaki redak pamti samo njegov 64-bitni otisak te pozicija i duljina u
+ * izvoru, unutar tablice s otvorenim adresiranjem nad poljima primitivnih
+ * tipova. Kada se otisci dvaju redaka podudaraju, reci se ponovno čitaju iz
+ * izvora i uspoređuju, pa različiti reci s istim otiskom nikada nisu
+ * proglašeni jednakima.
+ *
+ * <p>
+ * Ukoliko tablica za sve retke raspona ne bi stala u zadanu količinu memorije
+ * (vidi {@link #configuredMemoryBudget()}), zapisi redaka se prema otisku
+ * raspoređuju u privremene datoteke, svaka se datoteka zasebno oslobađa
+ * ponovljenih redaka, a preostali reci se potom spajaju prema poziciji u
+ * izvoru. Izvor stoga mora biti nepromijenjiv (slika dokumenta).
+ * </p>
+ *
+ * <p>
+ * Jednakost redaka određuje način usporedbe ({@link Mode}): reci mogu biti
+ * jednaki znak po znak, jednaki bez obzira na veličinu slova ili jednaki
+ * prema pravilima jezika predanog primjerka razreda {@link Collator}.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class LineDeduplicator {
+
+	/**
+	 * Nabrajanje koje predstavlja način na koji se određuje jednakost redaka
+	 *
+	 * @author Davor Češljaš
+	 */
+	public enum Mode {
+		/** Reci su jednaki ukoliko su im svi znakovi jednaki */
+		EXACT,
+		/** Reci su jednaki bez obzira na veličinu slova */
+		IGNORE_CASE,
+		/** Reci su jednaki prema pravilima jezika usporedbe teksta */
+		COLLATION
+	}
+
+	/**
+	 * Konstanta koja predstavlja pretpostavljenu količinu memorije (u
+	 * oktetima) za tablicu otisaka
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+	/**
+	 * Konstanta koja predstavlja naziv svojstva sustava kojim se zadaje
+	 * količina memorije (u oktetima) za tablicu otisaka
+	 */
+	public static final String MEMORY_BUDGET_PROPERTY = "jnotepadpp.unique.memoryBudget";
+
+	/**
+	 * Konstanta koja predstavlja procjenu memorije koju jedan redak zauzima u
+	 * tablici otisaka: 16 okteta po mjestu u tablici koja je najviše napola
+	 * puna
+	 */
+	private static final int ENTRY_BYTES = 32;
+
+	/** Konstanta koja predstavlja veličinu zapisa retka u privremenoj datoteci */
+	private static final int RECORD_BYTES = 16;
+
+	/** Konstanta koja predstavlja najveći broj privremenih datoteka */
+	private static final int MAX_PARTITIONS = 256;
+
+	/**
+	 * Konstanta koja predstavlja broj redaka nakon kojeg se provjerava prekid i
+	 * dojavljuje napredak
+	 */
+	private static final int CHECK_INTERVAL = 4096;
+
+	/** Članska varijabla koja predstavlja način usporedbe redaka */
+	private final Mode mode;
+
+	/** Članska varijabla koja predstavlja usporedbu teksta za način {@link Mode#COLLATION} */
+	private final Collator collator;
+
+	/** Članska varijabla koja predstavlja količinu memorije za tablicu otisaka */
+	private final long memoryBudget;
+
+	/** Članska varijabla koja dojavljuje je li posao prekinut */
+	private final BooleanSupplier cancelled;
+
+	/** Članska varijabla koja prima napredak u postotcima */
+	private final IntConsumer progress;
+
+	/** Članska varijabla koja predstavlja izvor čiji se reci obrađuju */
+	private ITextSource source;
+
+	/** Članska varijabla koja predstavlja međuspremnik prvog retka usporedbe */
+	private char[] first = new char[256];
+
+	/** Članska varijabla koja predstavlja međuspremnik drugog retka usporedbe */
+	private char[] second = new char[256];
+
+	/** Članska varijabla koja predstavlja posljednji dojavljeni napredak */
+	private int reportedProgress;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param mode
+	 *            način usporedbe redaka
+	 * @param collator
+	 *            usporedba teksta za način {@link Mode#COLLATION}, inače se
+	 *            ne koristi i smije biti <code>null</code>
+	 * @param memoryBudget
+	 *            količina memorije (u oktetima) za tablicu otisaka
+	 * @param cancelled
+	 *            funkcija koja dojavljuje je li posao prekinut
+	 * @param progress
+	 *            promatrač koji prima napredak u postotcima
+	 * @throws IllegalArgumentException
+	 *             ukoliko je odabran način {@link Mode#COLLATION}, a usporedba
+	 *             nije predana
+	 */
+	public LineDeduplicator(Mode mode, Collator collator, long memoryBudget, BooleanSupplier cancelled,
+			IntConsumer progress) {
+		if (mode == Mode.COLLATION && collator == null) {
+			throw new IllegalArgumentException("Collation mode requires a collator");
+		}
+		this.mode = mode;
+		this.collator = collator;
+		this.memoryBudget = Math.max(ENTRY_BYTES, memoryBudget);
+		this.cancelled = cancelled;
+		this.progress = progress;
+	}
+
+	/**
+	 * Statička metoda koja dohvaća količinu memorije za tablicu otisaka
+	 * zadanu svojstvom sustava {@value #MEMORY_BUDGET_PROPERTY}, odnosno
+	 * {@value #DEFAULT_MEMORY_BUDGET} ukoliko svojstvo nije zadano
+	 *
+	 * @return količinu memorije u oktetima
+	 */
+	public static long configuredMemoryBudget() {
+		return Long.getLong(MEMORY_BUDGET_PROPERTY, DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Metoda koja u izlaz <b>out</b> zapisuje retke raspona [<b>from</b>,
+	 * <b>to</b>) izvora bez ponovljenih redaka. Ukoliko raspon završava
+	 * znakom novog retka, završava njime i izlaz
+	 *
+	 * @param source
+	 *            nepromijenjiv izvor znakova
+	 * @param from
+	 *            početak raspona (uključivo), mora biti početak retka
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param out
+	 *            izlaz u koji se zapisuju reci
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 * @throws CancellationException
+	 *             ukoliko je posao prekinut
+	 */
+	public void unique(ITextSource source, int from, int to, Writer out) throws IOException {
+		this.source = source;
+		reportedProgress = 0;
+
+		boolean trailingNewline = to > from && charAt(to - 1) == '\n';
+		int end = trailingNewline ? to - 1 : to;
+		long lines = source.countLines(from, end - from) + 1L;
+
+		LineWriter writer = new LineWriter(out);
+		if (lines * ENTRY_BYTES <= memoryBudget) {
+			uniqueInMemory(from, end, lines, writer);
+		} else {
+			uniqueSpilled(from, end, lines, writer);
+		}
+		if (trailingNewline) {
+			out.write('\n');
+		}
+		report(100);
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja ponovljene retke jednom tablicom otisaka u
+	 * memoriji
+	 *
+	 * @param from
+	 *            početak raspona
+	 * @param end
+	 *            kraj raspona bez završnog znaka novog retka
+	 * @param lines
+	 *            broj redaka raspona
+	 * @param writer
+	 *            izlaz u koji se zapisuju reci
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 */
+	private void uniqueInMemory(int from, int end, long lines, LineWriter writer) throws IOException {
+		FingerprintTable table = new FingerprintTable(lines);
+		forEachLine(from, end, (offset, chars, length) -> {
+			if (table.add(fingerprint(chars, length), offset, length)) {
+				writer.write(chars, length);
+			}
+			report(percent(offset - from, end - from, 0, 100));
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja uklanja ponovljene retke uz pomoć privremenih
+	 * datoteka. Zapisi redaka (otisak, pozicija i duljina) raspoređuju se
+	 * prema otisku u više datoteka, tako da se svi jednaki reci nađu u istoj
+	 * datoteci, a svaka datoteka zasebno stane u memoriju. Iz svake datoteke
+	 * zadržavaju se prva pojavljivanja redaka, a ona se potom spajaju
+	 * prioritetnim redom prema poziciji u izvoru
+	 *
+	 * @param from
+	 *            početak raspona
+	 * @param end
+	 *            kraj raspona bez završnog znaka novog retka
+	 * @param lines
+	 *            broj redaka raspona
+	 * @param writer
+	 *            izlaz u koji se zapisuju reci
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 */
+	private void uniqueSpilled(int from, int end, long lines, LineWriter writer) throws IOException {
+		int partitions = (int) Math.min(MAX_PARTITIONS,
+				Math.max(2, (lines * ENTRY_BYTES + memoryBudget - 1) / memoryBudget));
+		Path directory = Files.createTempDirectory("jnotepadpp-unique");
+		try {
+			Path[] records = new Path[partitions];
+			DataOutputStream[] outputs = new DataOutputStream[partitions];
+			try {
+				for (int i = 0; i < partitions; i++) {
+					records[i] = Files.createTempFile(directory, "records", ".bin");
+					outputs[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records[i])));
+				}
+				forEachLine(from, end, (offset, chars, length) -> {
+					long fingerprint = fingerprint(chars, length);
+					DataOutputStream output = outputs[(int) Long.remainderUnsigned(fingerprint, partitions)];
+					output.writeLong(fingerprint);
+					output.writeInt(offset);
+					output.writeInt(length);
+					report(percent(offset - from, end - from, 0, 40));
+				});
+			} finally {
+				closeAll(outputs);
+			}
+
+			Path[] kept = new Path[partitions];
+			for (int i = 0; i < partitions; i++) {
+				kept[i] = keepFirstOccurrences(records[i], directory);
+				Files.delete(records[i]);
+				report(percent(i + 1, partitions, 40, 70));
+			}
+
+			mergeKept(kept, lines, writer);
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja iz datoteke zapisa zadržava samo prva pojavljivanja
+	 * redaka. Zapisi su u datoteci poredani prema poziciji, pa je prvi
+	 * dodani zapis ujedno i prvo pojavljivanje retka
+	 *
+	 * @param records
+	 *            datoteka zapisa
+	 * @param directory
+	 *            privremeni direktorij
+	 * @return datoteku pozicija i duljina zadržanih redaka
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 */
+	private Path keepFirstOccurrences(Path records, Path directory) throws IOException {
+		long count = Files.size(records) / RECORD_BYTES;
+		FingerprintTable table = new FingerprintTable(count);
+		Path kept = Files.createTempFile(directory, "kept", ".bin");
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(records)));
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(Files.newOutputStream(kept)))) {
+			for (long i = 0; i < count; i++) {
+				long fingerprint = input.readLong();
+				int offset = input.readInt();
+				int length = input.readInt();
+				if (table.add(fingerprint, offset, length)) {
+					output.writeInt(offset);
+					output.writeInt(length);
+				}
+				if (i % CHECK_INTERVAL == 0) {
+					checkCancelled();
+				}
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * Pomoćna metoda koja spaja zadržane retke svih datoteka prema poziciji u
+	 * izvoru i zapisuje ih u izlaz
+	 *
+	 * @param kept
+	 *            datoteke pozicija i duljina zadržanih redaka
+	 * @param lines
+	 *            broj redaka raspona
+	 * @param writer
+	 *            izlaz u koji se zapisuju reci
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja ili pisanja
+	 */
+	private void mergeKept(Path[] kept, long lines, LineWriter writer) throws IOException {
+		KeptCursor[] cursors = new KeptCursor[kept.length];
+		try {
+			PriorityQueue<KeptCursor> heap = new PriorityQueue<>(kept.length);
+			for (int i = 0; i < kept.length; i++) {
+				cursors[i] = new KeptCursor(
+						new DataInputStream(new BufferedInputStream(Files.newInputStream(kept[i]))));
+				if (cursors[i].advance()) {
+					heap.add(cursors[i]);
+				}
+			}
+
+			long written = 0;
+			while (!heap.isEmpty()) {
+				KeptCursor cursor = heap.poll();
+				first = read(cursor.offset, cursor.length, first);
+				writer.write(first, cursor.length);
+				if (cursor.advance()) {
+					heap.add(cursor);
+				}
+				if (++written % CHECK_INTERVAL == 0) {
+					checkCancelled();
+					report(percent(written, lines, 70, 100));
+				}
+			}
+		} finally {
+			for (KeptCursor cursor : cursors) {
+				if (cursor != null) {
+					cursor.input.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja redom prolazi kroz retke raspona [<b>from</b>,
+	 * <b>end</b>] i predaje ih promatraču. Izvor se čita u dijelovima, a
+	 * znakovi retka predaju se u međuspremniku koji promatrač ne smije
+	 * zadržati
+	 *
+	 * @param from
+	 *            početak raspona
+	 * @param end
+	 *            kraj raspona bez završnog znaka novog retka
+	 * @param consumer
+	 *            promatrač koji prima retke
+	 * @throws IOException
+	 *             ukoliko promatrač baci iznimku
+	 */
+	private void forEachLine(int from, int end, LineConsumer consumer) throws IOException {
+		char[] chunk = new char[ITextSource.SCAN_CHUNK];
+		char[] line = new char[256];
+		int lineStart = from;
+		int lineLength = 0;
+		long count = 0;
+		for (int offset = from; offset < end;) {
+			int n = Math.min(chunk.length, end - offset);
+			source.getChars(offset, n, chunk, 0);
+			for (int i = 0; i < n; i++) {
+				if (chunk[i] != '\n') {
+					if (lineLength == line.length) {
+						line = Arrays.copyOf(line, line.length * 2);
+					}
+					line[lineLength++] = chunk[i];
+					continue;
+				}
+
+				consumer.accept(lineStart, line, lineLength);
+				lineStart = offset + i + 1;
+				lineLength = 0;
+				if (++count % CHECK_INTERVAL == 0) {
+					checkCancelled();
+				}
+			}
+			offset += n;
+		}
+		consumer.accept(lineStart, line, lineLength);
+	}
+
+	/**
+	 * Pomoćna metoda koja računa 64-bitni otisak retka u skladu s načinom
+	 * usporedbe {@link #mode}: jednaki reci uvijek imaju jednak otisak
+	 *
+	 * @param chars
+	 *            znakovi retka
+	 * @param length
+	 *            duljina retka
+	 * @return otisak retka
+	 */
+	private long fingerprint(char[] chars, int length) {
+		long hash = 0xcbf29ce484222325L;
+		switch (mode) {
+		case COLLATION:
+			for (byte b : collator.getCollationKey(new String(chars, 0, length)).toByteArray()) {
+				hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+			}
+			break;
+		case IGNORE_CASE:
+			for (int i = 0; i < length; i++) {
+				hash = (hash ^ fold(chars[i])) * 0x100000001b3L;
+			}
+			break;
+		default:
+			for (int i = 0; i < length; i++) {
+				hash = (hash ^ chars[i]) * 0x100000001b3L;
+			}
+		}
+
+		// završno miješanje kako bi i niži bitovi ovisili o svim znakovima
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava jesu li dva retka izvora jednaka u
+	 * skladu s načinom usporedbe {@link #mode}
+	 *
+	 * @param offset1
+	 *            pozicija prvog retka
+	 * @param length1
+	 *            duljina prvog retka
+	 * @param offset2
+	 *            pozicija drugog retka
+	 * @param length2
+	 *            duljina drugog retka
+	 * @return <code>true</code> ukoliko su reci jednaki, inače
+	 *         <code>false</code>
+	 */
+	private boolean sameLine(int offset1, int length1, int offset2, int length2) {
+		if (mode != Mode.COLLATION && length1 != length2) {
+			return false;
+		}
+		first = read(offset1, length1, first);
+		second = read(offset2, length2, second);
+
+		switch (mode) {
+		case COLLATION:
+			return collator.equals(new String(first, 0, length1), new String(second, 0, length2));
+		case IGNORE_CASE:
+			for (int i = 0; i < length1; i++) {
+				if (first[i] != second[i] && fold(first[i]) != fold(second[i])) {
+					return false;
+				}
+			}
+			return true;
+		default:
+			for (int i = 0; i < length1; i++) {
+				if (first[i] != second[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Statička pomoćna metoda koja znak svodi na oblik neovisan o veličini
+	 * slova, na jednak način kao i {@link String#equalsIgnoreCase(String)}
+	 *
+	 * @param c
+	 *            znak koji se svodi
+	 * @return znak neovisan o veličini slova
+	 */
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * Pomoćna metoda koja čita <b>length</b> znakova izvora od pozicije
+	 * <b>offset</b> u predani međuspremnik, odnosno u veći međuspremnik
+	 * ukoliko predani nije dovoljno velik
+	 *
+	 * @param offset
+	 *            pozicija prvog znaka
+	 * @param length
+	 *            broj znakova
+	 * @param buffer
+	 *            međuspremnik
+	 * @return međuspremnik u kojem se nalaze pročitani znakovi
+	 */
+	private char[] read(int offset, int length, char[] buffer) {
+		if (buffer.length < length) {
+			buffer = new char[Math.max(length, buffer.length * 2)];
+		}
+		source.getChars(offset, length, buffer, 0);
+		return buffer;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća znak izvora na poziciji <b>offset</b>
+	 *
+	 * @param offset
+	 *            pozicija znaka
+	 * @return znak na poziciji <b>offset</b>
+	 */
+	private char charAt(int offset) {
+		char[] c = new char[1];
+		source.getChars(offset, 1, c, 0);
+		return c[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li posao prekinut
+	 *
+	 * @throws CancellationException
+	 *             ukoliko je posao prekinut
+	 */
+	private void checkCancelled() {
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dojavljuje napredak ukoliko se on povećao
+	 *
+	 * @param percent
+	 *            napredak u postotcima
+	 */
+	private void report(int percent) {
+		if (percent > reportedProgress) {
+			reportedProgress = Math.min(100, percent);
+			progress.accept(reportedProgress);
+		}
+	}
+
+	/**
+	 * Statička pomoćna metoda koja obavljeni dio faze posla pretvara u
+	 * ukupan napredak
+	 *
+	 * @param done
+	 *            obavljeni dio faze
+	 * @param total
+	 *            ukupna veličina faze
+	 * @param start
+	 *            napredak na početku faze
+	 * @param end
+	 *            napredak na kraju faze
+	 * @return ukupan napredak u postotcima
+	 */
+	private static int percent(long done, long total, int start, int end) {
+		return total <= 0 ? end : (int) (start + Math.min(done, total) * (end - start) / total);
+	}
+
+	/**
+	 * Statička pomoćna metoda koja zatvara sve predane izlaze, a pamti prvu
+	 * pogrešku
+	 *
+	 * @param outputs
+	 *            izlazi koji se zatvaraju, neki mogu biti <code>null</code>
+	 * @throws IOException
+	 *             prva pogreška prilikom zatvaranja
+	 */
+	private static void closeAll(DataOutputStream[] outputs) throws IOException {
+		IOException error = null;
+		for (DataOutputStream output : outputs) {
+			try {
+				if (output != null) {
+					output.close();
+				}
+			} catch (IOException e) {
+				error = error == null ? e : error;
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Statička pomoćna metoda koja briše privremeni direktorij i sve datoteke
+	 * koje su u njemu ostale. Pogreške prilikom brisanja se zanemaruju
+	 *
+	 * @param directory
+	 *            privremeni direktorij
+	 */
+	private static void deleteDirectory(Path directory) {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path path : stream) {
+				Files.deleteIfExists(path);
+			}
+			Files.deleteIfExists(directory);
+		} catch (IOException ignorable) {
+		}
+	}
+
+	/**
+	 * Sučelje koje predstavlja promatrača na retke raspona
+	 *
+	 * @author Davor Češljaš
+	 */
+	private interface LineConsumer {
+
+		/**
+		 * Metoda koja prima jedan redak
+		 *
+		 * @param offset
+		 *            pozicija retka u izvoru
+		 * @param chars
+		 *            međuspremnik sa znakovima retka
+		 * @param length
+		 *            duljina retka
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom obrade retka
+		 */
+		void accept(int offset, char[] chars, int length) throws IOException;
+	}
+
+	/**
+	 * Privatni razred koji predstavlja tablicu otisaka s otvorenim
+	 * adresiranjem (linearnim ispitivanjem). Za svaki redak u tablici se
+	 * pamte otisak, pozicija i duljina, u tri polja primitivnih tipova
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class FingerprintTable {
+
+		/** Članska varijabla koja predstavlja otiske redaka */
+		private final long[] fingerprints;
+
+		/** Članska varijabla koja predstavlja pozicije redaka, -1 za prazno mjesto */
+		private final int[] offsets;
+
+		/** Članska varijabla koja predstavlja duljine redaka */
+		private final int[] lengths;
+
+		/** Članska varijabla koja predstavlja masku za izračun mjesta */
+		private final int mask;
+
+		/**
+		 * Konstruktor koji stvara tablicu za najviše <b>expected</b> redaka
+		 *
+		 * @param expected
+		 *            najveći broj redaka u tablici
+		 */
+		public FingerprintTable(long expected) {
+			int capacity = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(16, expected * 2)) - 1) << 1;
+			fingerprints = new long[capacity];
+			offsets = new int[capacity];
+			lengths = new int[capacity];
+			mask = capacity - 1;
+			Arrays.fill(offsets, -1);
+		}
+
+		/**
+		 * Metoda koja dodaje redak u tablicu, ukoliko jednak redak već nije
+		 * dodan
+		 *
+		 * @param fingerprint
+		 *            otisak retka
+		 * @param offset
+		 *            pozicija retka u izvoru
+		 * @param length
+		 *            duljina retka
+		 * @return <code>true</code> ukoliko je redak dodan, odnosno
+		 *         <code>false</code> ukoliko je jednak redak već u tablici
+		 */
+		public boolean add(long fingerprint, int offset, int length) {
+			int slot = (int) fingerprint & mask;
+			while (offsets[slot] != -1) {
+				if (fingerprints[slot] == fingerprint && sameLine(offsets[slot], lengths[slot], offset, length)) {
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			fingerprints[slot] = fingerprint;
+			offsets[slot] = offset;
+			lengths[slot] = length;
+			return true;
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja trenutni zadržani redak jedne datoteke
+	 * prilikom spajanja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class KeptCursor implements Comparable<KeptCursor> {
+
+		/** Članska varijabla koja predstavlja ulaz datoteke */
+		private final DataInputStream input;
+
+		/** Članska varijabla koja predstavlja poziciju trenutnog retka */
+		private int offset;
+
+		/** Članska varijabla koja predstavlja duljinu trenutnog retka */
+		private int length;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param input
+		 *            ulaz datoteke
+		 */
+		public KeptCursor(DataInputStream input) {
+			this.input = input;
+		}
+
+		/**
+		 * Metoda koja čita sljedeći zadržani redak
+		 *
+		 * @return <code>true</code> ukoliko je redak pročitan,
+		 *         <code>false</code> ukoliko je datoteka pročitana do kraja
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom čitanja
+		 */
+		public boolean advance() throws IOException {
+			try {
+				offset = input.readInt();
+			} catch (EOFException e) {
+				return false;
+			}
+			length = input.readInt();
+			return true;
+		}
+
+		@Override
+		public int compareTo(KeptCursor other) {
+			return Integer.compare(offset, other.offset);
+		}
+	}
+
+	/**
+	 * Privatni razred koji zapisuje retke u izlaz i odvaja ih znakom novog
+	 * retka
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class LineWriter {
+
+		/** Članska varijabla koja predstavlja izlaz */
+		private final Writer out;
+
+		/** Članska varijabla koja ukazuje na to je li zapisan barem jedan redak */
+		private boolean written;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param out
+		 *            izlaz
+		 */
+		public LineWriter(Writer out) {
+			this.out = out;
+		}
+
+		/**
+		 * Metoda koja zapisuje redak
+		 *
+		 * @param chars
+		 *            znakovi retka
+		 * @param length
+		 *            duljina retka
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom pisanja
+		 */
+		public void write(char[] chars, int length) throws IOException {
+			if (written) {
+				out.write('\n');
+			}
+			out.write(chars, 0, length);
+			written = true;
+		}
+	}
+}
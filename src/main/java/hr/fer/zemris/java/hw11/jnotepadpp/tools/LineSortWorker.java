@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import javax.swing.SwingWorker;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * sortiranje redaka raspona slike dokumenta izvan dretve za obradu događaja.
+ * Za svaki redak se paralelno, samo jednom, računa ključ usporedbe
+ * ({@link CollationKey}) predanim primjerkom razreda {@link Collator} (svaka
+ * dretva koristi svoju kopiju, jer razred {@link Collator} nije siguran za
+ * istovremeno korištenje), a potom se paralelno razredom
+ * {@link ParallelMergeSort} sortiraju sami ključevi. Usporedba dvaju ključeva
+ * je obična usporedba njihovih znakova, pa se pravila jezika ne primjenjuju
+ * iznova pri svakoj od O(n log n) usporedbi. Napredak sortiranja dojavljuje se
+ * kroz svojstvo
+ * <code>progress</code>, a posao se prekida metodom
+ * {@link #cancel(boolean)}.
+ *
+ * <p>
+ * Rezultat posla je sortirani tekst raspona. Ukoliko raspon završava znakom
+ * novog retka, završava njime i rezultat, a svaki redak (uključujući i
+ * prazne) zadržava se u rezultatu.
+ * </p>
+ *
+ * @see ParallelMergeSort
+ *
+ * @author Davor Češljaš
+ */
+public class LineSortWorker extends SwingWorker<String, Void> {
+
+	/** Konstanta koja predstavlja broj redaka čiji se ključevi računaju u jednom poslu */
+	private static final int KEY_CHUNK = 4096;
+
+	/** Konstanta koja predstavlja udio (u postotcima) računanja ključeva u napretku */
+	private static final int KEY_PROGRESS = 40;
+
+	/** Članska varijabla koja predstavlja sliku dokumenta */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja početak raspona (uključivo) */
+	private final int from;
+
+	/** Članska varijabla koja predstavlja kraj raspona (isključivo) */
+	private final int to;
+
+	/** Članska varijabla koja predstavlja usporedbu redaka */
+	private final Collator collator;
+
+	/** Članska varijabla koja ukazuje na to sortira li se uzlazno */
+	private final boolean ascending;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param snapshot
+	 *            slika dokumenta čiji se reci sortiraju
+	 * @param from
+	 *            početak raspona (uključivo), mora biti početak retka
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param collator
+	 *            usporedba redaka
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 */
+	public LineSortWorker(ITextSource snapshot, int from, int to, Collator collator, boolean ascending) {
+		this.snapshot = snapshot;
+		this.from = from;
+		this.to = to;
+		this.collator = collator;
+		this.ascending = ascending;
+	}
+
+	@Override
+	protected String doInBackground() throws Exception {
+		int length = to - from;
+		char[] chars = new char[length];
+		snapshot.getChars(from, length, chars, 0);
+
+		boolean trailingNewline = length > 0 && chars[length - 1] == '\n';
+		String[] lines = split(chars, trailingNewline ? length - 1 : length);
+
+		CollationKey[] keys = collationKeys(lines, collator, this::isCancelled,
+				progress -> setProgress(progress * KEY_PROGRESS / 100));
+		Comparator<CollationKey> comparator = Comparator.naturalOrder();
+		new ParallelMergeSort<CollationKey>(ascending ? comparator : comparator.reversed(), this::isCancelled,
+				progress -> setProgress(KEY_PROGRESS + progress * (100 - KEY_PROGRESS) / 100)).sort(keys);
+
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				sb.append('\n');
+			}
+			sb.append(keys[i].getSourceString());
+		}
+		if (trailingNewline) {
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Statička metoda koja paralelno, u dijelovima od po {@value #KEY_CHUNK}
+	 * redaka, računa ključeve usporedbe svih redaka. Svaki dio računa se
+	 * vlastitom kopijom usporedbe <b>collator</b>
+	 *
+	 * @param lines
+	 *            reci čiji se ključevi računaju
+	 * @param collator
+	 *            usporedba redaka
+	 * @param cancelled
+	 *            funkcija koja dojavljuje je li posao prekinut
+	 * @param progress
+	 *            promatrač koji prima napredak računanja u postotcima
+	 * @return ključeve usporedbe redaka, istim redoslijedom
+	 * @throws CancellationException
+	 *             ukoliko je posao prekinut
+	 */
+	static CollationKey[] collationKeys(String[] lines, Collator collator, BooleanSupplier cancelled,
+			IntConsumer progress) {
+		CollationKey[] keys = new CollationKey[lines.length];
+		int chunks = (lines.length + KEY_CHUNK - 1) / KEY_CHUNK;
+		AtomicInteger done = new AtomicInteger();
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException();
+			}
+			Collator local = (Collator) collator.clone();
+			for (int i = chunk * KEY_CHUNK, end = Math.min(lines.length, i + KEY_CHUNK); i < end; i++) {
+				keys[i] = local.getCollationKey(lines[i]);
+			}
+			progress.accept(done.incrementAndGet() * 100 / chunks);
+		});
+		return keys;
+	}
+
+	/**
+	 * Pomoćna metoda koja prvih <b>length</b> znakova polja dijeli na retke
+	 *
+	 * @param chars
+	 *            znakovi koji se dijele
+	 * @param length
+	 *            broj znakova koji se dijele
+	 * @return polje redaka (bez znakova novog retka)
+	 */
+	static String[] split(char[] chars, int length) {
+		int count = 1;
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == '\n') {
+				count++;
+			}
+		}
+
+		String[] lines = new String[count];
+		int start = 0;
+		int line = 0;
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == '\n') {
+				lines[line++] = new String(chars, start, i - start);
+				start = i + 1;
+			}
+		}
+		lines[line] = new String(chars, start, length - start);
+		return lines;
+	}
+}
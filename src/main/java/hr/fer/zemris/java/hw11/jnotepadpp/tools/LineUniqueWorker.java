@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.io.CharArrayWriter;
+import java.text.Collator;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.Segment;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.ITextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.LineDeduplicator.Mode;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji se koristi za
+ * uklanjanje ponovljenih redaka raspona slike dokumenta (razred
+ * {@link LineDeduplicator}) izvan dretve za obradu događaja. Napredak se
+ * dojavljuje kroz svojstvo <code>progress</code>, a posao se prekida metodom
+ * {@link #cancel(boolean)}.
+ *
+ * <p>
+ * Rezultat posla je tekst raspona u kojem je zadržano samo prvo pojavljivanje
+ * svakog retka. Ukoliko raspon završava znakom novog retka, završava njime i
+ * rezultat. Rezultat je segment ({@link Segment}) nad poljem u koje su reci
+ * zapisani, pa se ne kopira u primjerak razreda {@link String} prije nego
+ * što se umetne u dokument.
+ * </p>
+ *
+ * @see LineDeduplicator
+ *
+ * @author Davor Češljaš
+ */
+public class LineUniqueWorker extends SwingWorker<Segment, Void> {
+
+	/** Članska varijabla koja predstavlja sliku dokumenta */
+	private final ITextSource snapshot;
+
+	/** Članska varijabla koja predstavlja početak raspona (uključivo) */
+	private final int from;
+
+	/** Članska varijabla koja predstavlja kraj raspona (isključivo) */
+	private final int to;
+
+	/** Članska varijabla koja predstavlja način usporedbe redaka */
+	private final Mode mode;
+
+	/** Članska varijabla koja predstavlja usporedbu teksta */
+	private final Collator collator;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param snapshot
+	 *            slika dokumenta iz koje se uklanjaju ponovljeni reci
+	 * @param from
+	 *            početak raspona (uključivo), mora biti početak retka
+	 * @param to
+	 *            kraj raspona (isključivo)
+	 * @param mode
+	 *            način usporedbe redaka
+	 * @param collator
+	 *            usporedba teksta za način {@link Mode#COLLATION}
+	 */
+	public LineUniqueWorker(ITextSource snapshot, int from, int to, Mode mode, Collator collator) {
+		this.snapshot = snapshot;
+		this.from = from;
+		this.to = to;
+		this.mode = mode;
+		this.collator = collator;
+	}
+
+	@Override
+	protected Segment doInBackground() throws Exception {
+		// rezultat nije dulji od raspona pa se polje ne povećava
+		SegmentWriter out = new SegmentWriter(to - from);
+		new LineDeduplicator(mode, collator, LineDeduplicator.configuredMemoryBudget(), this::isCancelled,
+				this::setProgress).unique(snapshot, from, to, out);
+		return out.toSegment();
+	}
+
+	/**
+	 * Razred koji nasljeđuje razred {@link CharArrayWriter}, a koji zapisane
+	 * znakove dohvaća kao segment nad vlastitim poljem, bez kopiranja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class SegmentWriter extends CharArrayWriter {
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param initialSize
+		 *            početna veličina polja znakova
+		 */
+		public SegmentWriter(int initialSize) {
+			super(initialSize);
+		}
+
+		/**
+		 * Metoda koja dohvaća zapisane znakove kao segment nad poljem ovog
+		 * pisača
+		 *
+		 * @return segment nad zapisanim znakovima
+		 */
+		public Segment toSegment() {
+			return new Segment(buf, 0, count);
+		}
+	}
+}
@@ -0,0 +1,393 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Razred koji implementira stabilno paralelno sortiranje spajanjem (engl.
+ * <i>merge sort</i>) nad zajedničkim bazenom dretvi
+ * {@link ForkJoinPool#commonPool()}. Polje se dijeli na polovice dok dijelovi
+ * ne postanu manji od {@value #SEQUENTIAL_THRESHOLD} elemenata, koji se
+ * sortiraju slijedno, a i samo spajanje velikih dijelova dijeli se na
+ * neovisne poslove (binarnim pretraživanjem druge polovice), pa se sve jezgre
+ * koriste i na najvišim razinama.
+ *
+ * <p>
+ * Za razliku od metode {@link Arrays#parallelSort(Object[], Comparator)},
+ * ovaj razred dojavljuje napredak (u postotcima) i može se prekinuti: prekid
+ * se provjerava prije svakog posla i tijekom spajanja, a sortiranje tada
+ * završava iznimkom {@link CancellationException}.
+ * </p>
+ *
+ * @param <T>
+ *            tip elemenata koji se sortiraju
+ *
+ * @author Davor Češljaš
+ */
+public class ParallelMergeSort<T> {
+
+	/** Konstanta koja predstavlja veličinu dijela koji se sortira slijedno */
+	private static final int SEQUENTIAL_THRESHOLD = 8192;
+
+	/**
+	 * Konstanta koja predstavlja broj elemenata nakon kojeg slijedno spajanje
+	 * provjerava prekid i dojavljuje napredak
+	 */
+	private static final int CHECK_INTERVAL = 4096;
+
+	/**
+	 * Članska varijabla koja predstavlja usporedbu elemenata. Usporedba se
+	 * poziva iz više dretvi istovremeno
+	 */
+	private final Comparator<? super T> comparator;
+
+	/** Članska varijabla koja dojavljuje je li sortiranje prekinuto */
+	private final BooleanSupplier cancelled;
+
+	/** Članska varijabla koja prima napredak sortiranja u postotcima */
+	private final IntConsumer progress;
+
+	/** Članska varijabla koja predstavlja ukupan broj jedinica posla */
+	private long totalWork;
+
+	/** Članska varijabla koja predstavlja broj obavljenih jedinica posla */
+	private final AtomicLong doneWork = new AtomicLong();
+
+	/** Članska varijabla koja predstavlja posljednji dojavljeni napredak */
+	private final AtomicInteger reportedProgress = new AtomicInteger();
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param comparator
+	 *            usporedba elemenata; mora biti sigurna za korištenje iz više
+	 *            dretvi
+	 * @param cancelled
+	 *            funkcija koja dojavljuje je li sortiranje prekinuto
+	 * @param progress
+	 *            promatrač koji prima napredak sortiranja u postotcima
+	 */
+	public ParallelMergeSort(Comparator<? super T> comparator, BooleanSupplier cancelled, IntConsumer progress) {
+		this.comparator = comparator;
+		this.cancelled = cancelled;
+		this.progress = progress;
+	}
+
+	/**
+	 * Metoda koja stabilno sortira predano polje
+	 *
+	 * @param array
+	 *            polje koje se sortira
+	 * @throws CancellationException
+	 *             ukoliko je sortiranje prekinuto
+	 */
+	public void sort(T[] array) {
+		if (array.length < 2) {
+			return;
+		}
+		totalWork = work(array.length);
+		doneWork.set(0);
+		reportedProgress.set(0);
+
+		T[] buffer = Arrays.copyOf(array, array.length);
+		ForkJoinPool.commonPool().invoke(new SortTask(array, buffer, 0, array.length, true));
+	}
+
+	/**
+	 * Pomoćna metoda koja računa broj jedinica posla sortiranja dijela od
+	 * <b>length</b> elemenata. Svaki element donosi jednu jedinicu u
+	 * slijednom sortiranju i po jednu na svakoj razini spajanja
+	 *
+	 * @param length
+	 *            broj elemenata dijela
+	 * @return broj jedinica posla
+	 */
+	private static long work(int length) {
+		if (length <= SEQUENTIAL_THRESHOLD) {
+			return length;
+		}
+		int half = length >>> 1;
+		return work(half) + work(length - half) + length;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li sortiranje prekinuto
+	 *
+	 * @throws CancellationException
+	 *             ukoliko je sortiranje prekinuto
+	 */
+	private void checkCancelled() {
+		if (cancelled.getAsBoolean()) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja bilježi <b>units</b> obavljenih jedinica posla i
+	 * dojavljuje napredak ukoliko se on povećao
+	 *
+	 * @param units
+	 *            broj obavljenih jedinica posla
+	 */
+	private void advance(long units) {
+		int percent = (int) (doneWork.addAndGet(units) * 100 / totalWork);
+		int reported = reportedProgress.get();
+		while (percent > reported) {
+			if (reportedProgress.compareAndSet(reported, percent)) {
+				progress.accept(percent);
+				return;
+			}
+			reported = reportedProgress.get();
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja posao sortiranja dijela polja. Rezultat
+	 * se ovisno o razini zapisuje u izvorno ili pomoćno polje, tako da se
+	 * elementi između razina ne kopiraju
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class SortTask extends RecursiveAction {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja izvorno polje */
+		private final T[] array;
+
+		/** Članska varijabla koja predstavlja pomoćno polje */
+		private final T[] buffer;
+
+		/** Članska varijabla koja predstavlja početak dijela (uključivo) */
+		private final int from;
+
+		/** Članska varijabla koja predstavlja kraj dijela (isključivo) */
+		private final int to;
+
+		/**
+		 * Članska varijabla koja ukazuje na to zapisuje li se rezultat u
+		 * izvorno polje
+		 */
+		private final boolean intoArray;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param array
+		 *            izvorno polje
+		 * @param buffer
+		 *            pomoćno polje
+		 * @param from
+		 *            početak dijela (uključivo)
+		 * @param to
+		 *            kraj dijela (isključivo)
+		 * @param intoArray
+		 *            zastavica koja ukazuje na to zapisuje li se rezultat u
+		 *            izvorno polje
+		 */
+		public SortTask(T[] array, T[] buffer, int from, int to, boolean intoArray) {
+			this.array = array;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.intoArray = intoArray;
+		}
+
+		@Override
+		protected void compute() {
+			checkCancelled();
+			int length = to - from;
+			if (length <= SEQUENTIAL_THRESHOLD) {
+				Arrays.sort(array, from, to, comparator);
+				if (!intoArray) {
+					System.arraycopy(array, from, buffer, from, length);
+				}
+				advance(length);
+				return;
+			}
+
+			int middle = from + (length >>> 1);
+			invokeAll(new SortTask(array, buffer, from, middle, !intoArray),
+					new SortTask(array, buffer, middle, to, !intoArray));
+
+			T[] source = intoArray ? buffer : array;
+			T[] destination = intoArray ? array : buffer;
+			new MergeTask(source, from, middle, middle, to, destination, from).compute();
+		}
+	}
+
+	/**
+	 * Privatni razred koji predstavlja posao stabilnog spajanja dva sortirana
+	 * dijela polja u odredišno polje. Veliki poslovi se dijele na dva
+	 * neovisna posla: srednji element duljeg dijela pronalazi se binarnim
+	 * pretraživanjem u kraćem dijelu
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class MergeTask extends RecursiveAction {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/** Članska varijabla koja predstavlja polje sortiranih dijelova */
+		private final T[] source;
+
+		/** Članska varijabla koja predstavlja početak lijevog dijela */
+		private final int leftFrom;
+
+		/** Članska varijabla koja predstavlja kraj lijevog dijela */
+		private final int leftTo;
+
+		/** Članska varijabla koja predstavlja početak desnog dijela */
+		private final int rightFrom;
+
+		/** Članska varijabla koja predstavlja kraj desnog dijela */
+		private final int rightTo;
+
+		/** Članska varijabla koja predstavlja odredišno polje */
+		private final T[] destination;
+
+		/**
+		 * Članska varijabla koja predstavlja poziciju od koje se piše u
+		 * odredišno polje
+		 */
+		private final int destinationFrom;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param source
+		 *            polje sortiranih dijelova
+		 * @param leftFrom
+		 *            početak lijevog dijela
+		 * @param leftTo
+		 *            kraj lijevog dijela
+		 * @param rightFrom
+		 *            početak desnog dijela
+		 * @param rightTo
+		 *            kraj desnog dijela
+		 * @param destination
+		 *            odredišno polje
+		 * @param destinationFrom
+		 *            pozicija od koje se piše u odredišno polje
+		 */
+		public MergeTask(T[] source, int leftFrom, int leftTo, int rightFrom, int rightTo, T[] destination,
+				int destinationFrom) {
+			this.source = source;
+			this.leftFrom = leftFrom;
+			this.leftTo = leftTo;
+			this.rightFrom = rightFrom;
+			this.rightTo = rightTo;
+			this.destination = destination;
+			this.destinationFrom = destinationFrom;
+		}
+
+		@Override
+		protected void compute() {
+			checkCancelled();
+			int leftLength = leftTo - leftFrom;
+			int rightLength = rightTo - rightFrom;
+			if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+				mergeSequentially();
+				return;
+			}
+
+			int leftSplit;
+			int rightSplit;
+			if (leftLength >= rightLength) {
+				leftSplit = (leftFrom + leftTo) >>> 1;
+				// jednaki elementi desnog dijela idu iza, zbog stabilnosti
+				rightSplit = lowerBound(source[leftSplit], rightFrom, rightTo);
+			} else {
+				rightSplit = (rightFrom + rightTo) >>> 1;
+				leftSplit = upperBound(source[rightSplit], leftFrom, leftTo);
+			}
+
+			int destinationSplit = destinationFrom + (leftSplit - leftFrom) + (rightSplit - rightFrom);
+			invokeAll(new MergeTask(source, leftFrom, leftSplit, rightFrom, rightSplit, destination, destinationFrom),
+					new MergeTask(source, leftSplit, leftTo, rightSplit, rightTo, destination, destinationSplit));
+		}
+
+		/**
+		 * Pomoćna metoda koja slijedno spaja dijelove
+		 */
+		private void mergeSequentially() {
+			int left = leftFrom;
+			int right = rightFrom;
+			int out = destinationFrom;
+			int sinceCheck = 0;
+			while (left < leftTo && right < rightTo) {
+				if (comparator.compare(source[right], source[left]) < 0) {
+					destination[out++] = source[right++];
+				} else {
+					destination[out++] = source[left++];
+				}
+				if (++sinceCheck == CHECK_INTERVAL) {
+					checkCancelled();
+					advance(sinceCheck);
+					sinceCheck = 0;
+				}
+			}
+			System.arraycopy(source, left, destination, out, leftTo - left);
+			out += leftTo - left;
+			System.arraycopy(source, right, destination, out, rightTo - right);
+			advance(sinceCheck + (leftTo - left) + (rightTo - right));
+		}
+
+		/**
+		 * Pomoćna metoda koja pronalazi prvi element dijela koji nije manji
+		 * od <b>key</b>
+		 *
+		 * @param key
+		 *            element koji se traži
+		 * @param from
+		 *            početak dijela
+		 * @param to
+		 *            kraj dijela
+		 * @return poziciju prvog elementa koji nije manji od <b>key</b>
+		 */
+		private int lowerBound(T key, int from, int to) {
+			while (from < to) {
+				int middle = (from + to) >>> 1;
+				if (comparator.compare(source[middle], key) < 0) {
+					from = middle + 1;
+				} else {
+					to = middle;
+				}
+			}
+			return from;
+		}
+
+		/**
+		 * Pomoćna metoda koja pronalazi prvi element dijela koji je veći od
+		 * <b>key</b>
+		 *
+		 * @param key
+		 *            element koji se traži
+		 * @param from
+		 *            početak dijela
+		 * @param to
+		 *            kraj dijela
+		 * @return poziciju prvog elementa koji je veći od <b>key</b>
+		 */
+		private int upperBound(T key, int from, int to) {
+			while (from < to) {
+				int middle = (from + to) >>> 1;
+				if (comparator.compare(source[middle], key) <= 0) {
+					from = middle + 1;
+				} else {
+					to = middle;
+				}
+			}
+			return from;
+		}
+	}
+}
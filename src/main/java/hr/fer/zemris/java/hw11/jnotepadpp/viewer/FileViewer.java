@@ -0,0 +1,943 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.viewer;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker.StateValue;
+import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.text.Segment;
+import javax.swing.text.TabExpander;
+import javax.swing.text.Utilities;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.CharsetDetector;
+import hr.fer.zemris.java.hw11.jnotepadpp.io.TextFormat;
+
+/**
+ * Razred koji nasljeđuje razred {@link JPanel}, a koji datoteku prikazuje samo
+ * za čitanje, izravno iz njezinog mapiranja u memoriju ({@link MappedFile}).
+ * Tekst se ne učitava u dokument, već se pri svakom iscrtavanju čitaju i
+ * dekodiraju samo vidljivi retci, a pozicije u datoteci su tipa
+ * <code>long</code>, pa se mogu prikazivati i datoteke veće od onih koje
+ * dokument može adresirati.
+ *
+ * <p>
+ * Prikaz je određen pozicijom početka prvog vidljivog retka. Klizač ne
+ * predstavlja retke, već udio veličine datoteke, pa se bilo koji dio
+ * datoteke (i njezin kraj) prikazuje odmah, neovisno o tome koliko je
+ * datoteka indeksirana. Brojevi redaka računaju se iz rijetkog indeksa
+ * ({@link SparseLineIndex}) koji se gradi u pozadini ({@link LineIndexer}) i
+ * koji se pri svakom pomicanju prikaza precizira početkom prvog vidljivog
+ * retka. Dok dio datoteke nije indeksiran, redak pozicije u njemu nije
+ * poznat, a skok na redak izvodi se čim ga indeks dosegne.
+ * </p>
+ *
+ * <p>
+ * Retci dulji od {@value #MAX_ROW_BYTES} okteta prikazuju se u više redaka
+ * prikaza, a iscrtava se najviše {@value #MAX_PAINTED_BYTES} okteta svakog
+ * retka prikaza. Podržane su kodne stranice koje podržava razred
+ * {@link MappedTextSource}.
+ * </p>
+ *
+ * @see SparseLineIndex
+ * @see LineIndexer
+ *
+ * @author Davor Češljaš
+ */
+public class FileViewer extends JPanel {
+
+	/** Konstanta koja se koristi prilikom serijalizacije objekata */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Konstanta koja predstavlja najveću duljinu retka prikaza u oktetima.
+	 * Dulji retci dijele se u više redaka prikaza
+	 */
+	private static final int MAX_ROW_BYTES = 1024 * 1024;
+
+	/** Konstanta koja predstavlja najveći broj okteta retka koji se iscrtavaju */
+	private static final int MAX_PAINTED_BYTES = 8192;
+
+	/** Konstanta koja predstavlja raspon vrijednosti okomitog klizača */
+	private static final int SCROLL_RANGE = 1 << 20;
+
+	/** Konstanta koja predstavlja broj redaka za koji pomiče kotačić miša */
+	private static final int WHEEL_ROWS = 3;
+
+	/** Konstanta koja predstavlja širinu tabulatora u znakovima */
+	private static final int TAB_SIZE = 8;
+
+	/** Konstanta koja predstavlja oktet znaka novog retka */
+	private static final byte NEW_LINE = '\n';
+
+	/** Članska varijabla koja predstavlja datoteku koja se prikazuje */
+	private final MappedFile file;
+
+	/** Članska varijabla koja predstavlja prepoznati format datoteke */
+	private final TextFormat format;
+
+	/** Članska varijabla koja ukazuje na to je li kodna stranica UTF-8 */
+	private final boolean utf8;
+
+	/** Članska varijabla koja predstavlja poziciju početka prvog retka */
+	private final long start;
+
+	/** Članska varijabla koja predstavlja rijetki indeks redaka */
+	private final SparseLineIndex index;
+
+	/** Članska varijabla koja predstavlja pozadinsko indeksiranje */
+	private final LineIndexer indexer;
+
+	/** Članska varijabla koja predstavlja dekoder kodne stranice datoteke */
+	private final CharsetDecoder decoder;
+
+	/** Članska varijabla koja predstavlja komponentu koja iscrtava tekst */
+	private final ViewerCanvas canvas = new ViewerCanvas();
+
+	/** Članska varijabla koja predstavlja okomiti klizač */
+	private final JScrollBar verticalBar = new JScrollBar(JScrollBar.VERTICAL, 0, 1, 0, SCROLL_RANGE + 1);
+
+	/** Članska varijabla koja predstavlja vodoravni klizač */
+	private final JScrollBar horizontalBar = new JScrollBar(JScrollBar.HORIZONTAL);
+
+	/** Članska varijabla koja predstavlja početak prvog vidljivog retka */
+	private long top;
+
+	/** Članska varijabla koja predstavlja poziciju pokazivača */
+	private long caret;
+
+	/**
+	 * Članska varijabla koja predstavlja stupac pokazivača koji se zadržava
+	 * pri pomicanju gore i dolje
+	 */
+	private int preferredColumn;
+
+	/**
+	 * Članska varijabla koja predstavlja redak na koji se skače kada ga indeks
+	 * dosegne ili -1
+	 */
+	private long pendingLine = -1;
+
+	/** Članska varijabla koja predstavlja najširi do sada iscrtani redak */
+	private int widest;
+
+	/**
+	 * Članska varijabla koja ukazuje na to da klizač mijenja sam pogled, pa
+	 * se njegova promjena zanemaruje
+	 */
+	private boolean adjusting;
+
+	/** Članska varijabla koja predstavlja promatrače na pokazivač i indeks */
+	private final List<ChangeListener> listeners = new ArrayList<>();
+
+	/** Članska varijabla koja predstavlja međuspremnik okteta retka */
+	private final byte[] rowBytes = new byte[MAX_PAINTED_BYTES];
+
+	/** Članska varijabla koja predstavlja međuspremnik znakova retka */
+	private final CharBuffer rowChars = CharBuffer.allocate(MAX_PAINTED_BYTES);
+
+	/** Članska varijabla koja predstavlja tekst retka koji se iscrtava */
+	private final Segment rowText = new Segment();
+
+	/**
+	 * Konstruktor koji mapira datoteku <b>filePath</b>, prepoznaje njezinu
+	 * kodnu stranicu i pokreće izgradnju indeksa redaka u pozadini
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće mapirati ili ukoliko kodna
+	 *             stranica datoteke nije podržana
+	 */
+	public FileViewer(Path filePath) throws IOException {
+		file = new MappedFile(filePath);
+		int sampleLength = (int) Math.min(CharsetDetector.SAMPLE_SIZE, file.size());
+		byte[] sample = new byte[sampleLength];
+		file.read(0, sample, 0, sampleLength);
+		format = CharsetDetector.detect(ByteBuffer.wrap(sample)).withLineSeparator("\n");
+		if (!MappedTextSource.isSupported(format.getCharset())) {
+			throw new IOException("Unsupported charset for viewed files: " + format.getCharset());
+		}
+
+		utf8 = format.getCharset().equals(StandardCharsets.UTF_8);
+		decoder = format.getCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		start = Math.min(format.getBomBytes().length, file.size());
+		top = start;
+		caret = start;
+
+		index = new SparseLineIndex(file, start);
+		indexer = new LineIndexer(file, index, start);
+
+		initGUI();
+
+		indexer.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())
+					|| "state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+				indexAdvanced();
+			}
+		});
+		indexer.execute();
+	}
+
+	/**
+	 * Pomoćna metoda koja slaže komponentu za iscrtavanje i klizače te
+	 * namješta promatrače i tipke za pomicanje pokazivača
+	 */
+	private void initGUI() {
+		setLayout(new BorderLayout());
+		add(canvas, BorderLayout.CENTER);
+		add(verticalBar, BorderLayout.EAST);
+		add(horizontalBar, BorderLayout.SOUTH);
+
+		verticalBar.addAdjustmentListener(e -> {
+			if (!adjusting) {
+				double fraction = (double) e.getValue() / SCROLL_RANGE;
+				long position = start + (long) (fraction * (file.size() - start));
+				setTop(clampTop(rowStartOf(position)), false);
+			}
+		});
+		verticalBar.setBlockIncrement(SCROLL_RANGE / 100);
+		horizontalBar.addAdjustmentListener(e -> canvas.repaint());
+		canvas.addComponentListener(new ComponentAdapter() {
+
+			@Override
+			public void componentResized(ComponentEvent e) {
+				updateHorizontalBar();
+			}
+		});
+		canvas.addMouseWheelListener(e -> scrollRows(e.getWheelRotation() * WHEEL_ROWS));
+		canvas.addMouseListener(new MouseAdapter() {
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				canvas.requestFocusInWindow();
+				setCaret(canvas.offsetAt(e.getX(), e.getY()), true);
+			}
+		});
+
+		bindKey("UP", "caretUp", () -> moveCaretRows(-1));
+		bindKey("DOWN", "caretDown", () -> moveCaretRows(1));
+		bindKey("PAGE_UP", "pageUp", () -> {
+			scrollRows(-canvas.getRowCount());
+			moveCaretRows(-canvas.getRowCount());
+		});
+		bindKey("PAGE_DOWN", "pageDown", () -> {
+			scrollRows(canvas.getRowCount());
+			moveCaretRows(canvas.getRowCount());
+		});
+		bindKey("LEFT", "caretLeft", () -> setCaret(previousChar(caret), true));
+		bindKey("RIGHT", "caretRight", () -> setCaret(nextChar(caret), true));
+		bindKey("HOME", "caretRowStart", () -> setCaret(rowStartOf(caret), true));
+		bindKey("END", "caretRowEnd", () -> setCaret(textEnd(rowStartOf(caret)), true));
+		bindKey("control HOME", "caretFileStart", () -> setCaret(start, true));
+		bindKey("control END", "caretFileEnd", () -> setCaret(file.size(), true));
+	}
+
+	/**
+	 * Pomoćna metoda koja tipki <b>key</b> komponente za iscrtavanje
+	 * pridružuje akciju <b>name</b>
+	 *
+	 * @param key
+	 *            tipka u obliku koji prima {@link KeyStroke#getKeyStroke(String)}
+	 * @param name
+	 *            naziv akcije
+	 * @param action
+	 *            posao koji akcija obavlja
+	 */
+	private void bindKey(String key, String name, Runnable action) {
+		canvas.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key), name);
+		canvas.getActionMap().put(name, new AbstractAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * Metoda koja dohvaća prepoznati format datoteke
+	 *
+	 * @return prepoznati format datoteke
+	 */
+	public TextFormat getTextFormat() {
+		return format;
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu datoteke u oktetima
+	 *
+	 * @return veličinu datoteke u oktetima
+	 */
+	public long getFileSize() {
+		return file.size();
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to je li cijela datoteka
+	 * indeksirana
+	 *
+	 * @return <code>true</code> ukoliko je cijela datoteka indeksirana,
+	 *         <code>false</code> inače
+	 */
+	public boolean isIndexed() {
+		return index.isComplete();
+	}
+
+	/**
+	 * Metoda koja dohvaća napredak indeksiranja datoteke
+	 *
+	 * @return napredak indeksiranja u postotcima
+	 */
+	public int getIndexProgress() {
+		return indexer.getProgress();
+	}
+
+	/**
+	 * Metoda koja dohvaća broj do sada poznatih redaka. Kada je cijela datoteka
+	 * indeksirana, to je broj redaka datoteke
+	 *
+	 * @return broj do sada poznatih redaka
+	 */
+	public long getKnownLines() {
+		return index.getKnownLines();
+	}
+
+	/**
+	 * Metoda koja dohvaća redak (od nule) u kojem se nalazi pokazivač
+	 *
+	 * @return redak pokazivača ili -1 ukoliko taj dio datoteke još nije
+	 *         indeksiran
+	 */
+	public long getCaretLine() {
+		return index.lineOfOffset(caret);
+	}
+
+	/**
+	 * Metoda koja dohvaća stupac (od nule) u kojem se nalazi pokazivač,
+	 * računat u znakovima od početka retka prikaza
+	 *
+	 * @return stupac pokazivača
+	 */
+	public int getCaretColumn() {
+		return columnOf(rowStartOf(caret), caret);
+	}
+
+	/**
+	 * Metoda koja pomiče pokazivač i prikaz na početak retka <b>line</b> (od
+	 * nule). Ukoliko taj redak još nije indeksiran, skok se izvodi čim ga
+	 * indeks dosegne
+	 *
+	 * @param line
+	 *            redak na koji se skače
+	 * @return <code>true</code> ukoliko je skok izveden odmah,
+	 *         <code>false</code> ukoliko se čeka indeks
+	 */
+	public boolean goToLine(long line) {
+		long offset = index.offsetOfLine(Math.max(0, line));
+		if (offset < 0) {
+			pendingLine = line;
+			return false;
+		}
+
+		pendingLine = -1;
+		index.refine(line, offset);
+		caret = offset;
+		preferredColumn = 0;
+		setTop(clampTop(offset), true);
+		fireStateChanged();
+		canvas.requestFocusInWindow();
+		return true;
+	}
+
+	/**
+	 * Metoda koja prekida indeksiranje datoteke. Poziva se prilikom zatvaranja
+	 * prozora koji prikazuje datoteku
+	 */
+	public void close() {
+		indexer.cancel(true);
+	}
+
+	/**
+	 * Metoda koja dodaje promatrača na promjene pokazivača i napredak
+	 * indeksiranja
+	 *
+	 * @param listener
+	 *            promatrač koji se dodaje
+	 */
+	public void addChangeListener(ChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Metoda koja uklanja promatrača na promjene pokazivača i napredak
+	 * indeksiranja
+	 *
+	 * @param listener
+	 *            promatrač koji se uklanja
+	 */
+	public void removeChangeListener(ChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public boolean requestFocusInWindow() {
+		return canvas.requestFocusInWindow();
+	}
+
+	/**
+	 * Pomoćna metoda koja obavještava sve promatrače o promjeni
+	 */
+	private void fireStateChanged() {
+		ChangeEvent event = new ChangeEvent(this);
+		for (ChangeListener listener : new ArrayList<>(listeners)) {
+			listener.stateChanged(event);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja se poziva u dretvi za obradu događaja kada je
+	 * indeks napredovao. Ukoliko se čeka skok na redak koji je sada
+	 * indeksiran, skok se izvodi
+	 */
+	private void indexAdvanced() {
+		if (pendingLine >= 0 && (pendingLine < index.getKnownLines() || index.isComplete())) {
+			goToLine(Math.min(pendingLine, index.getKnownLines() - 1));
+		}
+		fireStateChanged();
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja pokazivač na poziciju <b>offset</b> i
+	 * pomiče prikaz tako da pokazivač bude vidljiv
+	 *
+	 * @param offset
+	 *            nova pozicija pokazivača
+	 * @param updateColumn
+	 *            zastavica koja ukazuje na to pamti li se novi stupac
+	 *            pokazivača za pomicanje gore i dolje
+	 */
+	private void setCaret(long offset, boolean updateColumn) {
+		caret = Math.max(start, Math.min(offset, file.size()));
+		if (updateColumn) {
+			preferredColumn = getCaretColumn();
+		}
+		ensureCaretVisible();
+		canvas.repaint();
+		fireStateChanged();
+	}
+
+	/**
+	 * Pomoćna metoda koja pomiče pokazivač za <b>rows</b> redaka prikaza,
+	 * zadržavajući zapamćeni stupac
+	 *
+	 * @param rows
+	 *            broj redaka (negativan za pomicanje gore)
+	 */
+	private void moveCaretRows(int rows) {
+		long row = rowStartOf(caret);
+		for (int i = 0; i < Math.abs(rows); i++) {
+			long next = rows < 0 ? previousRowStart(row) : nextRowStart(row);
+			if (next < 0) {
+				break;
+			}
+			row = next;
+		}
+		setCaret(offsetOfColumn(row, preferredColumn), false);
+	}
+
+	/**
+	 * Pomoćna metoda koja pomiče prikaz za <b>rows</b> redaka prikaza, bez
+	 * pomicanja pokazivača
+	 *
+	 * @param rows
+	 *            broj redaka (negativan za pomicanje gore)
+	 */
+	private void scrollRows(int rows) {
+		long row = top;
+		for (int i = 0; i < Math.abs(rows); i++) {
+			long next = rows < 0 ? previousRowStart(row) : nextRowStart(row);
+			if (next < 0) {
+				break;
+			}
+			row = next;
+		}
+		setTop(clampTop(row), true);
+	}
+
+	/**
+	 * Pomoćna metoda koja pomiče prikaz tako da redak pokazivača bude vidljiv
+	 */
+	private void ensureCaretVisible() {
+		long caretRow = rowStartOf(caret);
+		if (caretRow < top) {
+			setTop(caretRow, true);
+			return;
+		}
+
+		long row = top;
+		int rows = Math.max(1, canvas.getRowCount());
+		for (int i = 0; i < rows && row >= 0; i++) {
+			if (row == caretRow) {
+				return;
+			}
+			row = nextRowStart(row);
+		}
+		setTop(clampTop(rowsBefore(caretRow, rows - 1)), true);
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja početak prvog vidljivog retka. Ukoliko je
+	 * redak indeksiran, njegov se broj pamti u indeksu kako bi upiti u blizini
+	 * prikaza bili brzi
+	 *
+	 * @param newTop
+	 *            početak prvog vidljivog retka
+	 * @param updateBar
+	 *            zastavica koja ukazuje na to treba li pomaknuti okomiti
+	 *            klizač
+	 */
+	private void setTop(long newTop, boolean updateBar) {
+		top = newTop;
+		if (top == start || file.get(top - 1) == NEW_LINE) {
+			long line = index.lineOfOffset(top);
+			if (line >= 0) {
+				index.refine(line, top);
+			}
+		}
+
+		if (updateBar) {
+			adjusting = true;
+			double fraction = (double) (top - start) / Math.max(1, file.size() - start);
+			verticalBar.setValue((int) Math.round(fraction * SCROLL_RANGE));
+			adjusting = false;
+		}
+		canvas.repaint();
+	}
+
+	/**
+	 * Pomoćna metoda koja ograničava početak prvog vidljivog retka tako da
+	 * posljednja stranica prikaza bude ispunjena
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @return ograničeni početak retka prikaza
+	 */
+	private long clampTop(long row) {
+		long lastPageTop = rowsBefore(rowStartOf(file.size()), Math.max(1, canvas.getRowCount()) - 1);
+		return Math.min(row, lastPageTop);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak retka prikaza koji je <b>rows</b>
+	 * redaka prije retka <b>row</b>
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @param rows
+	 *            broj redaka
+	 * @return početak traženog retka prikaza
+	 */
+	private long rowsBefore(long row, int rows) {
+		for (int i = 0; i < rows; i++) {
+			long previous = previousRowStart(row);
+			if (previous < 0) {
+				break;
+			}
+			row = previous;
+		}
+		return row;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća kraj teksta retka prikaza koji počinje na
+	 * poziciji <b>row</b>, ne uključujući znak novog retka
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @return kraj retka prikaza
+	 */
+	private long rowEnd(long row) {
+		long limit = Math.min(file.size(), row + MAX_ROW_BYTES);
+		long newLine = file.indexOf(NEW_LINE, row, limit);
+		if (newLine >= 0) {
+			return newLine;
+		}
+		return limit == file.size() ? limit : alignToChar(limit);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća kraj teksta retka prikaza bez znaka
+	 * <code>'\r'</code> ispred znaka novog retka
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @return kraj teksta retka prikaza
+	 */
+	private long textEnd(long row) {
+		long end = rowEnd(row);
+		return end > row && end < file.size() && file.get(end) == NEW_LINE && file.get(end - 1) == '\r' ? end - 1
+				: end;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak retka prikaza iza retka koji počinje
+	 * na poziciji <b>row</b>
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @return početak sljedećeg retka prikaza ili -1 ukoliko je redak posljednji
+	 */
+	private long nextRowStart(long row) {
+		long end = rowEnd(row);
+		if (end >= file.size()) {
+			return -1;
+		}
+		return file.get(end) == NEW_LINE ? end + 1 : end;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak retka prikaza ispred retka koji
+	 * počinje na poziciji <b>row</b>
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @return početak prethodnog retka prikaza ili -1 ukoliko je redak prvi
+	 */
+	private long previousRowStart(long row) {
+		if (row <= start) {
+			return -1;
+		}
+		return rowStartOf(row - 1);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak retka prikaza koji sadrži poziciju
+	 * <b>offset</b>
+	 *
+	 * @param offset
+	 *            pozicija u datoteci
+	 * @return početak retka prikaza
+	 */
+	private long rowStartOf(long offset) {
+		long from = Math.max(start, offset - MAX_ROW_BYTES);
+		long newLine = file.lastIndexOf(NEW_LINE, from, offset);
+		if (newLine >= 0) {
+			return newLine + 1;
+		}
+		return from == start ? start : alignToChar(from);
+	}
+
+	/**
+	 * Pomoćna metoda koja poziciju pomiče na početak sljedećeg znaka ukoliko se
+	 * nalazi unutar višeoktetnog znaka
+	 *
+	 * @param position
+	 *            pozicija u datoteci
+	 * @return pozicija početka znaka
+	 */
+	private long alignToChar(long position) {
+		while (utf8 && position < file.size() && isContinuation(file.get(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak znaka iza pokazivača
+	 *
+	 * @param offset
+	 *            pozicija pokazivača
+	 * @return pozicija sljedećeg znaka
+	 */
+	private long nextChar(long offset) {
+		long end = textEnd(rowStartOf(offset));
+		if (offset == end) {
+			long next = nextRowStart(rowStartOf(offset));
+			return next < 0 ? offset : next;
+		}
+		return alignToChar(offset + 1);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća početak znaka ispred pokazivača
+	 *
+	 * @param offset
+	 *            pozicija pokazivača
+	 * @return pozicija prethodnog znaka
+	 */
+	private long previousChar(long offset) {
+		long row = rowStartOf(offset);
+		if (offset == row) {
+			long previous = previousRowStart(row);
+			return previous < 0 ? offset : textEnd(previous);
+		}
+		offset--;
+		while (utf8 && offset > row && isContinuation(file.get(offset))) {
+			offset--;
+		}
+		return offset;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa broj znakova između početka retka prikaza
+	 * <b>row</b> i pozicije <b>offset</b>
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @param offset
+	 *            pozicija unutar retka
+	 * @return broj znakova
+	 */
+	private int columnOf(long row, long offset) {
+		if (!utf8) {
+			return (int) (offset - row);
+		}
+		int column = 0;
+		for (long i = row; i < offset; i++) {
+			column += charsOf(file.get(i));
+		}
+		return column;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa poziciju znaka <b>column</b> unutar retka
+	 * prikaza <b>row</b>. Stupci iza kraja retka svode se na kraj retka
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @param column
+	 *            stupac
+	 * @return pozicija znaka
+	 */
+	private long offsetOfColumn(long row, int column) {
+		long end = textEnd(row);
+		if (!utf8) {
+			return Math.min(end, row + column);
+		}
+		long offset = row;
+		for (int chars = 0; offset < end; offset++) {
+			byte b = file.get(offset);
+			if (!isContinuation(b)) {
+				if (chars >= column) {
+					break;
+				}
+				chars += charsOf(b);
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Pomoćna metoda koja čita i dekodira početak retka prikaza <b>row</b> u
+	 * {@link #rowText}. Čita se najviše {@value #MAX_PAINTED_BYTES} okteta
+	 *
+	 * @param row
+	 *            početak retka prikaza
+	 * @param end
+	 *            kraj teksta retka prikaza
+	 */
+	private void decodeRow(long row, long end) {
+		int length = (int) Math.min(end - row, MAX_PAINTED_BYTES);
+		while (utf8 && length > 0 && row + length < end && isContinuation(file.get(row + length))) {
+			length--;
+		}
+		file.read(row, rowBytes, 0, length);
+
+		decoder.reset();
+		rowChars.clear();
+		decoder.decode(ByteBuffer.wrap(rowBytes, 0, length), rowChars, true);
+		decoder.flush(rowChars);
+		rowText.array = rowChars.array();
+		rowText.offset = 0;
+		rowText.count = rowChars.position();
+	}
+
+	/**
+	 * Pomoćna metoda koja osvježava raspon vodoravnog klizača prema najširem
+	 * iscrtanom retku i širini prikaza
+	 */
+	private void updateHorizontalBar() {
+		int width = Math.max(1, canvas.getWidth());
+		int value = Math.max(0, Math.min(horizontalBar.getValue(), widest - width));
+		horizontalBar.setValues(value, width, 0, Math.max(widest, width));
+		horizontalBar.setUnitIncrement(canvas.getCharWidth());
+		horizontalBar.setBlockIncrement(width);
+	}
+
+	/**
+	 * Statička pomoćna metoda koja provjerava je li oktet UTF-8 zapisa
+	 * nastavak višeoktetnog znaka
+	 *
+	 * @param b
+	 *            oktet
+	 * @return <code>true</code> ukoliko je oktet nastavak znaka,
+	 *         <code>false</code> inače
+	 */
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Statička pomoćna metoda koja dohvaća broj znakova tipa
+	 * <code>char</code> koje zauzima UTF-8 znak čiji je prvi oktet <b>b</b>
+	 *
+	 * @param b
+	 *            oktet
+	 * @return 0 za nastavak znaka, 2 za znakove izvan osnovne ravnine, 1 inače
+	 */
+	private static int charsOf(byte b) {
+		if (isContinuation(b)) {
+			return 0;
+		}
+		return (b & 0xF8) == 0xF0 ? 2 : 1;
+	}
+
+	/**
+	 * Privatni razred koji nasljeđuje razred {@link JComponent}, a koji
+	 * iscrtava vidljive retke prikaza i pokazivač. Razred ujedno računa
+	 * položaje tabulatora
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class ViewerCanvas extends JComponent implements TabExpander {
+
+		/** Konstanta koja se koristi prilikom serijalizacije objekata */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Konstruktor koji namješta pismo i boje kao kod komponente za
+		 * uređivanje teksta
+		 */
+		public ViewerCanvas() {
+			Font font = UIManager.getFont("TextArea.font");
+			setFont(font == null ? new Font(Font.MONOSPACED, Font.PLAIN, 12) : font);
+			setBackground(UIManager.getColor("TextArea.background"));
+			setForeground(UIManager.getColor("TextArea.foreground"));
+			setOpaque(true);
+			setFocusable(true);
+			setPreferredSize(new Dimension(400, 300));
+		}
+
+		/**
+		 * Metoda koja dohvaća broj redaka prikaza koji su u potpunosti
+		 * vidljivi
+		 *
+		 * @return broj vidljivih redaka prikaza
+		 */
+		public int getRowCount() {
+			return getHeight() / getFontMetrics(getFont()).getHeight();
+		}
+
+		/**
+		 * Metoda koja dohvaća širinu jednog znaka
+		 *
+		 * @return širinu znaka
+		 */
+		public int getCharWidth() {
+			return getFontMetrics(getFont()).charWidth('m');
+		}
+
+		@Override
+		public float nextTabStop(float x, int tabOffset) {
+			int tabWidth = TAB_SIZE * getCharWidth();
+			int base = -horizontalBar.getValue();
+			if (tabWidth == 0) {
+				return x;
+			}
+			return base + ((int) (x - base) / tabWidth + 1) * tabWidth;
+		}
+
+		/**
+		 * Metoda koja računa poziciju u datoteci koja odgovara točki
+		 * (<b>x</b>, <b>y</b>) prikaza
+		 *
+		 * @param x
+		 *            x koordinata
+		 * @param y
+		 *            y koordinata
+		 * @return pozicija u datoteci
+		 */
+		public long offsetAt(int x, int y) {
+			FontMetrics metrics = getFontMetrics(getFont());
+			long row = top;
+			for (int i = 0; i < y / metrics.getHeight(); i++) {
+				long next = nextRowStart(row);
+				if (next < 0) {
+					break;
+				}
+				row = next;
+			}
+
+			decodeRow(row, textEnd(row));
+			int column = Utilities.getTabbedTextOffset(rowText, metrics, -horizontalBar.getValue(), x, this, 0);
+			return offsetOfColumn(row, column);
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+			g.setFont(getFont());
+
+			FontMetrics metrics = g.getFontMetrics();
+			int height = metrics.getHeight();
+			int x0 = -horizontalBar.getValue();
+			int rows = getHeight() / height + 1;
+			long row = top;
+			int oldWidest = widest;
+			for (int i = 0, y = metrics.getAscent(); i < rows && row >= 0; i++, y += height) {
+				long end = textEnd(row);
+				decodeRow(row, end);
+				g.setColor(getForeground());
+				int x = Utilities.drawTabbedText(rowText, x0, y, g, this, 0);
+				widest = Math.max(widest, x - x0);
+
+				if (caret >= row && caret <= end && rowStartOf(caret) == row) {
+					int column = Math.min(columnOf(row, caret), rowText.count);
+					int count = rowText.count;
+					rowText.count = column;
+					int caretX = x0 + Utilities.getTabbedTextWidth(rowText, metrics, x0, this, 0);
+					rowText.count = count;
+					Color caretColor = UIManager.getColor("TextArea.caretForeground");
+					g.setColor(caretColor == null ? getForeground() : caretColor);
+					g.drawLine(caretX, y - metrics.getAscent(), caretX, y - metrics.getAscent() + height - 1);
+				}
+				row = nextRowStart(row);
+			}
+
+			if (widest != oldWidest) {
+				SwingUtilities.invokeLater(FileViewer.this::updateHorizontalBar);
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.viewer;
+
+import javax.swing.SwingWorker;
+
+/**
+ * Razred koji nasljeđuje razred {@link SwingWorker}, a koji u pozadinskoj
+ * dretvi jednim prolazom kroz datoteku mapiranu u memoriju gradi rijetki
+ * indeks redaka ({@link SparseLineIndex}). Datoteka se čita u dijelovima od
+ * po {@value #CHUNK_SIZE} okteta, a nakon svakog dijela indeks se
+ * obavještava do koje je pozicije datoteka indeksirana, pa se upiti nad već
+ * indeksiranim dijelom mogu izvoditi i prije nego što indeksiranje završi.
+ * Napredak se objavljuje kroz svojstvo <code>progress</code>.
+ *
+ * @see SparseLineIndex
+ *
+ * @author Davor Češljaš
+ */
+public class LineIndexer extends SwingWorker<Void, Void> {
+
+	/** Konstanta koja predstavlja broj okteta koji se odjednom čitaju */
+	private static final int CHUNK_SIZE = 1024 * 1024;
+
+	/** Članska varijabla koja predstavlja datoteku koja se indeksira */
+	private final MappedFile file;
+
+	/** Članska varijabla koja predstavlja indeks koji se gradi */
+	private final SparseLineIndex index;
+
+	/** Članska varijabla koja predstavlja poziciju od koje se indeksira */
+	private final long start;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda
+	 *
+	 * @param file
+	 *            datoteka koja se indeksira
+	 * @param index
+	 *            indeks koji se gradi
+	 * @param start
+	 *            pozicija početka prvog retka
+	 */
+	public LineIndexer(MappedFile file, SparseLineIndex index, long start) {
+		this.file = file;
+		this.index = index;
+		this.start = start;
+	}
+
+	@Override
+	protected Void doInBackground() throws Exception {
+		long size = file.size();
+		byte[] chunk = new byte[CHUNK_SIZE];
+		long newLines = 0;
+		long nextLine = index.nextCheckpointLine();
+		long nextOffset = index.nextCheckpointOffset();
+
+		for (long position = start; position < size && !isCancelled();) {
+			int length = (int) Math.min(CHUNK_SIZE, size - position);
+			file.read(position, chunk, 0, length);
+			for (int i = 0; i < length; i++) {
+				if (chunk[i] != '\n') {
+					continue;
+				}
+				newLines++;
+				long lineStart = position + i + 1;
+				if (newLines >= nextLine || lineStart >= nextOffset) {
+					index.add(newLines, lineStart);
+					nextLine = index.nextCheckpointLine();
+					nextOffset = index.nextCheckpointOffset();
+				}
+			}
+
+			position += length;
+			index.advance(position, newLines, position == size);
+			setProgress((int) ((position - start) * 100 / Math.max(1, size - start)));
+		}
+
+		if (start >= size) {
+			index.advance(size, 0, true);
+		}
+		return null;
+	}
+}
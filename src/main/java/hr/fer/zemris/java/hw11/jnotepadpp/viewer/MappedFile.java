@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.viewer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Razred koji predstavlja datoteku mapiranu u memoriju u regijama od po 1GB,
+ * čiji se okteti adresiraju pozicijama tipa <code>long</code>. Mapiranje ne
+ * zauzima memoriju procesa, već operacijski sustav stranice datoteke učitava
+ * tek kada im se pristupi, pa je zauzeće memorije neovisno o veličini
+ * datoteke.
+ *
+ * <p>
+ * Okteti se čitaju apsolutnim pozicijama pa se pozicije regija ne mijenjaju i
+ * razred je siguran za čitanje iz više dretvi.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class MappedFile {
+
+	/**
+	 * Konstanta koja predstavlja broj bitova pomaka kojim se iz pozicije
+	 * okteta dobiva redni broj mapirane regije
+	 */
+	private static final int REGION_SHIFT = 30;
+
+	/** Konstanta koja predstavlja masku za poziciju unutar jedne regije */
+	private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+	/** Članska varijabla koja predstavlja mapirane regije datoteke */
+	private final MappedByteBuffer[] regions;
+
+	/** Članska varijabla koja predstavlja veličinu datoteke u oktetima */
+	private final long size;
+
+	/**
+	 * Konstruktor koji mapira datoteku <b>filePath</b> u memoriju
+	 *
+	 * @param filePath
+	 *            putanja do datoteke
+	 * @throws IOException
+	 *             ukoliko datoteku nije moguće mapirati
+	 */
+	public MappedFile(Path filePath) throws IOException {
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			size = channel.size();
+			int regionCount = (int) ((size + REGION_MASK) >>> REGION_SHIFT);
+			regions = new MappedByteBuffer[regionCount];
+			for (int i = 0; i < regionCount; i++) {
+				long start = (long) i << REGION_SHIFT;
+				regions[i] = channel.map(MapMode.READ_ONLY, start, Math.min(REGION_MASK + 1, size - start));
+			}
+		}
+	}
+
+	/**
+	 * Metoda koja dohvaća veličinu datoteke u oktetima
+	 *
+	 * @return veličinu datoteke u oktetima
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Metoda koja dohvaća oktet na poziciji <b>position</b>
+	 *
+	 * @param position
+	 *            pozicija okteta
+	 * @return oktet na zadanoj poziciji
+	 */
+	public byte get(long position) {
+		return regions[(int) (position >>> REGION_SHIFT)].get((int) (position & REGION_MASK));
+	}
+
+	/**
+	 * Metoda koja čita <b>length</b> okteta od pozicije <b>position</b> u polje
+	 * <b>dst</b> počevši od pozicije <b>offset</b>. Metoda ispravno čita i
+	 * preko granica regija
+	 *
+	 * @param position
+	 *            pozicija prvog okteta
+	 * @param dst
+	 *            polje u koje se okteti kopiraju
+	 * @param offset
+	 *            pozicija u polju <b>dst</b>
+	 * @param length
+	 *            broj okteta koji se kopiraju
+	 */
+	public void read(long position, byte[] dst, int offset, int length) {
+		while (length > 0) {
+			ByteBuffer region = regions[(int) (position >>> REGION_SHIFT)].duplicate();
+			region.position((int) (position & REGION_MASK));
+			int n = Math.min(length, region.remaining());
+			region.get(dst, offset, n);
+
+			position += n;
+			offset += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Metoda koja traži prvu pojavu okteta <b>b</b> između pozicija
+	 * <b>from</b> (uključivo) i <b>to</b> (isključivo)
+	 *
+	 * @param b
+	 *            oktet koji se traži
+	 * @param from
+	 *            pozicija od koje se traži
+	 * @param to
+	 *            granica pretraživanja
+	 * @return poziciju okteta ili -1 ukoliko se oktet ne pojavljuje
+	 */
+	public long indexOf(byte b, long from, long to) {
+		for (long i = Math.max(0, from), end = Math.min(to, size); i < end; i++) {
+			if (get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Metoda koja traži posljednju pojavu okteta <b>b</b> između pozicija
+	 * <b>from</b> (uključivo) i <b>to</b> (isključivo)
+	 *
+	 * @param b
+	 *            oktet koji se traži
+	 * @param from
+	 *            donja granica pretraživanja
+	 * @param to
+	 *            pozicija ispred koje se traži
+	 * @return poziciju okteta ili -1 ukoliko se oktet ne pojavljuje
+	 */
+	public long lastIndexOf(byte b, long from, long to) {
+		for (long i = Math.min(to, size) - 1, start = Math.max(0, from); i >= start; i--) {
+			if (get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Metoda koja broji pojave okteta <b>b</b> između pozicija <b>from</b>
+	 * (uključivo) i <b>to</b> (isključivo)
+	 *
+	 * @param b
+	 *            oktet koji se broji
+	 * @param from
+	 *            početak raspona
+	 * @param to
+	 *            kraj raspona
+	 * @return broj pojava okteta
+	 */
+	public long count(byte b, long from, long to) {
+		long count = 0;
+		for (long i = Math.max(0, from), end = Math.min(to, size); i < end; i++) {
+			if (get(i) == b) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,292 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.viewer;
+
+/**
+ * Razred koji predstavlja rijetki indeks redaka datoteke mapirane u memoriju
+ * ({@link MappedFile}). Indeks ne pamti početak svakog retka, već samo
+ * kontrolne točke (redak i pozicija njegovog početka) razmaknute barem za
+ * određeni broj redaka ili okteta. Kada se popuni polje od
+ * {@value #CAPACITY} točaka, zadržava se svaka druga točka, a razmaci se
+ * udvostručuju, pa je zauzeće memorije neovisno o veličini datoteke, a
+ * razmak između točaka ostaje razmjeran veličini datoteke podijeljenoj s
+ * kapacitetom.
+ *
+ * <p>
+ * Redak neke pozicije (i obrnuto) računa se od najbliže poznate točke,
+ * brojanjem znakova novog retka u mapiranoj datoteci. Osim kontrolnih
+ * točaka indeks pamti i jednu točku koju postavlja pogled
+ * ({@link #refine(long, long)}), npr. početak prvog vidljivog retka, pa su
+ * upiti u blizini prikazanog dijela datoteke brzi neovisno o razmaku
+ * kontrolnih točaka.
+ * </p>
+ *
+ * <p>
+ * Indeks gradi pozadinska dretva ({@link LineIndexer}) od početka datoteke
+ * prema kraju, a upiti koji se odnose na još neindeksirani dio datoteke
+ * vraćaju -1. Sve metode su sinkronizirane, a datoteka se pretražuje izvan
+ * zaključavanja.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class SparseLineIndex {
+
+	/** Konstanta koja predstavlja najveći broj kontrolnih točaka */
+	private static final int CAPACITY = 64 * 1024;
+
+	/** Konstanta koja predstavlja početni najmanji razmak točaka u retcima */
+	private static final long INITIAL_LINE_STRIDE = 256;
+
+	/** Konstanta koja predstavlja početni najmanji razmak točaka u oktetima */
+	private static final long INITIAL_BYTE_STRIDE = 64 * 1024;
+
+	/** Konstanta koja predstavlja oktet znaka novog retka */
+	private static final byte NEW_LINE = '\n';
+
+	/** Članska varijabla koja predstavlja datoteku koja se indeksira */
+	private final MappedFile file;
+
+	/** Članska varijabla koja predstavlja pozicije kontrolnih točaka */
+	private final long[] offsets = new long[CAPACITY];
+
+	/** Članska varijabla koja predstavlja retke kontrolnih točaka */
+	private final long[] lines = new long[CAPACITY];
+
+	/** Članska varijabla koja predstavlja broj kontrolnih točaka */
+	private int count = 1;
+
+	/** Članska varijabla koja predstavlja najmanji razmak točaka u retcima */
+	private long lineStride = INITIAL_LINE_STRIDE;
+
+	/** Članska varijabla koja predstavlja najmanji razmak točaka u oktetima */
+	private long byteStride = INITIAL_BYTE_STRIDE;
+
+	/** Članska varijabla koja predstavlja poziciju do koje je datoteka indeksirana */
+	private long indexedBytes;
+
+	/** Članska varijabla koja predstavlja broj znakova novog retka do te pozicije */
+	private long indexedLines;
+
+	/** Članska varijabla koja ukazuje na to je li cijela datoteka indeksirana */
+	private boolean complete;
+
+	/** Članska varijabla koja predstavlja redak točke koju je postavio pogled ili -1 */
+	private long anchorLine = -1;
+
+	/** Članska varijabla koja predstavlja poziciju točke koju je postavio pogled */
+	private long anchorOffset;
+
+	/**
+	 * Konstruktor koji inicijalizira prazan indeks datoteke <b>file</b> čiji
+	 * prvi redak počinje na poziciji <b>start</b>
+	 *
+	 * @param file
+	 *            datoteka koja se indeksira
+	 * @param start
+	 *            pozicija početka prvog retka (iza oznake redoslijeda okteta)
+	 */
+	public SparseLineIndex(MappedFile file, long start) {
+		this.file = file;
+		offsets[0] = start;
+		indexedBytes = start;
+	}
+
+	/**
+	 * Metoda koja dohvaća redak od kojeg se dodaje sljedeća kontrolna točka
+	 *
+	 * @return redak od kojeg se dodaje sljedeća kontrolna točka
+	 */
+	public synchronized long nextCheckpointLine() {
+		return lines[count - 1] + lineStride;
+	}
+
+	/**
+	 * Metoda koja dohvaća poziciju od koje se dodaje sljedeća kontrolna točka
+	 *
+	 * @return pozicija od koje se dodaje sljedeća kontrolna točka
+	 */
+	public synchronized long nextCheckpointOffset() {
+		return offsets[count - 1] + byteStride;
+	}
+
+	/**
+	 * Metoda koja dodaje kontrolnu točku na kraj indeksa. Ukoliko je indeks
+	 * pun, zadržava se svaka druga točka, a razmaci se udvostručuju
+	 *
+	 * @param line
+	 *            redak točke
+	 * @param offset
+	 *            pozicija početka retka
+	 */
+	public synchronized void add(long line, long offset) {
+		if (count == CAPACITY) {
+			for (int i = 2; i < count; i += 2) {
+				offsets[i / 2] = offsets[i];
+				lines[i / 2] = lines[i];
+			}
+			count = (count + 1) / 2;
+			lineStride *= 2;
+			byteStride *= 2;
+		}
+		offsets[count] = offset;
+		lines[count] = line;
+		count++;
+	}
+
+	/**
+	 * Metoda koja bilježi da je datoteka indeksirana do pozicije
+	 * <b>position</b>
+	 *
+	 * @param position
+	 *            pozicija do koje je datoteka indeksirana
+	 * @param newLines
+	 *            broj znakova novog retka ispred te pozicije
+	 * @param complete
+	 *            zastavica koja ukazuje na to je li indeksirana cijela
+	 *            datoteka
+	 */
+	public synchronized void advance(long position, long newLines, boolean complete) {
+		indexedBytes = position;
+		indexedLines = newLines;
+		this.complete = complete;
+	}
+
+	/**
+	 * Metoda koja dohvaća zastavicu koja ukazuje na to je li indeksirana
+	 * cijela datoteka
+	 *
+	 * @return <code>true</code> ukoliko je indeksirana cijela datoteka,
+	 *         <code>false</code> inače
+	 */
+	public synchronized boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Metoda koja dohvaća broj do sada poznatih redaka. Kada je indeksirana
+	 * cijela datoteka, to je broj redaka datoteke
+	 *
+	 * @return broj do sada poznatih redaka
+	 */
+	public synchronized long getKnownLines() {
+		return indexedLines + 1;
+	}
+
+	/**
+	 * Metoda koja pamti točan redak pozicije <b>offset</b>, kako bi se upiti
+	 * u njezinoj blizini brzo izračunali. Pamti se samo posljednja točka
+	 *
+	 * @param line
+	 *            redak
+	 * @param offset
+	 *            pozicija početka retka
+	 */
+	public synchronized void refine(long line, long offset) {
+		anchorLine = line;
+		anchorOffset = offset;
+	}
+
+	/**
+	 * Metoda koja računa redak (od nule) koji sadrži poziciju <b>offset</b>
+	 *
+	 * @param offset
+	 *            pozicija u datoteci
+	 * @return redak pozicije ili -1 ukoliko pozicija još nije indeksirana
+	 */
+	public long lineOfOffset(long offset) {
+		long baseLine;
+		long baseOffset;
+		long anchor;
+		long anchorAt;
+		synchronized (this) {
+			if (!complete && offset > indexedBytes) {
+				return -1;
+			}
+			int i = floor(offsets, offset);
+			baseLine = lines[i];
+			baseOffset = offsets[i];
+			anchor = anchorLine;
+			anchorAt = anchorOffset;
+		}
+
+		if (anchor >= 0 && Math.abs(offset - anchorAt) < offset - baseOffset) {
+			return anchorAt <= offset ? anchor + file.count(NEW_LINE, anchorAt, offset)
+					: anchor - file.count(NEW_LINE, offset, anchorAt);
+		}
+		return baseLine + file.count(NEW_LINE, baseOffset, offset);
+	}
+
+	/**
+	 * Metoda koja računa poziciju početka retka <b>line</b> (od nule)
+	 *
+	 * @param line
+	 *            redak
+	 * @return pozicija početka retka ili -1 ukoliko redak još nije indeksiran
+	 *         ili ne postoji
+	 */
+	public long offsetOfLine(long line) {
+		long baseLine;
+		long baseOffset;
+		long anchor;
+		long anchorAt;
+		synchronized (this) {
+			if (line < 0 || line > indexedLines) {
+				return -1;
+			}
+			int i = floor(lines, line);
+			baseLine = lines[i];
+			baseOffset = offsets[i];
+			anchor = anchorLine;
+			anchorAt = anchorOffset;
+		}
+
+		if (anchor > line && anchor - line < line - baseLine) {
+			// početak retka je iza znaka novog retka koji završava prethodni redak
+			long position = anchorAt;
+			for (long i = anchor; i >= line; i--) {
+				position = file.lastIndexOf(NEW_LINE, baseOffset, position);
+				if (position < 0) {
+					return baseOffset;
+				}
+			}
+			return position + 1;
+		}
+		if (anchor >= 0 && anchor <= line && anchor > baseLine) {
+			baseLine = anchor;
+			baseOffset = anchorAt;
+		}
+
+		long position = baseOffset;
+		for (long i = baseLine; i < line; i++) {
+			position = file.indexOf(NEW_LINE, position, file.size()) + 1;
+			if (position == 0) {
+				return -1;
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Pomoćna metoda koja binarnim pretraživanjem pronalazi posljednju
+	 * kontrolnu točku čija vrijednost u polju <b>values</b> nije veća od
+	 * <b>value</b>
+	 *
+	 * @param values
+	 *            pozicije ili retci kontrolnih točaka
+	 * @param value
+	 *            tražena vrijednost
+	 * @return indeks kontrolne točke
+	 */
+	private int floor(long[] values, long value) {
+		int lo = 0;
+		int hi = count - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (values[mid] <= value) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+}
@@ -0,0 +1,112 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GapContent;
+import javax.swing.text.Position;
+
+import org.junit.Test;
+
+/**
+ * Razred koji testira razred {@link MarkVector} usporedbom s pozicijama
+ * razreda {@link GapContent}
+ *
+ * @author Davor Češljaš
+ */
+public class MarkVectorTest {
+
+	@Test
+	public void insertAtZeroDoesNotMovePositionZero() {
+		MarkVector marks = new MarkVector();
+		Position zero = marks.createPosition(0);
+
+		marks.insertUpdate(0, 5);
+
+		assertEquals(0, zero.getOffset());
+	}
+
+	@Test
+	public void insertMovesPositionsAtInsertionPoint() {
+		MarkVector marks = new MarkVector();
+		marks.insertUpdate(0, 10);
+		Position before = marks.createPosition(3);
+		Position at = marks.createPosition(4);
+		Position after = marks.createPosition(8);
+
+		marks.insertUpdate(4, 2);
+
+		assertEquals(3, before.getOffset());
+		assertEquals(6, at.getOffset());
+		assertEquals(10, after.getOffset());
+	}
+
+	@Test
+	public void removeCollapsesPositionsToRangeStart() {
+		MarkVector marks = new MarkVector();
+		marks.insertUpdate(0, 10);
+		Position inside = marks.createPosition(5);
+		Position end = marks.createPosition(7);
+		Position after = marks.createPosition(9);
+
+		marks.removeUpdate(3, 4);
+
+		assertEquals(3, inside.getOffset());
+		assertEquals(3, end.getOffset());
+		assertEquals(5, after.getOffset());
+	}
+
+	@Test
+	public void restoreReturnsCollapsedPositions() {
+		MarkVector marks = new MarkVector();
+		marks.insertUpdate(0, 10);
+		Position start = marks.createPosition(3);
+		Position inside = marks.createPosition(5);
+		Position end = marks.createPosition(7);
+		Position after = marks.createPosition(9);
+
+		MarkVector.Collapsed collapsed = marks.removeUpdate(3, 4);
+		marks.insertUpdate(3, 4);
+		marks.restore(collapsed, 3, 4);
+
+		assertEquals(3, start.getOffset());
+		assertEquals(5, inside.getOffset());
+		assertEquals(7, end.getOffset());
+		assertEquals(9, after.getOffset());
+	}
+
+	@Test
+	public void manyPositionsMatchGapContent() throws BadLocationException {
+		Random random = new Random(17);
+		MarkVector marks = new MarkVector();
+		GapContent gap = new GapContent();
+		Position[][] positions = new Position[400][];
+		int created = 0;
+
+		for (int step = 0; step < 4000; step++) {
+			int size = gap.length() - 1;
+			if (size > 0 && random.nextInt(3) == 0) {
+				int where = random.nextInt(size);
+				int length = 1 + random.nextInt(Math.min(size - where, 30));
+				marks.removeUpdate(where, length);
+				gap.remove(where, length);
+			} else {
+				int where = random.nextInt(size + 1);
+				int length = 1 + random.nextInt(30);
+				marks.insertUpdate(where, length);
+				gap.insertString(where, new String(new char[length]));
+			}
+
+			if (step % 10 == 0) {
+				int offset = random.nextInt(gap.length());
+				positions[created++] = new Position[] { marks.createPosition(offset), gap.createPosition(offset) };
+			}
+			for (int i = 0; i < created; i++) {
+				assertEquals("position " + i + " after step " + step, positions[i][1].getOffset(),
+						positions[i][0].getOffset());
+			}
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import java.util.Random;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GapContent;
+
+import org.junit.Test;
+
+/**
+ * Razred koji uspoređuje brzinu izmjena sadržaja razreda
+ * {@link PieceTableContent} i razreda {@link GapContent}. Za svaku veličinu
+ * dokumenta mjere se tri scenarija:
+ * <ul>
+ * <li>tipkanje - uzastopno umetanje pojedinačnih znakova uz povremeni skok
+ * pokazivača na drugo mjesto u dokumentu</li>
+ * <li>zamjena blokova - uklanjanje i umetanje velikih blokova teksta</li>
+ * <li>nasumične izmjene - kratka umetanja i uklanjanja na nasumičnim
+ * pozicijama</li>
+ * </ul>
+ * Veličine dokumenata (u milijunima znakova) predaju se svojstvom sustava
+ * {@value #SIZES_PROPERTY} kao popis odvojen zarezima, a ukoliko nije
+ * zadano koriste se 1, 100 i 1024.
+ * Sadržaj razreda {@link PieceTableContent} stvara se nad izvorom čiji se
+ * znakovi računaju iz pozicije, kao što bi se čitali iz datoteke mapirane u
+ * memoriju, dok se sadržaj razreda {@link GapContent} mora cijeli napuniti.
+ * Ukoliko za sadržaj razreda {@link GapContent} nema dovoljno memorije,
+ * njegovo mjerenje se preskače.
+ *
+ * <p>
+ * Mjerenje traje dugo i treba puno memorije, pa ga Maven ne pokreće uz
+ * ostale testove, već samo kada se izričito zatraži, npr.
+ * <code>mvn test -Dtest=PieceTableBenchmark -Dbenchmark.sizes=1,100</code>.
+ * </p>
+ *
+ * @author Davor Češljaš
+ */
+public class PieceTableBenchmark {
+
+	/**
+	 * Konstanta koja predstavlja ime svojstva sustava kojim se zadaju veličine
+	 * dokumenata
+	 */
+	private static final String SIZES_PROPERTY = "benchmark.sizes";
+
+	/** Konstanta koja predstavlja broj znakova u jednom milijunu znakova */
+	private static final int MEGA = 1 << 20;
+
+	/** Konstanta koja predstavlja broj izmjena u scenariju tipkanja */
+	private static final int TYPING_EDITS = 200_000;
+
+	/** Konstanta koja predstavlja broj znakova nakon kojeg pokazivač skače */
+	private static final int TYPING_RUN = 500;
+
+	/** Konstanta koja predstavlja broj izmjena u scenariju zamjene blokova */
+	private static final int BULK_EDITS = 200;
+
+	/** Konstanta koja predstavlja veličinu bloka u scenariju zamjene blokova */
+	private static final int BULK_LENGTH = 256 * 1024;
+
+	/** Konstanta koja predstavlja broj izmjena u scenariju nasumičnih izmjena */
+	private static final int RANDOM_EDITS = 20_000;
+
+	/** Konstanta koja predstavlja sjeme generatora slučajnih brojeva */
+	private static final long SEED = 42;
+
+	/**
+	 * Metoda koja izvodi mjerenje za sve zadane veličine dokumenata i ispisuje
+	 * rezultate na standardni izlaz
+	 *
+	 * @throws BadLocationException
+	 *             ukoliko izmjena dokumenta ne uspije (ne bi se smjelo
+	 *             dogoditi)
+	 */
+	@Test
+	public void benchmark() throws BadLocationException {
+		String[] values = System.getProperty(SIZES_PROPERTY, "1,100,1024").split(",");
+		int[] sizes = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			sizes[i] = Integer.parseInt(values[i].trim());
+		}
+
+		// zagrijavanje JIT prevoditelja
+		runScenarios(new PieceTableContent(new PatternSource(MEGA)), MEGA);
+		runScenarios(filledGapContent(MEGA), MEGA);
+
+		System.out.printf("%-10s %-12s %12s %12s %12s%n", "size", "content", "typing[ms]", "bulk[ms]", "random[ms]");
+		for (int size : sizes) {
+			long length = (long) size * MEGA;
+			if (length >= Integer.MAX_VALUE) {
+				System.out.printf("%-10s preskočeno, dokument je prevelik%n", size + "M");
+				continue;
+			}
+
+			long[] times = runScenarios(new PieceTableContent(new PatternSource((int) length)), (int) length);
+			print(size, "PieceTable", times);
+
+			// GapContent treba dva znaka (4 okteta) po znaku zbog rasta polja
+			Runtime runtime = Runtime.getRuntime();
+			System.gc();
+			long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+			if (free < length * 5) {
+				System.out.printf("%-10s %-12s preskočeno, nedovoljno memorije%n", size + "M", "GapContent");
+				continue;
+			}
+			times = runScenarios(filledGapContent((int) length), (int) length);
+			print(size, "GapContent", times);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi sva tri scenarija nad predanim sadržajem
+	 *
+	 * @param content
+	 *            sadržaj nad kojim se izvode scenariji
+	 * @param length
+	 *            početna duljina sadržaja
+	 * @return vremena izvođenja scenarija u milisekundama
+	 * @throws BadLocationException
+	 *             ukoliko izmjena sadržaja ne uspije
+	 */
+	private static long[] runScenarios(AbstractDocument.Content content, int length)
+			throws BadLocationException {
+		Random random = new Random(SEED);
+		long[] times = new long[3];
+
+		long start = System.nanoTime();
+		int caret = length / 2;
+		for (int i = 0; i < TYPING_EDITS; i++) {
+			if (i % TYPING_RUN == 0) {
+				caret = random.nextInt(content.length());
+			}
+			content.insertString(caret++, i % 60 == 59 ? "\n" : "a");
+		}
+		times[0] = System.nanoTime() - start;
+
+		String block = new String(new char[BULK_LENGTH]).replace('\0', 'b');
+		start = System.nanoTime();
+		for (int i = 0; i < BULK_EDITS; i++) {
+			int where = random.nextInt(content.length() - BULK_LENGTH);
+			content.remove(where, BULK_LENGTH);
+			content.insertString(where, block);
+		}
+		times[1] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < RANDOM_EDITS; i++) {
+			int where = random.nextInt(content.length() - 16);
+			if (random.nextBoolean()) {
+				content.insertString(where, "random");
+			} else {
+				content.remove(where, 1 + random.nextInt(16));
+			}
+		}
+		times[2] = System.nanoTime() - start;
+
+		for (int i = 0; i < times.length; i++) {
+			times[i] /= 1_000_000;
+		}
+		return times;
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara sadržaj razreda {@link GapContent} napunjen
+	 * jednakim znakovima kao i izvor {@link PatternSource}
+	 *
+	 * @param length
+	 *            duljina sadržaja
+	 * @return napunjen sadržaj
+	 * @throws BadLocationException
+	 *             ukoliko punjenje sadržaja ne uspije
+	 */
+	private static GapContent filledGapContent(int length) throws BadLocationException {
+		GapContent content = new GapContent(length + 1);
+		PatternSource source = new PatternSource(length);
+		char[] chunk = new char[MEGA];
+		for (int offset = 0; offset < length; offset += chunk.length) {
+			int n = Math.min(chunk.length, length - offset);
+			source.getChars(offset, n, chunk, 0);
+			content.insertString(offset, new String(chunk, 0, n));
+		}
+		return content;
+	}
+
+	/**
+	 * Pomoćna metoda koja ispisuje jedan redak rezultata
+	 *
+	 * @param size
+	 *            veličina dokumenta u milijunima znakova
+	 * @param name
+	 *            naziv sadržaja
+	 * @param times
+	 *            vremena izvođenja scenarija u milisekundama
+	 */
+	private static void print(int size, String name, long[] times) {
+		System.out.printf("%-10s %-12s %12d %12d %12d%n", size + "M", name, times[0], times[1], times[2]);
+	}
+
+	/**
+	 * Privatni razred koji predstavlja nepromijenjiv izvor znakova zadane
+	 * duljine čiji se znakovi računaju iz pozicije. Svaki redak ima 80 znakova
+	 * uključujući znak novog retka, pa se i reci prebrojavaju bez
+	 * pregledavanja znakova
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class PatternSource implements ITextSource {
+
+		/** Konstanta koja predstavlja duljinu retka */
+		private static final int LINE_LENGTH = 80;
+
+		/** Članska varijabla koja predstavlja duljinu izvora */
+		private final int length;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param length
+		 *            duljina izvora
+		 */
+		public PatternSource(int length) {
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public void getChars(int offset, int length, char[] dst, int dstPos) {
+			for (int i = 0; i < length; i++) {
+				int column = (offset + i) % LINE_LENGTH;
+				dst[dstPos + i] = column == LINE_LENGTH - 1 ? '\n' : (char) ('a' + column % 26);
+			}
+		}
+
+		@Override
+		public int countLines(int offset, int length) {
+			// kao i indeks stranica mapirane datoteke, bez pregledavanja znakova
+			return (offset + length) / LINE_LENGTH - offset / LINE_LENGTH;
+		}
+
+		@Override
+		public int findLine(int offset, int length, int n) {
+			long position = (long) (offset / LINE_LENGTH + n) * LINE_LENGTH - 1;
+			return position < offset + length ? (int) position : -1;
+		}
+	}
+}
@@ -0,0 +1,341 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.GapContent;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+
+import org.junit.Test;
+
+/**
+ * Razred koji testira razred {@link PieceTableContent} usporedbom s razredom
+ * {@link GapContent}. Nad oba sadržaja izvode se jednake izmjene, a nakon
+ * svake izmjene uspoređuju se tekst, pozicije i indeks redaka
+ *
+ * @author Davor Češljaš
+ */
+public class PieceTableContentTest {
+
+	/** Konstanta koja predstavlja znakove od kojih se sastoji umetnuti tekst */
+	private static final String ALPHABET = "ab\nc";
+
+	@Test
+	public void emptyContentHasImplicitNewLine() throws BadLocationException {
+		PieceTableContent content = new PieceTableContent();
+
+		assertEquals(1, content.length());
+		assertEquals("\n", content.getString(0, 1));
+		assertEquals(1, content.getLineCount());
+	}
+
+	@Test
+	public void originalSourceIsNotCopied() throws BadLocationException {
+		char[] chars = "first\nsecond\nthird".toCharArray();
+		PieceTableContent content = new PieceTableContent(new CharArraySource(chars));
+
+		assertEquals("first\nsecond\nthird\n", content.getString(0, content.length()));
+		assertEquals(3, content.getLineCount());
+		assertEquals(6, content.getLineStartOffset(1));
+		assertEquals(2, content.getLineOfOffset(15));
+	}
+
+	@Test
+	public void randomEditsMatchGapContent() throws BadLocationException {
+		Random random = new Random(5);
+		PieceTableContent pieces = new PieceTableContent();
+		GapContent gap = new GapContent();
+		List<Position[]> positions = new ArrayList<>();
+
+		for (int step = 0; step < 3000; step++) {
+			int size = gap.length() - 1;
+			if (size > 0 && random.nextInt(3) == 0) {
+				int where = random.nextInt(size);
+				int length = 1 + random.nextInt(Math.min(size - where, 20));
+				pieces.remove(where, length);
+				gap.remove(where, length);
+			} else {
+				int where = random.nextInt(size + 1);
+				String text = randomText(random, 1 + random.nextInt(12));
+				pieces.insertString(where, text);
+				gap.insertString(where, text);
+			}
+
+			if (step % 10 == 0) {
+				int offset = random.nextInt(gap.length());
+				positions.add(new Position[] { pieces.createPosition(offset), gap.createPosition(offset) });
+			}
+			assertSameContent(gap, pieces);
+			assertSamePositions(positions, step);
+		}
+	}
+
+	@Test
+	public void lineIndexMatchesText() throws BadLocationException {
+		Random random = new Random(11);
+		PieceTableContent content = new PieceTableContent(new CharArraySource("x\ny\n\nz".toCharArray()));
+		for (int step = 0; step < 500; step++) {
+			content.insertString(random.nextInt(content.length()), randomText(random, 1 + random.nextInt(5)));
+			if (random.nextBoolean() && content.length() > 2) {
+				content.remove(random.nextInt(content.length() - 1), 1);
+			}
+		}
+
+		String text = content.getString(0, content.length());
+		int line = 0;
+		for (int offset = 0; offset < text.length(); offset++) {
+			assertEquals(line, content.getLineOfOffset(offset));
+			if (offset == 0 || text.charAt(offset - 1) == '\n') {
+				assertEquals(offset, content.getLineStartOffset(line));
+			}
+			if (text.charAt(offset) == '\n') {
+				line++;
+			}
+		}
+		assertEquals(line, content.getLineCount());
+	}
+
+	@Test
+	public void snapshotIsNotAffectedByLaterEdits() throws BadLocationException {
+		PieceTableContent content = new PieceTableContent();
+		content.insertString(0, "hello world");
+		ITextSource snapshot = content.snapshot();
+
+		content.remove(0, 6);
+		content.insertString(0, "goodbye ");
+
+		char[] chars = new char[snapshot.length()];
+		snapshot.getChars(0, chars.length, chars, 0);
+		assertEquals("hello world", new String(chars));
+		assertEquals("goodbye world\n", content.getString(0, content.length()));
+	}
+
+	@Test
+	public void partialReturnCoversWholeRange() throws BadLocationException {
+		PieceTableContent content = new PieceTableContent(new CharArraySource("0123456789".toCharArray()));
+		content.insertString(5, "abc");
+		content.insertString(0, "xy");
+
+		StringBuilder sb = new StringBuilder();
+		Segment segment = new Segment();
+		segment.setPartialReturn(true);
+		int offset = 0;
+		int length = content.length();
+		while (offset < length) {
+			content.getChars(offset, length - offset, segment);
+			sb.append(segment.array, segment.offset, segment.count);
+			offset += segment.count;
+		}
+		assertEquals("xy01234abc56789\n", sb.toString());
+	}
+
+	@Test
+	public void documentLinesMatchPlainDocument() throws BadLocationException {
+		Random random = new Random(3);
+		PieceTableDocument document = new PieceTableDocument();
+		PlainDocument expected = new PlainDocument();
+
+		for (int step = 0; step < 1000; step++) {
+			int size = expected.getLength();
+			if (size > 0 && random.nextInt(3) == 0) {
+				int where = random.nextInt(size);
+				int length = 1 + random.nextInt(Math.min(size - where, 10));
+				document.remove(where, length);
+				expected.remove(where, length);
+			} else {
+				int where = random.nextInt(size + 1);
+				String text = randomText(random, 1 + random.nextInt(8));
+				document.insertString(where, text, null);
+				expected.insertString(where, text, null);
+			}
+			assertSameLines(expected, document);
+		}
+	}
+
+	@Test
+	public void undoRemovalRestoresLineElements() throws BadLocationException {
+		PieceTableDocument document = new PieceTableDocument();
+		PlainDocument expected = new PlainDocument();
+		UndoManager documentUndo = new UndoManager();
+		UndoManager expectedUndo = new UndoManager();
+		document.addUndoableEditListener(documentUndo);
+		expected.addUndoableEditListener(expectedUndo);
+
+		document.insertString(0, "aa\nbb\ncc\ndd", null);
+		expected.insertString(0, "aa\nbb\ncc\ndd", null);
+		document.remove(1, 7);
+		expected.remove(1, 7);
+		documentUndo.undo();
+		expectedUndo.undo();
+
+		assertEquals("[0,3)[3,6)[6,9)[9,12)", describeLines(document));
+		assertSameLines(expected, document);
+	}
+
+	@Test
+	public void undoAndRedoMatchGapContent() throws BadLocationException {
+		Random random = new Random(23);
+		PieceTableContent pieces = new PieceTableContent();
+		GapContent gap = new GapContent();
+		List<Position[]> positions = new ArrayList<>();
+		List<UndoableEdit[]> done = new ArrayList<>();
+		List<UndoableEdit[]> undone = new ArrayList<>();
+
+		// GapContent poziciju stvorenu na mjestu uklonjenog raspona veže uz
+		// proizvoljnu od tamo sažetih pozicija, pa se pozicije stvaraju unaprijed
+		String initial = randomText(random, 300);
+		pieces.insertString(0, initial);
+		gap.insertString(0, initial);
+		for (int offset = 0; offset <= initial.length(); offset++) {
+			positions.add(new Position[] { pieces.createPosition(offset), gap.createPosition(offset) });
+		}
+
+		for (int step = 0; step < 3000; step++) {
+			int action = random.nextInt(4);
+			if (action == 0 && !done.isEmpty()) {
+				UndoableEdit[] edits = done.remove(done.size() - 1);
+				edits[0].undo();
+				edits[1].undo();
+				undone.add(edits);
+			} else if (action == 1 && !undone.isEmpty()) {
+				UndoableEdit[] edits = undone.remove(undone.size() - 1);
+				edits[0].redo();
+				edits[1].redo();
+				done.add(edits);
+			} else {
+				int size = gap.length() - 1;
+				UndoableEdit[] edits;
+				if (size > 0 && random.nextBoolean()) {
+					int where = random.nextInt(size);
+					int length = 1 + random.nextInt(Math.min(size - where, 20));
+					edits = new UndoableEdit[] { pieces.remove(where, length), gap.remove(where, length) };
+				} else {
+					int where = random.nextInt(size + 1);
+					String text = randomText(random, 1 + random.nextInt(12));
+					edits = new UndoableEdit[] { pieces.insertString(where, text), gap.insertString(where, text) };
+				}
+				done.add(edits);
+				undone.clear();
+			}
+
+			assertSameContent(gap, pieces);
+			assertSamePositions(positions, step);
+		}
+	}
+
+	@Test
+	public void segmentReplaceMatchesStringReplace() throws BadLocationException {
+		PieceTableDocument document = new PieceTableDocument();
+		PlainDocument expected = new PlainDocument();
+		UndoManager documentUndo = new UndoManager();
+		UndoManager expectedUndo = new UndoManager();
+		document.addUndoableEditListener(documentUndo);
+		expected.addUndoableEditListener(expectedUndo);
+
+		document.insertString(0, "aa\nbb\ncc", null);
+		expected.insertString(0, "aa\nbb\ncc", null);
+		char[] chars = "xxXY\nZ\nxx".toCharArray();
+		document.replace(1, 5, new Segment(chars, 2, 5));
+		expected.replace(1, 5, "XY\nZ\n", null);
+
+		assertEquals(expected.getText(0, expected.getLength()), document.getText(0, document.getLength()));
+		assertSameLines(expected, document);
+
+		documentUndo.undo();
+		documentUndo.undo();
+		expectedUndo.undo();
+		expectedUndo.undo();
+		assertEquals("aa\nbb\ncc", document.getText(0, document.getLength()));
+		assertSameLines(expected, document);
+	}
+
+	/**
+	 * Statička metoda koja provjerava imaju li dva sadržaja jednak tekst
+	 *
+	 * @param expected
+	 *            očekivani sadržaj
+	 * @param actual
+	 *            sadržaj koji se provjerava
+	 * @throws BadLocationException
+	 *             ukoliko čitanje sadržaja ne uspije
+	 */
+	static void assertSameContent(AbstractDocument.Content expected, AbstractDocument.Content actual)
+			throws BadLocationException {
+		assertEquals(expected.length(), actual.length());
+		assertEquals(expected.getString(0, expected.length()), actual.getString(0, actual.length()));
+	}
+
+	/**
+	 * Statička metoda koja provjerava imaju li parovi pozicija jednake
+	 * vrijednosti. Prva pozicija para je pozicija sadržaja koji se provjerava,
+	 * a druga pozicija sadržaja {@link GapContent}
+	 *
+	 * @param positions
+	 *            parovi pozicija
+	 * @param step
+	 *            redni broj izmjene, za poruku o pogrešci
+	 */
+	static void assertSamePositions(List<Position[]> positions, int step) {
+		for (int i = 0; i < positions.size(); i++) {
+			Position[] pair = positions.get(i);
+			assertEquals("position " + i + " after step " + step, pair[1].getOffset(), pair[0].getOffset());
+		}
+	}
+
+	/**
+	 * Statička metoda koja provjerava imaju li dva dokumenta jednake elemente
+	 * redaka
+	 *
+	 * @param expected
+	 *            očekivani dokument
+	 * @param actual
+	 *            dokument koji se provjerava
+	 */
+	static void assertSameLines(PlainDocument expected, PlainDocument actual) {
+		assertEquals(describeLines(expected), describeLines(actual));
+	}
+
+	/**
+	 * Pomoćna metoda koja opisuje elemente redaka dokumenta kao niz raspona
+	 *
+	 * @param document
+	 *            dokument čiji se reci opisuju
+	 * @return opis redaka dokumenta
+	 */
+	private static String describeLines(PlainDocument document) {
+		Element root = document.getDefaultRootElement();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < root.getElementCount(); i++) {
+			Element line = root.getElement(i);
+			sb.append('[').append(line.getStartOffset()).append(',').append(line.getEndOffset()).append(')');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Statička metoda koja stvara nasumičan tekst zadane duljine
+	 *
+	 * @param random
+	 *            generator slučajnih brojeva
+	 * @param length
+	 *            duljina teksta
+	 * @return nasumičan tekst
+	 */
+	static String randomText(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,81 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.swing.text.PlainDocument;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.MappedTextSource;
+
+/**
+ * Razred koji testira razred {@link FileLoader}
+ *
+ * @author Davor Češljaš
+ */
+public class FileLoaderTest {
+
+	/** Konstanta koja predstavlja redak datoteke s oznakom kraja retka CRLF */
+	private static final byte[] CRLF_LINE = "line\r\n".getBytes(StandardCharsets.UTF_8);
+
+	/** Konstanta koja predstavlja format datoteke iz prethodne sjednice */
+	private static final TextFormat SESSION_FORMAT = new TextFormat(StandardCharsets.UTF_8, false, "\r\n");
+
+	/** Članska varijabla koja predstavlja privremeni direktorij testa */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void mappedFileKeepsCarriageReturnsAndUsesNewLine() throws Exception {
+		Path file = writeCrlfFile(FileLoader.LARGE_FILE_THRESHOLD);
+		FileLoader loader = new FileLoader(file, new PlainDocument(), SESSION_FORMAT);
+
+		MappedTextSource source = loader.doInBackground();
+
+		assertNotNull(source);
+		assertEquals(StandardCharsets.UTF_8, loader.getFormat().getCharset());
+		assertEquals("\n", loader.getFormat().getLineSeparator());
+		char[] chars = new char[CRLF_LINE.length];
+		source.getChars(0, chars.length, chars, 0);
+		assertEquals("line\r\n", new String(chars));
+	}
+
+	@Test
+	public void readFileTakesSeparatorFromContent() throws Exception {
+		Path file = writeCrlfFile(CRLF_LINE.length * 3);
+		PlainDocument document = new PlainDocument();
+		FileLoader loader = new FileLoader(file, document,
+				new TextFormat(StandardCharsets.ISO_8859_1, false, "\n"));
+
+		assertNull(loader.doInBackground());
+		assertEquals(StandardCharsets.ISO_8859_1, loader.getFormat().getCharset());
+		assertEquals("\r\n", loader.getFormat().getLineSeparator());
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara datoteku s recima odvojenim oznakom CRLF
+	 * veličine barem <b>minSize</b> okteta
+	 *
+	 * @param minSize
+	 *            najmanja veličina datoteke u oktetima
+	 * @return putanju do stvorene datoteke
+	 * @throws Exception
+	 *             ukoliko pisanje datoteke ne uspije
+	 */
+	private Path writeCrlfFile(long minSize) throws Exception {
+		int lines = (int) ((minSize + CRLF_LINE.length - 1) / CRLF_LINE.length);
+		byte[] content = new byte[lines * CRLF_LINE.length];
+		for (int i = 0; i < lines; i++) {
+			System.arraycopy(CRLF_LINE, 0, content, i * CRLF_LINE.length, CRLF_LINE.length);
+		}
+		return Files.write(folder.newFile().toPath(), content);
+	}
+}
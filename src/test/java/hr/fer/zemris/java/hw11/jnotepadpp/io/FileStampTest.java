@@ -0,0 +1,79 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Razred koji testira razred {@link FileStamp}
+ *
+ * @author Davor Češljaš
+ */
+public class FileStampTest {
+
+	/** Članska varijabla koja predstavlja privremeni direktorij testa */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void unchangedFileReturnsPreviousStamp() throws IOException {
+		Path file = write(folder.newFile().toPath(), "abc", 1000);
+		FileStamp first = FileStamp.of(file, null);
+
+		assertSame(first, FileStamp.of(file, first));
+		assertTrue(first.sameContent(first));
+	}
+
+	@Test
+	public void sizeChangeIsContentChange() throws IOException {
+		Path file = write(folder.newFile().toPath(), "abc", 1000);
+		FileStamp first = FileStamp.of(file, null);
+		FileStamp second = FileStamp.of(write(file, "abcd", 2000), first);
+
+		assertEquals(4, second.getSize());
+		assertFalse(second.sameContent(first));
+	}
+
+	@Test
+	public void sameSizeIsComparedByContent() throws IOException {
+		Path file = write(folder.newFile().toPath(), "abc", 1000);
+		FileStamp first = FileStamp.of(file, null);
+		FileStamp changed = FileStamp.of(write(file, "abd", 2000), first);
+		FileStamp touched = FileStamp.of(write(file, "abd", 3000), changed);
+		FileStamp rewritten = FileStamp.of(write(file, "xyz", 4000), touched);
+
+		assertTrue(touched.sameContent(changed));
+		assertFalse(rewritten.sameContent(touched));
+	}
+
+	/**
+	 * Statička metoda koja zapisuje tekst u datoteku i postavlja joj vrijeme
+	 * izmjene
+	 *
+	 * @param file
+	 *            datoteka
+	 * @param text
+	 *            tekst datoteke
+	 * @param lastModified
+	 *            vrijeme izmjene u milisekundama
+	 * @return datoteku
+	 * @throws IOException
+	 *             ukoliko pisanje ne uspije
+	 */
+	private static Path write(Path file, String text, long lastModified) throws IOException {
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+		return file;
+	}
+}
@@ -0,0 +1,371 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.PieceTableDocument;
+
+/**
+ * Razred koji testira zapisivanje dnevnika nespremljenih izmjena (razred
+ * {@link JournalWriter}) i obnovu dokumenata iz njih (razred
+ * {@link JournalReplayer}). Dnevnici se pišu u privremeni direktorij, a
+ * obnavljaju se iz kopija smještenih u zasebne direktorije koje ne drži niti
+ * jedan program, kao da je program koji ih je pisao prestao raditi
+ *
+ * @author Davor Češljaš
+ */
+public class JournalTest {
+
+	/** Konstanta koja predstavlja najdulje vrijeme čekanja na zapisivanje */
+	private static final long TIMEOUT = 10_000;
+
+	/**
+	 * Konstanta koja predstavlja broj znakova zapisanih u nedovršenom zapisu,
+	 * više nego što ih zauzimaju izmjene nakon preuzimanja dnevnika
+	 */
+	private static final int TORN_LENGTH = 100;
+
+	/** Konstanta koja predstavlja putanju do datoteke dokumenata testa */
+	private static final Path FILE_PATH = Paths.get("recovered.txt");
+
+	/** Članska varijabla koja predstavlja direktorij dnevnika */
+	private static Path root;
+
+	@BeforeClass
+	public static void setUpDirectory() throws Exception {
+		root = Files.createTempDirectory("jnotepadpp-journal-test");
+		System.setProperty(JournalWriter.DIRECTORY_PROPERTY, root.toString());
+
+		// direktorij pokretanja stvara se pri prvom zapisu, prije nego što
+		// obnova promijeni direktorij dnevnika
+		EditJournal journal = journal(document(""));
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (latestJournal() == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(JournalWriter.GROUP_COMMIT_INTERVAL);
+		}
+		journal.discard();
+		assertNotNull(latestJournal());
+	}
+
+	@AfterClass
+	public static void clearProperty() {
+		System.clearProperty(JournalWriter.DIRECTORY_PROPERTY);
+	}
+
+	@Test
+	public void replayRestoresWrittenEdits() throws Exception {
+		Document document = document("first line\nsecond line\n");
+		EditJournal journal = journal(document);
+
+		document.insertString(0, "zero\n", null);
+		document.remove(5, 6);
+		document.insertString(document.getLength(), "third line", null);
+		document.remove(0, 1);
+
+		JournalReplayer.RecoveredDocument recovered = awaitReplay(text(document));
+		assertEquals(FILE_PATH, recovered.getFilePath());
+		assertTrue(recovered.isInMemory());
+		assertEquals(TextFormat.DEFAULT.getLineSeparator(), recovered.getFormat().getLineSeparator());
+		journal.discard();
+	}
+
+	@Test
+	public void tornTailIsTruncated() throws Exception {
+		Document document = document("abc");
+		EditJournal journal = journal(document);
+		document.insertString(3, "def", null);
+		String expected = text(document);
+		awaitReplay(expected);
+
+		Path copy = copyToDeadSession(latestJournal());
+		long validLength = Files.size(copy);
+		appendTornRecord(copy);
+
+		JournalReplayer.RecoveredDocument recovered = replay(copy);
+		assertNotNull(recovered);
+		assertEquals(expected, text(recovered.getDocument()));
+		assertEquals(validLength, recovered.validLength);
+		journal.discard();
+	}
+
+	@Test
+	public void adoptedJournalContinuesAppending() throws Exception {
+		Document document = document("one\ntwo\n");
+		EditJournal journal = journal(document);
+		document.insertString(4, "and a half\n", null);
+		awaitReplay(text(document));
+
+		Path copy = copyToDeadSession(latestJournal());
+		journal.discard();
+		appendTornRecord(copy);
+		JournalReplayer replayer = new JournalReplayer();
+		JournalReplayer.RecoveredDocument recovered = recover(replayer, copy);
+		assertNotNull(recovered);
+
+		Document restored = recovered.getDocument();
+		EditJournal adopted = EditJournal.adopt(recovered);
+		restored.addDocumentListener(new Recorder(adopted));
+		replayer.release();
+		restored.insertString(restored.getLength(), "three\n", null);
+		restored.remove(0, 4);
+
+		assertEquals("and a half\ntwo\nthree\n", text(restored));
+		JournalReplayer.RecoveredDocument replayed = awaitReplay(text(restored));
+		// nedovršeni zapis je odbačen, pa iza novih zapisa ništa ne ostaje
+		assertEquals(Files.size(latestJournal()), replayed.validLength);
+		adopted.discard();
+	}
+
+	/**
+	 * Statička metoda koja stvara dokument s predanim početnim tekstom
+	 *
+	 * @param text
+	 *            početni tekst
+	 * @return novi dokument
+	 * @throws BadLocationException
+	 *             ukoliko umetanje ne uspije
+	 */
+	private static Document document(String text) throws BadLocationException {
+		Document document = new PieceTableDocument();
+		document.insertString(0, text, null);
+		return document;
+	}
+
+	/**
+	 * Statička metoda koja započinje dnevnik dokumenta i prijavljuje
+	 * promatrača koji u njega bilježi izmjene
+	 *
+	 * @param document
+	 *            dokument čije se izmjene bilježe
+	 * @return novi dnevnik
+	 */
+	private static EditJournal journal(Document document) {
+		EditJournal journal = EditJournal.start(FILE_PATH, true, TextFormat.DEFAULT, document);
+		document.addDocumentListener(new Recorder(journal));
+		return journal;
+	}
+
+	/**
+	 * Statička metoda koja čeka dok obnova kopije najnovijeg dnevnika ne
+	 * vrati dokument s očekivanim tekstom
+	 *
+	 * @param expected
+	 *            očekivani tekst
+	 * @return obnovljeni dokument
+	 * @throws Exception
+	 *             ukoliko obnova ne uspije
+	 */
+	private static JournalReplayer.RecoveredDocument awaitReplay(String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		String actual = null;
+		while (System.currentTimeMillis() < deadline) {
+			Path journal = latestJournal();
+			if (journal != null) {
+				Path copy;
+				try {
+					copy = copyToDeadSession(journal);
+				} catch (NoSuchFileException e) {
+					// dnevnik prethodnog testa obrisan je u međuvremenu
+					continue;
+				}
+				JournalReplayer.RecoveredDocument recovered = replay(copy);
+				actual = recovered == null ? null : text(recovered.getDocument());
+				if (expected.equals(actual)) {
+					return recovered;
+				}
+			}
+			Thread.sleep(JournalWriter.GROUP_COMMIT_INTERVAL);
+		}
+		fail("Journal was not written in time, last replay: " + actual);
+		return null;
+	}
+
+	/**
+	 * Statička metoda koja obnavlja dokument iz predane kopije dnevnika i
+	 * odmah otpušta direktorije obnovljenih dnevnika
+	 *
+	 * @param copy
+	 *            kopija dnevnika
+	 * @return obnovljeni dokument ili <code>null</code> ukoliko kopiju nije
+	 *         moguće obnoviti
+	 * @throws Exception
+	 *             ukoliko obnova ne uspije
+	 */
+	private static JournalReplayer.RecoveredDocument replay(Path copy) throws Exception {
+		JournalReplayer replayer = new JournalReplayer();
+		try {
+			return recover(replayer, copy);
+		} finally {
+			replayer.release();
+		}
+	}
+
+	/**
+	 * Statička metoda koja obnavlja dokumente iz direktorija predane kopije
+	 * dnevnika i vraća onaj obnovljen iz same kopije. Direktoriji otpuštenih
+	 * kopija brišu se u pozadini, pa se svaka kopija obnavlja iz vlastitog
+	 * direktorija dnevnika
+	 *
+	 * @param replayer
+	 *            posao obnove
+	 * @param copy
+	 *            kopija dnevnika
+	 * @return obnovljeni dokument ili <code>null</code> ukoliko kopiju nije
+	 *         moguće obnoviti
+	 * @throws Exception
+	 *             ukoliko obnova ne uspije
+	 */
+	private static JournalReplayer.RecoveredDocument recover(JournalReplayer replayer, Path copy)
+			throws Exception {
+		List<JournalReplayer.RecoveredDocument> recovered;
+		System.setProperty(JournalWriter.DIRECTORY_PROPERTY, copy.getParent().getParent().toString());
+		try {
+			recovered = replayer.doInBackground();
+		} finally {
+			System.setProperty(JournalWriter.DIRECTORY_PROPERTY, root.toString());
+		}
+		for (JournalReplayer.RecoveredDocument document : recovered) {
+			if (document.journalPath.equals(copy)) {
+				return document;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Statička metoda koja dohvaća najnoviju datoteku dnevnika ovog
+	 * pokretanja
+	 *
+	 * @return putanju do najnovije datoteke dnevnika ili <code>null</code>
+	 *         ukoliko je nema
+	 * @throws IOException
+	 *             ukoliko čitanje direktorija ne uspije
+	 */
+	private static Path latestJournal() throws IOException {
+		Path latest = null;
+		int latestIndex = -1;
+		try (DirectoryStream<Path> directories = Files.newDirectoryStream(root)) {
+			for (Path directory : directories) {
+				if (!JournalWriter.getInstance().isOwnSession(directory)) {
+					continue;
+				}
+				try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory,
+						"*" + JournalWriter.JOURNAL_SUFFIX)) {
+					for (Path journal : journals) {
+						String name = journal.getFileName().toString();
+						int index = Integer.parseInt(name.substring(0, name.indexOf('.')));
+						if (index > latestIndex) {
+							latest = journal;
+							latestIndex = index;
+						}
+					}
+				}
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * Statička metoda koja kopira dnevnik u novi direktorij koji ne drži
+	 * niti jedan program
+	 *
+	 * @param journal
+	 *            datoteka dnevnika
+	 * @return putanju do kopije
+	 * @throws IOException
+	 *             ukoliko kopiranje ne uspije
+	 */
+	private static Path copyToDeadSession(Path journal) throws IOException {
+		Path directory = Files.createDirectory(Files.createTempDirectory("jnotepadpp-crashed").resolve("session"));
+		Files.createFile(directory.resolve(JournalWriter.LOCK_FILE));
+		return Files.copy(journal, directory.resolve(journal.getFileName()));
+	}
+
+	/**
+	 * Statička metoda koja na kraj dnevnika dodaje nedovršeni zapis umetanja,
+	 * kakav ostaje kada program prestane raditi usred pisanja
+	 *
+	 * @param journal
+	 *            datoteka dnevnika
+	 * @throws IOException
+	 *             ukoliko pisanje ne uspije
+	 */
+	private static void appendTornRecord(Path journal) throws IOException {
+		ByteBuffer torn = ByteBuffer.allocate(1 + 3 * Integer.BYTES + 2 * TORN_LENGTH);
+		torn.put(JournalWriter.INSERT).putInt(2 * Integer.BYTES + 4 * TORN_LENGTH).putInt(0).putInt(2 * TORN_LENGTH);
+		while (torn.hasRemaining()) {
+			torn.putChar('x');
+		}
+		Files.write(journal, torn.array(), StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Statička metoda koja dohvaća cijeli tekst dokumenta
+	 *
+	 * @param document
+	 *            dokument
+	 * @return tekst dokumenta
+	 * @throws BadLocationException
+	 *             ukoliko čitanje ne uspije
+	 */
+	private static String text(Document document) throws BadLocationException {
+		return document.getText(0, document.getLength());
+	}
+
+	/**
+	 * Privatni razred koji predstavlja promatrača koji izmjene dokumenta
+	 * bilježi u dnevnik
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Recorder implements DocumentListener {
+
+		/** Članska varijabla koja predstavlja dnevnik */
+		private final EditJournal journal;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda
+		 *
+		 * @param journal
+		 *            dnevnik
+		 */
+		public Recorder(EditJournal journal) {
+			this.journal = journal;
+		}
+
+		@Override
+		public void insertUpdate(DocumentEvent e) {
+			journal.record(e);
+		}
+
+		@Override
+		public void removeUpdate(DocumentEvent e) {
+			journal.record(e);
+		}
+
+		@Override
+		public void changedUpdate(DocumentEvent e) {
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.IntUnaryOperator;
+
+import javax.swing.text.Segment;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharArraySource;
+
+/**
+ * Razred koji testira razred {@link CaseConverter}
+ *
+ * @author Davor Češljaš
+ */
+public class CaseConverterTest {
+
+	@Test
+	public void convertsRangeOfSource() {
+		assertEquals("HELLO wORLD", convert("xhello World!", 1, 11, CaseConverter.INVERT));
+	}
+
+	@Test
+	public void keepsSurrogatePairsAcrossChunks() {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 3 * 1024 * 1024) {
+			sb.append("ab𐐨c");
+		}
+		String text = sb.toString();
+		assertEquals(text.toUpperCase(), convert(text, 0, text.length(), Character::toUpperCase));
+	}
+
+	@Test
+	public void mappingThatChangesLengthIsJoined() {
+		IntUnaryOperator mapping = codePoint -> codePoint == 'a' ? 0x1F600 : Character.toUpperCase(codePoint);
+		assertEquals("😀B😀", convert("aba", 0, 3, mapping));
+	}
+
+	/**
+	 * Statička metoda koja preslikava raspon predanog teksta
+	 *
+	 * @param text
+	 *            tekst
+	 * @param offset
+	 *            početak raspona
+	 * @param length
+	 *            duljina raspona
+	 * @param mapping
+	 *            funkcija koja preslikava znakove
+	 * @return preslikani raspon
+	 */
+	private static String convert(String text, int offset, int length, IntUnaryOperator mapping) {
+		Segment segment = CaseConverter.convert(new CharArraySource(text.toCharArray()), offset, length, mapping,
+				() -> false, percent -> {
+				});
+		return segment.toString();
+	}
+}
@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Razred koji testira razred {@link ExternalMergeSort} usporedbom sa
+ * sortiranjem redaka u memoriji
+ *
+ * @author Davor Češljaš
+ */
+public class ExternalMergeSortTest {
+
+	/** Konstanta koja predstavlja usporedbu redaka */
+	private static final Collator COLLATOR = Collator.getInstance(Locale.ENGLISH);
+
+	/** Konstanta koja predstavlja znakove od kojih se sastoje nasumični reci */
+	private static final String LETTERS = "aAbBcž";
+
+	@Test
+	public void lastLineIsNotTerminatedWhenInputIsNot() throws IOException {
+		assertEquals("a\nb\nc", sort("c\na\nb", 100, true, "\n"));
+	}
+
+	@Test
+	public void lastLineIsTerminatedWhenInputIs() throws IOException {
+		assertEquals("a\r\nb\r\nc\r\n", sort("c\r\na\r\nb\r\n", 100, true, "\r\n"));
+	}
+
+	@Test
+	public void emptyInputGivesEmptyOutput() throws IOException {
+		assertEquals("", sort("", 100, true, "\n"));
+	}
+
+	@Test
+	public void emptyLinesAreKept() throws IOException {
+		assertEquals("\n\na\nb\n", sort("b\n\na\n\n", 100, true, "\n"));
+		assertEquals("\n\na\nb\n", sort("b\n\na\n\n", 1, true, "\n"));
+	}
+
+	@Test
+	public void manyRunsMatchSortingInMemory() throws IOException {
+		Random random = new Random(7);
+		for (boolean terminated : new boolean[] { false, true }) {
+			for (boolean ascending : new boolean[] { false, true }) {
+				List<String> lines = new ArrayList<>();
+				for (int i = 0; i < 5000; i++) {
+					lines.add(randomLine(random));
+				}
+				String input = String.join("\n", lines) + (terminated ? "\n" : "");
+
+				lines.sort(ascending ? COLLATOR::compare : (first, second) -> COLLATOR.compare(second, first));
+				String expected = String.join("\n", lines) + (terminated ? "\n" : "");
+				assertEquals(expected, sort(input, 64, ascending, "\n"));
+			}
+		}
+	}
+
+	/**
+	 * Statička metoda koja sortira retke predanog teksta
+	 *
+	 * @param text
+	 *            tekst čiji se reci sortiraju
+	 * @param runSize
+	 *            veličina niza u znakovima
+	 * @param ascending
+	 *            zastavica koja ukazuje na to sortira li se uzlazno
+	 * @param lineSeparator
+	 *            niz znakova kojim se odvajaju zapisani reci
+	 * @return sortirani tekst
+	 * @throws IOException
+	 *             ukoliko sortiranje ne uspije
+	 */
+	private static String sort(String text, int runSize, boolean ascending, String lineSeparator)
+			throws IOException {
+		StringWriter out = new StringWriter();
+		new ExternalMergeSort(COLLATOR, ascending, runSize, () -> false, percent -> {
+		}).sort(new StringReader(text), text.length(), out, lineSeparator);
+		return out.toString();
+	}
+
+	/**
+	 * Statička metoda koja stvara nasumičan redak, uključujući i prazne retke
+	 * i retke koji se razlikuju samo veličinom slova
+	 *
+	 * @param random
+	 *            generator slučajnih brojeva
+	 * @return nasumičan redak
+	 */
+	private static String randomLine(Random random) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = random.nextInt(6); i > 0; i--) {
+			sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		}
+		return sb.toString();
+	}
+}
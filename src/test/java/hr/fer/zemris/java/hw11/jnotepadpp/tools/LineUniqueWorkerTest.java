@@ -0,0 +1,40 @@
+package hr.fer.zemris.java.hw11.jnotepadpp.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.Collator;
+import java.util.Locale;
+
+import javax.swing.text.Segment;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw11.jnotepadpp.document.CharArraySource;
+import hr.fer.zemris.java.hw11.jnotepadpp.tools.LineDeduplicator.Mode;
+
+/**
+ * Razred koji testira razred {@link LineUniqueWorker}
+ *
+ * @author Davor Češljaš
+ */
+public class LineUniqueWorkerTest {
+
+	@Test
+	public void resultIsSegmentOverRangeSizedArray() throws Exception {
+		String text = "x\nb\na\nb\nA\na\n";
+		Segment result = new LineUniqueWorker(new CharArraySource(text.toCharArray()), 2, text.length(),
+				Mode.EXACT, Collator.getInstance(Locale.ENGLISH)).doInBackground();
+
+		assertEquals("b\na\nA\n", result.toString());
+		assertEquals(text.length() - 2, result.array.length);
+	}
+
+	@Test
+	public void unterminatedRangeStaysUnterminated() throws Exception {
+		String text = "a\nA\na";
+		Segment result = new LineUniqueWorker(new CharArraySource(text.toCharArray()), 0, text.length(),
+				Mode.IGNORE_CASE, Collator.getInstance(Locale.ENGLISH)).doInBackground();
+
+		assertEquals("a", result.toString());
+	}
+}